@@ -1122,14 +1122,18 @@ DELIMITER ;
 
 
 
+drop procedure if exists getIndividualMetricTimeSeries;
+
 DELIMITER //
 CREATE PROCEDURE getIndividualMetricTimeSeries(
-in empid varchar(256)
+in empid varchar(256),
+in startdate date,
+in enddate date
 )
 BEGIN
 SELECT  i.emp_id,i.metric_id,m.metric_name,i.metric_value as score,i.calc_time FROM individual_metric_value as i 
 left join metric_master as m on m.metric_id=i.metric_id
-where FIND_IN_SET(i.emp_id,empid);
+where FIND_IN_SET(i.emp_id,empid) and (startdate is null or i.calc_time >= startdate) and (enddate is null or i.calc_time < date_add(enddate, interval 1 day));
 END //
 DELIMITER ;
 
@@ -1156,7 +1160,9 @@ DELIMITER //
 CREATE PROCEDURE getTeamMetricTimeSeries(
 in fun int,
 in pos int,
-in zon int
+in zon int,
+in startdate date,
+in enddate date
 )
 BEGIN
 select t.metric_id,m.metric_name,case when t.display_flag=1 then t.metric_value else -1 end   as score,t.calc_time from team_metric_value as t
@@ -1164,7 +1170,8 @@ left join metric_master as m on m.metric_id=t.metric_id
 where t.cube_id=(select cube_id from cube_master where 
 cube_master.Function=(select d1.dimension_val_name from dimension_value as d1 where d1.dimension_val_id=fun) and 
 cube_master.Position=(select d1.dimension_val_name from dimension_value as d1 where d1.dimension_val_id=pos) and
-cube_master.Zone=(select d1.dimension_val_name from dimension_value as d1 where d1.dimension_val_id=zon));
+cube_master.Zone=(select d1.dimension_val_name from dimension_value as d1 where d1.dimension_val_id=zon)) and 
+(startdate is null or t.calc_time >= startdate) and (enddate is null or t.calc_time < date_add(enddate, interval 1 day));
 END //
 DELIMITER ;
 
@@ -1195,12 +1202,14 @@ drop procedure if exists getDimensionMetricTimeSeries;
 
 DELIMITER //
 CREATE PROCEDURE getDimensionMetricTimeSeries(
-in dimid int
+in dimid int,
+in startdate date,
+in enddate date
 )
 BEGIN
 SELECT dm.metric_id,mm.metric_name,case when dm.display_flag=1 then dm.metric_value else -1 end as score,dm.calc_time FROM dimension_metric_value as dm left join metric_master as mm
 on dm.metric_id=mm.metric_id 
-where dm.dimension_val_id=dimid;
+where dm.dimension_val_id=dimid and (startdate is null or dm.calc_time >= startdate) and (enddate is null or dm.calc_time < date_add(enddate, interval 1 day));
 END //
 DELIMITER ;
 
@@ -1225,12 +1234,17 @@ DELIMITER ;
 
 
 
+drop procedure if exists getOrganizationMetricTimeSeries;
+
 DELIMITER //
-CREATE PROCEDURE getOrganizationMetricTimeSeries()
+CREATE PROCEDURE getOrganizationMetricTimeSeries(
+in startdate date,
+in enddate date
+)
 BEGIN
 SELECT im.metric_id,mm.metric_name,im.metric_value as score,im.calc_time FROM initiative_metric_value as im 
 left join metric_master as mm on mm.metric_id=im.metric_id
-where im.initiative_id=-1;
+where im.initiative_id=-1 and (startdate is null or im.calc_time >= startdate) and (enddate is null or im.calc_time < date_add(enddate, interval 1 day));
 END //
 DELIMITER ;
 
@@ -1397,12 +1411,14 @@ drop procedure if exists getIndividualMetricTimeSeriesForIndividual;
 
 DELIMITER //
 CREATE PROCEDURE getIndividualMetricTimeSeriesForIndividual(
-in empid varchar(256)
+in empid varchar(256),
+in startdate date,
+in enddate date
 )
 BEGIN
 SELECT  i.emp_id,i.metric_id,m.metric_name,i.metric_value as score,i.calc_time FROM individual_metric_value as i 
 left join metric_master as m on m.metric_id=i.metric_id
-where FIND_IN_SET(i.emp_id,empid) and i.metric_id in (1,2,4) ;
+where FIND_IN_SET(i.emp_id,empid) and i.metric_id in (1,2,4) and (startdate is null or i.calc_time >= startdate) and (enddate is null or i.calc_time < date_add(enddate, interval 1 day));
 END //
 DELIMITER ;
 
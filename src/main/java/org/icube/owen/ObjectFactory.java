@@ -3,10 +3,13 @@ package org.icube.owen;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 
+import org.icube.owen.helper.ConfigSnapshot;
 import org.icube.owen.helper.DatabaseConnectionHelper;
 
 public class ObjectFactory {
 
+	private static final long WARM_UP_TIMEOUT = ConfigSnapshot.get().getLong("warmup_timeout", 120000);
+
 	// TODO Ravi : What is the point of creating class objects from ObjectFactory
 	/**
 	 * Get the instance of class given in the parameter
@@ -34,13 +37,35 @@ public class ObjectFactory {
 		}
 	}
 
-	static DatabaseConnectionHelper dch;
+	static volatile DatabaseConnectionHelper dch;
 
-	static public DatabaseConnectionHelper getDBHelper() {
-		if (dch == null) {
-			dch = new DatabaseConnectionHelper();
+	/**
+	 * Creates the database helper and starts its warm up in the background, can be called at deploy time
+	 * @return the database helper, which may still be warming up
+	 */
+	static public DatabaseConnectionHelper startDBHelper() {
+		DatabaseConnectionHelper helper = dch;
+		if (helper == null) {
+			synchronized (ObjectFactory.class) {
+				helper = dch;
+				if (helper == null) {
+					helper = new DatabaseConnectionHelper();
+					helper.startWarmUp();
+					dch = helper;
+				}
+			}
 		}
-		return dch;
+		return helper;
+	}
+
+	/**
+	 * Retrieves the database helper, waiting for the warm up to finish if it is still running
+	 * @return the database helper
+	 */
+	static public DatabaseConnectionHelper getDBHelper() {
+		DatabaseConnectionHelper helper = startDBHelper();
+		helper.awaitReady(WARM_UP_TIMEOUT);
+		return helper;
 	}
 
 }
@@ -2,12 +2,12 @@ package org.icube.owen;
 
 import java.io.File;
 
-import org.apache.log4j.PropertyConfigurator;
+import org.icube.owen.helper.Log;
 
 public class TheBorg {
 
 	static {
-		PropertyConfigurator.configure("resources" + File.separator + "log4j.properties");
+		Log.configure("resources" + File.separator + "log4j.properties");
 	}
 	public OwenError errorDetails;
 }
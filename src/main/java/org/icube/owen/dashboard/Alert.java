@@ -1,18 +1,15 @@
 package org.icube.owen.dashboard;
 
-import java.sql.CallableStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
 import org.icube.owen.employee.Employee;
-import org.icube.owen.employee.EmployeeList;
 import org.icube.owen.filter.Filter;
+import org.icube.owen.helper.ColumnIndex;
 import org.icube.owen.helper.DatabaseConnectionHelper;
 import org.icube.owen.metrics.Metrics;
 
@@ -39,12 +36,12 @@ public class Alert extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
 		Alert a = null;
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall("{call getAlert(?)}")) {
-			cstmt.setInt(1, alertId);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				while (rs.next()) {
-					a = fillAlertDetails(companyId, rs);
-				}
+		try {
+			List<Alert> alertList = dch.getCompanyJdbc(companyId).queryForList("{call getAlert(?)}", cstmt -> cstmt.setInt(1, alertId),
+					AlertRowMapper::new);
+			a = alertList.isEmpty() ? null : alertList.get(alertList.size() - 1);
+			if (a != null) {
+				AlertRowMapper.fillEmployeeLists(companyId, Collections.singletonList(a));
 			}
 		}
 
@@ -55,69 +52,16 @@ public class Alert extends TheBorg {
 	}
 
 	/**
-	 * Helper method to fill alert object from database query
+	 * Helper method to fill alert object from the current row of a database query
+	 * Resolves the columns of the result set on every call, use AlertRowMapper when reading more than one row
+	 * The employee list is not filled since rs is still open, call AlertRowMapper.fillEmployeeLists once the query is complete
 	 * @param companyId - Company ID
 	 * @param rs - result from the database query
 	 * @return alert object
 	 * @throws SQLException - if the alert details are not filled in properly
 	 */
 	public Alert fillAlertDetails(int companyId, ResultSet rs) throws SQLException {
-		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		dch.refreshCompanyConnection(companyId);
-
-		String zone = "", function = "", position = "";
-		List<Filter> filterList = new ArrayList<>();
-		Alert a = new Alert();
-		a.setAlertId(rs.getInt("alert_id"));
-
-		for (int i = 1; i <= 3; i++) {
-			Filter f = new Filter();
-			f.setFilterId(rs.getInt("dimension_id_" + i));
-			f.setFilterName(rs.getString("dimension_name_" + i));
-			org.apache.log4j.Logger.getLogger(Alert.class).info("HashMap created!!!");
-			Map<Integer, String> filterValuesMap = new HashMap<>();
-			filterValuesMap.put(rs.getInt("dimension_val_id_" + i), rs.getString("dimension_val_name_" + i));
-			f.setFilterValues(filterValuesMap);
-			filterList.add(f);
-
-			if (f.getFilterName().equalsIgnoreCase("zone")) {
-				zone = f.getFilterValues().values().iterator().next();
-			} else if (f.getFilterName().equalsIgnoreCase("function")) {
-				function = f.getFilterValues().values().iterator().next();
-			} else if (f.getFilterName().equalsIgnoreCase("position")) {
-				position = f.getFilterValues().values().iterator().next();
-			}
-		}
-
-		a.setFilterList(filterList);
-		a.setAlertTeam(String.format(rs.getString("alert_team"), zone, function, position));
-		a.setAlertStatement(rs.getString("alert_statement"));
-		Metrics m = new Metrics();
-		m.setId(rs.getInt("metric_id"));
-		m.setName(rs.getString("metric_name"));
-		m.setScore(rs.getInt("score")); // score of the alert
-		m.setDateOfCalculation(rs.getDate("calc_time"));
-		m.setCategory(rs.getString("category"));
-		m.setDirection(rs.getDouble("delta_score") > 0 ? "Positive" : "Negative"); // direction of the arrow for the alert
-		a.setAlertMetric(m);
-		a.setDeltaScore(rs.getDouble("delta_score"));
-		a.setTeamSize(rs.getInt("team_size"));
-		try (CallableStatement cstmt1 = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getListOfPeopleForAlert(?)}")) {
-			cstmt1.setInt(1, rs.getInt("alert_id"));
-			try (ResultSet rs1 = cstmt1.executeQuery()) {
-				List<Integer> empIdList = new ArrayList<>();
-				while (rs1.next()) {
-					empIdList.add(rs1.getInt("emp_id"));
-				}
-				EmployeeList el = new EmployeeList();
-				a.setEmployeeList(el.get(companyId, empIdList));
-				a.setAlertStatus(rs.getString("status"));
-				a.setInitiativeTypeId(rs.getInt("init_type_id"));
-			}
-		} catch (SQLException e) {
-		}
-		return a;
+		return new AlertRowMapper(ColumnIndex.of(rs)).mapRow(rs, rs.getRow());
 	}
 
 	/**
@@ -132,13 +76,8 @@ public class Alert extends TheBorg {
 		dch.refreshCompanyConnection(companyId);
 		try {
 			org.apache.log4j.Logger.getLogger(Alert.class).debug("Calling the deleteAlert procedure");
-			try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-					"{call deleteAlert(?)}")) {
-				cstmt.setInt(1, alertId);
-				try (ResultSet rs = cstmt.executeQuery()) {
-					org.apache.log4j.Logger.getLogger(Alert.class).debug("Successfully deleted alert");
-				}
-			}
+			dch.getCompanyJdbc(companyId).callProcedure("{call deleteAlert(?)}", cstmt -> cstmt.setInt(1, alertId));
+			org.apache.log4j.Logger.getLogger(Alert.class).debug("Successfully deleted alert");
 
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(Alert.class).error("Exception while deleting alert with ID : " + alertId, e);
@@ -0,0 +1,135 @@
+package org.icube.owen.dashboard;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.icube.owen.ObjectFactory;
+import org.icube.owen.employee.EmployeeList;
+import org.icube.owen.filter.Filter;
+import org.icube.owen.helper.ColumnIndex;
+import org.icube.owen.helper.CompanyJdbc;
+import org.icube.owen.helper.DatabaseConnectionHelper;
+import org.icube.owen.metrics.Metrics;
+
+/**
+ * Maps a row of getAlert/getAlertList to an Alert object
+ * The employees of the alert are not part of the row, they are filled by fillEmployeeLists once the alert query is complete
+ */
+public class AlertRowMapper implements CompanyJdbc.RowMapper<Alert> {
+
+	private static final int DIMENSION_COUNT = 3;
+
+	private final int alertIdIndex;
+	private final int[] dimensionIdIndex = new int[DIMENSION_COUNT];
+	private final int[] dimensionNameIndex = new int[DIMENSION_COUNT];
+	private final int[] dimensionValIdIndex = new int[DIMENSION_COUNT];
+	private final int[] dimensionValNameIndex = new int[DIMENSION_COUNT];
+	private final int alertTeamIndex;
+	private final int alertStatementIndex;
+	private final int metricIdIndex;
+	private final int metricNameIndex;
+	private final int scoreIndex;
+	private final int calcTimeIndex;
+	private final int categoryIndex;
+	private final int deltaScoreIndex;
+	private final int teamSizeIndex;
+	private final int statusIndex;
+	private final int initTypeIdIndex;
+
+	/**
+	 * @param columns - columns of the result set
+	 * @throws SQLException - if a column is missing
+	 */
+	public AlertRowMapper(ColumnIndex columns) throws SQLException {
+		alertIdIndex = columns.get("alert_id");
+		for (int i = 0; i < DIMENSION_COUNT; i++) {
+			dimensionIdIndex[i] = columns.get("dimension_id_" + (i + 1));
+			dimensionNameIndex[i] = columns.get("dimension_name_" + (i + 1));
+			dimensionValIdIndex[i] = columns.get("dimension_val_id_" + (i + 1));
+			dimensionValNameIndex[i] = columns.get("dimension_val_name_" + (i + 1));
+		}
+		alertTeamIndex = columns.get("alert_team");
+		alertStatementIndex = columns.get("alert_statement");
+		metricIdIndex = columns.get("metric_id");
+		metricNameIndex = columns.get("metric_name");
+		scoreIndex = columns.get("score");
+		calcTimeIndex = columns.get("calc_time");
+		categoryIndex = columns.get("category");
+		deltaScoreIndex = columns.get("delta_score");
+		teamSizeIndex = columns.get("team_size");
+		statusIndex = columns.get("status");
+		initTypeIdIndex = columns.get("init_type_id");
+	}
+
+	@Override
+	public Alert mapRow(ResultSet rs, int rowNum) throws SQLException {
+		String zone = "", function = "", position = "";
+		List<Filter> filterList = new ArrayList<>();
+		Alert a = new Alert();
+		int alertId = rs.getInt(alertIdIndex);
+		a.setAlertId(alertId);
+
+		for (int i = 0; i < DIMENSION_COUNT; i++) {
+			Filter f = new Filter();
+			f.setFilterId(rs.getInt(dimensionIdIndex[i]));
+			f.setFilterName(rs.getString(dimensionNameIndex[i]));
+			Map<Integer, String> filterValuesMap = new HashMap<>();
+			String filterValue = rs.getString(dimensionValNameIndex[i]);
+			filterValuesMap.put(rs.getInt(dimensionValIdIndex[i]), filterValue);
+			f.setFilterValues(filterValuesMap);
+			filterList.add(f);
+
+			if (f.getFilterName().equalsIgnoreCase("zone")) {
+				zone = filterValue;
+			} else if (f.getFilterName().equalsIgnoreCase("function")) {
+				function = filterValue;
+			} else if (f.getFilterName().equalsIgnoreCase("position")) {
+				position = filterValue;
+			}
+		}
+
+		a.setFilterList(filterList);
+		a.setAlertTeam(String.format(rs.getString(alertTeamIndex), zone, function, position));
+		a.setAlertStatement(rs.getString(alertStatementIndex));
+		double deltaScore = rs.getDouble(deltaScoreIndex);
+		Metrics m = new Metrics();
+		m.setId(rs.getInt(metricIdIndex));
+		m.setName(rs.getString(metricNameIndex));
+		m.setScore(rs.getInt(scoreIndex)); // score of the alert
+		m.setDateOfCalculation(rs.getDate(calcTimeIndex));
+		m.setCategory(rs.getString(categoryIndex));
+		m.setDirection(deltaScore > 0 ? "Positive" : "Negative"); // direction of the arrow for the alert
+		a.setAlertMetric(m);
+		a.setDeltaScore(deltaScore);
+		a.setTeamSize(rs.getInt(teamSizeIndex));
+		a.setAlertStatus(rs.getString(statusIndex));
+		a.setInitiativeTypeId(rs.getInt(initTypeIdIndex));
+		return a;
+	}
+
+	/**
+	 * Fills the employee list of the alerts
+	 * Must be called after the alert query has returned, querying the employees from mapRow would borrow a second connection while
+	 * the result set of the alert query is still open
+	 * @param companyId - Company ID
+	 * @param alertList - alerts mapped by this row mapper
+	 */
+	public static void fillEmployeeLists(int companyId, List<Alert> alertList) {
+		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
+		EmployeeList el = new EmployeeList();
+		for (Alert a : alertList) {
+			try {
+				List<Integer> empIdList = dch.getCompanyJdbc(companyId).query("{call getListOfPeopleForAlert(?)}", cstmt -> cstmt.setInt(1, a
+						.getAlertId()), (rs, rowNum) -> rs.getInt("emp_id"));
+				a.setEmployeeList(el.get(companyId, empIdList));
+			} catch (SQLException e) {
+				org.apache.log4j.Logger.getLogger(AlertRowMapper.class).error(
+						"Exception while retrieving the employees for alert ID : " + a.getAlertId(), e);
+			}
+		}
+	}
+}
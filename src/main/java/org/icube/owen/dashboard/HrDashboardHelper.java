@@ -1,7 +1,5 @@
 package org.icube.owen.dashboard;
 
-import java.sql.CallableStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Date;
@@ -13,8 +11,10 @@ import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
 import org.icube.owen.filter.Filter;
 import org.icube.owen.helper.DatabaseConnectionHelper;
+import org.icube.owen.metrics.MetricTimeSeries;
 import org.icube.owen.metrics.Metrics;
 import org.icube.owen.metrics.MetricsHelper;
+import org.icube.owen.metrics.TimeSeriesWindow;
 
 public class HrDashboardHelper extends TheBorg {
 	/**
@@ -28,20 +28,19 @@ public class HrDashboardHelper extends TheBorg {
 		List<Metrics> dimensionMetricsList = new ArrayList<>();
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getDimensionMetricValueAggregate(?, ?)}")) {
+		try {
 			org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).debug(
 					"Entering getFilterMetrics using procedure getDimensionMetricValueAggregate");
 			org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).debug(
 					"Filter Value ID : " + filter.getFilterValues().keySet().iterator().next().intValue());
 			org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).debug("Filter ID : " + filter.getFilterId());
 			org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).debug("Filter Name : " + filter.getFilterName());
-			cstmt.setInt("dimvalid", filter.getFilterValues().keySet().iterator().next().intValue());
-			cstmt.setInt("dimid", filter.getFilterId());
-			try (ResultSet rs = cstmt.executeQuery()) {
-				MetricsHelper mh = new MetricsHelper();
-				dimensionMetricsList = mh.fillMetricsData(companyId, rs, null, "Team");
-			}
+			MetricsHelper mh = new MetricsHelper();
+			Map<Integer, String> metricListMap = mh.getMetricListForCategory(companyId, "Team");
+			dimensionMetricsList = dch.getCompanyJdbc(companyId).query("{call getDimensionMetricValueAggregate(?, ?)}", cstmt -> {
+				cstmt.setInt("dimvalid", filter.getFilterValues().keySet().iterator().next().intValue());
+				cstmt.setInt("dimid", filter.getFilterId());
+			}, rs -> mh.fillMetricsData(metricListMap, rs, null, "Team"));
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).error("Exception while retrieving organization level metrics", e);
 		}
@@ -59,11 +58,11 @@ public class HrDashboardHelper extends TheBorg {
 		List<Metrics> orgMetricsList = new ArrayList<>();
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getOrganizationMetricValueAggregate()}");
-				ResultSet rs = cstmt.executeQuery()) {
+		try {
 			MetricsHelper mh = new MetricsHelper();
-			orgMetricsList = mh.fillMetricsData(companyId, rs, null, "Team");
+			Map<Integer, String> metricListMap = mh.getMetricListForCategory(companyId, "Team");
+			orgMetricsList = dch.getCompanyJdbc(companyId).query("{call getOrganizationMetricValueAggregate()}", rs -> mh.fillMetricsData(
+					metricListMap, rs, null, "Team"));
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).error("Exception while retrieving organization level metrics", e);
 		}
@@ -79,21 +78,46 @@ public class HrDashboardHelper extends TheBorg {
 	 */
 
 	public Map<Integer, List<Map<Date, Integer>>> getTimeSeriesGraph(int companyId, Filter filter) {
-		org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).info("HashMap created!!!");
-		Map<Integer, List<Map<Date, Integer>>> result = new HashMap<>();
+		return MetricTimeSeries.toMapList(getDimensionTimeSeries(companyId, filter));
+	}
+
+	/**
+	 * Returns the time series of the dimension value selected in the filter as columnar time series
+	 * @param companyId - Company ID
+	 * @param filter - filter selection
+	 * @return Map of metric Id and its time series
+	 */
+	public Map<Integer, MetricTimeSeries> getDimensionTimeSeries(int companyId, Filter filter) {
+		return queryDimensionTimeSeries(companyId, filter, TimeSeriesWindow.ALL);
+	}
+
+	/**
+	 * Returns the time series of the dimension value selected in the filter within the window, aggregated into buckets
+	 * @param companyId - Company ID
+	 * @param filter - filter selection
+	 * @param window - date range, bucket size and aggregation
+	 * @return Map of metric Id and its downsampled time series
+	 */
+	public Map<Integer, MetricTimeSeries> getDimensionTimeSeries(int companyId, Filter filter, TimeSeriesWindow window) {
+		int dimensionValueId = filter.getFilterValues().keySet().iterator().next().intValue();
+		return ObjectFactory.getDBHelper().getTimeSeriesCache().downsample(companyId, "dimension-" + dimensionValueId,
+				queryDimensionTimeSeries(companyId, filter, window), window);
+	}
+
+	private Map<Integer, MetricTimeSeries> queryDimensionTimeSeries(int companyId, Filter filter, TimeSeriesWindow window) {
+		Map<Integer, MetricTimeSeries> result = new HashMap<>();
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getDimensionMetricTimeSeries(?)}")) {
+		try {
 			org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).debug(
 					"Entering getTimeSeriesGraph using procedure getDimensionMetricTimeSeries");
 
 			org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).debug(
 					"Filter Value ID : " + filter.getFilterValues().keySet().iterator().next().intValue());
-			cstmt.setInt(1, filter.getFilterValues().keySet().iterator().next().intValue());
-			try (ResultSet rs = cstmt.executeQuery();) {
-				result = getTimeSeriesMap(rs);
-			}
+			result = dch.getCompanyJdbc(companyId).query("{call getDimensionMetricTimeSeries(?, ?, ?)}", cstmt -> {
+				cstmt.setInt(1, filter.getFilterValues().keySet().iterator().next().intValue());
+				window.setDateRange(cstmt, 2);
+			}, MetricTimeSeries::fromResultSet);
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).error("Exception while retrieving metrics", e);
 		}
@@ -102,51 +126,42 @@ public class HrDashboardHelper extends TheBorg {
 	}
 
 	/**
-	 * @param rs - Resultset
-	 * @return - Map of Metric ID and list of map of calculation date and score
-	 * @throws SQLException
+	 * Returns all the details for the time series graph for Organization to be displayed on the HR dashboard
+	 * @param companyId - Company ID
+	 * @return Map of metric Id and List of map of calculation date and metric score for the time series graph
 	 */
-	private Map<Integer, List<Map<Date, Integer>>> getTimeSeriesMap(ResultSet rs) throws SQLException {
-		org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).info("HashMap created!!!");
-		Map<Integer, List<Map<Date, Integer>>> result = new HashMap<>();
 
-		while (rs.next()) {
-			if (result.containsKey(rs.getInt("metric_id"))) {
-				List<Map<Date, Integer>> metricScoreMapList = new ArrayList<>();
-				org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).info("HashMap created!!!");
-				Map<Date, Integer> metricScoreMap = new HashMap<>();
-				metricScoreMapList = result.get(rs.getInt("metric_id"));
-				metricScoreMap.put(rs.getDate("calc_time"), rs.getInt("Score"));
-				metricScoreMapList.add(metricScoreMap);
-				result.put(rs.getInt("metric_id"), metricScoreMapList);
-			} else {
-				List<Map<Date, Integer>> metricScoreMapList = new ArrayList<>();
-				org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).info("HashMap created!!!");
-				Map<Date, Integer> metricScoreMap = new HashMap<>();
-				metricScoreMap.put(rs.getDate("calc_time"), rs.getInt("Score"));
-				metricScoreMapList.add(metricScoreMap);
-				result.put(rs.getInt("metric_id"), metricScoreMapList);
-			}
-		}
-		return result;
+	public Map<Integer, List<Map<Date, Integer>>> getOrganizationTimeSeriesGraph(int companyId) {
+		return MetricTimeSeries.toMapList(getOrganizationTimeSeries(companyId));
 	}
 
 	/**
-	 * Returns all the details for the time series graph for Organization to be displayed on the HR dashboard
+	 * Returns the time series of the organization as columnar time series
 	 * @param companyId - Company ID
-	 * @return Map of metric Id and List of map of calculation date and metric score for the time series graph
+	 * @return Map of metric Id and its time series
 	 */
+	public Map<Integer, MetricTimeSeries> getOrganizationTimeSeries(int companyId) {
+		return queryOrganizationTimeSeries(companyId, TimeSeriesWindow.ALL);
+	}
 
-	public Map<Integer, List<Map<Date, Integer>>> getOrganizationTimeSeriesGraph(int companyId) {
-		org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).info("HashMap created!!!");
-		Map<Integer, List<Map<Date, Integer>>> result = new HashMap<>();
+	/**
+	 * Returns the time series of the organization within the window, aggregated into buckets
+	 * @param companyId - Company ID
+	 * @param window - date range, bucket size and aggregation
+	 * @return Map of metric Id and its downsampled time series
+	 */
+	public Map<Integer, MetricTimeSeries> getOrganizationTimeSeries(int companyId, TimeSeriesWindow window) {
+		return ObjectFactory.getDBHelper().getTimeSeriesCache().downsample(companyId, "organization", queryOrganizationTimeSeries(companyId,
+				window), window);
+	}
+
+	private Map<Integer, MetricTimeSeries> queryOrganizationTimeSeries(int companyId, TimeSeriesWindow window) {
+		Map<Integer, MetricTimeSeries> result = new HashMap<>();
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getOrganizationMetricTimeSeries()}");
-				ResultSet rs = cstmt.executeQuery()) {
-
-			result = getTimeSeriesMap(rs);
+		try {
+			result = dch.getCompanyJdbc(companyId).query("{call getOrganizationMetricTimeSeries(?, ?)}", cstmt -> window.setDateRange(cstmt, 1),
+					MetricTimeSeries::fromResultSet);
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).error("Exception while retrieving organization level metrics", e);
 		}
@@ -165,12 +180,9 @@ public class HrDashboardHelper extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
 		List<Alert> alertList = new ArrayList<>();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall("{call getAlertList()}");
-				ResultSet rs = cstmt.executeQuery()) {
-			while (rs.next()) {
-				Alert a = new Alert();
-				alertList.add(a.fillAlertDetails(companyId, rs));
-			}
+		try {
+			alertList = dch.getCompanyJdbc(companyId).queryForList("{call getAlertList()}", null, AlertRowMapper::new);
+			AlertRowMapper.fillEmployeeLists(companyId, alertList);
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(HrDashboardHelper.class).error("Exception while retrieving organization level metrics", e);
 		}
@@ -1,6 +1,5 @@
 package org.icube.owen.dashboard;
 
-import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -9,6 +8,7 @@ import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -22,22 +22,26 @@ import java.util.Random;
 import java.util.TreeMap;
 
 import javax.mail.MessagingException;
+import javax.sql.DataSource;
 
 import org.apache.commons.lang3.time.DateUtils;
 import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
 import org.icube.owen.employee.Employee;
 import org.icube.owen.employee.EmployeeList;
-import org.icube.owen.explore.ExploreHelper;
 import org.icube.owen.helper.CompanyConfig;
+import org.icube.owen.helper.CypherRegistry;
+import org.icube.owen.helper.CypherTemplate;
 import org.icube.owen.helper.DatabaseConnectionHelper;
 import org.icube.owen.helper.UtilHelper;
 import org.icube.owen.initiative.Initiative;
 import org.icube.owen.initiative.InitiativeHelper;
 import org.icube.owen.initiative.InitiativeList;
 import org.icube.owen.jobScheduler.EmailSender;
+import org.icube.owen.metrics.MetricTimeSeries;
 import org.icube.owen.metrics.Metrics;
 import org.icube.owen.metrics.MetricsHelper;
+import org.icube.owen.metrics.TimeSeriesWindow;
 import org.icube.owen.survey.Question;
 import org.rosuda.REngine.REXP;
 import org.rosuda.REngine.REXPInteger;
@@ -46,6 +50,21 @@ import org.rosuda.REngine.Rserve.RConnection;
 
 public class IndividualDashboardHelper extends TheBorg {
 
+	// active initiatives the employee is an owner of
+	private static final CypherTemplate OWNED_INITIATIVES = CypherRegistry.register("individual.ownedInitiatives",
+			"match(i:Init {Status:'Active'})<-[r:owner_of]-(e:Employee {emp_id:{empId}}) with i as ini match (o:Employee)-[:owner_of]->(i:Init)<-[r:part_of]-(a)"
+					+ " where i=ini return i.Name as Name,i.StartDate as StartDate, i.EndDate as EndDate,i.CreatedByEmpId as CreatedByEmpId, i.CreatedOn as CreationDate,"
+					+ "i.Id as Id,case i.Category when 'Individual' then collect(distinct(a.emp_id)) else collect(distinct(a.Id))  end as PartOfID,collect(distinct(a.Name))as PartOfName, "
+					+ "labels(a) as Filters,collect(distinct (o.emp_id)) as OwnersOf,i.Comment as Comments,i.Type as Type,i.Category as Category,i.Status as Status");
+	private static final CypherTemplate OWNED_INITIATIVE_FEED = CypherRegistry.register("individual.ownedInitiativeFeed",
+			"MATCH (i:Init {Status:'Active'})<-[:owner_of]-(e:Employee {emp_id:{empId}}) return i.Name as Name ,i.CreatedByEmpId as CreatedByEmpId, i.CreatedOn as CreatedOn");
+	// initiatives the employee became an owner of after the last notification
+	private static final CypherTemplate NEW_INITIATIVE_COUNT = CypherRegistry.register("individual.newInitiativeCount",
+			"MATCH (e:Employee {emp_id:{empId}})-[:owner_of]->(i:Init) where i.CreatedOn>{since} return count(i) as initiative_count");
+
+	// the 3 metrics shown on the individual dashboard i.e. Expertise, Mentorship, Influence
+	private static final List<Integer> DASHBOARD_METRIC_IDS = Arrays.asList(1, 2, 4);
+
 	String charList = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ1234567890";
 
 	/**
@@ -60,19 +79,18 @@ public class IndividualDashboardHelper extends TheBorg {
 		dch.refreshCompanyConnection(companyId);
 		MetricsHelper mh = new MetricsHelper();
 		List<Metrics> metricsList = new ArrayList<>();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getIndividualMetricValueForIndividual(?)}")) {
-
-			cstmt.setInt(1, employeeId);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				List<Metrics> initialMetricsList = mh.fillMetricsData(companyId, rs, null, "Individual");
+		try {
+			Map<Integer, String> metricListMap = mh.getMetricListForCategory(companyId, "Individual");
+			dch.getCompanyJdbc(companyId).query("{call getIndividualMetricValueForIndividual(?)}", cstmt -> cstmt.setInt(1, employeeId), rs -> {
+				List<Metrics> initialMetricsList = mh.fillMetricsData(metricListMap, rs, null, "Individual");
 				// removing 2 metrics since only 3 default ones are shown in the panel i.e. Expertise, Mentorship, Influence
 				for (Metrics m : initialMetricsList) {
-					if (m.getId() == 1 || m.getId() == 2 || m.getId() == 4) {
+					if (DASHBOARD_METRIC_IDS.contains(m.getId())) {
 						metricsList.add(m);
 					}
 				}
-			}
+				return metricsList;
+			});
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Exception while retrieving individual metrics data", e);
 		}
@@ -88,44 +106,86 @@ public class IndividualDashboardHelper extends TheBorg {
 	 */
 
 	public Map<Integer, List<Map<Date, Integer>>> getIndividualMetricsTimeSeries(int companyId, int employeeId) {
-		Map<Integer, List<Map<Date, Integer>>> metricsTimeSeriesMasterMap = getEmptyTimeSeriesMap(companyId, "Individual");
+		Map<Integer, String> metricListMap;
+		try {
+			metricListMap = new MetricsHelper().getMetricListForCategory(companyId, "Individual");
+		} catch (SQLException e) {
+			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Exception while retrieving the individual metric list", e);
+			return new HashMap<>();
+		}
+		Map<Integer, List<Map<Date, Integer>>> metricsTimeSeriesMasterMap = getEmptyTimeSeriesMap(metricListMap);
+		for (MetricTimeSeries series : queryIndividualTimeSeries(companyId, employeeId, metricListMap, TimeSeriesWindow.ALL).values()) {
+			if (series.size() > 0) {
+				metricsTimeSeriesMasterMap.put(series.getMetricId(), series.toMapList());
+			}
+		}
+		return metricsTimeSeriesMasterMap;
+	}
+
+	/**
+	 * Retrieves the time series data as columnar time series
+	 * @param companyId - company ID
+	 * @param employeeId - Employee Id of the individual who is logged in
+	 * @return map of metric ID and its time series, the metrics of the dashboard without values have an empty time series
+	 */
+	public Map<Integer, MetricTimeSeries> getIndividualTimeSeries(int companyId, int employeeId) {
+		try {
+			return queryIndividualTimeSeries(companyId, employeeId, new MetricsHelper().getMetricListForCategory(companyId, "Individual"),
+					TimeSeriesWindow.ALL);
+		} catch (SQLException e) {
+			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Exception while retrieving the individual metric list", e);
+			return new HashMap<>();
+		}
+	}
+
+	/**
+	 * Retrieves the time series data within the window, aggregated into buckets
+	 * @param companyId - company ID
+	 * @param employeeId - Employee Id of the individual who is logged in
+	 * @param window - date range, bucket size and aggregation
+	 * @return map of metric ID and its downsampled time series
+	 */
+	public Map<Integer, MetricTimeSeries> getIndividualTimeSeries(int companyId, int employeeId, TimeSeriesWindow window) {
+		try {
+			return ObjectFactory.getDBHelper().getTimeSeriesCache().downsample(companyId, "individual-" + employeeId, queryIndividualTimeSeries(
+					companyId, employeeId, new MetricsHelper().getMetricListForCategory(companyId, "Individual"), window), window);
+		} catch (SQLException e) {
+			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Exception while retrieving the individual metric list", e);
+			return new HashMap<>();
+		}
+	}
+
+	private Map<Integer, MetricTimeSeries> queryIndividualTimeSeries(int companyId, int employeeId, Map<Integer, String> metricListMap,
+			TimeSeriesWindow window) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		ExploreHelper eh = new ExploreHelper();
-		org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).info("HashMap created!!!");
-		Map<Integer, List<Map<Date, Integer>>> metricsListMap = new HashMap<>();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getIndividualMetricTimeSeriesForIndividual(?)}")) {
-			cstmt.setInt(1, employeeId);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				metricsListMap = eh.getTimeSeriesMap(rs);
-				for (int i : metricsListMap.keySet()) {
-					metricsTimeSeriesMasterMap.put(i, metricsListMap.get(i));
-				}
+		Map<Integer, MetricTimeSeries> result = new HashMap<>();
+		for (int metricId : metricListMap.keySet()) {
+			if (DASHBOARD_METRIC_IDS.contains(metricId)) {
+				result.put(metricId, MetricTimeSeries.empty(metricId));
 			}
-
+		}
+		try {
+			result.putAll(dch.getCompanyJdbc(companyId).query("{call getIndividualMetricTimeSeriesForIndividual(?, ?, ?)}", cstmt -> {
+				cstmt.setInt(1, employeeId);
+				window.setDateRange(cstmt, 2);
+			}, MetricTimeSeries::fromResultSet));
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Exception while retrieving individual metrics data", e);
 		}
-
-		return metricsTimeSeriesMasterMap;
+		return result;
 	}
 
 	/**
 	 * Retrieves an empty time series map
-	 * @param companyId - Company ID
-	 * @param category - Should be Individual
+	 * @param metricListMap - metric catalog of the Individual category
 	 * @return A map of metric Id and list of maps of date and metric score set to 0
 	 */
-	private Map<Integer, List<Map<Date, Integer>>> getEmptyTimeSeriesMap(int companyId, String category) {
-		org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).info("HashMap created!!!");
+	private Map<Integer, List<Map<Date, Integer>>> getEmptyTimeSeriesMap(Map<Integer, String> metricListMap) {
 		Map<Integer, List<Map<Date, Integer>>> metricsTimeSeriesMasterMap = new HashMap<>();
-		MetricsHelper mh = new MetricsHelper();
-		Map<Integer, String> metricListMap = mh.getMetricListForCategory(companyId, category);
 		for (int metric_id : metricListMap.keySet()) {
 			List<Map<Date, Integer>> metricsTimeSeriesList = new ArrayList<>();
-			if (metric_id == 1 || metric_id == 2 || metric_id == 4) {
-				org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).info("HashMap created!!!");
+			if (DASHBOARD_METRIC_IDS.contains(metric_id)) {
 				Map<Date, Integer> metricsTimeSeriesMap = new HashMap<>();
 				metricsTimeSeriesMap.put(Date.from(Instant.now()), 0);
 				metricsTimeSeriesList.add(metricsTimeSeriesMap);
@@ -149,16 +209,9 @@ public class IndividualDashboardHelper extends TheBorg {
 		InitiativeList il = new InitiativeList();
 		List<Initiative> initiativeList = new ArrayList<>();
 		org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Get initiative list");
-		org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).info("HashMap created!!!");
 		Map<Integer, Initiative> initiativeIdMap = new HashMap<Integer, Initiative>();
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
-			String initiativeListQuery = "match(i:Init {Status:'Active'})<-[r:owner_of]-(e:Employee {emp_id:"
-					+ employeeId
-					+ "}) with i as ini match (o:Employee)-[:owner_of]->(i:Init)<-[r:part_of]-(a)"
-					+ " where i=ini return i.Name as Name,i.StartDate as StartDate, i.EndDate as EndDate,i.CreatedByEmpId as CreatedByEmpId, i.CreatedOn as CreationDate,"
-					+ "i.Id as Id,case i.Category when 'Individual' then collect(distinct(a.emp_id)) else collect(distinct(a.Id))  end as PartOfID,collect(distinct(a.Name))as PartOfName, "
-					+ "labels(a) as Filters,collect(distinct (o.emp_id)) as OwnersOf,i.Comment as Comments,i.Type as Type,i.Category as Category,i.Status as Status;";
-			try (ResultSet res = stmt.executeQuery(initiativeListQuery)) {
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
+			OWNED_INITIATIVES.query(neoConn, Collections.singletonMap("empId", employeeId), res -> {
 				org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Executed query for retrieving initiative list");
 				while (res.next()) {
 
@@ -174,7 +227,8 @@ public class IndividualDashboardHelper extends TheBorg {
 					}
 
 				}
-			}
+				return initiativeIdMap;
+			});
 
 			for (int initiativeId : initiativeIdMap.keySet()) {
 				initiativeList.add(initiativeIdMap.get(initiativeId));
@@ -207,37 +261,35 @@ public class IndividualDashboardHelper extends TheBorg {
 		Map<Date, List<ActivityFeed>> result = new TreeMap<>(Collections.reverseOrder());
 		SimpleDateFormat parserSDF = new SimpleDateFormat(UtilHelper.dateTimeFormat);
 		org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Get ActivityFeed list");
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getAppreciationActivity(?)}")) {
-			cstmt.setInt(1, employeeId);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				while (rs.next()) {
-					org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Appreciation from database");
-					ActivityFeed af = new ActivityFeed();
-					af.setHeaderText("Appreciation received");
-					af.setBodyText("You were appreciated for " + rs.getString("metric_name"));
-					af.setActivityType("Appreciation");
-					af.setDate(parserSDF.parse(rs.getString("response_time")));
-					org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug(
-							af.getDate() + ":" + af.getActivityType() + " : " + af.getBodyText() + ":" + af.getHeaderText());
-					afList.add(af);
-				}
-			}
-			try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
-				String initiativeListQuery = "MATCH (i:Init {Status:'Active'})<-[:owner_of]-(e:Employee {emp_id:" + employeeId
-						+ "}) return i.Name as Name ,i.CreatedByEmpId as CreatedByEmpId, i.CreatedOn as CreatedOn";
-				try (ResultSet res = stmt.executeQuery(initiativeListQuery)) {
+		try {
+			afList.addAll(dch.getCompanyJdbc(companyId).query("{call getAppreciationActivity(?)}", cstmt -> cstmt.setInt(1, employeeId), (rs, rowNum) -> {
+				org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Appreciation from database");
+				ActivityFeed af = new ActivityFeed();
+				af.setHeaderText("Appreciation received");
+				af.setBodyText("You were appreciated for " + rs.getString("metric_name"));
+				af.setActivityType("Appreciation");
+				af.setDate(new Date(rs.getTimestamp("response_time").getTime()));
+				org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug(
+						af.getDate() + ":" + af.getActivityType() + " : " + af.getBodyText() + ":" + af.getHeaderText());
+				return af;
+			}));
+			try (Connection neoConn = dch.getNeoConnection(companyId)) {
+				OWNED_INITIATIVE_FEED.query(neoConn, Collections.singletonMap("empId", employeeId), res -> {
 					org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Executed query for retrieving initiative list");
 					while (res.next()) {
 						ActivityFeed af = new ActivityFeed();
 						af.setActivityType("Initiative");
 						af.setHeaderText("Initiative created");
 						af.setBodyText("You were added to the " + res.getString("Name") + " initiative");
-						af.setDate(parserSDF.parse(res.getString("CreatedOn")));
+						try {
+							af.setDate(parserSDF.parse(res.getString("CreatedOn")));
+						} catch (ParseException e) {
+							throw new SQLException("Invalid creation date of initiative " + res.getString("Name"), e);
+						}
 						afList.add(af);
 					}
-
-				}
+					return afList;
+				});
 			}
 
 			if (!afList.isEmpty()) {
@@ -277,7 +329,7 @@ public class IndividualDashboardHelper extends TheBorg {
 				}
 			}
 
-		} catch (SQLException | ParseException e) {
+		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Exception while retrieving the activity feed data", e);
 		}
 
@@ -292,16 +344,15 @@ public class IndividualDashboardHelper extends TheBorg {
 	private Map<Integer, Integer> getMetricRelationshipTypeMapping(int companyId) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).info("HashMap created!!!");
 		Map<Integer, Integer> result = new HashMap<>();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getMetricRelationshipType()}");
-				ResultSet rs = cstmt.executeQuery()) {
-
-			while (rs.next()) {
-				result.put(rs.getInt("metric_id"), rs.getInt("rel_id"));
-			}
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getMetricRelationshipType()}", rs -> {
+				while (rs.next()) {
+					result.put(rs.getInt("metric_id"), rs.getInt("rel_id"));
+				}
 
+				return result;
+			});
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Exception while retrieving metrics relationship type id data",
 					e);
@@ -324,13 +375,13 @@ public class IndividualDashboardHelper extends TheBorg {
 		List<Employee> employeeList = new ArrayList<>();
 		Map<Integer, Integer> metricRelationshipTypeMap = getMetricRelationshipTypeMapping(companyId);
 		try {
-			CompanyConfig ccObj = dch.companyConfigMap.get(companyId);
+			CompanyConfig ccObj = dch.getCompanyConfig(companyId);
 			if (ccObj.getSmartList().equals("all_employee")) {
 				EmployeeList el = new EmployeeList();
 				org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Calling getEmployeeMasterList");
 				employeeList.addAll(el.getEmployeeMasterList(companyId));
 			} else {
-				RConnection rCon = dch.getRConn();
+				RConnection rCon = dch.getRConn(companyId);
 				org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("R Connection Available : " + rCon.isConnected());
 				org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Filling up parameters for rscript function");
 				rCon.assign("company_id", new int[] { companyId });
@@ -338,7 +389,7 @@ public class IndividualDashboardHelper extends TheBorg {
 				rCon.assign("emp_id", new int[] { employeeId });
 				rCon.assign("rel_id", new int[] { metricRelationshipTypeMap.get(metricId) });
 				org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Calling the actual function in RScript SmartListResponse");
-				REXP employeeSmartList = rCon.parseAndEval("try(eval(SmartListResponse(company_id, emp_id, rel_id)))");
+				REXP employeeSmartList = dch.parseAndEval(companyId, rCon, "try(eval(SmartListResponse(company_id, emp_id, rel_id)))");
 				if (employeeSmartList.inherits("try-error")) {
 					org.apache.log4j.Logger.getLogger(Question.class).error("Error: " + employeeSmartList.asString());
 					dch.releaseRcon();
@@ -386,22 +437,21 @@ public class IndividualDashboardHelper extends TheBorg {
 		Map<Integer, Integer> metricRelationshipTypeMap = getMetricRelationshipTypeMapping(companyId);
 		try {
 			for (Employee e : appreciationResponseMap.keySet()) {
-				try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call insertAppreciation(?,?,?,?,?)}")) {
+				boolean saved = dch.getCompanyJdbc(companyId).query("{call insertAppreciation(?,?,?,?,?)}", cstmt -> {
 					cstmt.setInt(1, employeeId);
 					cstmt.setTimestamp(2, Timestamp.from(Instant.now()));
 					cstmt.setInt(3, e.getEmployeeId());
 					cstmt.setInt(4, metricRelationshipTypeMap.get(metricId));
 					cstmt.setInt(5, appreciationResponseMap.get(e));
-					try (ResultSet rs = cstmt.executeQuery();) {
-						rs.next();
-						if (rs.getString("op").equalsIgnoreCase("true")) {
-							responseSaved = true;
-							org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Successfully saved the appreciation ");
-						} else {
-							org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Error in saving the appreciation ");
-						}
-					}
+				}, rs -> {
+					rs.next();
+					return rs.getString("op").equalsIgnoreCase("true");
+				});
+				if (saved) {
+					responseSaved = true;
+					org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Successfully saved the appreciation ");
+				} else {
+					org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Error in saving the appreciation ");
 				}
 			}
 
@@ -425,23 +475,18 @@ public class IndividualDashboardHelper extends TheBorg {
 		dch.refreshCompanyConnection(companyId);
 		String emailId = null;
 		boolean passwordChanged = false;
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call updateEmployeePassword(?,?,?)}")) {
-			cstmt.setInt(1, employeeId);
-			cstmt.setString(2, currentPassword);
-			cstmt.setString(3, newPassword);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				rs.next();
-				if (rs.getBoolean(1)) {
-					passwordChanged = true;
-				} else {
-					org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Current password is incorrect");
-					cstmt.close();
-					rs.close();
-					throw new Exception("Current password is incorrect");
-				}
+		try {
+			passwordChanged = dch.getCompanyJdbc(companyId).queryForBoolean("{call updateEmployeePassword(?,?,?)}", cstmt -> {
+				cstmt.setInt(1, employeeId);
+				cstmt.setString(2, currentPassword);
+				cstmt.setString(3, newPassword);
+			});
+			if (!passwordChanged) {
+				org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Current password is incorrect");
+				throw new Exception("Current password is incorrect");
 			}
-			try (Statement stmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().createStatement();
+			try (Connection conn = dch.companyConnectionMap.get(companyId).getDataSource().getConnection();
+					Statement stmt = conn.createStatement();
 			// check if new e mails have to be sent for the specific company
 
 					ResultSet res = stmt
@@ -452,11 +497,7 @@ public class IndividualDashboardHelper extends TheBorg {
 		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Exception while validating password ", e);
 		}
-		try {
-			sendChangedPasswordMail(dch.companyConnectionMap.get(companyId).getDataSource().getConnection(), emailId, newPassword);
-		} catch (SQLException e) {
-			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Exception while sending changed password email", e);
-		}
+		sendChangedPasswordMail(dch.companyConnectionMap.get(companyId).getDataSource(), emailId, newPassword);
 		return passwordChanged;
 	}
 
@@ -479,22 +520,21 @@ public class IndividualDashboardHelper extends TheBorg {
 		// save the new password in the database
 
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		Connection companySqlCon = null;
+		DataSource companyDS = null;
 		int index = emailId.indexOf('@');
 		String companyDomain = emailId.substring(index + 1);
-		int companyId = 0;
-		try (CallableStatement cstmt = dch.masterDS.getConnection().prepareCall("{call getCompanyDb(?)}")) {
-
-			cstmt.setString(1, companyDomain);
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			int companyId = dch.getMasterJdbc().query("{call getCompanyDb(?)}", cstmt -> cstmt.setString(1, companyDomain), rs -> {
+				int compId = 0;
 				while (rs.next()) {
-					companyId = rs.getInt("comp_id");
-					dch.refreshCompanyConnection(companyId);
-					companySqlCon = dch.companyConnectionMap.get(companyId).getDataSource().getConnection();
+					compId = rs.getInt("comp_id");
 				}
-			}
+				return compId;
+			});
+			dch.refreshCompanyConnection(companyId);
+			companyDS = dch.companyConnectionMap.get(companyId).getDataSource();
 
-			try (Statement stmt = companySqlCon.createStatement()) {
+			try (Connection companySqlCon = companyDS.getConnection(); Statement stmt = companySqlCon.createStatement()) {
 				int updatePassword = stmt.executeUpdate("update login_table set password = " + '"' + randStr.toString() + '"' + " where login_id = "
 						+ '"' + emailId + '"' + "");
 				if (updatePassword == 0) {
@@ -512,23 +552,23 @@ public class IndividualDashboardHelper extends TheBorg {
 		org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Successfully updated the new password");
 
 		// send the new password to the employee
-		sendNewPasswordMail(companySqlCon, emailId, randStr.toString());
+		sendNewPasswordMail(companyDS, emailId, randStr.toString());
 
-		companySqlCon.close();
 		return passwordChanged;
 	}
 
 	/**
-	 * @param companySqlCon - Company SQL connection
+	 * @param companyDS - Company SQL data source
 	 * @param emailId - email id for which the password needs to be updated
 	 * @param randStr - the new password
 	 */
-	private void sendNewPasswordMail(Connection companySqlCon, String emailId, String newPassword) {
+	private void sendNewPasswordMail(DataSource companyDS, String emailId, String newPassword) {
 		Runnable task = new Runnable() {
 
 			@Override
 			public void run() {
-				try (Statement stm = companySqlCon.createStatement();
+				try (Connection companySqlCon = companyDS.getConnection();
+						Statement stm = companySqlCon.createStatement();
 						ResultSet res = stm.executeQuery("select employee.first_name,employee.last_name from employee left join login_table"
 								+ " on login_table.emp_id=employee.emp_id where login_table.login_id= " + '"' + emailId + '"'
 								+ " and login_table.status='active'")) {
@@ -548,16 +588,17 @@ public class IndividualDashboardHelper extends TheBorg {
 	}
 
 	/**
-	 * @param companySqlCon - Company SQL connection
+	 * @param companyDS - Company SQL data source
 	 * @param emailId - email id for which the password has been changed
 	 * @param newPassword - the new password
 	 */
-	private void sendChangedPasswordMail(Connection companySqlCon, String emailId, String newPassword) {
+	private void sendChangedPasswordMail(DataSource companyDS, String emailId, String newPassword) {
 		Runnable task = new Runnable() {
 
 			@Override
 			public void run() {
-				try (Statement stm = companySqlCon.createStatement();
+				try (Connection companySqlCon = companyDS.getConnection();
+						Statement stm = companySqlCon.createStatement();
 						ResultSet res = stm.executeQuery("select employee.first_name,employee.last_name from employee left join login_table"
 								+ " on login_table.emp_id=employee.emp_id where login_table.login_id= " + '"' + emailId + '"'
 								+ " and login_table.status='active'")) {
@@ -602,16 +643,11 @@ public class IndividualDashboardHelper extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
 		boolean timestampUpdated = false;
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call updateNotificationTime(?,?)}")) {
-			cstmt.setInt("empid", employeeId);
-			cstmt.setTimestamp("noti_time", UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
-			try (ResultSet rs = cstmt.executeQuery()) {
-				rs.next();
-				if (rs.getBoolean(1)) {
-					timestampUpdated = true;
-				}
-			}
+		try {
+			timestampUpdated = dch.getCompanyJdbc(companyId).queryForBoolean("{call updateNotificationTime(?,?)}", cstmt -> {
+				cstmt.setInt("empid", employeeId);
+				cstmt.setTimestamp("noti_time", UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
+			});
 		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Exception while updating notification timestamp", e);
 		}
@@ -629,34 +665,33 @@ public class IndividualDashboardHelper extends TheBorg {
 		dch.refreshCompanyConnection(companyId);
 		int notificationCount = 0;
 		Date lastNotificationDate = null;
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getAppreciationActivityLatestCount(?)}")) {
-
-			cstmt.setInt("empid", employeeId);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				while (rs.next()) {
-					notificationCount += rs.getInt("appreciation_count");
-					lastNotificationDate = rs.getTimestamp("last_notified");
-				}
+		try {
+			List<Map.Entry<Integer, Date>> appreciationCountList = dch.getCompanyJdbc(companyId).query(
+					"{call getAppreciationActivityLatestCount(?)}", cstmt -> cstmt.setInt("empid", employeeId),
+					(rs, rowNum) -> new AbstractMap.SimpleEntry<Integer, Date>(rs.getInt("appreciation_count"), rs.getTimestamp("last_notified")));
+			for (Map.Entry<Integer, Date> appreciationCount : appreciationCountList) {
+				notificationCount += appreciationCount.getKey();
+				lastNotificationDate = appreciationCount.getValue();
 			}
 			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug(
 					"Appreciation count for employee ID " + employeeId + " is " + notificationCount + " with last notified at "
 							+ lastNotificationDate);
 			SimpleDateFormat sdf = new SimpleDateFormat(UtilHelper.dateTimeFormat);
-			String notificationCountQuery = "MATCH (e:Employee {emp_id:" + employeeId + "})-[:owner_of]->(i:Init) where i.CreatedOn>'"
-					+ sdf.format(lastNotificationDate) + "' return count(i) as initiative_count";
-			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug(
-					"Query to get notifications count from neo4j : " + notificationCountQuery);
-			try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement();
-					ResultSet res = stmt.executeQuery(notificationCountQuery)) {
-				org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Executed query for retrieving initiative list");
-				while (res.next()) {
-
-					org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug(
-							"Initiative count for employee ID " + employeeId + " is " + res.getInt("initiative_count") + " with last notified at "
-									+ lastNotificationDate);
-					notificationCount += res.getInt("initiative_count");
-				}
+			Map<String, Object> params = new HashMap<>();
+			params.put("empId", employeeId);
+			params.put("since", sdf.format(lastNotificationDate));
+			try (Connection neoConn = dch.getNeoConnection(companyId)) {
+				int initiativeCount = NEW_INITIATIVE_COUNT.query(neoConn, params, res -> {
+					org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug("Executed query for retrieving initiative list");
+					int count = 0;
+					while (res.next()) {
+						count += res.getInt("initiative_count");
+					}
+					return count;
+				});
+				org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).debug(
+						"Initiative count for employee ID " + employeeId + " is " + initiativeCount + " with last notified at " + lastNotificationDate);
+				notificationCount += initiativeCount;
 			}
 		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(IndividualDashboardHelper.class).error("Exception while updating notification timestamp", e);
@@ -7,8 +7,6 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.sql.CallableStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -160,17 +158,14 @@ public class Employee extends TheBorg {
 		dch.refreshCompanyConnection(companyId);
 		EmployeeList el = new EmployeeList();
 		Employee e = new Employee();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getEmployeeDetails(?)}")) {
+		try {
 			org.apache.log4j.Logger.getLogger(Employee.class).debug("get method started");
-			cstmt.setInt(1, employeeId);
-			try (ResultSet res = cstmt.executeQuery()) {
-				org.apache.log4j.Logger.getLogger(Employee.class).debug("query : " + cstmt);
+			e = dch.getCompanyJdbc(companyId).query("{call getEmployeeDetails(?)}", cstmt -> cstmt.setInt(1, employeeId), res -> {
 				res.next();
-				e = el.setEmployeeDetails(companyId, res);
-				org.apache.log4j.Logger.getLogger(Employee.class).debug(
-						"Employee  : " + e.getEmployeeId() + "-" + e.getFirstName() + "-" + e.getLastName());
-			}
+				return el.setEmployeeDetails(companyId, res);
+			});
+			org.apache.log4j.Logger.getLogger(Employee.class).debug(
+					"Employee  : " + e.getEmployeeId() + "-" + e.getFirstName() + "-" + e.getLastName());
 
 		} catch (SQLException e1) {
 			org.apache.log4j.Logger.getLogger(Employee.class).error("Exception while retrieving employee object with employeeId : " + employeeId, e1);
@@ -182,19 +177,12 @@ public class Employee extends TheBorg {
 	public List<Employee> get(int companyId, List<Integer> employeeIdList) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		EmployeeList el = new EmployeeList();
 		List<Employee> empList = new ArrayList<>();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getEmployeeDetails(?)}")) {
+		try {
 			String empIdListStr = employeeIdList.toString();
 			org.apache.log4j.Logger.getLogger(Employee.class).debug("get method started");
-			cstmt.setString("empid", (empIdListStr.substring(1, empIdListStr.length() - 2)).replace(" ", ""));
-			try (ResultSet res = cstmt.executeQuery()) {
-				org.apache.log4j.Logger.getLogger(Employee.class).debug("query : " + cstmt);
-				while (res.next()) {
-					empList.add(el.setEmployeeDetails(companyId, res));
-				}
-			}
+			empList = dch.getCompanyJdbc(companyId).queryForList("{call getEmployeeDetails(?)}", cstmt -> cstmt.setString("empid", (empIdListStr
+					.substring(1, empIdListStr.length() - 2)).replace(" ", "")), columns -> new EmployeeRowMapper(companyId, columns));
 		} catch (SQLException e1) {
 			org.apache.log4j.Logger.getLogger(Employee.class).error("Exception while retrieving employee object with employeeId : " + employeeId, e1);
 
@@ -211,7 +199,7 @@ public class Employee extends TheBorg {
 	public Image getImage(int companyId, int employeeId) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		String imagePath = dch.companyConfigMap.get(companyId).getImagePath();
+		String imagePath = dch.getCompanyConfig(companyId).getImagePath();
 		Image image = null;
 
 		try {
@@ -241,7 +229,7 @@ public class Employee extends TheBorg {
 		boolean imageSaved = false;
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		String imagePath = dch.companyConfigMap.get(companyId).getImagePath();
+		String imagePath = dch.getCompanyConfig(companyId).getImagePath();
 
 		OutputStream out = null;
 		int size = 0;
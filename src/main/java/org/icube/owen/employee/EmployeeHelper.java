@@ -1,7 +1,5 @@
 package org.icube.owen.employee;
 
-import java.sql.CallableStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.Period;
@@ -30,13 +28,9 @@ public class EmployeeHelper extends TheBorg {
 	public BasicEmployeeDetails getBasicEmployeeDetails(int companyId, int employeeId) {
 		BasicEmployeeDetails bed = new BasicEmployeeDetails();
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		dch.refreshCompanyConnection(companyId);
-
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getEmployeeBasicDetails(?)}")) {
 
-			cstmt.setInt(1, employeeId);
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getEmployeeBasicDetails(?)}", cstmt -> cstmt.setInt(1, employeeId), rs -> {
 				while (rs.next()) {
 					bed.setEmployeeId(employeeId);
 					bed.setCompanyEmployeeId(rs.getString("emp_int_id"));
@@ -50,7 +44,8 @@ public class EmployeeHelper extends TheBorg {
 					bed.setLocation(rs.getString("Zone"));
 					bed.setDesignation(rs.getString("Position"));
 				}
-			}
+				return bed;
+			});
 
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).error("Exception while getting the employee basic details", e);
@@ -71,13 +66,9 @@ public class EmployeeHelper extends TheBorg {
 		List<WorkExperience> workExList = new ArrayList<>();
 
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		dch.refreshCompanyConnection(companyId);
 
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getEmployeeWorkExperience(?)}")) {
-
-			cstmt.setInt(1, employeeId);
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getEmployeeWorkExperience(?)}", cstmt -> cstmt.setInt(1, employeeId), rs -> {
 				while (rs.next()) {
 					WorkExperience workEx = new WorkExperience();
 					workEx.setEmployeeId(employeeId);
@@ -112,7 +103,8 @@ public class EmployeeHelper extends TheBorg {
 						});
 					}
 				}
-			}
+				return workExList;
+			});
 
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).error(
 					"Work ex details for emp ID : " + employeeId + " work ex size :" + workExList.size());
@@ -139,13 +131,9 @@ public class EmployeeHelper extends TheBorg {
 		List<EducationDetails> educationDetailsList = new ArrayList<>();
 
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		dch.refreshCompanyConnection(companyId);
 
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getEmployeeEducation(?)}")) {
-
-			cstmt.setInt(1, employeeId);
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getEmployeeEducation(?)}", cstmt -> cstmt.setInt(1, employeeId), rs -> {
 				while (rs.next()) {
 					EducationDetails educationDetails = new EducationDetails();
 					educationDetails.setEmployeeId(employeeId);
@@ -157,7 +145,8 @@ public class EmployeeHelper extends TheBorg {
 					educationDetails.setLocation(rs.getString("location"));
 					educationDetailsList.add(educationDetails);
 				}
-			}
+				return educationDetailsList;
+			});
 
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).error("Exception while getting the employee basic details", e);
@@ -185,13 +174,9 @@ public class EmployeeHelper extends TheBorg {
 	public List<LanguageDetails> getEmployeeLanguageDetails(int companyId, int employeeId) {
 		List<LanguageDetails> languageDetailsList = new ArrayList<>();
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		dch.refreshCompanyConnection(companyId);
 
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getEmployeeLanguage(?)}")) {
-
-			cstmt.setInt(1, employeeId);
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getEmployeeLanguage(?)}", cstmt -> cstmt.setInt(1, employeeId), rs -> {
 				while (rs.next()) {
 					LanguageDetails languageDetails = new LanguageDetails();
 					languageDetails.setEmployeeId(employeeId);
@@ -200,7 +185,8 @@ public class EmployeeHelper extends TheBorg {
 					languageDetails.setLanguageId(rs.getInt("language_id"));
 					languageDetailsList.add(languageDetails);
 				}
-			}
+				return languageDetailsList;
+			});
 
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).error("Exception while getting the employee basic details", e);
@@ -216,16 +202,15 @@ public class EmployeeHelper extends TheBorg {
 	 * @return - A map of language id and language name
 	 */
 	public Map<Integer, String> getLanguageMasterMap(int companyId) {
-		org.apache.log4j.Logger.getLogger(EmployeeHelper.class).info("HashMap created!!!");
 		Map<Integer, String> languageMasterMap = new HashMap<>();
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall("{call getLanguageList}");
-
-		ResultSet rs = cstmt.executeQuery()) {
-			while (rs.next()) {
-				languageMasterMap.put(rs.getInt("language_id"), rs.getString("language_name"));
-			}
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getLanguageList}", rs -> {
+				while (rs.next()) {
+					languageMasterMap.put(rs.getInt("language_id"), rs.getString("language_name"));
+				}
+				return languageMasterMap;
+			});
 
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).error("Exception while retrieving the language master map ", e);
@@ -244,17 +229,12 @@ public class EmployeeHelper extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
 		boolean status = false;
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call removeWorkExperience(?)}")) {
+		try {
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug("Removing work experience details with Id" + workExperienceId);
-			cstmt.setInt(1, workExperienceId);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				rs.next();
-				if (rs.getBoolean(1)) {
-					status = true;
-					org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
-							"Successfully removed work experience details with Id" + workExperienceId);
-				}
+			status = dch.getCompanyJdbc(companyId).queryForBoolean("{call removeWorkExperience(?)}", cstmt -> cstmt.setInt(1, workExperienceId));
+			if (status) {
+				org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
+						"Successfully removed work experience details with Id" + workExperienceId);
 			}
 
 		} catch (SQLException e) {
@@ -275,17 +255,12 @@ public class EmployeeHelper extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
 		boolean status = false;
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call removeEducation(?)}")) {
+		try {
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug("Removing Education details with Id" + educationId);
-			cstmt.setInt(1, educationId);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				rs.next();
-				if (rs.getBoolean(1)) {
-					status = true;
-					org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
-							"Successfully removed work experience details with Id" + educationId);
-				}
+			status = dch.getCompanyJdbc(companyId).queryForBoolean("{call removeEducation(?)}", cstmt -> cstmt.setInt(1, educationId));
+			if (status) {
+				org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
+						"Successfully removed work experience details with Id" + educationId);
 			}
 
 		} catch (SQLException e) {
@@ -305,16 +280,11 @@ public class EmployeeHelper extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
 		boolean status = false;
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection()
-				.prepareCall("{call removeLanguage(?)}")) {
+		try {
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug("Removing Language details with Id" + languageId);
-			cstmt.setInt(1, languageId);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				rs.next();
-				if (rs.getBoolean(1)) {
-					status = true;
-					org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug("Successfully removed Language details with Id" + languageId);
-				}
+			status = dch.getCompanyJdbc(companyId).queryForBoolean("{call removeLanguage(?)}", cstmt -> cstmt.setInt(1, languageId));
+			if (status) {
+				org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug("Successfully removed Language details with Id" + languageId);
 			}
 
 		} catch (SQLException e) {
@@ -334,18 +304,15 @@ public class EmployeeHelper extends TheBorg {
 		boolean status = false;
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call updateEmployeeBasicDetails(?, ?)}")) {
+		try {
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug("Updating employee basic details" + bed.getEmployeeId());
-			cstmt.setInt("empid", bed.getEmployeeId());
-			cstmt.setString("phoneno", bed.getPhone());
-			try (ResultSet rs = cstmt.executeQuery()) {
-				rs.next();
-				if (rs.getBoolean(1)) {
-					status = true;
-					org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
-							"Successfully updated employee basic details for employeeId : " + bed.getEmployeeId());
-				}
+			status = dch.getCompanyJdbc(companyId).queryForBoolean("{call updateEmployeeBasicDetails(?, ?)}", cstmt -> {
+				cstmt.setInt("empid", bed.getEmployeeId());
+				cstmt.setString("phoneno", bed.getPhone());
+			});
+			if (status) {
+				org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
+						"Successfully updated employee basic details for employeeId : " + bed.getEmployeeId());
 			}
 
 		} catch (SQLException e) {
@@ -366,22 +333,19 @@ public class EmployeeHelper extends TheBorg {
 		boolean status = false;
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call insertWorkExperience(?, ?, ?, ?, ?, ?)}")) {
+		try {
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug("Adding new work experience for employee" + wek.getEmployeeId());
-			cstmt.setInt("emp_id_ip", wek.getEmployeeId());
-			cstmt.setString("organization_name_ip", wek.getCompanyName());
-			cstmt.setString("position_ip", wek.getDesignation());
-			cstmt.setDate("from_date_ip", UtilHelper.convertJavaDateToSqlDate(wek.getStartDate()));
-			cstmt.setDate("to_date_ip", wek.getEndDate() == null ? null : UtilHelper.convertJavaDateToSqlDate(wek.getEndDate()));
-			cstmt.setString("location_ip", wek.getLocation());
-			try (ResultSet rs = cstmt.executeQuery()) {
-				rs.next();
-				if (rs.getBoolean(1)) {
-					status = true;
-					org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
-							"Successfully added a new work experience for employeeId : " + wek.getEmployeeId());
-				}
+			status = dch.getCompanyJdbc(companyId).queryForBoolean("{call insertWorkExperience(?, ?, ?, ?, ?, ?)}", cstmt -> {
+				cstmt.setInt("emp_id_ip", wek.getEmployeeId());
+				cstmt.setString("organization_name_ip", wek.getCompanyName());
+				cstmt.setString("position_ip", wek.getDesignation());
+				cstmt.setDate("from_date_ip", UtilHelper.convertJavaDateToSqlDate(wek.getStartDate()));
+				cstmt.setDate("to_date_ip", wek.getEndDate() == null ? null : UtilHelper.convertJavaDateToSqlDate(wek.getEndDate()));
+				cstmt.setString("location_ip", wek.getLocation());
+			});
+			if (status) {
+				org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
+						"Successfully added a new work experience for employeeId : " + wek.getEmployeeId());
 			}
 
 		} catch (SQLException e) {
@@ -402,23 +366,19 @@ public class EmployeeHelper extends TheBorg {
 		boolean status = false;
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call insertEducation(?, ?, ?, ?, ?, ?)}")) {
+		try {
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug("Adding new education for employee" + ed.getEmployeeId());
-			cstmt.setInt("emp_id_ip", ed.getEmployeeId());
-			cstmt.setString("institute_name_ip", ed.getInstitution());
-			cstmt.setString("certification_ip", ed.getCertification());
-			cstmt.setDate("from_date_ip", UtilHelper.convertJavaDateToSqlDate(ed.getStartDate()));
-			cstmt.setDate("to_date_ip", UtilHelper.convertJavaDateToSqlDate(ed.getEndDate()));
-			cstmt.setString("location_ip", ed.getLocation());
-			try (ResultSet rs = cstmt.executeQuery()) {
-
-				rs.next();
-				if (rs.getBoolean(1)) {
-					status = true;
-					org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
-							"Successfully added a new education for employeeId : " + ed.getEmployeeId());
-				}
+			status = dch.getCompanyJdbc(companyId).queryForBoolean("{call insertEducation(?, ?, ?, ?, ?, ?)}", cstmt -> {
+				cstmt.setInt("emp_id_ip", ed.getEmployeeId());
+				cstmt.setString("institute_name_ip", ed.getInstitution());
+				cstmt.setString("certification_ip", ed.getCertification());
+				cstmt.setDate("from_date_ip", UtilHelper.convertJavaDateToSqlDate(ed.getStartDate()));
+				cstmt.setDate("to_date_ip", UtilHelper.convertJavaDateToSqlDate(ed.getEndDate()));
+				cstmt.setString("location_ip", ed.getLocation());
+			});
+			if (status) {
+				org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
+						"Successfully added a new education for employeeId : " + ed.getEmployeeId());
 			}
 
 		} catch (SQLException e) {
@@ -439,18 +399,15 @@ public class EmployeeHelper extends TheBorg {
 		boolean status = false;
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call insertLanguage(?, ?)}")) {
+		try {
 			org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug("Adding new language for employee" + ld.getEmployeeId());
-			cstmt.setInt("emp_id_ip", ld.getEmployeeId());
-			cstmt.setInt("language_id_ip", ld.getLanguageId());
-			try (ResultSet rs = cstmt.executeQuery()) {
-				rs.next();
-				if (rs.getBoolean(1)) {
-					status = true;
-					org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
-							"Successfully added a new language for employeeId : " + ld.getEmployeeId());
-				}
+			status = dch.getCompanyJdbc(companyId).queryForBoolean("{call insertLanguage(?, ?)}", cstmt -> {
+				cstmt.setInt("emp_id_ip", ld.getEmployeeId());
+				cstmt.setInt("language_id_ip", ld.getLanguageId());
+			});
+			if (status) {
+				org.apache.log4j.Logger.getLogger(EmployeeHelper.class).debug(
+						"Successfully added a new language for employeeId : " + ld.getEmployeeId());
 			}
 
 		} catch (SQLException e) {
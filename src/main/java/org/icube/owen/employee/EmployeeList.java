@@ -1,6 +1,5 @@
 package org.icube.owen.employee;
 
-import java.sql.CallableStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -11,7 +10,10 @@ import java.util.TreeMap;
 import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
 import org.icube.owen.filter.Filter;
+import org.icube.owen.filter.TeamSelector;
+import org.icube.owen.helper.ColumnIndex;
 import org.icube.owen.helper.DatabaseConnectionHelper;
+import org.icube.owen.helper.Log;
 import org.icube.owen.helper.UtilHelper;
 import org.icube.owen.metrics.MetricsList;
 import org.rosuda.REngine.REXP;
@@ -36,9 +38,9 @@ public class EmployeeList extends TheBorg {
 		dch.refreshCompanyConnection(companyId);
 		List<Employee> employeeSmartList = new ArrayList<Employee>();
 		try {
-			RConnection rCon = dch.getRConn();
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("R Connection Available : " + rCon.isConnected());
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("Filling up parameters for rscript function");
+			RConnection rCon = dch.getRConn(companyId);
+			Log.get(EmployeeList.class).debug(() -> "R Connection Available : " + rCon.isConnected());
+			Log.get(EmployeeList.class).debug(() -> "Filling up parameters for rscript function");
 			List<Integer> funcList = new ArrayList<>();
 			List<Integer> posList = new ArrayList<>();
 			List<Integer> zoneList = new ArrayList<>();
@@ -51,8 +53,8 @@ public class EmployeeList extends TheBorg {
 					zoneList.addAll(f.getFilterValues().keySet());
 				}
 			}
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).debug(
-					"Parameters for R function :  /n Function : " + funcList.toString() + "/n Position : " + posList.toString() + " /n Zone : "
+			Log.get(EmployeeList.class).debug(
+					() -> "Parameters for R function :  /n Function : " + funcList.toString() + "/n Position : " + posList.toString() + " /n Zone : "
 							+ zoneList.toString() + "/n Initiative Type Id : " + initiativeType);
 
 			rCon.assign("company_id", new int[] { companyId });
@@ -61,18 +63,17 @@ public class EmployeeList extends TheBorg {
 			rCon.assign("Zone", UtilHelper.getIntArrayFromIntegerList(zoneList));
 			rCon.assign("init_type_id", new int[] { initiativeType });
 
-			org.apache.log4j.Logger.getLogger(MetricsList.class).debug("Calling the actual function in RScript TeamSmartList");
-			REXP employeeSmartListForTeam = rCon.parseAndEval("try(eval(TeamSmartList(company_id, Function, Position, Zone, init_type_id)))");
+			Log.get(MetricsList.class).debug(() -> "Calling the actual function in RScript TeamSmartList");
+			REXP employeeSmartListForTeam = dch.parseAndEval(companyId, rCon,
+					"try(eval(TeamSmartList(company_id, Function, Position, Zone, init_type_id)))");
 			if (employeeSmartListForTeam.inherits("try-error")) {
-				org.apache.log4j.Logger.getLogger(EmployeeList.class).error("Error: " + employeeSmartListForTeam.asString());
+				Log.get(EmployeeList.class).error("Error: " + employeeSmartListForTeam.asString());
 				dch.releaseRcon();
 				throw new Exception("Error: " + employeeSmartListForTeam.asString());
-			} else {
-				org.apache.log4j.Logger.getLogger(EmployeeList.class).debug(
-						"Successfully retrieved Smart List for team " + employeeSmartListForTeam.asList());
 			}
 
 			RList result = employeeSmartListForTeam.asList();
+			Log.get(EmployeeList.class).debug(() -> "Successfully retrieved Smart List for team " + result);
 			REXPInteger empIdResult = (REXPInteger) result.get("emp_id");
 			int[] empIdArray = empIdResult.asIntegers();
 			REXPString gradeRseult = (REXPString) result.get("flag");
@@ -93,7 +94,7 @@ public class EmployeeList extends TheBorg {
 			}
 
 		} catch (Exception e) {
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).error("Error while trying to retrieve the smart list for team ", e);
+			Log.get(EmployeeList.class).error("Error while trying to retrieve the smart list for team ", e);
 		} finally {
 			dch.releaseRcon();
 		}
@@ -119,24 +120,22 @@ public class EmployeeList extends TheBorg {
 			partOfEmployeeIdList.add(e.getEmployeeId());
 		}
 		try {
-			RConnection rCon = dch.getRConn();
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("R Connection Available : " + rCon.isConnected());
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("Filling up parameters for rscript function");
+			RConnection rCon = dch.getRConn(companyId);
+			Log.get(EmployeeList.class).debug(() -> "R Connection Available : " + rCon.isConnected());
+			Log.get(EmployeeList.class).debug(() -> "Filling up parameters for rscript function");
 			rCon.assign("company_id", new int[] { companyId });
 			rCon.assign("emp_id", new int[] { partOfEmployeeIdList.get(0) });
 			rCon.assign("init_type_id", new int[] { initiativeType });
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("Calling the actual function in RScript IndividualSmartList");
-			REXP employeeSmartList = rCon.parseAndEval("try(eval(IndividualSmartList(company_id, emp_id, init_type_id)))");
+			Log.get(EmployeeList.class).debug(() -> "Calling the actual function in RScript IndividualSmartList");
+			REXP employeeSmartList = dch.parseAndEval(companyId, rCon, "try(eval(IndividualSmartList(company_id, emp_id, init_type_id)))");
 			if (employeeSmartList.inherits("try-error")) {
-				org.apache.log4j.Logger.getLogger(EmployeeList.class).error("Error: " + employeeSmartList.asString());
+				Log.get(EmployeeList.class).error("Error: " + employeeSmartList.asString());
 				dch.releaseRcon();
 				throw new Exception("Error: " + employeeSmartList.asString());
-			} else {
-				org.apache.log4j.Logger.getLogger(EmployeeList.class).debug(
-						"Retrieval of the employee smart list completed " + employeeSmartList.asList());
 			}
 
 			RList result = employeeSmartList.asList();
+			Log.get(EmployeeList.class).debug(() -> "Retrieval of the employee smart list completed " + result);
 			REXPInteger empIdResult = (REXPInteger) result.get("emp_id");
 			int[] empIdArray = empIdResult.asIntegers();
 			REXPString gradeRseult = (REXPString) result.get("flag");
@@ -156,7 +155,7 @@ public class EmployeeList extends TheBorg {
 				individualSmartList.add(e);
 			}
 		} catch (Exception e) {
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).error("Error while trying to retrieve the smart list for employee ", e);
+			Log.get(EmployeeList.class).error("Error while trying to retrieve the smart list for employee ", e);
 		} finally {
 			dch.releaseRcon();
 		}
@@ -174,20 +173,14 @@ public class EmployeeList extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
 		List<Employee> employeeList = new ArrayList<>();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection()
-				.prepareCall("{call getEmployeeList()}");
-				ResultSet res = cstmt.executeQuery()) {
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("getEmployeeMasterList method started");
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("query : " + cstmt);
-			while (res.next()) {
-				Employee e = setEmployeeDetails(companyId, res);
-				e.setCompanyId(companyId);
-				employeeList.add(e);
-			}
+		try {
+			Log.get(EmployeeList.class).debug(() -> "getEmployeeMasterList method started");
+			employeeList.addAll(dch.getCompanyJdbc(companyId).queryForList("{call getEmployeeList()}", null, columns -> new EmployeeRowMapper(
+					companyId, columns)));
 
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("employeeList : " + employeeList.toString());
+			Log.get(EmployeeList.class).debug(() -> "employeeList : " + employeeList.toString());
 		} catch (SQLException e) {
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).error("Exception while getting the employee master list", e);
+			Log.get(EmployeeList.class).error("Exception while getting the employee master list", e);
 
 		}
 
@@ -196,33 +189,15 @@ public class EmployeeList extends TheBorg {
 	}
 
 	/**
-	 * Set the employee details based on the result from sql
+	 * Set the employee details based on the current row of the result from sql
+	 * Resolves the columns of the result set on every call, use EmployeeRowMapper when reading more than one row
 	 * @param companyId - Company ID of the employee
 	 * @param res - actual result from sql
 	 * @return employee object
 	 * @throws SQLException - if employee details are not set
 	 */
 	public Employee setEmployeeDetails(int companyId, ResultSet res) throws SQLException {
-		Employee e = new Employee();
-		e.setEmployeeId(res.getInt("emp_id"));
-		e.setCompanyEmployeeId(res.getString("emp_int_id"));
-		e.setFirstName(res.getString("first_name"));
-		e.setLastName(res.getString("last_name"));
-		e.setReportingManagerId(res.getString("reporting_emp_id"));
-		if (res.getString("status") != null && res.getString("status").equalsIgnoreCase("active")) {
-			e.setActive(true);
-		} else {
-			e.setActive(false);
-		}
-
-		e.setFunction(res.getString("Function"));
-		e.setPosition(res.getString("Position"));
-		e.setZone(res.getString("Zone"));
-		if (UtilHelper.hasColumn(res, "score") && res.getDouble("score") >= 0) {
-			e.setScore(res.getDouble("score"));
-		}
-		e.setCompanyId(companyId);
-		return e;
+		return new EmployeeRowMapper(companyId, ColumnIndex.of(res)).mapRow(res, res.getRow());
 	}
 
 	/**
@@ -232,38 +207,27 @@ public class EmployeeList extends TheBorg {
 	 * @return List of employee objects
 	 */
 	public List<Employee> getEmployeeListByFilters(int companyId, List<Filter> filterList) {
-		org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("Company ID " + companyId);
+		Log.get(EmployeeList.class).debug(() -> "Company ID " + companyId);
 
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
 		List<Employee> employeeList = new ArrayList<>();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getEmpFromDimension(?,?,?)}")) {
-			int funcId = 0, posId = 0, zoneId = 0;
-			for (Filter filter : filterList) {
-				if (filter.getFilterName().equalsIgnoreCase("Function")) {
-					funcId = filter.getFilterValues().keySet().iterator().next();
-				} else if (filter.getFilterName().equalsIgnoreCase("Position")) {
-					posId = filter.getFilterValues().keySet().iterator().next();
-				} else if (filter.getFilterName().equalsIgnoreCase("Zone")) {
-					zoneId = filter.getFilterValues().keySet().iterator().next();
-				}
-			}
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("Function : " + funcId + " Zone : " + zoneId + " Position : " + posId);
-			cstmt.setInt(1, funcId);
-			cstmt.setInt(2, posId);
-			cstmt.setInt(3, zoneId);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				List<Integer> employeeIdList = new ArrayList<>();
-				while (rs.next()) {
-					employeeIdList.add(rs.getInt("emp_id"));
-				}
-				org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("Employee ID List : " + employeeIdList);
-				employeeList = get(companyId, employeeIdList);
-			}
+		try {
+			TeamSelector teamSelector = TeamSelector.of(filterList);
+			int funcId = teamSelector.getFuncId();
+			int posId = teamSelector.getPosId();
+			int zoneId = teamSelector.getZoneId();
+			Log.get(EmployeeList.class).debug(() -> "Function : " + funcId + " Zone : " + zoneId + " Position : " + posId);
+			List<Integer> employeeIdList = dch.getCompanyJdbc(companyId).query("{call getEmpFromDimension(?,?,?)}", cstmt -> {
+				cstmt.setInt(1, funcId);
+				cstmt.setInt(2, posId);
+				cstmt.setInt(3, zoneId);
+			}, (rs, rowNum) -> rs.getInt("emp_id"));
+			Log.get(EmployeeList.class).debug(() -> "Employee ID List : " + employeeIdList);
+			employeeList = get(companyId, employeeIdList);
 
 		} catch (SQLException e1) {
-			org.apache.log4j.Logger.getLogger(EmployeeList.class).error("Exception while retrieving the employee list based on dimension", e1);
+			Log.get(EmployeeList.class).error("Exception while retrieving the employee list based on dimension", e1);
 		}
 
 		return employeeList;
@@ -286,31 +250,26 @@ public class EmployeeList extends TheBorg {
 		int empSubListCount = ((employeeIdList.size() % subListSize) > 0) ? (employeeIdList.size() / subListSize) + 1 : employeeIdList.size()
 				/ subListSize;
 		int listIndex = 0;
-		List<Integer> empSubList = new ArrayList<>();
 		for (int i = 0; i < empSubListCount; i++) {
-			if ((listIndex + subListSize) > employeeIdList.size()) {
-				empSubList = employeeIdList.subList(listIndex, employeeIdList.size());
-			} else {
-				empSubList = employeeIdList.subList(listIndex, listIndex + subListSize);
-			}
-
-			try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-					"{call getEmployeeDetails(?)}")) {
-				org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("get method started");
-				cstmt.setString(1, empSubList.toString().substring(1, empSubList.toString().length() - 1).replaceAll(" ", ""));
-				try (ResultSet res = cstmt.executeQuery()) {
-					org.apache.log4j.Logger.getLogger(EmployeeList.class).debug("query : " + cstmt);
+			List<Integer> empSubList = employeeIdList.subList(listIndex, Math.min(listIndex + subListSize, employeeIdList.size()));
+			listIndex = listIndex + subListSize;
+
+			try {
+				Log.get(EmployeeList.class).debug(() -> "get method started");
+				dch.getCompanyJdbc(companyId).query("{call getEmployeeDetails(?)}", cstmt -> cstmt.setString(1, empSubList.toString().substring(1,
+						empSubList.toString().length() - 1).replaceAll(" ", "")), res -> {
+					EmployeeRowMapper mapper = new EmployeeRowMapper(companyId, ColumnIndex.of(res));
 					while (res.next()) {
-						Employee e = setEmployeeDetails(companyId, res);
-						org.apache.log4j.Logger.getLogger(EmployeeList.class).debug(
-								"Employee  : " + e.getEmployeeId() + "-" + e.getFirstName() + "-" + e.getLastName());
+						Employee e = mapper.mapRow(res, empList.size());
+						Log.get(EmployeeList.class).debug(
+								() -> "Employee  : " + e.getEmployeeId() + "-" + e.getFirstName() + "-" + e.getLastName());
 						empList.add(e);
 					}
-					listIndex = listIndex + subListSize;
-				}
+					return empList;
+				});
 
 			} catch (SQLException e1) {
-				org.apache.log4j.Logger.getLogger(EmployeeList.class).error(
+				Log.get(EmployeeList.class).error(
 						"Exception while retrieving employee object with employeeIds : " + employeeIdList, e1);
 			}
 		}
@@ -0,0 +1,68 @@
+package org.icube.owen.employee;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.icube.owen.helper.ColumnIndex;
+import org.icube.owen.helper.CompanyJdbc;
+
+/**
+ * Maps a row of getEmployeeList/getEmployeeDetails to an Employee object
+ * The score is optional and only set when the procedure returns a non negative score
+ */
+public class EmployeeRowMapper implements CompanyJdbc.RowMapper<Employee> {
+
+	private final int companyId;
+	private final int empIdIndex;
+	private final int empIntIdIndex;
+	private final int firstNameIndex;
+	private final int lastNameIndex;
+	private final int reportingEmpIdIndex;
+	private final int statusIndex;
+	private final int functionIndex;
+	private final int positionIndex;
+	private final int zoneIndex;
+	private final int scoreIndex;
+
+	/**
+	 * @param companyId - Company ID of the employees
+	 * @param columns - columns of the result set
+	 * @throws SQLException - if a mandatory column is missing
+	 */
+	public EmployeeRowMapper(int companyId, ColumnIndex columns) throws SQLException {
+		this.companyId = companyId;
+		empIdIndex = columns.get("emp_id");
+		empIntIdIndex = columns.get("emp_int_id");
+		firstNameIndex = columns.get("first_name");
+		lastNameIndex = columns.get("last_name");
+		reportingEmpIdIndex = columns.get("reporting_emp_id");
+		statusIndex = columns.get("status");
+		functionIndex = columns.get("Function");
+		positionIndex = columns.get("Position");
+		zoneIndex = columns.get("Zone");
+		scoreIndex = columns.find("score");
+	}
+
+	@Override
+	public Employee mapRow(ResultSet rs, int rowNum) throws SQLException {
+		Employee e = new Employee();
+		e.setEmployeeId(rs.getInt(empIdIndex));
+		e.setCompanyEmployeeId(rs.getString(empIntIdIndex));
+		e.setFirstName(rs.getString(firstNameIndex));
+		e.setLastName(rs.getString(lastNameIndex));
+		e.setReportingManagerId(rs.getString(reportingEmpIdIndex));
+		String status = rs.getString(statusIndex);
+		e.setActive(status != null && status.equalsIgnoreCase("active"));
+		e.setFunction(rs.getString(functionIndex));
+		e.setPosition(rs.getString(positionIndex));
+		e.setZone(rs.getString(zoneIndex));
+		if (scoreIndex > 0) {
+			double score = rs.getDouble(scoreIndex);
+			if (score >= 0) {
+				e.setScore(score);
+			}
+		}
+		e.setCompanyId(companyId);
+		return e;
+	}
+}
@@ -0,0 +1,74 @@
+package org.icube.owen.explore;
+
+/**
+ * Edge of an aggregated network diagram, summing the relationships of one type from the employees of a cluster to the employees of
+ * another cluster; the relationships within a cluster are summed into an edge from the cluster to itself
+ */
+public class ClusterEdge {
+
+	private String fromClusterId;
+	private String toClusterId;
+	private String relationshipType;
+	private double weight;
+	private int count;
+
+	public String getFromClusterId() {
+		return fromClusterId;
+	}
+
+	public void setFromClusterId(String fromClusterId) {
+		this.fromClusterId = fromClusterId;
+	}
+
+	public String getToClusterId() {
+		return toClusterId;
+	}
+
+	public void setToClusterId(String toClusterId) {
+		this.toClusterId = toClusterId;
+	}
+
+	public String getRelationshipType() {
+		return relationshipType;
+	}
+
+	public void setRelationshipType(String relationshipType) {
+		this.relationshipType = relationshipType;
+	}
+
+	/**
+	 * @return sum of the weights of the relationships
+	 */
+	public double getWeight() {
+		return weight;
+	}
+
+	public void setWeight(double weight) {
+		this.weight = weight;
+	}
+
+	/**
+	 * @return number of relationships
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	public void setCount(int count) {
+		this.count = count;
+	}
+
+	/**
+	 * @return a copy of the edge which can be modified without changing this edge
+	 */
+	public ClusterEdge copy() {
+		ClusterEdge e = new ClusterEdge();
+		e.fromClusterId = fromClusterId;
+		e.toClusterId = toClusterId;
+		e.relationshipType = relationshipType;
+		e.weight = weight;
+		e.count = count;
+		return e;
+	}
+
+}
@@ -0,0 +1,111 @@
+package org.icube.owen.explore;
+
+/**
+ * Node of an aggregated network diagram, standing for the employees of a team who share a function, position and zone
+ * The IDs identify the cube to pass to getClusterNetworkDiagram to drill down into the cluster
+ */
+public class ClusterNode {
+
+	private String clusterId;
+	private String teamName;
+	private int functionId;
+	private String function;
+	private int positionId;
+	private String position;
+	private int zoneId;
+	private String zone;
+	private int size;
+
+	public String getClusterId() {
+		return clusterId;
+	}
+
+	public void setClusterId(String clusterId) {
+		this.clusterId = clusterId;
+	}
+
+	public String getTeamName() {
+		return teamName;
+	}
+
+	public void setTeamName(String teamName) {
+		this.teamName = teamName;
+	}
+
+	public int getFunctionId() {
+		return functionId;
+	}
+
+	public void setFunctionId(int functionId) {
+		this.functionId = functionId;
+	}
+
+	public String getFunction() {
+		return function;
+	}
+
+	public void setFunction(String function) {
+		this.function = function;
+	}
+
+	public int getPositionId() {
+		return positionId;
+	}
+
+	public void setPositionId(int positionId) {
+		this.positionId = positionId;
+	}
+
+	public String getPosition() {
+		return position;
+	}
+
+	public void setPosition(String position) {
+		this.position = position;
+	}
+
+	public int getZoneId() {
+		return zoneId;
+	}
+
+	public void setZoneId(int zoneId) {
+		this.zoneId = zoneId;
+	}
+
+	public String getZone() {
+		return zone;
+	}
+
+	public void setZone(String zone) {
+		this.zone = zone;
+	}
+
+	/**
+	 * @return number of employees in the cluster
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * @return a copy of the cluster which can be modified without changing this cluster
+	 */
+	public ClusterNode copy() {
+		ClusterNode c = new ClusterNode();
+		c.clusterId = clusterId;
+		c.teamName = teamName;
+		c.functionId = functionId;
+		c.function = function;
+		c.positionId = positionId;
+		c.position = position;
+		c.zoneId = zoneId;
+		c.zone = zone;
+		c.size = size;
+		return c;
+	}
+
+}
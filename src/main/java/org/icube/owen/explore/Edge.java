@@ -39,4 +39,16 @@ public class Edge {
 		this.weight = weight;
 	}
 
+	/**
+	 * @return a copy of the edge which can be modified without changing this edge
+	 */
+	public Edge copy() {
+		Edge e = new Edge();
+		e.fromEmployeId = fromEmployeId;
+		e.toEmployeeId = toEmployeeId;
+		e.relationshipType = relationshipType;
+		e.weight = weight;
+		return e;
+	}
+
 }
@@ -1,54 +1,160 @@
 package org.icube.owen.explore;
 
-import java.sql.CallableStatement;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
 import org.icube.owen.employee.Employee;
 import org.icube.owen.filter.Filter;
+import org.icube.owen.filter.TeamSelector;
+import org.icube.owen.helper.ColumnIndex;
+import org.icube.owen.helper.CompanyJdbc;
+import org.icube.owen.helper.ConfigSnapshot;
+import org.icube.owen.helper.CypherRegistry;
+import org.icube.owen.helper.CypherTemplate;
 import org.icube.owen.helper.DatabaseConnectionHelper;
+import org.icube.owen.helper.Log;
+import org.icube.owen.helper.TenantExecutor;
 import org.icube.owen.helper.UtilHelper;
+import org.icube.owen.metrics.MetricTimeSeries;
 import org.icube.owen.metrics.Metrics;
 import org.icube.owen.metrics.MetricsHelper;
+import org.icube.owen.metrics.MetricsRowMapper;
+import org.icube.owen.metrics.TimeSeriesCache;
+import org.icube.owen.metrics.TimeSeriesWindow;
 import org.icube.owen.survey.Question;
+import org.icube.owen.survey.QuestionRowMapper;
 
 public class ExploreHelper extends TheBorg {
 
+	// size of the varchar parameter of the procedures taking a comma separated list of employee IDs
+	private static final int EMPLOYEE_ID_LIST_LENGTH = 256;
+
+	// members of every team, a function, position or zone ID of 0 stands for ALL
+	private static final CypherTemplate TEAM_MEMBERS = CypherRegistry.register("explore.teamMembers",
+			"unwind {teams} as t match (a:Employee)-[:has_functionality]->(f:Function), (p:Position)<-[:is_positioned]-(a)-[:from_zone]->(z:Zone) "
+					+ "where (t.zoneId = 0 or z.Id = t.zoneId) and (t.funcId = 0 or f.Id = t.funcId) and (t.posId = 0 or p.Id = t.posId) "
+					+ "return a.emp_id as emp_id, a.FirstName as firstName ,a.LastName as lastName,f.Name as funcName,p.Name as posName,"
+					+ "z.Name as zoneName, t.name as team, f.Id as funcId, p.Id as posId, z.Id as zoneId");
+
+	// the employees, their first degree and their second degree connections
+	private static final CypherTemplate INDIVIDUAL_NETWORK = CypherRegistry.register("explore.individualNetwork",
+			"match (a:Employee)-[:has_functionality]->(f:Function),(p:Position)<-[:is_positioned]-(a)-[:from_zone]->(z:Zone) where a.emp_id in {empIds}"
+					+ " return a.emp_id as emp_id,a.FirstName as firstName,a.LastName as lastName,0 as degree,f.Name as funcName,p.Name as posName,z.Name as zoneName order by emp_id "
+					+ "union "
+					+ "match (a:Employee)-[r]-(b:Employee)-[:has_functionality]->(f:Function),(p:Position)<-[:is_positioned]-(b)-[:from_zone]->(z:Zone)"
+					+ " where a.emp_id in {empIds} and type(r) in {relTypes} and not  b.emp_id in {empIds}"
+					+ " return b.emp_id as emp_id,b.FirstName as firstName,b.LastName as lastName,1 as degree,f.Name as funcName,p.Name as posName,z.Name as zoneName order by emp_id"
+					+ " union "
+					+ "match (x:Employee)-[r]-(y:Employee) where x.emp_id in {empIds} and type(r) in {relTypes} with collect(y) as firstdegree"
+					+ " match (a:Employee)-[r]-(b:Employee)-[r1]-(c:Employee)-[:has_functionality]->(f:Function),(p:Position)<-[:is_positioned]-(c)-[:from_zone]->(z:Zone)"
+					+ " where a.emp_id in {empIds} and type(r) in {relTypes} and type(r1) in {relTypes} and a<>b and not  c.emp_id in {empIds}"
+					+ " and b<>c and not(c in firstdegree)"
+					+ " return c.emp_id as emp_id,c.FirstName as firstName,c.LastName as lastName,2 as degree,f.Name as funcName,p.Name as posName,z.Name as zoneName order by emp_id");
+
+	// relationships between the employees
+	private static final CypherTemplate EDGES = CypherRegistry.register("explore.edges",
+			"match (a:Employee)-[r]->(b:Employee) where a.emp_id in {empIds} and b.emp_id in {empIds} and type(r) in {relTypes} and a<>b "
+					+ "return a.emp_id as from ,b.emp_id as to,type(r) as rel_type,r.weight as weight");
+
+	// relationships starting at a chunk of the employees, the end of the relationship is checked by the caller
+	private static final CypherTemplate EDGES_FROM = CypherRegistry.register("explore.edgesFrom",
+			"match (a:Employee)-[r]->(b:Employee) where a.emp_id in {fromIds} and type(r) in {relTypes} and a<>b "
+					+ "return a.emp_id as from ,b.emp_id as to,type(r) as rel_type,r.weight as weight");
+
 	/**
 	 * Retrieves data for metrics 
+	 * The teams are calculated in parallel on the executor of the company; teams which are not calculated within team_metrics_timeout
+	 * are returned with an empty metric list
 	 * @param companyId - Company ID of the employee
 	 * @param teamListMap - Map with the (teamName, filterList) pair, can have as many teams as desired by the UI
 	 * @return metricsMapList - Map with (teamName, metricList) pair
 	 */
 	public Map<String, List<Metrics>> getTeamMetricsData(int companyId, Map<String, List<Filter>> teamListMap) {
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
 		Map<String, List<Metrics>> result = new HashMap<>();
+		if (teamListMap.size() == 1) {
+			for (String teamName : teamListMap.keySet()) {
+				result.put(teamName, getTeamMetrics(companyId, teamName, teamListMap.get(teamName)));
+			}
+			return result;
+		}
 
+		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
+		TenantExecutor executor = dch.getCompanyExecutor(companyId);
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ConfigSnapshot.get().getLong("team_metrics_timeout", 30000));
+		Map<String, Future<List<Metrics>>> futureMap = new LinkedHashMap<>();
 		for (String teamName : teamListMap.keySet()) {
-			List<Metrics> metricList = new ArrayList<>();
 			List<Filter> filterList = teamListMap.get(teamName);
 			try {
-				MetricsHelper mh = new MetricsHelper();
-				metricList = mh.getTeamMetricsList(companyId, 0, UtilHelper.parseFilterList(filterList), false);
-			} catch (SQLException e) {
-				org.apache.log4j.Logger.getLogger(ExploreHelper.class).error("Exception while getting team metrics data : " + teamListMap.toString(),
-						e);
+				futureMap.put(teamName, executor.submit(() -> getTeamMetrics(companyId, teamName, filterList)));
+			} catch (RejectedExecutionException e) {
+				// the executor of the company is full, calculate the team on the request thread
+				Log.get(ExploreHelper.class).warn("Executor full, calculating team " + teamName + " on the request thread");
+				result.put(teamName, getTeamMetrics(companyId, teamName, filterList));
+			}
+		}
+
+		for (Map.Entry<String, Future<List<Metrics>>> entry : futureMap.entrySet()) {
+			List<Metrics> metricList = new ArrayList<>();
+			try {
+				metricList = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				entry.getValue().cancel(true);
+				Log.get(ExploreHelper.class).warn(
+						"Team metrics for " + entry.getKey() + " not calculated before the deadline, returning partial results");
+			} catch (ExecutionException e) {
+				Log.get(ExploreHelper.class).error("Exception while getting team metrics data for " + entry.getKey(),
+						e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				entry.getValue().cancel(true);
 			}
-			result.put(teamName, metricList);
+			result.put(entry.getKey(), metricList);
 		}
 		return result;
 	}
 
+	/**
+	 * Retrieves the metrics of a single team for getTeamMetricsData
+	 * @param companyId - Company ID of the employee
+	 * @param teamName - name of the team
+	 * @param filterList - filters which define the team
+	 * @return list of metrics, empty if the metrics could not be retrieved
+	 */
+	private List<Metrics> getTeamMetrics(int companyId, String teamName, List<Filter> filterList) {
+		List<Metrics> metricList = new ArrayList<>();
+		try {
+			MetricsHelper mh = new MetricsHelper();
+			metricList = mh.getTeamMetricsList(companyId, 0, TeamSelector.of(filterList), false);
+		} catch (SQLException e) {
+			Log.get(ExploreHelper.class).error("Exception while getting team metrics data for " + teamName, e);
+		}
+		return metricList;
+	}
+
 	/**
 	 * Retrieves data for the time series graph 
 	 * @param companyId - Company ID of the employee
@@ -56,57 +162,78 @@ public class ExploreHelper extends TheBorg {
 	 * @return metricsMapList - Map with (teamName, metricList) pair
 	 */
 	public Map<String, Map<Integer, List<Map<Date, Integer>>>> getTeamTimeSeriesGraph(int companyId, Map<String, List<Filter>> teamListMap) {
+		Map<String, Map<Integer, List<Map<Date, Integer>>>> result = new HashMap<>();
+		for (Map.Entry<String, Map<Integer, MetricTimeSeries>> entry : getTeamTimeSeries(companyId, teamListMap).entrySet()) {
+			result.put(entry.getKey(), MetricTimeSeries.toMapList(entry.getValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * Retrieves data for the time series graph as columnar time series
+	 * @param companyId - Company ID of the employee
+	 * @param teamListMap - Map with the (teamName, filterList) pair, can have as many teams as desired by the UI
+	 * @return Map with (teamName, map of metric ID and time series) pair
+	 */
+	public Map<String, Map<Integer, MetricTimeSeries>> getTeamTimeSeries(int companyId, Map<String, List<Filter>> teamListMap) {
+		return queryTeamTimeSeries(companyId, teamListMap, TimeSeriesWindow.ALL);
+	}
 
+	/**
+	 * Retrieves data for the time series graph within the window, aggregated into buckets
+	 * @param companyId - Company ID of the employee
+	 * @param teamListMap - Map with the (teamName, filterList) pair, can have as many teams as desired by the UI
+	 * @param window - date range, bucket size and aggregation
+	 * @return Map with (teamName, map of metric ID and downsampled time series) pair
+	 */
+	public Map<String, Map<Integer, MetricTimeSeries>> getTeamTimeSeries(int companyId, Map<String, List<Filter>> teamListMap,
+			TimeSeriesWindow window) {
+		TimeSeriesCache cache = ObjectFactory.getDBHelper().getTimeSeriesCache();
+		Map<String, Map<Integer, MetricTimeSeries>> result = new HashMap<>();
+		for (Map.Entry<String, Map<Integer, MetricTimeSeries>> entry : queryTeamTimeSeries(companyId, teamListMap, window).entrySet()) {
+			result.put(entry.getKey(), cache.downsample(companyId, getTimeSeriesKey(TeamSelector.of(teamListMap.get(entry.getKey()))), entry
+					.getValue(), window));
+		}
+		return result;
+	}
+
+	private Map<String, Map<Integer, MetricTimeSeries>> queryTeamTimeSeries(int companyId, Map<String, List<Filter>> teamListMap,
+			TimeSeriesWindow window) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		dch.refreshCompanyConnection(companyId);
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-		Map<String, Map<Integer, List<Map<Date, Integer>>>> result = new HashMap<>();
+		CompanyJdbc jdbc = dch.getCompanyJdbc(companyId);
+		Map<String, Map<Integer, MetricTimeSeries>> result = new HashMap<>();
 
 		for (String teamName : teamListMap.keySet()) {
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-			Map<Integer, List<Map<Date, Integer>>> timeSeriesMap = new HashMap<>();
+			Map<Integer, MetricTimeSeries> timeSeriesMap = new HashMap<>();
 			List<Filter> filterList = teamListMap.get(teamName);
-			Map<String, Object> parsedFilterListResult = UtilHelper.parseFilterList(filterList);
+			TeamSelector teamSelector = TeamSelector.of(filterList);
 			try {
-				if ((int) parsedFilterListResult.get("countAll") == 3) {
+				if (teamSelector.getLevel() == TeamSelector.Level.ORGANIZATION) {
 					// if all selections are ALL then it is a organizational team metric
-					try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-							"{call getOrganizationMetricTimeSeries()}");
-							ResultSet rs = cstmt.executeQuery()) {
-						timeSeriesMap = getTimeSeriesMap(rs);
-					}
+					timeSeriesMap = jdbc.query("{call getOrganizationMetricTimeSeries(?,?)}", cstmt -> window.setDateRange(cstmt, 1),
+							MetricTimeSeries::fromResultSet);
 
-				} else if ((int) parsedFilterListResult.get("countAll") == 2) {
+				} else if (teamSelector.getLevel() == TeamSelector.Level.DIMENSION) {
 					// if two of the filters are ALL then it is a dimension metric
-					try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-							"{call getDimensionMetricTimeSeries(?)}")) {
-						cstmt.setInt(1, (int) parsedFilterListResult.get("dimensionValueId"));
-						try (ResultSet rs = cstmt.executeQuery()) {
-							timeSeriesMap = getTimeSeriesMap(rs);
-						}
-					}
+					timeSeriesMap = jdbc.query("{call getDimensionMetricTimeSeries(?,?,?)}", cstmt -> {
+						cstmt.setInt(1, teamSelector.getDimensionValueId());
+						window.setDateRange(cstmt, 2);
+					}, MetricTimeSeries::fromResultSet);
 
-				} else if ((int) parsedFilterListResult.get("countAll") == 0) {
+				} else if (teamSelector.getLevel() == TeamSelector.Level.CUBE) {
 					// if none of the filters is ALL then it is a cube metric
-					try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-							"{call getTeamMetricTimeSeries(?,?,?)}")) {
-						cstmt.setInt(1, (int) parsedFilterListResult.get("funcId"));
-						cstmt.setInt(2, (int) parsedFilterListResult.get("posId"));
-						cstmt.setInt(3, (int) parsedFilterListResult.get("zoneId"));
-						try (ResultSet rs = cstmt.executeQuery()) {
-							timeSeriesMap = getTimeSeriesMap(rs);
-						}
-					}
+					timeSeriesMap = jdbc.query("{call getTeamMetricTimeSeries(?,?,?,?,?)}", cstmt -> {
+						cstmt.setInt(1, teamSelector.getFuncId());
+						cstmt.setInt(2, teamSelector.getPosId());
+						cstmt.setInt(3, teamSelector.getZoneId());
+						window.setDateRange(cstmt, 4);
+					}, MetricTimeSeries::fromResultSet);
 
 				} else {
-					org.apache.log4j.Logger.getLogger(ExploreHelper.class).info(
-							"No time series graph to be displayed for the selection : " + filterList.get(0).getFilterName() + " - "
-									+ filterList.get(0).getFilterValues().toString() + " ; " + filterList.get(1).getFilterName() + " - "
-									+ filterList.get(1).getFilterValues().toString() + " ; " + filterList.get(2).getFilterName() + " - "
-									+ filterList.get(2).getFilterValues().toString() + " ; ");
+					Log.get(ExploreHelper.class).info(() -> "No time series graph to be displayed for the selection : " + teamSelector);
 				}
 			} catch (SQLException e) {
-				org.apache.log4j.Logger.getLogger(ExploreHelper.class).error("Exception while getting team metrics data : " + teamListMap.toString(),
+				Log.get(ExploreHelper.class).error("Exception while getting team metrics data : " + teamListMap.toString(),
 						e);
 			}
 			result.put(teamName, timeSeriesMap);
@@ -115,6 +242,19 @@ public class ExploreHelper extends TheBorg {
 		return result;
 	}
 
+	/**
+	 * @param teamSelector - selection of the team
+	 * @return key of the team time series in the time series cache, shared with the HR dashboard series of the same team
+	 */
+	private static String getTimeSeriesKey(TeamSelector teamSelector) {
+		if (teamSelector.getLevel() == TeamSelector.Level.ORGANIZATION) {
+			return "organization";
+		} else if (teamSelector.getLevel() == TeamSelector.Level.DIMENSION) {
+			return "dimension-" + teamSelector.getDimensionValueId();
+		}
+		return "cube-" + teamSelector.getFuncId() + "-" + teamSelector.getPosId() + "-" + teamSelector.getZoneId();
+	}
+
 	/**
 	 * Retrieves the individual metrics data
 	 * @param companyId - Company ID of the employee
@@ -122,30 +262,58 @@ public class ExploreHelper extends TheBorg {
 	 * @return - map of employee linked to a list of metrics
 	 */
 	public Map<Employee, List<Metrics>> getIndividualMetricsData(int companyId, List<Employee> employeeList) {
+		Map<Integer, List<Metrics>> metricsByEmployee = getIndividualMetricsForEmployeeIds(companyId, getEmployeeIds(employeeList));
+		Map<Employee, List<Metrics>> result = new HashMap<>();
+		for (Employee e : employeeList) {
+			result.put(e, metricsByEmployee.get(e.getEmployeeId()));
+		}
+		return result;
+
+	}
 
+	/**
+	 * Retrieves the individual metrics of many employees with one procedure call per chunk of employee IDs
+	 * @param companyId - Company ID of the employee
+	 * @param employeeIds - IDs of the employees selected
+	 * @return map of employee ID and its list of metrics, every metric of the category is listed with score 0 if it has no value
+	 */
+	public Map<Integer, List<Metrics>> getIndividualMetricsForEmployeeIds(int companyId, List<Integer> employeeIds) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-		Map<Employee, List<Metrics>> result = new HashMap<>();
+		MetricsHelper mh = new MetricsHelper();
+		Map<Integer, Map<Integer, Metrics>> valueMap = new HashMap<>();
+		Map<Integer, String> metricListMap;
 		try {
-			dch.refreshCompanyConnection(companyId);
-			for (Employee e : employeeList) {
-				List<Metrics> metricsList = new ArrayList<>();
-				try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call getIndividualMetricValue(?)}")) {
-					cstmt.setInt(1, e.getEmployeeId());
-					try (ResultSet rs = cstmt.executeQuery()) {
-						MetricsHelper mh = new MetricsHelper();
-						metricsList = mh.fillMetricsData(companyId, rs, null, "Individual");
-						result.put(e, metricsList);
+			// the metric list is the same for every employee, it is retrieved once
+			metricListMap = mh.getMetricListForCategory(companyId, "Individual");
+		} catch (SQLException e) {
+			Log.get(ExploreHelper.class).error("Exception while retrieving the individual metric list", e);
+			return new HashMap<>();
+		}
+		try {
+			CompanyJdbc jdbc = dch.getCompanyJdbc(companyId);
+			for (String empIds : UtilHelper.getIdListChunks(employeeIds, EMPLOYEE_ID_LIST_LENGTH)) {
+				jdbc.query("{call getIndividualMetricValue(?)}", cstmt -> cstmt.setString(1, empIds), rs -> {
+					ColumnIndex columns = ColumnIndex.of(rs);
+					int empIdIndex = columns.get("emp_id");
+					MetricsRowMapper mapper = new MetricsRowMapper(columns, null, "Individual");
+					for (int rowNum = 0; rs.next(); rowNum++) {
+						Metrics m = mapper.mapRow(rs, rowNum);
+						valueMap.computeIfAbsent(rs.getInt(empIdIndex), k -> new HashMap<>()).put(m.getId(), m);
 					}
-				}
-
+					return valueMap;
+				});
 			}
 		} catch (SQLException e) {
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).error("Exception while retrieving individual metrics data", e);
+			Log.get(ExploreHelper.class).error("Exception while retrieving individual metrics data", e);
 		}
-		return result;
 
+		Map<Integer, List<Metrics>> result = new HashMap<>();
+		for (int employeeId : employeeIds) {
+			Map<Integer, Metrics> metricsMap = mh.getEmptyMetricScoreList(metricListMap, null);
+			metricsMap.putAll(valueMap.getOrDefault(employeeId, new HashMap<>()));
+			result.put(employeeId, new ArrayList<>(metricsMap.values()));
+		}
+		return result;
 	}
 
 	/**
@@ -155,31 +323,68 @@ public class ExploreHelper extends TheBorg {
 	 * @return map of employee linked to a list of metrics
 	 */
 	public Map<Employee, Map<Integer, List<Map<Date, Integer>>>> getIndividualTimeSeriesGraph(int companyId, List<Employee> employeeList) {
-
-		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
+		Map<Integer, Map<Integer, MetricTimeSeries>> timeSeriesByEmployee = getIndividualTimeSeriesForEmployeeIds(companyId,
+				getEmployeeIds(employeeList));
 		Map<Employee, Map<Integer, List<Map<Date, Integer>>>> result = new HashMap<>();
+		for (Employee e : employeeList) {
+			result.put(e, MetricTimeSeries.toMapList(timeSeriesByEmployee.getOrDefault(e.getEmployeeId(), new HashMap<>())));
+		}
+		return result;
 
-		try {
-			dch.refreshCompanyConnection(companyId);
-			for (Employee e : employeeList) {
-				org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-				Map<Integer, List<Map<Date, Integer>>> metricsList = new HashMap<>();
-				try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call getIndividualMetricTimeSeries(?)}")) {
-					cstmt.setInt(1, e.getEmployeeId());
-					try (ResultSet rs = cstmt.executeQuery()) {
-						metricsList = getTimeSeriesMap(rs);
-						result.put(e, metricsList);
-					}
-				}
+	}
+
+	/**
+	 * Retrieves the individual time series of many employees with one procedure call per chunk of employee IDs
+	 * @param companyId - Company ID of the employee
+	 * @param employeeIds - IDs of the employees selected
+	 * @return map of employee ID and its map of metric ID and time series, employees without values are not in the map
+	 */
+	public Map<Integer, Map<Integer, MetricTimeSeries>> getIndividualTimeSeriesForEmployeeIds(int companyId, List<Integer> employeeIds) {
+		return queryIndividualTimeSeries(companyId, employeeIds, TimeSeriesWindow.ALL);
+	}
+
+	/**
+	 * Retrieves the individual time series of many employees within the window, aggregated into buckets
+	 * @param companyId - Company ID of the employee
+	 * @param employeeIds - IDs of the employees selected
+	 * @param window - date range, bucket size and aggregation
+	 * @return map of employee ID and its map of metric ID and downsampled time series, employees without values are not in the map
+	 */
+	public Map<Integer, Map<Integer, MetricTimeSeries>> getIndividualTimeSeriesForEmployeeIds(int companyId, List<Integer> employeeIds,
+			TimeSeriesWindow window) {
+		TimeSeriesCache cache = ObjectFactory.getDBHelper().getTimeSeriesCache();
+		Map<Integer, Map<Integer, MetricTimeSeries>> result = new HashMap<>();
+		for (Map.Entry<Integer, Map<Integer, MetricTimeSeries>> entry : queryIndividualTimeSeries(companyId, employeeIds, window).entrySet()) {
+			result.put(entry.getKey(), cache.downsample(companyId, "individual-" + entry.getKey(), entry.getValue(), window));
+		}
+		return result;
+	}
 
+	private Map<Integer, Map<Integer, MetricTimeSeries>> queryIndividualTimeSeries(int companyId, List<Integer> employeeIds,
+			TimeSeriesWindow window) {
+		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
+		Map<Integer, Map<Integer, MetricTimeSeries>> result = new HashMap<>();
+		try {
+			CompanyJdbc jdbc = dch.getCompanyJdbc(companyId);
+			for (String empIds : UtilHelper.getIdListChunks(employeeIds, EMPLOYEE_ID_LIST_LENGTH)) {
+				// every employee is in a single chunk
+				result.putAll(jdbc.query("{call getIndividualMetricTimeSeries(?,?,?)}", cstmt -> {
+					cstmt.setString(1, empIds);
+					window.setDateRange(cstmt, 2);
+				}, MetricTimeSeries::fromResultSetByEmployee));
 			}
 		} catch (SQLException e) {
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).error("Exception while retrieving individual metrics data", e);
+			Log.get(ExploreHelper.class).error("Exception while retrieving individual time series data", e);
 		}
 		return result;
+	}
 
+	private static List<Integer> getEmployeeIds(List<Employee> employeeList) {
+		List<Integer> employeeIds = new ArrayList<>();
+		for (Employee e : employeeList) {
+			employeeIds.add(e.getEmployeeId());
+		}
+		return employeeIds;
 	}
 
 	/**
@@ -189,46 +394,168 @@ public class ExploreHelper extends TheBorg {
 	 * @throws SQLException - if the time series map is not retrieved
 	 */
 	public Map<Integer, List<Map<Date, Integer>>> getTimeSeriesMap(ResultSet rs) throws SQLException {
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-		Map<Integer, List<Map<Date, Integer>>> result = new HashMap<>();
-
-		while (rs.next()) {
-			if (result.containsKey(rs.getInt("metric_id"))) {
-				List<Map<Date, Integer>> metricScoreMapList = new ArrayList<>();
-				org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-				Map<Date, Integer> metricScoreMap = new HashMap<>();
-				metricScoreMapList = result.get(rs.getInt("metric_id"));
-				metricScoreMap.put(rs.getDate("calc_time"), rs.getInt("Score"));
-				metricScoreMapList.add(metricScoreMap);
-				result.put(rs.getInt("metric_id"), metricScoreMapList);
-			} else {
-				List<Map<Date, Integer>> metricScoreMapList = new ArrayList<>();
-				org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-				Map<Date, Integer> metricScoreMap = new HashMap<>();
-				metricScoreMap.put(rs.getDate("calc_time"), rs.getInt("Score"));
-				metricScoreMapList.add(metricScoreMap);
-				result.put(rs.getInt("metric_id"), metricScoreMapList);
-			}
-		}
-		return result;
+		return MetricTimeSeries.toMapList(MetricTimeSeries.fromResultSet(rs));
 	}
 
 	/**
 	 * Get the node list and edge list for team network diagram
+	 * The diagram is served from the network diagram cache until the edges of the company are recalculated
 	 * @param companyId - Company ID of the employee
 	 * @param teamListMap - List of filters which define the team
 	 * @param relationshipType - Map of relationship id and name
 	 * @return map with node list and edge list
 	 */
 	public Map<String, List<?>> getTeamNetworkDiagram(int companyId, Map<String, List<Filter>> teamListMap, Map<Integer, String> relationshipType) {
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).debug("Entering getTeamNetworkDiagram method");
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-		Map<String, List<?>> result = new HashMap<>();
+		Log.get(ExploreHelper.class).debug(() -> "Entering getTeamNetworkDiagram method");
+		Map<String, List<?>> result = getTeamNetworkDiagram(companyId, getNetworkTeams(teamListMap), relationshipType, Integer.MAX_VALUE, false);
+		Log.get(ExploreHelper.class).debug(() -> "Exiting getTeamNetworkDiagram method");
+		return result;
+
+	}
+
+	/**
+	 * Get the node list and edge list for team network diagram, with the position of every node computed by ForceLayout
+	 * The positioned diagram is cached under its own key, the layout is only computed again once the edges are recalculated
+	 * @param companyId - Company ID of the employee
+	 * @param teamListMap - List of filters which define the team
+	 * @param relationshipType - Map of relationship id and name
+	 * @return map with node list and edge list
+	 */
+	public Map<String, List<?>> getTeamNetworkDiagramWithLayout(int companyId, Map<String, List<Filter>> teamListMap,
+			Map<Integer, String> relationshipType) {
+		Log.get(ExploreHelper.class).debug(() -> "Entering getTeamNetworkDiagramWithLayout method");
+		Map<String, List<?>> result = getTeamNetworkDiagram(companyId, getNetworkTeams(teamListMap), relationshipType, Integer.MAX_VALUE, true);
+		Log.get(ExploreHelper.class).debug(() -> "Exiting getTeamNetworkDiagramWithLayout method");
+		return result;
+	}
+
+	/**
+	 * Get the team network diagram at a level of detail which keeps the payload bounded
+	 * If the teams have more employees than network_diagram_max_nodes, the employees of a team sharing a function, position and zone
+	 * are collapsed into a cluster node and the relationships between the clusters are summed; getClusterNetworkDiagram returns the
+	 * employees of a single cluster
+	 * @param companyId - Company ID of the employee
+	 * @param teamListMap - List of filters which define the team
+	 * @param relationshipType - Map of relationship id and name
+	 * @return map with node list and edge list, or with cluster list and cluster edge list if the teams are too large
+	 */
+	public Map<String, List<?>> getClusteredTeamNetworkDiagram(int companyId, Map<String, List<Filter>> teamListMap,
+			Map<Integer, String> relationshipType) {
+		Log.get(ExploreHelper.class).debug(() -> "Entering getClusteredTeamNetworkDiagram method");
+		int maxNodes = ConfigSnapshot.get().getInt("network_diagram_max_nodes", 1000);
+		Map<String, List<?>> result = getTeamNetworkDiagram(companyId, getNetworkTeams(teamListMap), relationshipType, maxNodes, false);
+		Log.get(ExploreHelper.class).debug(() -> "Exiting getClusteredTeamNetworkDiagram method");
+		return result;
+	}
+
+	/**
+	 * Get the node list and edge list of the employees of a cluster of the clustered team network diagram
+	 * @param companyId - Company ID of the employee
+	 * @param cluster - cluster node of the clustered diagram
+	 * @param relationshipType - Map of relationship id and name
+	 * @return map with node list and edge list
+	 */
+	public Map<String, List<?>> getClusterNetworkDiagram(int companyId, ClusterNode cluster, Map<Integer, String> relationshipType) {
+		Log.get(ExploreHelper.class).debug(() -> "Entering getClusterNetworkDiagram method");
+		Map<String, Object> team = new HashMap<>();
+		team.put("name", cluster.getTeamName());
+		team.put("funcId", cluster.getFunctionId());
+		team.put("posId", cluster.getPositionId());
+		team.put("zoneId", cluster.getZoneId());
+		Map<String, List<?>> result = getTeamNetworkDiagram(companyId, Collections.singletonList(team), relationshipType, Integer.MAX_VALUE,
+				false);
+		Log.get(ExploreHelper.class).debug(() -> "Exiting getClusterNetworkDiagram method");
+		return result;
+	}
+
+	/**
+	 * Streams the team network diagram to the consumer, the nodes as they are read from neo4j and then the edges in chunks of
+	 * network_diagram_edge_chunk_size
+	 * Only the employee IDs of the teams are kept to look up the edges, so the memory used does not grow with the size of the
+	 * diagram; the streamed diagram is not cached
+	 * @param companyId - Company ID of the employee
+	 * @param teamListMap - List of filters which define the team
+	 * @param relationshipType - Map of relationship id and name
+	 * @param consumer - receives the nodes and the chunks of edges
+	 * @return true if the whole diagram has been passed to the consumer, false if the diagram could not be read
+	 */
+	public boolean streamTeamNetworkDiagram(int companyId, Map<String, List<Filter>> teamListMap, Map<Integer, String> relationshipType,
+			NetworkDiagramConsumer consumer) {
+		Log.get(ExploreHelper.class).debug(() -> "Entering streamTeamNetworkDiagram method");
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		String query = "";
-		List<Node> nodeList = new ArrayList<>();
-		List<Edge> edgeList = new ArrayList<>();
+		List<Map<String, Object>> teams = getNetworkTeams(teamListMap);
+		EdgeChunker edgeChunker = new EdgeChunker(consumer, ConfigSnapshot.get().getInt("network_diagram_edge_chunk_size", 1000));
+		Set<Integer> empIdSet = new HashSet<>();
+		GraphSnapshot snapshot = dch.getGraphSnapshot(companyId);
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
+			boolean displayNetworkName = dch.getCompanyConfig(companyId).isDisplayNetworkName();
+			TEAM_MEMBERS.query(neoConn, Collections.singletonMap("teams", teams), res -> {
+				while (res.next()) {
+					Node n = getTeamMemberNode(res, displayNetworkName);
+					empIdSet.add(n.getEmployeeId());
+					consumer.acceptNode(n);
+				}
+				return empIdSet;
+			});
+			if (snapshot == null) {
+				visitEdges(companyId, neoConn, new ArrayList<>(empIdSet), relationshipType, edgeChunker);
+			}
+		} catch (SQLException e) {
+			Log.get(ExploreHelper.class).error("Error while streaming team networks diagram", e);
+			return false;
+		}
+		// the snapshot is read once the neo4j connection has been released
+		if (snapshot != null) {
+			int[] empIds = new int[empIdSet.size()];
+			int i = 0;
+			for (int empId : empIdSet) {
+				empIds[i++] = empId;
+			}
+			snapshot.visitEdges(empIds, relationshipType.values(), edgeChunker);
+		}
+		edgeChunker.flush();
+		Log.get(ExploreHelper.class).debug(() -> "Exiting streamTeamNetworkDiagram method");
+		return true;
+	}
+
+	/**
+	 * Collects the edges into chunks of a fixed size and passes every full chunk to the consumer
+	 */
+	private static class EdgeChunker implements Consumer<Edge> {
+		private final NetworkDiagramConsumer consumer;
+		private final int chunkSize;
+		private List<Edge> chunk;
+
+		EdgeChunker(NetworkDiagramConsumer consumer, int chunkSize) {
+			this.consumer = consumer;
+			this.chunkSize = Math.max(1, chunkSize);
+			this.chunk = new ArrayList<>(this.chunkSize);
+		}
+
+		@Override
+		public void accept(Edge edge) {
+			chunk.add(edge);
+			if (chunk.size() >= chunkSize) {
+				flush();
+			}
+		}
+
+		void flush() {
+			if (!chunk.isEmpty()) {
+				consumer.acceptEdges(chunk);
+				chunk = new ArrayList<>(chunkSize);
+			}
+		}
+	}
+
+	/**
+	 * Converts the filters of every team to the function, position and zone IDs of the team members query, 0 stands for ALL
+	 * @param teamListMap - List of filters which define the team
+	 * @return list of map of team name and IDs
+	 */
+	private static List<Map<String, Object>> getNetworkTeams(Map<String, List<Filter>> teamListMap) {
+		List<Map<String, Object>> teams = new ArrayList<>();
 		for (String teamName : teamListMap.keySet()) {
 			List<Filter> filterList = teamListMap.get(teamName);
 			List<Integer> funcList = new ArrayList<>(), posList = new ArrayList<>(), zoneList = new ArrayList<>();
@@ -243,159 +570,286 @@ public class ExploreHelper extends TheBorg {
 				}
 			}
 
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).debug(
-					"Filter list for " + teamName + " : " + " Function : " + funcList.toString() + " Position : " + posList.toString() + " Zone : "
-							+ zoneList.toString());
-			String funcQuery = "", posQuery = "", zoneQuery = "";
-			if (funcList.contains(0)) {
-				funcQuery = "";
-			} else {
-				funcQuery = "f.Id = " + funcList.get(0);
-			}
+			Log.get(ExploreHelper.class).debug(
+					() -> "Filter list for " + teamName + " : " + " Function : " + funcList.toString() + " Position : " + posList.toString()
+							+ " Zone : " + zoneList.toString());
+			Map<String, Object> team = new HashMap<>();
+			team.put("name", teamName);
+			team.put("funcId", funcList.isEmpty() || funcList.contains(0) ? 0 : funcList.get(0));
+			team.put("posId", posList.isEmpty() || posList.contains(0) ? 0 : posList.get(0));
+			team.put("zoneId", zoneList.isEmpty() || zoneList.contains(0) ? 0 : zoneList.get(0));
+			teams.add(team);
+		}
+		return teams;
+	}
 
-			if (zoneList.contains(0)) {
-				zoneQuery = "";
-			} else {
-				zoneQuery = "z.Id = " + zoneList.get(0);
+	/**
+	 * Retrieves the team network diagram from the network diagram cache
+	 * @param companyId - Company ID
+	 * @param teams - list of map of team name and function, position and zone IDs
+	 * @param relationshipType - Map of relationship id and name
+	 * @param maxNodes - number of employees above which the employees are collapsed into clusters, Integer.MAX_VALUE to never
+	 *        collapse them
+	 * @param layout - true to compute the position of the nodes
+	 * @return map with node list and edge list, and with cluster list and cluster edge list if maxNodes is set
+	 */
+	private Map<String, List<?>> getTeamNetworkDiagram(int companyId, List<Map<String, Object>> teams, Map<Integer, String> relationshipType,
+			int maxNodes, boolean layout) {
+		Map<String, List<?>> result = new HashMap<>();
+		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
+		dch.refreshCompanyConnection(companyId);
+		try {
+			boolean displayNetworkName = dch.getCompanyConfig(companyId).isDisplayNetworkName();
+			List<String> teamKeys = new ArrayList<>();
+			for (Map<String, Object> team : teams) {
+				teamKeys.add(team.get("name") + ":" + team.get("funcId") + "-" + team.get("posId") + "-" + team.get("zoneId"));
 			}
-
-			if (posList.contains(0)) {
-				posQuery = "";
-			} else {
-				posQuery = "p.Id = " + posList.get(0);
+			String type = maxNodes == Integer.MAX_VALUE ? "team" : "team-clustered-" + maxNodes;
+			String key = getNetworkDiagramKey(type, teamKeys, relationshipType, displayNetworkName);
+			result = getNetworkDiagram(companyId, key, () -> loadTeamNetworkDiagram(companyId, teams, relationshipType, displayNetworkName,
+					maxNodes), layout);
+		} catch (SQLException e) {
+			Log.get(ExploreHelper.class).error("Error while retrieving team networks diagram", e);
+			result.put("nodeList", new ArrayList<Node>());
+			result.put("edgeList", new ArrayList<Edge>());
+			if (maxNodes != Integer.MAX_VALUE) {
+				result.put("clusterList", new ArrayList<ClusterNode>());
+				result.put("clusterEdgeList", new ArrayList<ClusterEdge>());
 			}
-
-			String subQuery = "match (a:Employee)-[:has_functionality]->(f:Function), (p:Position)<-[:is_positioned]-(a)-[:from_zone]->(z:Zone) "
-					+ ((!zoneQuery.isEmpty() || !funcQuery.isEmpty() || !posQuery.isEmpty()) ? " where " : "")
-					+ (zoneQuery.isEmpty() ? "" : (zoneQuery + ((!funcQuery.isEmpty() || !posQuery.isEmpty() ? " and " : ""))))
-					+ (funcQuery.isEmpty() ? "" : funcQuery + (!posQuery.isEmpty() ? " and " : ""))
-					+ (posQuery.isEmpty() ? "" : (posQuery))
-					+ "  return a.emp_id as emp_id, a.FirstName as firstName ,a.LastName as lastName,f.Name as funcName,p.Name as posName,z.Name as zoneName, '"
-					+ teamName + "' as team";
-
-			query = query.isEmpty() ? subQuery : query + " union " + subQuery;
-
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).debug("getTeamNetworkDiagram subQuery for team " + teamName + " : " + subQuery);
-
 		}
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement(); ResultSet res = stmt.executeQuery(query)) {
+		return result;
+	}
+
+	private Map<String, List<?>> loadTeamNetworkDiagram(int companyId, List<Map<String, Object>> teams, Map<Integer, String> relationshipType,
+			boolean displayNetworkName, int maxNodes) throws SQLException {
+		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
+		Map<String, List<?>> result = new HashMap<>();
+		List<Node> nodeList = new ArrayList<>();
+		List<Edge> edgeList;
+		// clusters of the team, function, position and zone combinations, and the clusters every employee belongs to
+		Map<String, ClusterNode> clusterMap = new LinkedHashMap<>();
+		Map<Integer, List<ClusterNode>> employeeClusterMap = new HashMap<>();
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
 			List<Integer> empIdList = new ArrayList<>();
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).debug("getTeamNetworkDiagram query for all teams  : " + query);
-			while (res.next()) {
-				empIdList.add(res.getInt("emp_id"));
-				Node n = new Node();
-				n.setEmployeeId(res.getInt("emp_id"));
-				if (dch.companyConfigMap.get(companyId).isDisplayNetworkName()) {
-					n.setFirstName(res.getString("firstName"));
-					n.setLastName(res.getString("lastName"));
+			TEAM_MEMBERS.query(neoConn, Collections.singletonMap("teams", teams), res -> {
+				while (res.next()) {
+					Node n = getTeamMemberNode(res, displayNetworkName);
+					empIdList.add(n.getEmployeeId());
+					nodeList.add(n);
+
+					String clusterId = n.getTeamName() + "/" + res.getInt("funcId") + "-" + res.getInt("posId") + "-" + res.getInt("zoneId");
+					ClusterNode cluster = clusterMap.get(clusterId);
+					if (cluster == null) {
+						cluster = new ClusterNode();
+						cluster.setClusterId(clusterId);
+						cluster.setTeamName(n.getTeamName());
+						cluster.setFunctionId(res.getInt("funcId"));
+						cluster.setFunction(n.getFunction());
+						cluster.setPositionId(res.getInt("posId"));
+						cluster.setPosition(n.getPosition());
+						cluster.setZoneId(res.getInt("zoneId"));
+						cluster.setZone(n.getZone());
+						clusterMap.put(clusterId, cluster);
+					}
+					cluster.setSize(cluster.getSize() + 1);
+					employeeClusterMap.computeIfAbsent(n.getEmployeeId(), k -> new ArrayList<>()).add(cluster);
 				}
-				n.setFunction(res.getString("funcName"));
-				n.setZone(res.getString("zoneName"));
-				n.setPosition(res.getString("posName"));
-				n.setTeamName(res.getString("team"));
-				nodeList.add(n);
-			}
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).debug("Node list size : " + nodeList.size());
-
-			edgeList = getEdges(companyId, empIdList, relationshipType);
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).debug("Edge list size : " + edgeList.size());
-		} catch (SQLException e) {
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).error("Error while retrieving team networks diagram", e);
+				return nodeList;
+			});
+			Log.get(ExploreHelper.class).debug(() -> "Node list size : " + nodeList.size());
+
+			GraphSnapshot snapshot = dch.getGraphSnapshot(companyId);
+			edgeList = snapshot != null ? snapshot.getEdges(empIdList, relationshipType.values()) : queryEdges(companyId, neoConn, empIdList,
+					relationshipType);
+			Log.get(ExploreHelper.class).debug(() -> "Edge list size : " + edgeList.size());
 		}
 
-		result.put("nodeList", nodeList);
-		result.put("edgeList", edgeList);
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).debug("Exiting getTeamNetworkDiagram method");
+		if (maxNodes == Integer.MAX_VALUE) {
+			result.put("nodeList", nodeList);
+			result.put("edgeList", edgeList);
+		} else if (nodeList.size() <= maxNodes) {
+			result.put("nodeList", nodeList);
+			result.put("edgeList", edgeList);
+			result.put("clusterList", new ArrayList<ClusterNode>());
+			result.put("clusterEdgeList", new ArrayList<ClusterEdge>());
+		} else {
+			Map<String, ClusterEdge> clusterEdgeMap = new LinkedHashMap<>();
+			for (Edge e : edgeList) {
+				for (ClusterNode from : employeeClusterMap.get(e.getFromEmployeId())) {
+					for (ClusterNode to : employeeClusterMap.get(e.getToEmployeeId())) {
+						ClusterEdge clusterEdge = clusterEdgeMap.computeIfAbsent(from.getClusterId() + ">" + to.getClusterId() + ">"
+								+ e.getRelationshipType(), k -> {
+							ClusterEdge ce = new ClusterEdge();
+							ce.setFromClusterId(from.getClusterId());
+							ce.setToClusterId(to.getClusterId());
+							ce.setRelationshipType(e.getRelationshipType());
+							return ce;
+						});
+						clusterEdge.setWeight(clusterEdge.getWeight() + e.getWeight());
+						clusterEdge.setCount(clusterEdge.getCount() + 1);
+					}
+				}
+			}
+			Log.get(ExploreHelper.class).debug(
+					() -> "Collapsed " + nodeList.size() + " nodes into " + clusterMap.size() + " clusters and " + edgeList.size() + " edges into "
+							+ clusterEdgeMap.size() + " cluster edges");
+			result.put("nodeList", new ArrayList<Node>());
+			result.put("edgeList", new ArrayList<Edge>());
+			result.put("clusterList", new ArrayList<>(clusterMap.values()));
+			result.put("clusterEdgeList", new ArrayList<>(clusterEdgeMap.values()));
+		}
 		return result;
-
 	}
 
 	/**
 	 * Get the node list and edge list for the individual network diagram
+	 * The diagram is served from the network diagram cache until the edges of the company are recalculated
 	 * @param companyId - Company ID
 	 * @param employeeList - List of employee objects
 	 * @param relationshipTypeMap - Map of relationship id and name
 	 * @return map with node list and edge list
 	 */
 	public Map<String, List<?>> getIndividualNetworkDiagram(int companyId, List<Employee> employeeList, Map<Integer, String> relationshipTypeMap) {
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).debug("Entering getIndividualNetworkDiagram method");
+		Log.get(ExploreHelper.class).debug(() -> "Entering getIndividualNetworkDiagram method");
+		Map<String, List<?>> result = getIndividualNetworkDiagram(companyId, employeeList, relationshipTypeMap, false);
+		Log.get(ExploreHelper.class).debug(() -> "Entering getIndividualNetworkDiagram method");
+		return result;
+	}
+
+	/**
+	 * Get the node list and edge list for the individual network diagram, with the position of every node computed by ForceLayout
+	 * @param companyId - Company ID
+	 * @param employeeList - List of employee objects
+	 * @param relationshipTypeMap - Map of relationship id and name
+	 * @return map with node list and edge list
+	 */
+	public Map<String, List<?>> getIndividualNetworkDiagramWithLayout(int companyId, List<Employee> employeeList,
+			Map<Integer, String> relationshipTypeMap) {
+		Log.get(ExploreHelper.class).debug(() -> "Entering getIndividualNetworkDiagramWithLayout method");
+		Map<String, List<?>> result = getIndividualNetworkDiagram(companyId, employeeList, relationshipTypeMap, true);
+		Log.get(ExploreHelper.class).debug(() -> "Exiting getIndividualNetworkDiagramWithLayout method");
+		return result;
+	}
+
+	private Map<String, List<?>> getIndividualNetworkDiagram(int companyId, List<Employee> employeeList, Map<Integer, String> relationshipTypeMap,
+			boolean layout) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
+		Map<String, List<?>> result = new HashMap<>();
+		List<Integer> employeeIds = getEmployeeIds(employeeList);
+
+		try {
+			boolean displayNetworkName = dch.getCompanyConfig(companyId).isDisplayNetworkName();
+			List<String> employeeKeys = new ArrayList<>();
+			for (int employeeId : new TreeSet<>(employeeIds)) {
+				employeeKeys.add(String.valueOf(employeeId));
+			}
+			String key = getNetworkDiagramKey("individual", employeeKeys, relationshipTypeMap, displayNetworkName);
+			result = getNetworkDiagram(companyId, key, () -> loadIndividualNetworkDiagram(companyId, employeeIds, relationshipTypeMap,
+					displayNetworkName), layout);
+		} catch (SQLException e) {
+			Log.get(ExploreHelper.class).error("Error while retrieving individual networks diagram", e);
+			result.put("nodeList", new ArrayList<Node>());
+			result.put("edgeList", new ArrayList<Edge>());
+		}
+		return result;
+	}
+
+	private Map<String, List<?>> loadIndividualNetworkDiagram(int companyId, List<Integer> employeeIds, Map<Integer, String> relationshipTypeMap,
+			boolean displayNetworkName) throws SQLException {
+		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		Map<String, List<?>> result = new HashMap<>();
 		List<Node> nodeList = new ArrayList<>();
-		List<Edge> edgeList = new ArrayList<>();
-		List<Integer> employeeIdList = new ArrayList<>();
-		String relationshipType = "";
+		List<Edge> edgeList;
 
-		for (Employee e : employeeList) {
-			employeeIdList.add(e.getEmployeeId());
-		}
-
-		for (int relationshipTypeId : relationshipTypeMap.keySet()) {
-			relationshipType = relationshipType.isEmpty() ? relationshipTypeMap.get(relationshipTypeId) : relationshipType + " | "
-					+ relationshipTypeMap.get(relationshipTypeId);
-		}
-
-		String query = "match (a:Employee)-[:has_functionality]->(f:Function),(p:Position)<-[:is_positioned]-(a)-[:from_zone]->(z:Zone) where a.emp_id in "
-				+ employeeIdList
-				+ " return a.emp_id as emp_id,a.FirstName as firstName,a.LastName as lastName,0 as degree,f.Name as funcName,p.Name as posName,z.Name as zoneName order by emp_id "
-				+ "union "
-				+ "match (a:Employee)-[r:"
-				+ relationshipType
-				+ "]-(b:Employee)-[:has_functionality]->(f:Function),(p:Position)<-[:is_positioned]-(b)-[:from_zone]->(z:Zone)"
-				+ " where a.emp_id in "
-				+ employeeIdList
-				+ " and not  b.emp_id in "
-				+ employeeIdList
-				+ " return b.emp_id as emp_id,b.FirstName as firstName,b.LastName as lastName,1 as degree,f.Name as funcName,p.Name as posName,z.Name as zoneName order by emp_id"
-				+ " union "
-				+ "match (x:Employee)-[r:"
-				+ relationshipType
-				+ "]-(y:Employee)"
-				+ " where x.emp_id in "
-				+ employeeIdList
-				+ " with collect(y) as firstdegree"
-				+ " match (a:Employee)-[r:"
-				+ relationshipType
-				+ "]-(b:Employee)-[r1:"
-				+ relationshipType
-				+ "]-(c:Employee)-[:has_functionality]->(f:Function),(p:Position)<-[:is_positioned]-(c)-[:from_zone]->(z:Zone)"
-				+ " where a.emp_id in "
-				+ employeeIdList
-				+ " and a<>b and not  c.emp_id in "
-				+ employeeIdList
-				+ " and b<>c and not(c in firstdegree)"
-				+ " return c.emp_id as emp_id,c.FirstName as firstName,c.LastName as lastName,2 as degree,f.Name as funcName,p.Name as posName,z.Name as zoneName order by emp_id";
-
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement(); ResultSet res = stmt.executeQuery(query)) {
+		GraphSnapshot snapshot = dch.getGraphSnapshot(companyId);
+		if (snapshot != null) {
+			nodeList.addAll(snapshot.getIndividualNetwork(employeeIds, relationshipTypeMap.values(), displayNetworkName));
 			List<Integer> empIdList = new ArrayList<>();
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).debug("getIndividualNetworkDiagram query  : " + query);
-			while (res.next()) {
-				empIdList.add(res.getInt("emp_id"));
-				Node n = new Node();
-				n.setEmployeeId(res.getInt("emp_id"));
-				if (dch.companyConfigMap.get(companyId).isDisplayNetworkName()) {
-					n.setFirstName(res.getString("firstName"));
-					n.setLastName(res.getString("lastName"));
-				}
-				n.setFunction(res.getString("funcName"));
-				n.setZone(res.getString("zoneName"));
-				n.setPosition(res.getString("posName"));
-				n.setConnectedness(res.getInt("degree"));
-				nodeList.add(n);
+			for (Node n : nodeList) {
+				empIdList.add(n.getEmployeeId());
+			}
+			edgeList = snapshot.getEdges(empIdList, relationshipTypeMap.values());
+		} else {
+			Map<String, Object> params = new HashMap<>();
+			params.put("empIds", employeeIds);
+			params.put("relTypes", new ArrayList<>(relationshipTypeMap.values()));
+			try (Connection neoConn = dch.getNeoConnection(companyId)) {
+				List<Integer> empIdList = new ArrayList<>();
+				INDIVIDUAL_NETWORK.query(neoConn, params, res -> {
+					while (res.next()) {
+						empIdList.add(res.getInt("emp_id"));
+						Node n = new Node();
+						n.setEmployeeId(res.getInt("emp_id"));
+						if (displayNetworkName) {
+							n.setFirstName(res.getString("firstName"));
+							n.setLastName(res.getString("lastName"));
+						}
+						n.setFunction(res.getString("funcName"));
+						n.setZone(res.getString("zoneName"));
+						n.setPosition(res.getString("posName"));
+						n.setConnectedness(res.getInt("degree"));
+						nodeList.add(n);
+					}
+					return nodeList;
+				});
+				edgeList = queryEdges(companyId, neoConn, empIdList, relationshipTypeMap);
 			}
-			edgeList = getEdges(companyId, empIdList, relationshipTypeMap);
-		} catch (SQLException e) {
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).error("Error while retrieving individual networks diagram", e);
 		}
 
 		result.put("nodeList", nodeList);
 		result.put("edgeList", edgeList);
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).debug("Entering getIndividualNetworkDiagram method");
 		return result;
 	}
 
+	/**
+	 * Retrieves the diagram from the network diagram cache
+	 * The positioned diagram is cached under its own key and is computed from the cached diagram without layout
+	 * @param companyId - Company ID
+	 * @param key - key of the diagram without layout
+	 * @param loader - builds the diagram without layout
+	 * @param layout - true to compute the position of the nodes
+	 * @return map with node list and edge list
+	 * @throws SQLException - if the diagram is not cached and cannot be built
+	 */
+	private Map<String, List<?>> getNetworkDiagram(int companyId, String key, NetworkDiagramCache.NetworkDiagramLoader loader, boolean layout)
+			throws SQLException {
+		NetworkDiagramCache cache = ObjectFactory.getDBHelper().getNetworkDiagramCache();
+		if (!layout) {
+			return cache.get(companyId, key, loader);
+		}
+		return cache.get(companyId, key + "/layout", () -> layoutNetworkDiagram(companyId, cache.get(companyId, key, loader)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, List<?>> layoutNetworkDiagram(int companyId, Map<String, List<?>> diagram) {
+		long start = System.currentTimeMillis();
+		ConfigSnapshot config = ConfigSnapshot.get();
+		ForceLayout forceLayout = new ForceLayout(config.getInt("network_layout_iterations", 100), config.getInt("network_layout_threads", 4),
+				ObjectFactory.getDBHelper().getCompanyExecutor(companyId));
+		List<Node> nodeList = forceLayout.layout((List<Node>) diagram.get("nodeList"), (List<Edge>) diagram.get("edgeList"));
+		Log.get(ExploreHelper.class).debug(() -> "Computed the layout of " + nodeList.size() + " nodes in " + (System.currentTimeMillis() - start)
+				+ " ms");
+		Map<String, List<?>> result = new HashMap<>(diagram);
+		result.put("nodeList", nodeList);
+		return result;
+	}
+
+	/**
+	 * Builds the network diagram cache key, the relationship types are sorted so that the order of the map does not matter
+	 * @param type - type of diagram
+	 * @param members - normalized teams or employee IDs of the diagram
+	 * @param relationshipTypeMap - Map of relationship type ID and name
+	 * @param displayNetworkName - whether the nodes carry the employee names
+	 * @return the key
+	 */
+	private static String getNetworkDiagramKey(String type, List<String> members, Map<Integer, String> relationshipTypeMap,
+			boolean displayNetworkName) {
+		List<String> sortedMembers = new ArrayList<>(members);
+		Collections.sort(sortedMembers);
+		return type + "/" + sortedMembers + "/" + new TreeSet<>(relationshipTypeMap.values()) + "/" + displayNetworkName;
+	}
+
 	/**
 	 * Retrieves the list of Edge objects
 	 * @param companyId - Company ID
@@ -406,33 +860,191 @@ public class ExploreHelper extends TheBorg {
 	public List<Edge> getEdges(int companyId, List<Integer> employeeIdList, Map<Integer, String> relationshipTypeMap) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
+		GraphSnapshot snapshot = dch.getGraphSnapshot(companyId);
+		if (snapshot != null) {
+			return snapshot.getEdges(employeeIdList, relationshipTypeMap.values());
+		}
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
+			return queryEdges(companyId, neoConn, employeeIdList, relationshipTypeMap);
+		} catch (SQLException e) {
+			Log.get(ExploreHelper.class).error("Exception whil getting edgeList", e);
+		}
+		return new ArrayList<>();
+	}
+
+	private List<Edge> queryEdges(int companyId, Connection neoConn, List<Integer> employeeIdList, Map<Integer, String> relationshipTypeMap)
+			throws SQLException {
 		List<Edge> result = new ArrayList<>();
-		String relationshipType = "";
+		visitEdges(companyId, neoConn, employeeIdList, relationshipTypeMap, result::add);
+		return result;
+	}
+
+	/**
+	 * Passes the relationships between the employees to the consumer as they are read from neo4j
+	 * Up to edge_query_chunk_size employees are looked up with a single query; a larger list is split into chunks of start employees
+	 * and the end of every relationship is checked against a hash set of the employees instead of a list parameter, so that the cost
+	 * grows linearly with the number of employees
+	 * Up to edge_query_parallelism chunks run on the executor of the company with a pooled connection taken only if one is free right
+	 * away, the other chunks are queried on the connection of the caller, so a large diagram never waits for a permit while holding one
+	 * @param companyId - Company ID
+	 * @param neoConn - neo4j connection of the company, used for the single query and the chunks which are not run on the executor
+	 * @param employeeIdList - List of employee ID's
+	 * @param relationshipTypeMap - Map of relationship type ID and name
+	 * @param consumer - receives the edges, always on the calling thread
+	 * @throws SQLException - if the edges cannot be read
+	 */
+	private void visitEdges(int companyId, Connection neoConn, List<Integer> employeeIdList, Map<Integer, String> relationshipTypeMap,
+			Consumer<Edge> consumer) throws SQLException {
+		List<String> relTypes = new ArrayList<>(relationshipTypeMap.values());
+		int chunkSize = Math.max(1, ConfigSnapshot.get().getInt("edge_query_chunk_size", 500));
+		if (employeeIdList.size() <= chunkSize) {
+			Map<String, Object> params = new HashMap<>();
+			params.put("empIds", employeeIdList);
+			params.put("relTypes", relTypes);
+			EDGES.query(neoConn, params, res -> {
+				while (res.next()) {
+					consumer.accept(getEdge(res));
+				}
+				return null;
+			});
+			return;
+		}
 
-		for (int relationshipTypeId : relationshipTypeMap.keySet()) {
-			relationshipType = relationshipType.isEmpty() ? relationshipTypeMap.get(relationshipTypeId) : relationshipType + " | "
-					+ relationshipTypeMap.get(relationshipTypeId);
+		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
+		TenantExecutor executor = dch.getCompanyExecutor(companyId);
+		int parallelism = Math.max(1, ConfigSnapshot.get().getInt("edge_query_parallelism", 4));
+		Set<Integer> empIdSet = new HashSet<>(employeeIdList);
+		List<Integer> empIds = new ArrayList<>(empIdSet);
+		Deque<List<Integer>> pendingChunks = new ArrayDeque<>();
+		for (int from = 0; from < empIds.size(); from += chunkSize) {
+			pendingChunks.add(new ArrayList<>(empIds.subList(from, Math.min(empIds.size(), from + chunkSize))));
 		}
-		String query = "match (a:Employee)-[r:" + relationshipType + "]->(b:Employee) where a.emp_id in " + employeeIdList.toString()
-				+ "  and b.emp_id in " + employeeIdList.toString() + " and a<>b "
-				+ "return a.emp_id as from ,b.emp_id as to,type(r) as rel_type,r.weight as weight";
+		Log.get(ExploreHelper.class).debug(() -> "Querying the edges of " + empIds.size() + " employees in " + pendingChunks.size() + " chunks");
 
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).debug("getEdges query for all teams  : " + query);
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement(); ResultSet res = stmt.executeQuery(query)) {
-			while (res.next()) {
-				Edge e = new Edge();
-				e.setFromEmployeId(res.getInt("from"));
-				e.setToEmployeeId(res.getInt("to"));
-				e.setRelationshipType(res.getString("rel_type"));
-				e.setWeight(res.getDouble("weight"));
-				result.add(e);
+		// at most parallelism chunks run on the executor, so at most that many chunks of edges are held before they reach the consumer
+		Map<Future<List<Edge>>, List<Integer>> runningChunks = new LinkedHashMap<>();
+		try {
+			while (!pendingChunks.isEmpty() || !runningChunks.isEmpty()) {
+				while (!pendingChunks.isEmpty() && runningChunks.size() < parallelism) {
+					List<Integer> chunk = pendingChunks.peek();
+					try {
+						// a chunk only takes a connection which is free right away, it never waits for a permit while this thread holds one
+						runningChunks.put(executor.submit(() -> {
+							try (Connection chunkConn = dch.tryGetNeoConnection(companyId)) {
+								if (chunkConn == null) {
+									return null;
+								}
+								List<Edge> result = new ArrayList<>();
+								queryEdgeChunk(chunkConn, chunk, empIdSet, relTypes, result::add);
+								return result;
+							}
+						}), chunk);
+						pendingChunks.poll();
+					} catch (RejectedExecutionException e) {
+						// the executor of the company is full, the chunks left are queried on the calling thread
+						break;
+					}
+				}
 
+				// pass on the chunks which have completed, a chunk which found no free connection is queried on the calling thread
+				boolean passed = false;
+				for (Iterator<Map.Entry<Future<List<Edge>>, List<Integer>>> it = runningChunks.entrySet().iterator(); it.hasNext();) {
+					Map.Entry<Future<List<Edge>>, List<Integer>> entry = it.next();
+					if (entry.getKey().isDone()) {
+						it.remove();
+						passChunk(entry.getKey(), entry.getValue(), neoConn, empIdSet, relTypes, consumer);
+						passed = true;
+					}
+				}
+				if (!pendingChunks.isEmpty()) {
+					queryEdgeChunk(neoConn, pendingChunks.poll(), empIdSet, relTypes, consumer);
+				} else if (!passed && !runningChunks.isEmpty()) {
+					Iterator<Map.Entry<Future<List<Edge>>, List<Integer>>> it = runningChunks.entrySet().iterator();
+					Map.Entry<Future<List<Edge>>, List<Integer>> oldest = it.next();
+					it.remove();
+					passChunk(oldest.getKey(), oldest.getValue(), neoConn, empIdSet, relTypes, consumer);
+				}
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while querying the edges", e);
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof SQLException ? (SQLException) e.getCause() : new SQLException("Unable to query the edges", e.getCause());
+		} finally {
+			// a chunk which has not started yet has not taken a connection
+			for (Future<List<Edge>> future : runningChunks.keySet()) {
+				future.cancel(true);
+			}
+		}
+	}
 
-		} catch (SQLException e) {
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).error("Exception whil getting edgeList", e);
+	/**
+	 * Waits for a chunk run on the executor and passes its edges to the consumer
+	 * A chunk which found no free connection is queried on the connection of the calling thread
+	 */
+	private static void passChunk(Future<List<Edge>> future, List<Integer> chunk, Connection neoConn, Set<Integer> empIdSet,
+			List<String> relTypes, Consumer<Edge> consumer) throws SQLException, InterruptedException, ExecutionException {
+		List<Edge> edges = future.get();
+		if (edges == null) {
+			queryEdgeChunk(neoConn, chunk, empIdSet, relTypes, consumer);
+		} else {
+			edges.forEach(consumer);
 		}
-		return result;
+	}
+
+	/**
+	 * Queries the relationships starting at a chunk of employees and passes on the ones ending at one of the employees
+	 * @param neoConn - neo4j connection of the company
+	 * @param fromIds - IDs of the employees the relationships start at
+	 * @param empIdSet - IDs of all the employees
+	 * @param relTypes - names of the relationship types
+	 * @param consumer - receives the edges
+	 * @throws SQLException - if the edges cannot be read
+	 */
+	private static void queryEdgeChunk(Connection neoConn, List<Integer> fromIds, Set<Integer> empIdSet, List<String> relTypes,
+			Consumer<Edge> consumer) throws SQLException {
+		Map<String, Object> params = new HashMap<>();
+		params.put("fromIds", fromIds);
+		params.put("relTypes", relTypes);
+		EDGES_FROM.query(neoConn, params, res -> {
+			while (res.next()) {
+				Edge e = getEdge(res);
+				if (empIdSet.contains(e.getToEmployeeId())) {
+					consumer.accept(e);
+				}
+			}
+			return null;
+		});
+	}
+
+	private static Edge getEdge(ResultSet res) throws SQLException {
+		Edge e = new Edge();
+		e.setFromEmployeId(res.getInt("from"));
+		e.setToEmployeeId(res.getInt("to"));
+		e.setRelationshipType(res.getString("rel_type"));
+		e.setWeight(res.getDouble("weight"));
+		return e;
+	}
+
+	/**
+	 * Reads a row of the team members query
+	 * @param res - result set positioned on the row
+	 * @param displayNetworkName - true to fill in the first and last names
+	 * @return the node of the team member
+	 * @throws SQLException - if the row cannot be read
+	 */
+	private static Node getTeamMemberNode(ResultSet res, boolean displayNetworkName) throws SQLException {
+		Node n = new Node();
+		n.setEmployeeId(res.getInt("emp_id"));
+		if (displayNetworkName) {
+			n.setFirstName(res.getString("firstName"));
+			n.setLastName(res.getString("lastName"));
+		}
+		n.setFunction(res.getString("funcName"));
+		n.setZone(res.getString("zoneName"));
+		n.setPosition(res.getString("posName"));
+		n.setTeamName(res.getString("team"));
+		return n;
 	}
 
 	/**
@@ -442,18 +1054,17 @@ public class ExploreHelper extends TheBorg {
 	 */
 	public Map<Integer, String> getRelationshipTypeMap(int companyId) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
 		Map<Integer, String> relationshipTypeMap = new HashMap<>();
-		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getRelationTypeList()}");
-				ResultSet rs = cstmt.executeQuery()) {
-			while (rs.next()) {
-				relationshipTypeMap.put(rs.getInt("rel_id"), rs.getString("rel_name"));
-			}
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getRelationTypeList()}", rs -> {
+				while (rs.next()) {
+					relationshipTypeMap.put(rs.getInt("rel_id"), rs.getString("rel_name"));
+				}
+				return relationshipTypeMap;
+			});
 
 		} catch (SQLException e) {
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).error("Error while retrieving relationship type map", e);
+			Log.get(ExploreHelper.class).error("Error while retrieving relationship type map", e);
 		}
 
 		return relationshipTypeMap;
@@ -483,54 +1094,36 @@ public class ExploreHelper extends TheBorg {
 	public List<MeResponseAnalysis> getMeResponseAnalysisForOrg(int companyId, int relationshipTypeId) {
 		List<MeResponseAnalysis> result = new ArrayList<>();
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getMeResponseAnalysisForOrg(?,?)}")) {
-			dch.refreshCompanyConnection(companyId);
-			cstmt.setTimestamp(1, UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
-			cstmt.setInt(2, relationshipTypeId);
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getMeResponseAnalysisForOrg(?,?)}", cstmt -> {
+				cstmt.setTimestamp(1, UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
+				cstmt.setInt(2, relationshipTypeId);
+			}, rs -> {
+				ColumnIndex columns = ColumnIndex.of(rs);
+				QuestionRowMapper questionMapper = new QuestionRowMapper(columns);
+				MeResponseRowMapper meResponseMapper = new MeResponseRowMapper(columns);
+				int totalEmployeeIndex = columns.get("total_employee");
 				while (rs.next()) {
 					// fill the question object and the MeResponse object
-					Question q = new Question();
-					MeResponse meResponse = new MeResponse();
-					MeResponse meResponseAggregate = new MeResponse();
-					org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
+					Question q = questionMapper.mapRow(rs, result.size());
+					MeResponse meResponse = meResponseMapper.mapRow(rs, result.size());
+					MeResponse meResponseAggregate = meResponseMapper.mapRow(rs, result.size());
 					Map<String, MeResponse> orgMeResponseMap = new HashMap<>();
 					MeResponseAnalysis meResponseAnalysis = new MeResponseAnalysis();
-					q.setQuestionId(rs.getInt("que_id"));
-					q.setQuestionText(rs.getString("question"));
-					q.setStartDate(rs.getDate("start_date"));
-					q.setEndDate(rs.getDate("end_date"));
-					q.setRelationshipTypeId(rs.getInt("rel_id"));
-					int meResponseSum = rs.getInt("agree") + rs.getInt("disagree") + rs.getInt("neutral") + rs.getInt("strongly_agree")
-							+ rs.getInt("strongly_disagree");
-					double meResponseRate = Math.round((double) meResponseSum / rs.getInt("total_employee") * 100);
+					int meResponseSum = MeResponseRowMapper.getResponseSum(meResponse);
+					double meResponseRate = Math.round((double) meResponseSum / rs.getInt(totalEmployeeIndex) * 100);
 					q.setResponsePercentage(meResponseRate);
-					meResponse.setAgree(rs.getInt("agree"));
-					meResponse.setDisagree(rs.getInt("disagree"));
-					meResponse.setNeutral(rs.getInt("neutral"));
-					meResponse.setStronglyAgree(rs.getInt("strongly_agree"));
-					meResponse.setStronglyDisagree(rs.getInt("strongly_disagree"));
-					meResponseAggregate.setAgree(rs.getInt("agree"));
-					meResponseAggregate.setDisagree(rs.getInt("disagree"));
-					meResponseAggregate.setNeutral(rs.getInt("neutral"));
-					meResponseAggregate.setStronglyAgree(rs.getInt("strongly_agree"));
-					meResponseAggregate.setStronglyDisagree(rs.getInt("strongly_disagree"));
-					double meResponseAverage = Math.round(((double) ((rs.getInt("agree") * 4) + (rs.getInt("disagree") * 2)
-							+ (rs.getInt("neutral") * 3) + (rs.getInt("strongly_agree") * 5) + (rs.getInt("strongly_disagree") * 1)))
-							/ meResponseSum);
-					meResponseAggregate.setAverage(meResponseAverage);
-					meResponse.setAverage(meResponseAverage);
 					orgMeResponseMap.put("org", meResponse);
 					meResponseAnalysis.setQuestion(q);
 					meResponseAnalysis.setTeamResponseMap(orgMeResponseMap);
 					meResponseAnalysis.setMeResponseAggregate(meResponseAggregate);
 					result.add(meResponseAnalysis);
 				}
-			}
+				return result;
+			});
 
 		} catch (SQLException e) {
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).error("Exception while retrieving the Me response details for organizaton", e);
+			Log.get(ExploreHelper.class).error("Exception while retrieving the Me response details for organizaton", e);
 		}
 
 		return result;
@@ -549,142 +1142,116 @@ public class ExploreHelper extends TheBorg {
 		List<Integer> questionIdList = new ArrayList<>();
 		int totalEmployees = 0;
 		try {
-			try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-					"{call getCompletedMeQuestionList(?,?)}")) {
+			CompanyJdbc jdbc = dch.getCompanyJdbc(companyId);
+			Map<Integer, Question> questionMap = new HashMap<>();
+
+			// fill the Question object
+			jdbc.query("{call getCompletedMeQuestionList(?,?)}", cstmt -> {
 				cstmt.setTimestamp(1, UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
 				cstmt.setInt(2, relationshipTypeId);
-				try (ResultSet rs = cstmt.executeQuery()) {
-					org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-					Map<Integer, Question> questionMap = new HashMap<>();
-
-					// fill the Question object
-					while (rs.next()) {
-						Question q = new Question();
-						q.setQuestionId(rs.getInt("que_id"));
-						q.setQuestionText(rs.getString("question"));
-						q.setStartDate(rs.getDate("start_date"));
-						q.setEndDate(rs.getDate("end_date"));
-						q.setRelationshipTypeId(rs.getInt("rel_id"));
-						questionIdList.add(rs.getInt("que_id"));
-						questionMap.put(rs.getInt("que_id"), q);
-					}
-
-					dch.refreshCompanyConnection(companyId);
-
-					// fill the MeResponse object for team
-					org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-					Map<Integer, Map<String, MeResponse>> mer = new HashMap<>();
-					Map<String, MeResponse> teamMeResponseList = new HashMap<>();
-					for (String teamName : teamListMap.keySet()) {
-						List<Filter> filterList = teamListMap.get(teamName);
-						Map<String, Object> parsedFilterMap = UtilHelper.parseFilterList(filterList);
-						System.out.println(parsedFilterMap.get("posId"));
-						try (CallableStatement cstmt1 = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-								"{call getMeResponseAnalysisForTeam(?,?,?,?)}")) {
-							cstmt1.setString("que_list", questionIdList.toString().substring(1, questionIdList.toString().length() - 1).replaceAll(
-									" ", ""));
-							cstmt1.setInt("fun", (int) parsedFilterMap.get("funcId"));
-							cstmt1.setInt("pos", (int) parsedFilterMap.get("posId"));
-							cstmt1.setInt("zon", (int) parsedFilterMap.get("zoneId"));
-							try (ResultSet rs1 = cstmt1.executeQuery()) {
-								while (rs1.next()) {
-									int questionId = rs1.getInt("que_id");
-									if (mer.containsKey(questionId)) {
-										teamMeResponseList = mer.get(questionId);
-									} else {
-										org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-										teamMeResponseList = new HashMap<>();
-									}
-
-									MeResponse meResponse = new MeResponse();
-									meResponse.setAgree(rs1.getInt("agree"));
-									meResponse.setDisagree(rs1.getInt("disagree"));
-									meResponse.setNeutral(rs1.getInt("neutral"));
-									meResponse.setStronglyAgree(rs1.getInt("strongly_agree"));
-									meResponse.setStronglyDisagree(rs1.getInt("strongly_disagree"));
-									int meResponseSum = rs1.getInt("agree") + rs1.getInt("disagree") + rs1.getInt("neutral")
-											+ rs1.getInt("strongly_agree") + rs1.getInt("strongly_disagree");
-									double meResponseAverage = Math
-											.round(((double) ((rs1.getInt("agree") * 4) + (rs1.getInt("disagree") * 2) + (rs1.getInt("neutral") * 3)
-													+ (rs1.getInt("strongly_agree") * 5) + (rs1.getInt("strongly_disagree") * 1)))
-													/ meResponseSum);
-									meResponse.setAverage(meResponseAverage);
-									teamMeResponseList.put(teamName, meResponse);
-									mer.put(questionId, teamMeResponseList);
-
-								}
-
-								// calculate total number of employees as sum of employees in each team which will be used in calculating the response
-								// rate for a question
-
-								rs1.first();
-								totalEmployees = totalEmployees + rs1.getInt("total_employee");
-							}
+			}, rs -> {
+				QuestionRowMapper questionMapper = new QuestionRowMapper(ColumnIndex.of(rs));
+				while (rs.next()) {
+					Question q = questionMapper.mapRow(rs, questionMap.size());
+					questionIdList.add(q.getQuestionId());
+					questionMap.put(q.getQuestionId(), q);
+				}
+				return questionMap;
+			});
+
+			// fill the MeResponse object for team
+			Map<Integer, Map<String, MeResponse>> mer = new HashMap<>();
+			for (String teamName : teamListMap.keySet()) {
+				List<Filter> filterList = teamListMap.get(teamName);
+				TeamSelector teamSelector = TeamSelector.of(filterList);
+				totalEmployees = totalEmployees + jdbc.query("{call getMeResponseAnalysisForTeam(?,?,?,?)}", cstmt1 -> {
+					cstmt1.setString("que_list", questionIdList.toString().substring(1, questionIdList.toString().length() - 1).replaceAll(" ", ""));
+					cstmt1.setInt("fun", teamSelector.getFuncId());
+					cstmt1.setInt("pos", teamSelector.getPosId());
+					cstmt1.setInt("zon", teamSelector.getZoneId());
+				}, rs1 -> {
+					ColumnIndex columns = ColumnIndex.of(rs1);
+					MeResponseRowMapper meResponseMapper = new MeResponseRowMapper(columns);
+					int queIdIndex = columns.get("que_id");
+					while (rs1.next()) {
+						int questionId = rs1.getInt(queIdIndex);
+						Map<String, MeResponse> teamMeResponseList;
+						if (mer.containsKey(questionId)) {
+							teamMeResponseList = mer.get(questionId);
+						} else {
+							teamMeResponseList = new HashMap<>();
 						}
 
+						MeResponse meResponse = meResponseMapper.mapRow(rs1, 0);
+						teamMeResponseList.put(teamName, meResponse);
+						mer.put(questionId, teamMeResponseList);
+
 					}
 
-					// fill the MeResponseAggregate object for team
-					org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-					Map<Integer, MeResponseAnalysis> meResAnalysis = new HashMap<>();
-					for (Integer qId : questionMap.keySet()) {
-						MeResponseAnalysis meResponseAnalysisWithResponse = new MeResponseAnalysis();
-						MeResponse meResponseAggregate = new MeResponse();
-						org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-						Map<String, MeResponse> meResponseList = new HashMap<>();
-
-						// if there is an existing MeResponse object for that question ID fetch that object
-						if (mer.containsKey(qId)) {
-							meResponseList = mer.get(qId);
-							for (MeResponse meRes : meResponseList.values()) {
-								meResponseAggregate.setStronglyDisagree(meResponseAggregate.getStronglyDisagree() + meRes.getStronglyDisagree());
-								meResponseAggregate.setDisagree(meResponseAggregate.getDisagree() + meRes.getDisagree());
-								meResponseAggregate.setNeutral(meResponseAggregate.getNeutral() + meRes.getNeutral());
-								meResponseAggregate.setAgree(meResponseAggregate.getAgree() + meRes.getAgree());
-								meResponseAggregate.setStronglyAgree(meResponseAggregate.getStronglyAgree() + meRes.getStronglyAgree());
+					// calculate total number of employees as sum of employees in each team which will be used in calculating the response
+					// rate for a question
 
-							}
+					rs1.first();
+					return rs1.getInt("total_employee");
+				});
 
-						}
+			}
+
+			// fill the MeResponseAggregate object for team
+			Map<Integer, MeResponseAnalysis> meResAnalysis = new HashMap<>();
+			for (Integer qId : questionMap.keySet()) {
+				MeResponseAnalysis meResponseAnalysisWithResponse = new MeResponseAnalysis();
+				MeResponse meResponseAggregate = new MeResponse();
+				Map<String, MeResponse> meResponseList = new HashMap<>();
+
+				// if there is an existing MeResponse object for that question ID fetch that object
+				if (mer.containsKey(qId)) {
+					meResponseList = mer.get(qId);
+					for (MeResponse meRes : meResponseList.values()) {
+						meResponseAggregate.setStronglyDisagree(meResponseAggregate.getStronglyDisagree() + meRes.getStronglyDisagree());
+						meResponseAggregate.setDisagree(meResponseAggregate.getDisagree() + meRes.getDisagree());
+						meResponseAggregate.setNeutral(meResponseAggregate.getNeutral() + meRes.getNeutral());
+						meResponseAggregate.setAgree(meResponseAggregate.getAgree() + meRes.getAgree());
+						meResponseAggregate.setStronglyAgree(meResponseAggregate.getStronglyAgree() + meRes.getStronglyAgree());
 
-						// if there is no existing MeResponse object in case of no responses for a question, send the object with value 0
-						else {
-							org.apache.log4j.Logger.getLogger(ExploreHelper.class).info("HashMap created!!!");
-							meResponseList = new HashMap<>();
-							for (String teamName : teamListMap.keySet()) {
-								meResponseList.put(teamName, meResponseAggregate);
-							}
-						}
-						meResponseAnalysisWithResponse.setTeamResponseMap(meResponseList);
-						meResponseAnalysisWithResponse.setMeResponseAggregate(meResponseAggregate);
-						meResAnalysis.put(qId, meResponseAnalysisWithResponse);
 					}
 
-					// create the final MeResponseAnalysis object for team by mapping the question object created at start of the function
-					MeResponseAnalysis finalMeResponseanalysis = new MeResponseAnalysis();
-					for (int qId : questionMap.keySet()) {
-						finalMeResponseanalysis = meResAnalysis.get(qId);
-						Question q = questionMap.get(qId);
-
-						// calculate the response rate for each question
-						int meResponseSum = finalMeResponseanalysis.getMeResponseAggregate().getAgree()
-								+ finalMeResponseanalysis.getMeResponseAggregate().getDisagree()
-								+ finalMeResponseanalysis.getMeResponseAggregate().getNeutral()
-								+ finalMeResponseanalysis.getMeResponseAggregate().getStronglyAgree()
-								+ finalMeResponseanalysis.getMeResponseAggregate().getStronglyDisagree();
-						double meResponseRate = Math.round((double) meResponseSum / totalEmployees * 100);
-						System.out.println("response rate for question Id" + qId + "is " + meResponseRate);
-						q.setResponsePercentage(meResponseRate);
-						finalMeResponseanalysis.setQuestion(q);
-						result.add(finalMeResponseanalysis);
+				}
 
+				// if there is no existing MeResponse object in case of no responses for a question, send the object with value 0
+				else {
+					meResponseList = new HashMap<>();
+					for (String teamName : teamListMap.keySet()) {
+						meResponseList.put(teamName, meResponseAggregate);
 					}
-
 				}
+				meResponseAnalysisWithResponse.setTeamResponseMap(meResponseList);
+				meResponseAnalysisWithResponse.setMeResponseAggregate(meResponseAggregate);
+				meResAnalysis.put(qId, meResponseAnalysisWithResponse);
+			}
+
+			// create the final MeResponseAnalysis object for team by mapping the question object created at start of the function
+			MeResponseAnalysis finalMeResponseanalysis = new MeResponseAnalysis();
+			for (int qId : questionMap.keySet()) {
+				finalMeResponseanalysis = meResAnalysis.get(qId);
+				Question q = questionMap.get(qId);
+
+				// calculate the response rate for each question
+				int meResponseSum = finalMeResponseanalysis.getMeResponseAggregate().getAgree()
+						+ finalMeResponseanalysis.getMeResponseAggregate().getDisagree()
+						+ finalMeResponseanalysis.getMeResponseAggregate().getNeutral()
+						+ finalMeResponseanalysis.getMeResponseAggregate().getStronglyAgree()
+						+ finalMeResponseanalysis.getMeResponseAggregate().getStronglyDisagree();
+				double meResponseRate = Math.round((double) meResponseSum / totalEmployees * 100);
+				Log.get(ExploreHelper.class).debug(() -> "Response rate for question ID " + qId + " is " + meResponseRate);
+				q.setResponsePercentage(meResponseRate);
+				finalMeResponseanalysis.setQuestion(q);
+				result.add(finalMeResponseanalysis);
+
 			}
 
 		} catch (SQLException e) {
-			org.apache.log4j.Logger.getLogger(ExploreHelper.class).error("Exception while retrieving the Me response details for team", e);
+			Log.get(ExploreHelper.class).error("Exception while retrieving the Me response details for team", e);
 		}
 
 		return result;
@@ -0,0 +1,285 @@
+package org.icube.owen.explore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.icube.owen.helper.TenantExecutor;
+
+/**
+ * Force directed layout of the network diagrams computed on the server, so that the clients can render the diagram right away
+ * Fruchterman-Reingold: connected nodes attract each other, all nodes repel each other and the moves are limited by a temperature
+ * which cools down linearly; the repulsion is approximated with a Barnes-Hut quadtree, which treats a distant cell as a single body at
+ * its center of mass, so an iteration costs n log n instead of n squared
+ * The repulsion of every iteration is split into slices of nodes computed on the executor of the company
+ * The nodes start on a spiral, so the same diagram always gets the same layout
+ */
+public final class ForceLayout {
+
+	// side of the square the coordinates are scaled into
+	public static final double SIZE = 1000;
+
+	// a cell whose size divided by its distance is below theta is treated as a single body
+	private static final double THETA = 0.8;
+	// pull of every node towards the center, keeps the disconnected parts of the diagram together
+	private static final double GRAVITY = 0.05;
+	// cells are not split any further below this depth, so that nodes on the same spot do not split the tree forever
+	private static final int MAX_DEPTH = 40;
+	private static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt(5));
+
+	private final int iterations;
+	private final int threads;
+	private final TenantExecutor executor;
+
+	/**
+	 * @param iterations - number of iterations
+	 * @param threads - number of slices the repulsion of an iteration is split into
+	 * @param executor - executor the slices are run on, the first slice and the rejected ones run on the calling thread
+	 */
+	public ForceLayout(int iterations, int threads, TenantExecutor executor) {
+		this.iterations = Math.max(1, iterations);
+		this.threads = Math.max(1, threads);
+		this.executor = executor;
+	}
+
+	/**
+	 * Computes the position of every node, the nodes of the same employee are all connected by the edges of the employee
+	 * @param nodeList - nodes of the diagram
+	 * @param edgeList - edges of the diagram
+	 * @return copies of the nodes with x and y between 0 and SIZE
+	 */
+	public List<Node> layout(List<Node> nodeList, List<Edge> edgeList) {
+		int n = nodeList.size();
+		Map<Integer, List<Integer>> employeeNodeMap = new HashMap<>();
+		for (int i = 0; i < n; i++) {
+			employeeNodeMap.computeIfAbsent(nodeList.get(i).getEmployeeId(), k -> new ArrayList<>()).add(i);
+		}
+		List<int[]> links = new ArrayList<>();
+		for (Edge e : edgeList) {
+			List<Integer> from = employeeNodeMap.get(e.getFromEmployeId());
+			List<Integer> to = employeeNodeMap.get(e.getToEmployeeId());
+			if (from != null && to != null) {
+				for (int u : from) {
+					for (int v : to) {
+						if (u != v) {
+							links.add(new int[] { u, v });
+						}
+					}
+				}
+			}
+		}
+
+		// the nodes are spread over an area of n, so that the ideal distance between connected nodes is 1
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			double r = Math.sqrt(i + 0.5);
+			x[i] = r * Math.cos(i * GOLDEN_ANGLE);
+			y[i] = r * Math.sin(i * GOLDEN_ANGLE);
+		}
+		double[] dx = new double[n];
+		double[] dy = new double[n];
+		double startTemperature = Math.max(1, Math.sqrt(n) / 10);
+		for (int iteration = 0; iteration < iterations && n > 1; iteration++) {
+			QuadCell root = QuadCell.build(x, y);
+			if (!repulse(root, x, y, dx, dy)) {
+				break;
+			}
+			for (int[] link : links) {
+				double ex = x[link[0]] - x[link[1]];
+				double ey = y[link[0]] - y[link[1]];
+				double d = Math.sqrt(ex * ex + ey * ey);
+				// attraction d^2 / k with k = 1
+				dx[link[0]] -= ex * d;
+				dy[link[0]] -= ey * d;
+				dx[link[1]] += ex * d;
+				dy[link[1]] += ey * d;
+			}
+			double temperature = startTemperature * (1 - (double) iteration / iterations);
+			for (int i = 0; i < n; i++) {
+				dx[i] -= GRAVITY * x[i];
+				dy[i] -= GRAVITY * y[i];
+				double d = Math.sqrt(dx[i] * dx[i] + dy[i] * dy[i]);
+				if (d > 0) {
+					double move = Math.min(d, temperature);
+					x[i] += dx[i] / d * move;
+					y[i] += dy[i] / d * move;
+				}
+			}
+		}
+		return toNodes(nodeList, x, y);
+	}
+
+	/**
+	 * Computes the repulsion of every node into dx and dy, split into slices
+	 * @return false if the thread was interrupted while waiting for the slices
+	 */
+	private boolean repulse(QuadCell root, double[] x, double[] y, double[] dx, double[] dy) {
+		int n = x.length;
+		int sliceSize = (n + threads - 1) / threads;
+		List<Future<?>> futures = new ArrayList<>();
+		for (int from = sliceSize; from < n; from += sliceSize) {
+			int start = from;
+			int end = Math.min(n, from + sliceSize);
+			try {
+				futures.add(executor.submit(() -> {
+					repulse(root, x, y, dx, dy, start, end);
+					return null;
+				}));
+			} catch (RejectedExecutionException e) {
+				repulse(root, x, y, dx, dy, start, end);
+			}
+		}
+		repulse(root, x, y, dx, dy, 0, Math.min(n, sliceSize));
+		try {
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			for (Future<?> future : futures) {
+				future.cancel(true);
+			}
+			return false;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Unable to compute the layout", e.getCause());
+		}
+		return true;
+	}
+
+	private static void repulse(QuadCell root, double[] x, double[] y, double[] dx, double[] dy, int from, int to) {
+		for (int i = from; i < to; i++) {
+			dx[i] = 0;
+			dy[i] = 0;
+			root.repulse(i, x, y, dx, dy);
+		}
+	}
+
+	private static List<Node> toNodes(List<Node> nodeList, double[] x, double[] y) {
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < x.length; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		// the aspect ratio is kept and the diagram is centered
+		double scale = SIZE / Math.max(1e-9, Math.max(maxX - minX, maxY - minY));
+		double offsetX = (SIZE - (maxX - minX) * scale) / 2;
+		double offsetY = (SIZE - (maxY - minY) * scale) / 2;
+		List<Node> result = new ArrayList<>(nodeList.size());
+		for (int i = 0; i < x.length; i++) {
+			Node n = nodeList.get(i).copy();
+			n.setX(x.length == 1 ? SIZE / 2 : offsetX + (x[i] - minX) * scale);
+			n.setY(x.length == 1 ? SIZE / 2 : offsetY + (y[i] - minY) * scale);
+			result.add(n);
+		}
+		return result;
+	}
+
+	/**
+	 * Cell of the Barnes-Hut quadtree, a leaf holds the nodes at its spot and an inner cell the total of its four children
+	 */
+	private static final class QuadCell {
+
+		private final double minX;
+		private final double minY;
+		private final double size;
+		private double mass;
+		private double centerX;
+		private double centerY;
+		private QuadCell[] children;
+		// the first node of a leaf, -1 for an empty or an inner cell
+		private int body = -1;
+
+		private QuadCell(double minX, double minY, double size) {
+			this.minX = minX;
+			this.minY = minY;
+			this.size = size;
+		}
+
+		static QuadCell build(double[] x, double[] y) {
+			double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+			for (int i = 0; i < x.length; i++) {
+				minX = Math.min(minX, x[i]);
+				minY = Math.min(minY, y[i]);
+				maxX = Math.max(maxX, x[i]);
+				maxY = Math.max(maxY, y[i]);
+			}
+			QuadCell root = new QuadCell(minX, minY, Math.max(1e-9, Math.max(maxX - minX, maxY - minY)) * 1.000001);
+			for (int i = 0; i < x.length; i++) {
+				root.insert(i, x, y, 0);
+			}
+			return root;
+		}
+
+		private void insert(int i, double[] x, double[] y, int depth) {
+			if (children == null && (mass == 0 || depth >= MAX_DEPTH)) {
+				if (mass == 0) {
+					body = i;
+				}
+				addMass(x[i], y[i]);
+				return;
+			}
+			if (children == null) {
+				// split the leaf and move its node down
+				children = new QuadCell[4];
+				int previous = body;
+				body = -1;
+				child(x[previous], y[previous]).insert(previous, x, y, depth + 1);
+			}
+			addMass(x[i], y[i]);
+			child(x[i], y[i]).insert(i, x, y, depth + 1);
+		}
+
+		private void addMass(double px, double py) {
+			centerX = (centerX * mass + px) / (mass + 1);
+			centerY = (centerY * mass + py) / (mass + 1);
+			mass++;
+		}
+
+		private QuadCell child(double px, double py) {
+			double half = size / 2;
+			int east = px >= minX + half ? 1 : 0;
+			int north = py >= minY + half ? 1 : 0;
+			int index = east + 2 * north;
+			if (children[index] == null) {
+				children[index] = new QuadCell(minX + east * half, minY + north * half, half);
+			}
+			return children[index];
+		}
+
+		void repulse(int i, double[] x, double[] y, double[] dx, double[] dy) {
+			double ex = x[i] - centerX;
+			double ey = y[i] - centerY;
+			double d2 = ex * ex + ey * ey;
+			double bodies = mass;
+			if (children == null) {
+				if (body == i || d2 == 0) {
+					// the node itself, the other nodes of a leaf on the same spot are pushed apart along a direction given by the index
+					bodies = body == i ? mass - 1 : mass;
+					if (bodies == 0) {
+						return;
+					}
+					ex = Math.cos(i) * 1e-3;
+					ey = Math.sin(i) * 1e-3;
+					d2 = ex * ex + ey * ey;
+				}
+			} else if (size * size >= THETA * THETA * d2) {
+				for (QuadCell child : children) {
+					if (child != null) {
+						child.repulse(i, x, y, dx, dy);
+					}
+				}
+				return;
+			}
+			// repulsion k^2 / d with k = 1, along the unit vector e / d
+			dx[i] += bodies * ex / d2;
+			dy[i] += bodies * ey / d2;
+		}
+	}
+}
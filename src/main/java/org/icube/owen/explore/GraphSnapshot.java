@@ -0,0 +1,443 @@
+package org.icube.owen.explore;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.icube.owen.helper.ColumnIndex;
+import org.icube.owen.helper.CypherRegistry;
+import org.icube.owen.helper.CypherTemplate;
+
+/**
+ * Immutable in-memory copy of the employee graph of a company
+ * Employees are numbered by their position in the sorted array of employee IDs, and the relationships of every type are stored in
+ * compressed sparse row form: the outgoing and the incoming relationships of the employee with index i are the entries offsets[i] to
+ * offsets[i + 1] of the target and weight arrays
+ * The snapshot answers the edge list, individual network and smart list queries without going to neo4j; it is built once the edges
+ * have been recalculated and is never modified, so it is read without locking
+ */
+public final class GraphSnapshot {
+
+	// the employees with their function, position and zone, an employee may have more than one row
+	private static final CypherTemplate EMPLOYEES = CypherRegistry.register("graph.employees",
+			"match (a:Employee) optional match (a)-[:has_functionality]->(f:Function) optional match (p:Position)<-[:is_positioned]-(a) "
+					+ "optional match (a)-[:from_zone]->(z:Zone) "
+					+ "return a.emp_id as emp_id,a.FirstName as firstName,a.LastName as lastName,f.Name as funcName,p.Name as posName,z.Name as zoneName");
+
+	// every relationship between two employees
+	private static final CypherTemplate RELATIONSHIPS = CypherRegistry.register("graph.relationships",
+			"match (a:Employee)-[r]->(b:Employee) return a.emp_id as from,b.emp_id as to,type(r) as rel_type,r.weight as weight");
+
+	private final int[] employeeIds;
+	private final String[] firstNames;
+	private final String[] lastNames;
+	private final String[] functions;
+	private final String[] positions;
+	private final String[] zones;
+	private final Map<String, Adjacency> outgoing;
+	private final Map<String, Adjacency> incoming;
+	private final int relationshipCount;
+	private final long builtAt = System.currentTimeMillis();
+
+	private GraphSnapshot(Builder builder) {
+		// employees without attributes may still be the end of a relationship
+		int[] ids = Arrays.copyOf(builder.ids, builder.idCount + 2 * builder.relationshipCount);
+		System.arraycopy(builder.from, 0, ids, builder.idCount, builder.relationshipCount);
+		System.arraycopy(builder.to, 0, ids, builder.idCount + builder.relationshipCount, builder.relationshipCount);
+		Arrays.sort(ids);
+		int size = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (size == 0 || ids[size - 1] != ids[i]) {
+				ids[size++] = ids[i];
+			}
+		}
+		employeeIds = Arrays.copyOf(ids, size);
+		int count = size;
+
+		firstNames = new String[count];
+		lastNames = new String[count];
+		functions = new String[count];
+		positions = new String[count];
+		zones = new String[count];
+		for (Map.Entry<Integer, String[]> entry : builder.attributes.entrySet()) {
+			int i = indexOf(entry.getKey());
+			String[] attributes = entry.getValue();
+			firstNames[i] = attributes[0];
+			lastNames[i] = attributes[1];
+			functions[i] = attributes[2];
+			positions[i] = attributes[3];
+			zones[i] = attributes[4];
+		}
+
+		// count the relationships of every type and employee, then fill the rows
+		Map<String, int[]> outDegrees = new HashMap<>();
+		Map<String, int[]> inDegrees = new HashMap<>();
+		int[] fromIndex = new int[builder.relationshipCount];
+		int[] toIndex = new int[builder.relationshipCount];
+		for (int i = 0; i < builder.relationshipCount; i++) {
+			fromIndex[i] = indexOf(builder.from[i]);
+			toIndex[i] = indexOf(builder.to[i]);
+			outDegrees.computeIfAbsent(builder.types[i], k -> new int[count + 1])[fromIndex[i] + 1]++;
+			inDegrees.computeIfAbsent(builder.types[i], k -> new int[count + 1])[toIndex[i] + 1]++;
+		}
+		Map<String, Adjacency> out = new HashMap<>();
+		Map<String, Adjacency> in = new HashMap<>();
+		for (String type : outDegrees.keySet()) {
+			out.put(type, new Adjacency(outDegrees.get(type)));
+			in.put(type, new Adjacency(inDegrees.get(type)));
+		}
+		for (int i = 0; i < builder.relationshipCount; i++) {
+			out.get(builder.types[i]).add(fromIndex[i], toIndex[i], builder.weights[i]);
+			in.get(builder.types[i]).add(toIndex[i], fromIndex[i], builder.weights[i]);
+		}
+		outgoing = Collections.unmodifiableMap(out);
+		incoming = Collections.unmodifiableMap(in);
+		relationshipCount = builder.relationshipCount;
+	}
+
+	/**
+	 * Reads the employees and the relationships of the company from neo4j
+	 * @param neoConn - neo4j connection of the company
+	 * @return the snapshot of the graph
+	 * @throws SQLException - if the graph cannot be read
+	 */
+	public static GraphSnapshot load(Connection neoConn) throws SQLException {
+		Builder builder = new Builder();
+		Map<String, Object> params = Collections.emptyMap();
+		EMPLOYEES.query(neoConn, params, res -> {
+			ColumnIndex columns = ColumnIndex.of(res);
+			int empIdIndex = columns.get("emp_id");
+			int firstNameIndex = columns.get("firstName");
+			int lastNameIndex = columns.get("lastName");
+			int funcNameIndex = columns.get("funcName");
+			int posNameIndex = columns.get("posName");
+			int zoneNameIndex = columns.get("zoneName");
+			while (res.next()) {
+				builder.addEmployee(res.getInt(empIdIndex), res.getString(firstNameIndex), res.getString(lastNameIndex), res.getString(
+						funcNameIndex), res.getString(posNameIndex), res.getString(zoneNameIndex));
+			}
+			return builder;
+		});
+		RELATIONSHIPS.query(neoConn, params, res -> {
+			ColumnIndex columns = ColumnIndex.of(res);
+			int fromIndex = columns.get("from");
+			int toIndex = columns.get("to");
+			int relTypeIndex = columns.get("rel_type");
+			int weightIndex = columns.get("weight");
+			while (res.next()) {
+				builder.addRelationship(res.getInt(fromIndex), res.getInt(toIndex), res.getString(relTypeIndex), res.getDouble(weightIndex));
+			}
+			return builder;
+		});
+		return builder.build();
+	}
+
+	/**
+	 * Relationships between the employees, same result as the explore.edges Cypher template
+	 * @param employeeIdList - IDs of the employees
+	 * @param relationshipTypes - names of the relationship types
+	 * @return list of edges whose both ends are in the list
+	 */
+	public List<Edge> getEdges(Collection<Integer> employeeIdList, Collection<String> relationshipTypes) {
+		List<Edge> result = new ArrayList<>();
+		int[] employeeIdArray = new int[employeeIdList.size()];
+		int i = 0;
+		for (int employeeId : employeeIdList) {
+			employeeIdArray[i++] = employeeId;
+		}
+		visitEdges(employeeIdArray, relationshipTypes, result::add);
+		return result;
+	}
+
+	/**
+	 * Passes the relationships between the employees to the consumer one by one, without collecting them
+	 * @param employeeIds - IDs of the employees
+	 * @param relationshipTypes - names of the relationship types
+	 * @param consumer - receives the edges whose both ends are in the array
+	 */
+	public void visitEdges(int[] employeeIds, Collection<String> relationshipTypes, Consumer<Edge> consumer) {
+		BitSet members = new BitSet(this.employeeIds.length);
+		for (int employeeId : employeeIds) {
+			int i = indexOf(employeeId);
+			if (i >= 0) {
+				members.set(i);
+			}
+		}
+		for (String type : new LinkedHashSet<>(relationshipTypes)) {
+			Adjacency adjacency = outgoing.get(type);
+			if (adjacency == null) {
+				continue;
+			}
+			for (int a = members.nextSetBit(0); a >= 0; a = members.nextSetBit(a + 1)) {
+				for (int j = adjacency.offsets[a]; j < adjacency.offsets[a + 1]; j++) {
+					int b = adjacency.targets[j];
+					if (b != a && members.get(b)) {
+						Edge e = new Edge();
+						e.setFromEmployeId(this.employeeIds[a]);
+						e.setToEmployeeId(this.employeeIds[b]);
+						e.setRelationshipType(type);
+						e.setWeight(adjacency.weights[j]);
+						consumer.accept(e);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Nodes of the individual network diagram, same result as the explore.individualNetwork Cypher template
+	 * Relationships are followed in both directions; the employees are returned with degree 0, the employees connected to them with
+	 * degree 1 and the employees connected to those but not to the employees with degree 2
+	 * Only the employees with a function, position and zone are returned
+	 * @param employeeIdList - IDs of the employees
+	 * @param relationshipTypes - names of the relationship types
+	 * @param displayNetworkName - true to fill in the first and last names
+	 * @return list of nodes ordered by degree and employee ID
+	 */
+	public List<Node> getIndividualNetwork(Collection<Integer> employeeIdList, Collection<String> relationshipTypes, boolean displayNetworkName) {
+		List<String> types = new ArrayList<>(relationshipTypes);
+		BitSet members = toIndexSet(employeeIdList);
+		BitSet firstDegreeAll = new BitSet(employeeIds.length);
+		BitSet second = new BitSet(employeeIds.length);
+		for (int a = members.nextSetBit(0); a >= 0; a = members.nextSetBit(a + 1)) {
+			addNeighbours(a, types, -1, firstDegreeAll);
+		}
+		for (int a = members.nextSetBit(0); a >= 0; a = members.nextSetBit(a + 1)) {
+			BitSet neighbours = new BitSet(employeeIds.length);
+			addNeighbours(a, types, a, neighbours);
+			for (int b = neighbours.nextSetBit(0); b >= 0; b = neighbours.nextSetBit(b + 1)) {
+				addNeighbours(b, types, b, second);
+			}
+		}
+		BitSet first = (BitSet) firstDegreeAll.clone();
+		first.andNot(members);
+		second.andNot(members);
+		second.andNot(firstDegreeAll);
+
+		List<Node> result = new ArrayList<>();
+		addNodes(result, members, 0, displayNetworkName);
+		addNodes(result, first, 1, displayNetworkName);
+		addNodes(result, second, 2, displayNetworkName);
+		return result;
+	}
+
+	/**
+	 * Weights of the first and second connections of an employee for the smart list, same result as the question.firstConnections and
+	 * question.secondConnections Cypher templates
+	 * A second connection is weighted with the weight of the first relationship leading to it, the highest weight is kept
+	 * @param employeeId - ID of the employee
+	 * @param relationshipType - name of the relationship type
+	 * @return map of employee ID and weight
+	 */
+	public Map<Integer, Double> getConnectionWeights(int employeeId, String relationshipType) {
+		Map<Integer, Double> result = new HashMap<>();
+		int a = indexOf(employeeId);
+		Adjacency adjacency = outgoing.get(relationshipType);
+		if (a < 0 || adjacency == null) {
+			return result;
+		}
+		for (int j = adjacency.offsets[a]; j < adjacency.offsets[a + 1]; j++) {
+			result.put(employeeIds[adjacency.targets[j]], adjacency.weights[j]);
+		}
+		for (int j = adjacency.offsets[a]; j < adjacency.offsets[a + 1]; j++) {
+			int b = adjacency.targets[j];
+			double weight = adjacency.weights[j];
+			for (int k = adjacency.offsets[b]; k < adjacency.offsets[b + 1]; k++) {
+				// a relationship is not followed twice in the same path
+				if (k != j) {
+					result.merge(employeeIds[adjacency.targets[k]], weight, Math::max);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of employees
+	 */
+	public int size() {
+		return employeeIds.length;
+	}
+
+	/**
+	 * @return number of relationships of all types
+	 */
+	public int getRelationshipCount() {
+		return relationshipCount;
+	}
+
+	/**
+	 * @return names of the relationship types present in the graph
+	 */
+	public List<String> getRelationshipTypes() {
+		return new ArrayList<>(outgoing.keySet());
+	}
+
+	/**
+	 * @return time the snapshot was built at in milliseconds
+	 */
+	public long getBuiltAt() {
+		return builtAt;
+	}
+
+	@Override
+	public String toString() {
+		return "GraphSnapshot [employees=" + employeeIds.length + ", relationships=" + relationshipCount + ", relationshipTypes="
+				+ outgoing.keySet() + ", builtAt=" + builtAt + "]";
+	}
+
+	private int indexOf(int employeeId) {
+		int i = Arrays.binarySearch(employeeIds, employeeId);
+		return i < 0 ? -1 : i;
+	}
+
+	private BitSet toIndexSet(Collection<Integer> employeeIdList) {
+		BitSet result = new BitSet(employeeIds.length);
+		for (int employeeId : employeeIdList) {
+			int i = indexOf(employeeId);
+			if (i >= 0) {
+				result.set(i);
+			}
+		}
+		return result;
+	}
+
+	// adds the employees connected to employee i in either direction, except the excluded one
+	private void addNeighbours(int i, List<String> types, int excluded, BitSet result) {
+		for (String type : types) {
+			Adjacency out = outgoing.get(type);
+			if (out != null) {
+				out.addTargets(i, excluded, result);
+				incoming.get(type).addTargets(i, excluded, result);
+			}
+		}
+	}
+
+	private void addNodes(List<Node> result, BitSet indexes, int degree, boolean displayNetworkName) {
+		for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+			if (functions[i] == null || positions[i] == null || zones[i] == null) {
+				continue;
+			}
+			Node n = new Node();
+			n.setEmployeeId(employeeIds[i]);
+			if (displayNetworkName) {
+				n.setFirstName(firstNames[i]);
+				n.setLastName(lastNames[i]);
+			}
+			n.setFunction(functions[i]);
+			n.setZone(zones[i]);
+			n.setPosition(positions[i]);
+			n.setConnectedness(degree);
+			result.add(n);
+		}
+	}
+
+	/**
+	 * Relationships of one type and direction in compressed sparse row form
+	 */
+	private static final class Adjacency {
+
+		private final int[] offsets;
+		private final int[] targets;
+		private final double[] weights;
+		// next free entry of every row while the rows are filled
+		private int[] next;
+
+		Adjacency(int[] degrees) {
+			offsets = degrees;
+			for (int i = 1; i < offsets.length; i++) {
+				offsets[i] += offsets[i - 1];
+			}
+			targets = new int[offsets[offsets.length - 1]];
+			weights = new double[targets.length];
+			next = Arrays.copyOf(offsets, offsets.length - 1);
+		}
+
+		void add(int row, int target, double weight) {
+			targets[next[row]] = target;
+			weights[next[row]] = weight;
+			next[row]++;
+		}
+
+		void addTargets(int row, int excluded, BitSet result) {
+			for (int j = offsets[row]; j < offsets[row + 1]; j++) {
+				if (targets[j] != excluded) {
+					result.set(targets[j]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects the employees and relationships of a snapshot, the arrays grow as relationships are added
+	 */
+	public static final class Builder {
+
+		private final Map<Integer, String[]> attributes = new HashMap<>();
+		private int[] ids = new int[16];
+		private int idCount;
+		private int[] from = new int[16];
+		private int[] to = new int[16];
+		private String[] types = new String[16];
+		private double[] weights = new double[16];
+		private int relationshipCount;
+
+		/**
+		 * Adds an employee, only the first function, position and zone of the employee are kept
+		 * @param employeeId - ID of the employee
+		 * @param firstName - first name
+		 * @param lastName - last name
+		 * @param function - name of the function, null if the employee has none
+		 * @param position - name of the position, null if the employee has none
+		 * @param zone - name of the zone, null if the employee has none
+		 * @return this builder
+		 */
+		public Builder addEmployee(int employeeId, String firstName, String lastName, String function, String position, String zone) {
+			if (attributes.putIfAbsent(employeeId, new String[] { firstName, lastName, function, position, zone }) == null) {
+				if (idCount == ids.length) {
+					ids = Arrays.copyOf(ids, idCount * 2);
+				}
+				ids[idCount++] = employeeId;
+			}
+			return this;
+		}
+
+		/**
+		 * @param fromEmployeeId - ID of the employee the relationship starts at
+		 * @param toEmployeeId - ID of the employee the relationship ends at
+		 * @param relationshipType - name of the relationship type
+		 * @param weight - weight of the relationship
+		 * @return this builder
+		 */
+		public Builder addRelationship(int fromEmployeeId, int toEmployeeId, String relationshipType, double weight) {
+			if (relationshipCount == from.length) {
+				from = Arrays.copyOf(from, relationshipCount * 2);
+				to = Arrays.copyOf(to, relationshipCount * 2);
+				types = Arrays.copyOf(types, relationshipCount * 2);
+				weights = Arrays.copyOf(weights, relationshipCount * 2);
+			}
+			from[relationshipCount] = fromEmployeeId;
+			to[relationshipCount] = toEmployeeId;
+			types[relationshipCount] = relationshipType;
+			weights[relationshipCount] = weight;
+			relationshipCount++;
+			return this;
+		}
+
+		/**
+		 * @return the snapshot of the employees and relationships added so far
+		 */
+		public GraphSnapshot build() {
+			return new GraphSnapshot(this);
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package org.icube.owen.explore;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of the graph snapshot of every company
+ * A company is loaded on its first request and rebuilt once its edges have been recalculated; snapshots older than the TTL are still
+ * returned while a background thread rebuilds them
+ * After a failed load the company is not loaded again for the retry interval, callers go to neo4j in the meantime
+ */
+public class GraphSnapshotCache {
+
+	/**
+	 * Reads the graph snapshot of a company
+	 */
+	public interface GraphSnapshotLoader {
+		GraphSnapshot load(int companyId) throws SQLException;
+	}
+
+	private final GraphSnapshotLoader loader;
+	private final long ttlMillis;
+	private final long retryMillis;
+
+	private final Map<Integer, GraphSnapshot> snapshots = new ConcurrentHashMap<>();
+	private final Map<Integer, Long> failedAt = new ConcurrentHashMap<>();
+	private final Map<Integer, Object> loadLocks = new ConcurrentHashMap<>();
+	private final Set<Integer> refreshing = ConcurrentHashMap.newKeySet();
+	private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "GraphSnapshotRefresher");
+		t.setDaemon(true);
+		return t;
+	});
+
+	// counters
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong loadCount = new AtomicLong();
+	private final AtomicLong loadErrorCount = new AtomicLong();
+	private final AtomicLong loadMillis = new AtomicLong();
+
+	/**
+	 * @param ttlMillis - time after which a snapshot is rebuilt
+	 * @param retryMillis - time after a failed load before the company is loaded again
+	 * @param loader - reads the snapshot of a company
+	 */
+	public GraphSnapshotCache(long ttlMillis, long retryMillis, GraphSnapshotLoader loader) {
+		this.ttlMillis = ttlMillis;
+		this.retryMillis = retryMillis;
+		this.loader = loader;
+	}
+
+	/**
+	 * Retrieves the graph snapshot of the company, loading it only if the company has never been loaded
+	 * An expired snapshot is returned as is and rebuilt in the background
+	 * @param companyId - Company ID
+	 * @return the snapshot, null if it could not be loaded
+	 */
+	public GraphSnapshot get(int companyId) {
+		GraphSnapshot snapshot = snapshots.get(companyId);
+		if (snapshot == null) {
+			missCount.incrementAndGet();
+			Long failed = failedAt.get(companyId);
+			if (failed != null && System.currentTimeMillis() - failed < retryMillis) {
+				return null;
+			}
+			// concurrent first requests of a company wait for a single load
+			synchronized (loadLocks.computeIfAbsent(companyId, k -> new Object())) {
+				snapshot = snapshots.get(companyId);
+				return snapshot != null ? snapshot : rebuild(companyId);
+			}
+		}
+		hitCount.incrementAndGet();
+		if (System.currentTimeMillis() - snapshot.getBuiltAt() > ttlMillis) {
+			scheduleRebuild(companyId);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Loads the graph snapshot of the company and replaces the cached one
+	 * The cached snapshot is kept if the graph cannot be read
+	 * @param companyId - Company ID
+	 * @return the snapshot, null if it could not be loaded and no snapshot is cached
+	 */
+	public GraphSnapshot rebuild(int companyId) {
+		GraphSnapshot snapshot = load(companyId);
+		return snapshot != null ? snapshot : snapshots.get(companyId);
+	}
+
+	/**
+	 * Loads the graph snapshot of the company and replaces the cached one, used once the edges have been recalculated
+	 * The cached snapshot no longer matches neo4j, so it is dropped if the graph cannot be read and the requests go to neo4j until the
+	 * retry interval is over
+	 * @param companyId - Company ID
+	 * @return true if the snapshot was replaced, false if it was dropped
+	 */
+	public boolean replace(int companyId) {
+		if (load(companyId) != null) {
+			return true;
+		}
+		snapshots.remove(companyId);
+		return false;
+	}
+
+	/**
+	 * Drops the snapshot of the company, the next request loads it again
+	 * @param companyId - Company ID
+	 */
+	public void invalidate(int companyId) {
+		org.apache.log4j.Logger.getLogger(GraphSnapshotCache.class).debug("Invalidating the graph snapshot for companyId : " + companyId);
+		snapshots.remove(companyId);
+		failedAt.remove(companyId);
+	}
+
+	/**
+	 * @return the number of hits, misses, loads and failed loads, the total load duration in milliseconds and the cached employees and
+	 *         relationships
+	 */
+	public Map<String, Long> getStatistics() {
+		long employeeCount = 0;
+		long relationshipCount = 0;
+		for (GraphSnapshot snapshot : snapshots.values()) {
+			employeeCount += snapshot.size();
+			relationshipCount += snapshot.getRelationshipCount();
+		}
+		Map<String, Long> stats = new HashMap<>();
+		stats.put("hitCount", hitCount.get());
+		stats.put("missCount", missCount.get());
+		stats.put("loadCount", loadCount.get());
+		stats.put("loadErrorCount", loadErrorCount.get());
+		stats.put("loadMillis", loadMillis.get());
+		stats.put("companyCount", (long) snapshots.size());
+		stats.put("employeeCount", employeeCount);
+		stats.put("relationshipCount", relationshipCount);
+		return stats;
+	}
+
+	/**
+	 * Stops the background rebuild thread
+	 */
+	public void close() {
+		refresher.shutdownNow();
+	}
+
+	private GraphSnapshot load(int companyId) {
+		long start = System.currentTimeMillis();
+		try {
+			GraphSnapshot snapshot = loader.load(companyId);
+			snapshots.put(companyId, snapshot);
+			failedAt.remove(companyId);
+			loadCount.incrementAndGet();
+			loadMillis.addAndGet(System.currentTimeMillis() - start);
+			org.apache.log4j.Logger.getLogger(GraphSnapshotCache.class).debug("Built the graph snapshot for companyId : " + companyId + " "
+					+ snapshot + " in " + (System.currentTimeMillis() - start) + " ms");
+			return snapshot;
+		} catch (SQLException | RuntimeException e) {
+			org.apache.log4j.Logger.getLogger(GraphSnapshotCache.class).error("Unable to build the graph snapshot for companyId : " + companyId, e);
+			loadErrorCount.incrementAndGet();
+			failedAt.put(companyId, System.currentTimeMillis());
+			return null;
+		}
+	}
+
+	private void scheduleRebuild(int companyId) {
+		// only one rebuild per company is queued at a time
+		if (refreshing.add(companyId)) {
+			refresher.execute(() -> {
+				try {
+					rebuild(companyId);
+				} finally {
+					refreshing.remove(companyId);
+				}
+			});
+		}
+	}
+}
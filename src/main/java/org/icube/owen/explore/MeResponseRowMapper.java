@@ -0,0 +1,55 @@
+package org.icube.owen.explore;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.icube.owen.helper.ColumnIndex;
+import org.icube.owen.helper.CompanyJdbc;
+
+/**
+ * Maps the response counts of a row of the Me response analysis procedures to a MeResponse object
+ * Each count is read once per row and the average is calculated from the mapped counts
+ */
+public class MeResponseRowMapper implements CompanyJdbc.RowMapper<MeResponse> {
+
+	private final int stronglyAgreeIndex;
+	private final int agreeIndex;
+	private final int neutralIndex;
+	private final int disagreeIndex;
+	private final int stronglyDisagreeIndex;
+
+	/**
+	 * @param columns - columns of the result set
+	 * @throws SQLException - if a response count column is missing
+	 */
+	public MeResponseRowMapper(ColumnIndex columns) throws SQLException {
+		stronglyAgreeIndex = columns.get("strongly_agree");
+		agreeIndex = columns.get("agree");
+		neutralIndex = columns.get("neutral");
+		disagreeIndex = columns.get("disagree");
+		stronglyDisagreeIndex = columns.get("strongly_disagree");
+	}
+
+	@Override
+	public MeResponse mapRow(ResultSet rs, int rowNum) throws SQLException {
+		MeResponse meResponse = new MeResponse();
+		meResponse.setStronglyAgree(rs.getInt(stronglyAgreeIndex));
+		meResponse.setAgree(rs.getInt(agreeIndex));
+		meResponse.setNeutral(rs.getInt(neutralIndex));
+		meResponse.setDisagree(rs.getInt(disagreeIndex));
+		meResponse.setStronglyDisagree(rs.getInt(stronglyDisagreeIndex));
+		meResponse.setAverage(Math.round(((double) ((meResponse.getAgree() * 4) + (meResponse.getDisagree() * 2) + (meResponse.getNeutral() * 3)
+				+ (meResponse.getStronglyAgree() * 5) + (meResponse.getStronglyDisagree() * 1)))
+				/ getResponseSum(meResponse)));
+		return meResponse;
+	}
+
+	/**
+	 * @param meResponse - MeResponse object
+	 * @return total number of responses
+	 */
+	public static int getResponseSum(MeResponse meResponse) {
+		return meResponse.getAgree() + meResponse.getDisagree() + meResponse.getNeutral() + meResponse.getStronglyAgree()
+				+ meResponse.getStronglyDisagree();
+	}
+}
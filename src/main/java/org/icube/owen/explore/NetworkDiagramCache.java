@@ -0,0 +1,212 @@
+package org.icube.owen.explore;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of the node and edge lists of the network diagrams, per company
+ * A diagram is identified by a key chosen by the caller from the normalized team selection or employee set and the relationship
+ * types; the graph only changes when the scheduler writes the recalculated edges, which bumps the graph version of the company and
+ * drops its diagrams
+ * Each company keeps at most the configured number of diagrams, the least recently used diagram is evicted first
+ * Concurrent misses of the same diagram wait for a single build; the cached diagram is never handed out, every caller gets its own
+ * copy of the lists and of the nodes and edges in them
+ */
+public class NetworkDiagramCache {
+
+	/**
+	 * Builds a network diagram on a cache miss
+	 */
+	public interface NetworkDiagramLoader {
+		Map<String, List<?>> load() throws SQLException;
+	}
+
+	private final long ttlMillis;
+	private final int maxDiagramsPerCompany;
+	private final Map<Integer, CompanyDiagrams> companyDiagramsMap = new ConcurrentHashMap<>();
+
+	// counters
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong sharedLoadCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * @param ttlMillis - time after which a diagram is built again even if the graph version has not changed
+	 * @param maxDiagramsPerCompany - number of diagrams cached per company
+	 */
+	public NetworkDiagramCache(long ttlMillis, int maxDiagramsPerCompany) {
+		this.ttlMillis = ttlMillis;
+		this.maxDiagramsPerCompany = Math.max(1, maxDiagramsPerCompany);
+	}
+
+	/**
+	 * Retrieves the diagram from the cache, building it with the loader on a miss
+	 * A diagram is only cached if the graph version did not change while it was built, and is not cached if the loader fails
+	 * A caller which misses a diagram that another caller is already building waits for that build instead of running the loader
+	 * @param companyId - Company ID
+	 * @param key - identifies the team selection or employee set and the relationship types of the diagram
+	 * @param loader - builds the diagram
+	 * @return map with node list and edge list, the lists and their elements are copies which the caller may modify
+	 * @throws SQLException - if the diagram is not cached and the loader fails
+	 */
+	public Map<String, List<?>> get(int companyId, String key, NetworkDiagramLoader loader) throws SQLException {
+		CompanyDiagrams companyDiagrams = companyDiagramsMap.computeIfAbsent(companyId, k -> new CompanyDiagrams());
+		long graphVersion = companyDiagrams.graphVersion.get();
+		CachedDiagram cached;
+		synchronized (companyDiagrams) {
+			cached = companyDiagrams.diagrams.get(key);
+		}
+		if (cached != null && cached.graphVersion == graphVersion && System.currentTimeMillis() - cached.loadedAt <= ttlMillis) {
+			hitCount.incrementAndGet();
+			return copy(cached.diagram);
+		}
+		missCount.incrementAndGet();
+		// a build started before the graph version was bumped is not shared with the callers of the new version
+		String loadingKey = graphVersion + "/" + key;
+		CompletableFuture<Map<String, List<?>>> created = new CompletableFuture<>();
+		CompletableFuture<Map<String, List<?>>> loading = companyDiagrams.loading.computeIfAbsent(loadingKey, k -> created);
+		if (loading != created) {
+			sharedLoadCount.incrementAndGet();
+			return copy(await(loading, key));
+		}
+		try {
+			Map<String, List<?>> diagram = loader.load();
+			Map<String, List<?>> cachedDiagram = copy(diagram);
+			synchronized (companyDiagrams) {
+				if (companyDiagrams.graphVersion.get() == graphVersion) {
+					companyDiagrams.diagrams.put(key, new CachedDiagram(cachedDiagram, graphVersion));
+				}
+			}
+			created.complete(cachedDiagram);
+			return diagram;
+		} catch (SQLException | RuntimeException e) {
+			created.completeExceptionally(e);
+			throw e;
+		} finally {
+			companyDiagrams.loading.remove(loadingKey, created);
+		}
+	}
+
+	/**
+	 * Marks the graph of the company as changed and drops its diagrams, used after the recalculated edges have been written to neo4j
+	 * @param companyId - Company ID
+	 * @return the new graph version of the company
+	 */
+	public long bumpGraphVersion(int companyId) {
+		org.apache.log4j.Logger.getLogger(NetworkDiagramCache.class).debug("Invalidating the network diagrams for companyId : " + companyId);
+		CompanyDiagrams companyDiagrams = companyDiagramsMap.computeIfAbsent(companyId, k -> new CompanyDiagrams());
+		synchronized (companyDiagrams) {
+			companyDiagrams.diagrams.clear();
+			return companyDiagrams.graphVersion.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @param companyId - Company ID
+	 * @return the graph version of the company, 0 if the graph has not changed since startup
+	 */
+	public long getGraphVersion(int companyId) {
+		CompanyDiagrams companyDiagrams = companyDiagramsMap.get(companyId);
+		return companyDiagrams == null ? 0 : companyDiagrams.graphVersion.get();
+	}
+
+	/**
+	 * @return the number of hits, misses, misses which waited for the build of another caller, evictions and cached diagrams
+	 */
+	public Map<String, Long> getStatistics() {
+		long diagramCount = 0;
+		for (CompanyDiagrams companyDiagrams : companyDiagramsMap.values()) {
+			synchronized (companyDiagrams) {
+				diagramCount += companyDiagrams.diagrams.size();
+			}
+		}
+		Map<String, Long> stats = new HashMap<>();
+		stats.put("hitCount", hitCount.get());
+		stats.put("missCount", missCount.get());
+		stats.put("sharedLoadCount", sharedLoadCount.get());
+		stats.put("evictionCount", evictionCount.get());
+		stats.put("diagramCount", diagramCount);
+		return stats;
+	}
+
+	private static Map<String, List<?>> await(CompletableFuture<Map<String, List<?>>> loading, String key) throws SQLException {
+		try {
+			return loading.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for the network diagram " + key, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			}
+			throw new SQLException("Unable to build the network diagram " + key, e.getCause());
+		}
+	}
+
+	/**
+	 * Copies the lists of the diagram and the nodes and edges in them, so that the cached diagram cannot be changed by the callers
+	 */
+	private static Map<String, List<?>> copy(Map<String, List<?>> diagram) {
+		Map<String, List<?>> result = new HashMap<>();
+		for (Map.Entry<String, List<?>> entry : diagram.entrySet()) {
+			List<Object> list = new ArrayList<>(entry.getValue().size());
+			for (Object element : entry.getValue()) {
+				list.add(copyElement(element));
+			}
+			result.put(entry.getKey(), list);
+		}
+		return result;
+	}
+
+	private static Object copyElement(Object element) {
+		if (element instanceof Node) {
+			return ((Node) element).copy();
+		} else if (element instanceof Edge) {
+			return ((Edge) element).copy();
+		} else if (element instanceof ClusterNode) {
+			return ((ClusterNode) element).copy();
+		} else if (element instanceof ClusterEdge) {
+			return ((ClusterEdge) element).copy();
+		}
+		return element;
+	}
+
+	private class CompanyDiagrams {
+		private final AtomicLong graphVersion = new AtomicLong();
+		// diagrams being built, keyed by graph version and diagram key
+		private final Map<String, CompletableFuture<Map<String, List<?>>>> loading = new ConcurrentHashMap<>();
+		// access ordered, so that the eldest entry is the least recently used diagram
+		private final Map<String, CachedDiagram> diagrams = new LinkedHashMap<String, CachedDiagram>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedDiagram> eldest) {
+				if (size() > maxDiagramsPerCompany) {
+					evictionCount.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	private static class CachedDiagram {
+		private final Map<String, List<?>> diagram;
+		private final long graphVersion;
+		private final long loadedAt = System.currentTimeMillis();
+
+		CachedDiagram(Map<String, List<?>> diagram, long graphVersion) {
+			this.diagram = diagram;
+			this.graphVersion = graphVersion;
+		}
+	}
+}
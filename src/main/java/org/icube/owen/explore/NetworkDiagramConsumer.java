@@ -0,0 +1,21 @@
+package org.icube.owen.explore;
+
+import java.util.List;
+
+/**
+ * Receives a network diagram piece by piece from ExploreHelper.streamTeamNetworkDiagram, so that the web layer can write the response
+ * while the diagram is read instead of holding the whole diagram in memory
+ * All the nodes are passed before the first chunk of edges
+ */
+public interface NetworkDiagramConsumer {
+
+	/**
+	 * @param node - next node of the diagram
+	 */
+	void acceptNode(Node node);
+
+	/**
+	 * @param edgeChunk - next chunk of edges of the diagram, the list is not used by the caller afterwards
+	 */
+	void acceptEdges(List<Edge> edgeChunk);
+}
@@ -10,6 +10,9 @@ public class Node {
 	private String position;
 	private String teamName;
 	private int connectedness;
+	// position computed by the server side layout, 0 if the diagram was requested without layout
+	private double x;
+	private double y;
 
 	public int getEmployeeId() {
 		return employee_id;
@@ -75,4 +78,38 @@ public class Node {
 		this.connectedness = connectedness;
 	}
 
+	public double getX() {
+		return x;
+	}
+
+	public void setX(double x) {
+		this.x = x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public void setY(double y) {
+		this.y = y;
+	}
+
+	/**
+	 * @return a copy of the node which can be modified without changing this node
+	 */
+	public Node copy() {
+		Node n = new Node();
+		n.employee_id = employee_id;
+		n.firstName = firstName;
+		n.lastName = lastName;
+		n.function = function;
+		n.zone = zone;
+		n.position = position;
+		n.teamName = teamName;
+		n.connectedness = connectedness;
+		n.x = x;
+		n.y = y;
+		return n;
+	}
+
 }
@@ -1,7 +1,5 @@
 package org.icube.owen.filter;
 
-import java.sql.CallableStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -33,13 +31,9 @@ public class FilterList extends TheBorg {
 				f.setFilterId(filterId);
 			}
 		}
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getDimensionValue(?)}")) {
-			cstmt.setInt(1, f.getFilterId());
-			try (ResultSet rs = cstmt.executeQuery()) {
-
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getDimensionValue(?)}", cstmt -> cstmt.setInt(1, f.getFilterId()), rs -> {
 				org.apache.log4j.Logger.getLogger(FilterList.class).debug("getFilterValues method started");
-				org.apache.log4j.Logger.getLogger(FilterList.class).info("HashMap created!!!");
 				Map<Integer, String> filterValuesMap = new HashMap<>();
 				filterValuesMap.put(0, "All");
 				while (rs.next()) {
@@ -48,7 +42,8 @@ public class FilterList extends TheBorg {
 					f.setFilterValues(filterValuesMap);
 					org.apache.log4j.Logger.getLogger(FilterList.class).debug("Filter : " + f.toString());
 				}
-			}
+				return f;
+			});
 
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(FilterList.class).error("Exception in  getFilterValues for filter : " + filterName, e);
@@ -69,34 +64,33 @@ public class FilterList extends TheBorg {
 		List<Filter> allFiltersList = new ArrayList<>();
 
 		Map<Integer, String> filterLabelMap = getFilterLabelMap(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getDimensionValueList()}");
-				ResultSet rs = cstmt.executeQuery()) {
-
-			for (int filterId : filterLabelMap.keySet()) {
-				Filter f = new Filter();
-				String filterName = filterLabelMap.get(filterId);
-				org.apache.log4j.Logger.getLogger(FilterList.class).debug("filterName : " + filterName);
-
-				f.setFilterId(filterId);
-				f.setFilterName(filterName);
-				org.apache.log4j.Logger.getLogger(FilterList.class).info("HashMap created!!!");
-				Map<Integer, String> filterValuesMap = new HashMap<>();
-				filterValuesMap.put(0, "All");
-				while (rs.next()) {
-					if (filterId == rs.getInt("dimension_id")) {
-						filterValuesMap.put(rs.getInt("dimension_val_id"), rs.getString("dimension_val_name"));
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getDimensionValueList()}", rs -> {
+				for (int filterId : filterLabelMap.keySet()) {
+					Filter f = new Filter();
+					String filterName = filterLabelMap.get(filterId);
+					org.apache.log4j.Logger.getLogger(FilterList.class).debug("filterName : " + filterName);
+
+					f.setFilterId(filterId);
+					f.setFilterName(filterName);
+					Map<Integer, String> filterValuesMap = new HashMap<>();
+					filterValuesMap.put(0, "All");
+					while (rs.next()) {
+						if (filterId == rs.getInt("dimension_id")) {
+							filterValuesMap.put(rs.getInt("dimension_val_id"), rs.getString("dimension_val_name"));
+						}
 					}
-				}
 
-				f.setFilterValues(filterValuesMap);
-				org.apache.log4j.Logger.getLogger(FilterList.class).debug(
-						f.getFilterId() + " - " + f.getFilterName() + " - " + f.getFilterValues().toString());
-				allFiltersList.add(f);
-				rs.first();
+					f.setFilterValues(filterValuesMap);
+					org.apache.log4j.Logger.getLogger(FilterList.class).debug(
+							f.getFilterId() + " - " + f.getFilterName() + " - " + f.getFilterValues().toString());
+					allFiltersList.add(f);
+					rs.first();
 
-			}
+				}
 
+				return allFiltersList;
+			});
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(FilterList.class).error("Exception while getting dimension value list : ", e);
 		}
@@ -111,14 +105,14 @@ public class FilterList extends TheBorg {
 	public Map<Integer, String> getFilterLabelMap(int companyId) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		org.apache.log4j.Logger.getLogger(FilterList.class).info("HashMap created!!!");
 		Map<Integer, String> filterLabelMap = new HashMap<>();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getDimensionList()}");
-				ResultSet rs = cstmt.executeQuery()) {
-			while (rs.next()) {
-				filterLabelMap.put(rs.getInt("dimension_id"), rs.getString("dimension_name"));
-			}
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getDimensionList()}", rs -> {
+				while (rs.next()) {
+					filterLabelMap.put(rs.getInt("dimension_id"), rs.getString("dimension_name"));
+				}
+				return filterLabelMap;
+			});
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
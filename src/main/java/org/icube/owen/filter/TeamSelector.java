@@ -0,0 +1,200 @@
+package org.icube.owen.filter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable team selection resolved from the function, position and zone filters chosen in the UI
+ * It is computed once per request and compares by value, so it can be used as a cache key for the team metrics, time series and
+ * network diagrams of the team
+ */
+public final class TeamSelector {
+
+	/**
+	 * Level at which the metrics of the team are stored
+	 */
+	public enum Level {
+		// all three filters are ALL
+		ORGANIZATION,
+		// two of the filters are ALL, the team is a single dimension value
+		DIMENSION,
+		// none of the filters is ALL and each has a single value
+		CUBE,
+		// any other selection, the metrics are calculated on the fly in R
+		DYNAMIC
+	}
+
+	private static final int[] NONE = new int[0];
+
+	/**
+	 * Selection of the whole organization, used when no filter is passed
+	 */
+	public static final TeamSelector ALL = new TeamSelector(Level.ORGANIZATION, 0, 0, 0, 0, 0, NONE, NONE, NONE);
+
+	private final Level level;
+	private final int funcId;
+	private final int posId;
+	private final int zoneId;
+	private final int dimensionId;
+	private final int dimensionValueId;
+	private final int[] funcIds;
+	private final int[] posIds;
+	private final int[] zoneIds;
+	private final int hash;
+
+	private TeamSelector(Level level, int funcId, int posId, int zoneId, int dimensionId, int dimensionValueId, int[] funcIds, int[] posIds,
+			int[] zoneIds) {
+		this.level = level;
+		this.funcId = funcId;
+		this.posId = posId;
+		this.zoneId = zoneId;
+		this.dimensionId = dimensionId;
+		this.dimensionValueId = dimensionValueId;
+		this.funcIds = funcIds;
+		this.posIds = posIds;
+		this.zoneIds = zoneIds;
+		this.hash = 31 * (31 * (31 * level.hashCode() + Arrays.hashCode(funcIds)) + Arrays.hashCode(posIds)) + Arrays.hashCode(zoneIds);
+	}
+
+	/**
+	 * Resolves the selection from the filter list
+	 * @param filterList - list of the function, position and zone filters, a value ID of 0 stands for ALL
+	 * @return the team selector, ALL if the list is null or empty
+	 */
+	public static TeamSelector of(List<Filter> filterList) {
+		if (filterList == null || filterList.isEmpty()) {
+			return ALL;
+		}
+		int countAll = 0, dimensionId = 0, dimensionValueId = 0;
+		int[] funcIds = NONE, posIds = NONE, zoneIds = NONE;
+		for (Filter filter : filterList) {
+			int[] valueIds = getSortedValueIds(filter);
+			if (filter.getFilterValues().containsKey(0)) {
+				countAll++;
+			}
+			if (filter.getFilterName().equalsIgnoreCase("Function")) {
+				funcIds = valueIds;
+			} else if (filter.getFilterName().equalsIgnoreCase("Position")) {
+				posIds = valueIds;
+			} else if (filter.getFilterName().equalsIgnoreCase("Zone")) {
+				zoneIds = valueIds;
+			}
+			// the dimension of a dimension level selection is the one filter which is not ALL
+			for (int valueId : valueIds) {
+				if (valueId > 0) {
+					dimensionId = filter.getFilterId();
+					dimensionValueId = valueId;
+				}
+			}
+		}
+
+		Level level;
+		if (funcIds.length != 1 || posIds.length != 1 || zoneIds.length != 1 || countAll == 1) {
+			level = Level.DYNAMIC;
+		} else if (countAll == 3) {
+			level = Level.ORGANIZATION;
+		} else if (countAll == 2) {
+			level = Level.DIMENSION;
+		} else {
+			level = Level.CUBE;
+		}
+		return new TeamSelector(level, first(funcIds), first(posIds), first(zoneIds), dimensionId, dimensionValueId, funcIds, posIds, zoneIds);
+	}
+
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * @return the function ID, 0 for ALL, the lowest ID if more than one function is selected
+	 */
+	public int getFuncId() {
+		return funcId;
+	}
+
+	/**
+	 * @return the position ID, 0 for ALL, the lowest ID if more than one position is selected
+	 */
+	public int getPosId() {
+		return posId;
+	}
+
+	/**
+	 * @return the zone ID, 0 for ALL, the lowest ID if more than one zone is selected
+	 */
+	public int getZoneId() {
+		return zoneId;
+	}
+
+	/**
+	 * @return ID of the dimension which is not ALL, used at dimension level
+	 */
+	public int getDimensionId() {
+		return dimensionId;
+	}
+
+	/**
+	 * @return ID of the selected value of the dimension which is not ALL, used at dimension level
+	 */
+	public int getDimensionValueId() {
+		return dimensionValueId;
+	}
+
+	/**
+	 * @return all the selected function IDs in ascending order
+	 */
+	public int[] getFuncIds() {
+		return funcIds.clone();
+	}
+
+	/**
+	 * @return all the selected position IDs in ascending order
+	 */
+	public int[] getPosIds() {
+		return posIds.clone();
+	}
+
+	/**
+	 * @return all the selected zone IDs in ascending order
+	 */
+	public int[] getZoneIds() {
+		return zoneIds.clone();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof TeamSelector)) {
+			return false;
+		}
+		TeamSelector other = (TeamSelector) obj;
+		return hash == other.hash && level == other.level && Arrays.equals(funcIds, other.funcIds) && Arrays.equals(posIds, other.posIds)
+				&& Arrays.equals(zoneIds, other.zoneIds);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return level + " [func=" + Arrays.toString(funcIds) + ", pos=" + Arrays.toString(posIds) + ", zone=" + Arrays.toString(zoneIds) + "]";
+	}
+
+	private static int[] getSortedValueIds(Filter filter) {
+		int[] valueIds = new int[filter.getFilterValues().size()];
+		int i = 0;
+		for (int valueId : filter.getFilterValues().keySet()) {
+			valueIds[i++] = valueId;
+		}
+		Arrays.sort(valueIds);
+		return valueIds;
+	}
+
+	private static int first(int[] valueIds) {
+		return valueIds.length == 0 ? 0 : valueIds[0];
+	}
+}
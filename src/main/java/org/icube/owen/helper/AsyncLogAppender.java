@@ -0,0 +1,207 @@
+package org.icube.owen.helper;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Hands the log events to the console and file appenders on a background thread, so that request threads do not wait for log I/O
+ * The queue is bounded; once it is three quarters full only one in every sampleRate debug and info events is kept, and when it is
+ * full debug and info events are dropped; warn and error events wait a short while for space
+ * The number of dropped events is logged by the background thread once there is room again
+ */
+public class AsyncLogAppender extends AppenderSkeleton {
+
+	private static final String FQCN = AsyncLogAppender.class.getName();
+	// time a warn or error event waits for space in a full queue
+	private static final long SEVERE_WAIT_MILLIS = 100;
+
+	private static volatile AsyncLogAppender installed;
+
+	private final BlockingQueue<LoggingEvent> queue;
+	private final int sampleThreshold;
+	private final int sampleRate;
+	private final boolean locationInfo;
+	private final List<Appender> appenders = new CopyOnWriteArrayList<>();
+	private final Thread dispatcher;
+
+	// counters
+	private final AtomicLong appendedCount = new AtomicLong();
+	private final AtomicLong sampleCounter = new AtomicLong();
+	private final AtomicLong sampledOutCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong unreportedDrops = new AtomicLong();
+
+	/**
+	 * @param bufferSize - maximum number of events waiting to be written
+	 * @param sampleRate - one in every sampleRate debug and info events is kept while the queue is under pressure
+	 * @param locationInfo - true if the caller location is captured on the request thread, needed for %L %F %M in the layouts
+	 */
+	public AsyncLogAppender(int bufferSize, int sampleRate, boolean locationInfo) {
+		this.queue = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+		this.sampleThreshold = Math.max(1, bufferSize * 3 / 4);
+		this.sampleRate = Math.max(1, sampleRate);
+		this.locationInfo = locationInfo;
+		setName("async");
+		dispatcher = new Thread(this::dispatch, "AsyncLogDispatcher");
+		dispatcher.setDaemon(true);
+		dispatcher.start();
+	}
+
+	/**
+	 * Moves the appenders of the logger behind a new asynchronous appender
+	 * @param logger - logger whose appenders are moved, usually the root logger
+	 * @param bufferSize - maximum number of events waiting to be written
+	 * @param sampleRate - one in every sampleRate debug and info events is kept while the queue is under pressure
+	 * @param locationInfo - true if the caller location is captured on the request thread
+	 * @return the asynchronous appender
+	 */
+	public static AsyncLogAppender install(Logger logger, int bufferSize, int sampleRate, boolean locationInfo) {
+		AsyncLogAppender async = new AsyncLogAppender(bufferSize, sampleRate, locationInfo);
+		Enumeration<?> current = logger.getAllAppenders();
+		List<Appender> moved = new ArrayList<>();
+		while (current != null && current.hasMoreElements()) {
+			moved.add((Appender) current.nextElement());
+		}
+		for (Appender appender : moved) {
+			// removeAllAppenders would close the appenders
+			logger.removeAppender(appender);
+			if (appender instanceof AsyncLogAppender) {
+				// installed again, take over the appenders of the previous one
+				AsyncLogAppender previous = (AsyncLogAppender) appender;
+				previous.stop();
+				async.appenders.addAll(previous.appenders);
+			} else {
+				async.appenders.add(appender);
+			}
+		}
+		logger.addAppender(async);
+		installed = async;
+		return async;
+	}
+
+	/**
+	 * @return the appender installed last, null if logging is synchronous
+	 */
+	public static AsyncLogAppender getInstalled() {
+		return installed;
+	}
+
+	@Override
+	protected void append(LoggingEvent event) {
+		boolean severe = event.getLevel().isGreaterOrEqual(Level.WARN);
+		if (!severe && queue.size() >= sampleThreshold && sampleCounter.incrementAndGet() % sampleRate != 0) {
+			sampledOutCount.incrementAndGet();
+			unreportedDrops.incrementAndGet();
+			return;
+		}
+		// values which are read lazily from the request thread have to be taken before the event changes thread
+		event.getNDC();
+		event.getThreadName();
+		event.getMDCCopy();
+		event.getRenderedMessage();
+		event.getThrowableStrRep();
+		if (locationInfo) {
+			event.getLocationInformation();
+		}
+		boolean queued;
+		try {
+			queued = severe ? queue.offer(event, SEVERE_WAIT_MILLIS, TimeUnit.MILLISECONDS) : queue.offer(event);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			queued = false;
+		}
+		if (queued) {
+			appendedCount.incrementAndGet();
+		} else {
+			droppedCount.incrementAndGet();
+			unreportedDrops.incrementAndGet();
+		}
+	}
+
+	private void dispatch() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				LoggingEvent event = queue.take();
+				long drops = unreportedDrops.getAndSet(0);
+				if (drops > 0) {
+					writeToAppenders(new LoggingEvent(FQCN, Logger.getLogger(AsyncLogAppender.class), Level.WARN, "Discarded " + drops
+							+ " log events because the log queue was under pressure", null));
+				}
+				writeToAppenders(event);
+			}
+		} catch (InterruptedException e) {
+			// stopped, flush what is left
+			List<LoggingEvent> remaining = new ArrayList<>();
+			queue.drainTo(remaining);
+			for (LoggingEvent event : remaining) {
+				writeToAppenders(event);
+			}
+		}
+	}
+
+	private void writeToAppenders(LoggingEvent event) {
+		for (Appender appender : appenders) {
+			try {
+				appender.doAppend(event);
+			} catch (RuntimeException e) {
+				// the logging thread must survive a failing appender
+				System.err.println("Appender " + appender.getName() + " failed : " + e);
+			}
+		}
+	}
+
+	private void stop() {
+		dispatcher.interrupt();
+		try {
+			dispatcher.join(SEVERE_WAIT_MILLIS * 10);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes the queued events and closes the appenders
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		stop();
+		for (Appender appender : appenders) {
+			appender.close();
+		}
+	}
+
+	@Override
+	public boolean requiresLayout() {
+		return false;
+	}
+
+	/**
+	 * @return the queue depth and the number of events written, sampled out and dropped
+	 */
+	public Map<String, Long> getStatistics() {
+		Map<String, Long> stats = new HashMap<>();
+		stats.put("queueDepth", (long) queue.size());
+		stats.put("appendedCount", appendedCount.get());
+		stats.put("sampledOutCount", sampledOutCount.get());
+		stats.put("droppedCount", droppedCount.get());
+		return stats;
+	}
+}
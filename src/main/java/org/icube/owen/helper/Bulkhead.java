@@ -0,0 +1,132 @@
+package org.icube.owen.helper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of concurrent calls a single company can make to a shared resource
+ * Calls beyond the permits wait in a bounded queue for at most the maximum wait; when the queue is full the call is rejected
+ * straight away so that a company under heavy load fails fast instead of holding threads the other companies need
+ */
+public class Bulkhead {
+
+	private final String name;
+	private final int maxConcurrent;
+	private final int maxQueued;
+	private final long maxWaitMillis;
+
+	private final Semaphore permits;
+	private final AtomicInteger queued = new AtomicInteger();
+
+	// counters
+	private final AtomicLong acquiredCount = new AtomicLong();
+	private final AtomicLong queueFullCount = new AtomicLong();
+	private final AtomicLong timeoutCount = new AtomicLong();
+	private final AtomicLong waitNanos = new AtomicLong();
+	private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+	/**
+	 * @param name - name of the bulkhead used in the logs e.g. sql-5
+	 * @param maxConcurrent - number of calls allowed at the same time
+	 * @param maxQueued - number of calls allowed to wait for a permit
+	 * @param maxWaitMillis - maximum time a call waits for a permit
+	 */
+	public Bulkhead(String name, int maxConcurrent, int maxQueued, long maxWaitMillis) {
+		this.name = name;
+		this.maxConcurrent = Math.max(1, maxConcurrent);
+		this.maxQueued = Math.max(0, maxQueued);
+		this.maxWaitMillis = maxWaitMillis;
+		this.permits = new Semaphore(this.maxConcurrent, true);
+	}
+
+	/**
+	 * Takes a permit, every successful call must be followed by release()
+	 * @return true if the permit was taken, false if the call was rejected because the queue is full or the wait timed out
+	 */
+	public boolean acquire() {
+		if (permits.tryAcquire()) {
+			acquiredCount.incrementAndGet();
+			return true;
+		}
+		int depth = queued.incrementAndGet();
+		if (depth > maxQueued) {
+			queued.decrementAndGet();
+			queueFullCount.incrementAndGet();
+			org.apache.log4j.Logger.getLogger(Bulkhead.class).warn("Bulkhead " + name + " is full, rejecting the call");
+			return false;
+		}
+		maxQueueDepth.accumulateAndGet(depth, Math::max);
+		long start = System.nanoTime();
+		try {
+			if (permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+				acquiredCount.incrementAndGet();
+				return true;
+			}
+			timeoutCount.incrementAndGet();
+			org.apache.log4j.Logger.getLogger(Bulkhead.class).warn("Timed out after " + maxWaitMillis + " ms waiting for bulkhead " + name);
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			timeoutCount.incrementAndGet();
+			return false;
+		} finally {
+			waitNanos.addAndGet(System.nanoTime() - start);
+			queued.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Takes a permit only if one is free right away, every successful call must be followed by release()
+	 * Used by calls which have another way to do their work and must not wait for a permit
+	 * @return true if the permit was taken
+	 */
+	public boolean tryAcquire() {
+		if (permits.tryAcquire()) {
+			acquiredCount.incrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a permit taken by acquire() or tryAcquire()
+	 */
+	public void release() {
+		permits.release();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getActiveCount() {
+		return maxConcurrent - permits.availablePermits();
+	}
+
+	public int getQueueDepth() {
+		return queued.get();
+	}
+
+	/**
+	 * @return the current bulkhead counters
+	 */
+	public Map<String, Long> getStatistics() {
+		Map<String, Long> stats = new HashMap<>();
+		long acquired = acquiredCount.get();
+		stats.put("maxConcurrent", (long) maxConcurrent);
+		stats.put("maxQueued", (long) maxQueued);
+		stats.put("active", (long) getActiveCount());
+		stats.put("queueDepth", (long) queued.get());
+		stats.put("maxQueueDepth", (long) maxQueueDepth.get());
+		stats.put("acquiredCount", acquired);
+		stats.put("rejectedCount", queueFullCount.get() + timeoutCount.get());
+		stats.put("queueFullCount", queueFullCount.get());
+		stats.put("timeoutCount", timeoutCount.get());
+		stats.put("averageWaitMicros", acquired == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waitNanos.get() / acquired));
+		return stats;
+	}
+}
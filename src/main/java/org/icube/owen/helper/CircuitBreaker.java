@@ -0,0 +1,119 @@
+package org.icube.owen.helper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stops calls to a backend which keeps failing, so that request threads fail fast instead of waiting for timeouts
+ * After the configured number of consecutive failures the breaker opens and rejects calls; once the open period is over a single
+ * trial call is let through and its outcome closes or reopens the breaker
+ */
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final String name;
+	private final int failureThreshold;
+	private final long openMillis;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private long stateChangedAt = System.currentTimeMillis();
+	private long trialStartedAt;
+
+	// counters
+	private final AtomicLong successCount = new AtomicLong();
+	private final AtomicLong failureCount = new AtomicLong();
+	private final AtomicLong rejectedCount = new AtomicLong();
+	private final AtomicLong openedCount = new AtomicLong();
+
+	/**
+	 * @param name - name of the breaker used in the logs e.g. r-5
+	 * @param failureThreshold - number of consecutive failures after which the breaker opens
+	 * @param openMillis - time the breaker stays open before a trial call is let through
+	 */
+	public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+		this.name = name;
+		this.failureThreshold = Math.max(1, failureThreshold);
+		this.openMillis = openMillis;
+	}
+
+	/**
+	 * Checks if a call may be made, every allowed call must be followed by recordSuccess or recordFailure
+	 * @return true if the call may be made, false if the breaker is open
+	 */
+	public synchronized boolean allowRequest() {
+		long now = System.currentTimeMillis();
+		if (state == State.OPEN && now - stateChangedAt >= openMillis) {
+			transitionTo(State.HALF_OPEN, now);
+			trialStartedAt = now;
+			return true;
+		}
+		if (state == State.HALF_OPEN && now - trialStartedAt >= openMillis) {
+			// the trial call never reported back, let another one through
+			trialStartedAt = now;
+			return true;
+		}
+		if (state != State.CLOSED) {
+			rejectedCount.incrementAndGet();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Records a successful call, closes the breaker if it was half open
+	 */
+	public synchronized void recordSuccess() {
+		successCount.incrementAndGet();
+		consecutiveFailures = 0;
+		if (state != State.CLOSED) {
+			transitionTo(State.CLOSED, System.currentTimeMillis());
+		}
+	}
+
+	/**
+	 * Records a failed call, opens the breaker if the trial call failed or the failure threshold is reached
+	 */
+	public synchronized void recordFailure() {
+		failureCount.incrementAndGet();
+		consecutiveFailures++;
+		if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+			openedCount.incrementAndGet();
+			transitionTo(State.OPEN, System.currentTimeMillis());
+		}
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the current breaker counters, state is the ordinal of the State
+	 */
+	public synchronized Map<String, Long> getStatistics() {
+		Map<String, Long> stats = new HashMap<>();
+		stats.put("state", (long) state.ordinal());
+		stats.put("stateChangedAt", stateChangedAt);
+		stats.put("consecutiveFailures", (long) consecutiveFailures);
+		stats.put("successCount", successCount.get());
+		stats.put("failureCount", failureCount.get());
+		stats.put("rejectedCount", rejectedCount.get());
+		stats.put("openedCount", openedCount.get());
+		return stats;
+	}
+
+	private void transitionTo(State newState, long now) {
+		org.apache.log4j.Logger.getLogger(CircuitBreaker.class).warn(
+				"Circuit breaker " + name + " changed from " + state + " to " + newState + " after " + consecutiveFailures + " consecutive failures");
+		state = newState;
+		stateChangedAt = now;
+	}
+}
@@ -0,0 +1,68 @@
+package org.icube.owen.helper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column labels of a result set resolved to their index once, so that row mappers read the values by index
+ * instead of scanning the result set metadata or resolving the label for every row
+ * Labels are matched ignoring case, the same way the driver resolves them
+ */
+public final class ColumnIndex {
+
+	private final Map<String, Integer> indexMap;
+
+	private ColumnIndex(Map<String, Integer> indexMap) {
+		this.indexMap = indexMap;
+	}
+
+	/**
+	 * @param rs - result set whose columns are resolved
+	 * @return the column index of the result set
+	 * @throws SQLException - if the metadata cannot be read
+	 */
+	public static ColumnIndex of(ResultSet rs) throws SQLException {
+		ResultSetMetaData rsmd = rs.getMetaData();
+		int columns = rsmd.getColumnCount();
+		Map<String, Integer> indexMap = new HashMap<>(columns * 2);
+		for (int x = 1; x <= columns; x++) {
+			// the first of two columns with the same label wins, as with ResultSet.findColumn
+			indexMap.putIfAbsent(rsmd.getColumnLabel(x).toLowerCase(Locale.ROOT), x);
+		}
+		return new ColumnIndex(indexMap);
+	}
+
+	/**
+	 * @param columnLabel - label of the column
+	 * @return true if the result set has the column
+	 */
+	public boolean hasColumn(String columnLabel) {
+		return indexMap.containsKey(columnLabel.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * @param columnLabel - label of the column
+	 * @return index of the column
+	 * @throws SQLException - if the result set does not have the column
+	 */
+	public int get(String columnLabel) throws SQLException {
+		Integer index = indexMap.get(columnLabel.toLowerCase(Locale.ROOT));
+		if (index == null) {
+			throw new SQLException("Column '" + columnLabel + "' not found");
+		}
+		return index;
+	}
+
+	/**
+	 * @param columnLabel - label of the column
+	 * @return index of the column, 0 if the result set does not have the column
+	 */
+	public int find(String columnLabel) {
+		Integer index = indexMap.get(columnLabel.toLowerCase(Locale.ROOT));
+		return index == null ? 0 : index;
+	}
+}
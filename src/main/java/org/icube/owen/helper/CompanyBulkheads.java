@@ -0,0 +1,99 @@
+package org.icube.owen.helper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bulkheads, circuit breakers and executor of a single company, so that the load or the failing backends of one company cannot use up
+ * the sql, neo4j and R capacity of the others
+ * The limits are read from config.properties when the company is first used
+ */
+public class CompanyBulkheads {
+
+	private final Bulkhead sqlBulkhead;
+	private final Bulkhead neoBulkhead;
+	private final Bulkhead rBulkhead;
+	private final TenantExecutor executor;
+	private final CircuitBreaker neoBreaker;
+	private final CircuitBreaker rBreaker;
+
+	/**
+	 * @param companyId - Company ID
+	 * @param config - config snapshot containing the limits
+	 */
+	public CompanyBulkheads(int companyId, ConfigSnapshot config) {
+		sqlBulkhead = new Bulkhead("sql-" + companyId, config.getInt("bulkhead_sql_permits", 20), config.getInt("bulkhead_sql_queue", 50), config
+				.getLong("bulkhead_sql_wait", 10000));
+		neoBulkhead = new Bulkhead("neo4j-" + companyId, config.getInt("bulkhead_neo_permits", 10), config.getInt("bulkhead_neo_queue", 20),
+				config.getLong("bulkhead_neo_wait", 10000));
+		rBulkhead = new Bulkhead("r-" + companyId, config.getInt("bulkhead_r_permits", 2), config.getInt("bulkhead_r_queue", 10), config.getLong(
+				"bulkhead_r_wait", 30000));
+		executor = new TenantExecutor("tenant-" + companyId, config.getInt("tenant_executor_threads", 4), config.getInt("tenant_executor_queue",
+				100));
+		neoBreaker = new CircuitBreaker("neo4j-" + companyId, config.getInt("breaker_neo_failures", 5), config.getLong("breaker_neo_open", 30000));
+		rBreaker = new CircuitBreaker("r-" + companyId, config.getInt("breaker_r_failures", 3), config.getLong("breaker_r_open", 60000));
+	}
+
+	/**
+	 * @return bulkhead around the company sql connection pool
+	 */
+	public Bulkhead getSqlBulkhead() {
+		return sqlBulkhead;
+	}
+
+	/**
+	 * @return bulkhead around the company neo4j connection pool
+	 */
+	public Bulkhead getNeoBulkhead() {
+		return neoBulkhead;
+	}
+
+	/**
+	 * @return bulkhead around the R sessions used for the company
+	 */
+	public Bulkhead getRBulkhead() {
+		return rBulkhead;
+	}
+
+	/**
+	 * @return circuit breaker of the company neo4j database
+	 */
+	public CircuitBreaker getNeoBreaker() {
+		return neoBreaker;
+	}
+
+	/**
+	 * @return circuit breaker of the R calls made for the company
+	 */
+	public CircuitBreaker getRBreaker() {
+		return rBreaker;
+	}
+
+	/**
+	 * @return executor for the background and parallel work of the company
+	 */
+	public TenantExecutor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * @return statistics of the bulkheads, breakers and the executor keyed by sql, neo4j, r, neo4jBreaker, rBreaker and executor
+	 */
+	public Map<String, Map<String, Long>> getStatistics() {
+		Map<String, Map<String, Long>> stats = new HashMap<>();
+		stats.put("sql", sqlBulkhead.getStatistics());
+		stats.put("neo4j", neoBulkhead.getStatistics());
+		stats.put("r", rBulkhead.getStatistics());
+		stats.put("neo4jBreaker", neoBreaker.getStatistics());
+		stats.put("rBreaker", rBreaker.getStatistics());
+		stats.put("executor", executor.getStatistics());
+		return stats;
+	}
+
+	/**
+	 * Stops the executor of the company
+	 */
+	public void close() {
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,216 @@
+package org.icube.owen.helper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of the company config read from the master database
+ * Entries older than the TTL are still returned while a background thread reloads them, so reads never wait on the master database
+ * once a company has been loaded; a change in the master database is picked up within the TTL plus one reload
+ * Only the flags are picked up on reload, the connection pools keep the credentials they were created with
+ */
+public class CompanyConfigCache {
+
+	/**
+	 * Maps a row of getCompanyConfig to a company config object
+	 */
+	public interface CompanyConfigMapper {
+		CompanyConfig map(int companyId, ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * Loads the config of every company with a single query, used by reloadAll
+	 */
+	public interface CompanyConfigListLoader {
+		Map<Integer, CompanyConfig> load() throws SQLException;
+	}
+
+	private final CompanyJdbc masterJdbc;
+	private final CompanyConfigMapper mapper;
+	private final CompanyConfigListLoader companyConfigListLoader;
+	private final long ttlMillis;
+
+	private final Map<Integer, CachedConfig> entries = new ConcurrentHashMap<>();
+	private final Set<Integer> refreshing = ConcurrentHashMap.newKeySet();
+	private final AtomicLong version = new AtomicLong();
+	private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "CompanyConfigRefresher");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/**
+	 * @param masterJdbc - stored procedure executor for the master database
+	 * @param ttlMillis - time after which an entry is reloaded
+	 * @param mapper - maps a row of the company config result set
+	 * @param companyConfigListLoader - loads the config of every company from company_master
+	 */
+	public CompanyConfigCache(CompanyJdbc masterJdbc, long ttlMillis, CompanyConfigMapper mapper,
+			CompanyConfigListLoader companyConfigListLoader) {
+		this.masterJdbc = masterJdbc;
+		this.ttlMillis = ttlMillis;
+		this.mapper = mapper;
+		this.companyConfigListLoader = companyConfigListLoader;
+	}
+
+	/**
+	 * Retrieves the company config, loading it from the master database only if the company has never been loaded
+	 * An expired entry is returned as is and reloaded in the background
+	 * @param companyId - Company ID
+	 * @return the company config, null if the company does not exist
+	 */
+	public CompanyConfig get(int companyId) {
+		CachedConfig entry = entries.get(companyId);
+		if (entry == null) {
+			return load(companyId);
+		}
+		if (System.currentTimeMillis() - entry.loadedAt > ttlMillis) {
+			scheduleReload(companyId);
+		}
+		return entry.config;
+	}
+
+	/**
+	 * Loads the company config from the master database and replaces the cached entry
+	 * The cached entry is kept if the master database cannot be reached
+	 * @param companyId - Company ID
+	 * @return the company config, null if the company does not exist
+	 */
+	public CompanyConfig load(int companyId) {
+		try {
+			CompanyConfig config = masterJdbc.query("{call getCompanyConfig(?)}", cstmt -> cstmt.setInt(1, companyId), rs -> {
+				CompanyConfig result = null;
+				while (rs.next()) {
+					result = mapper.map(companyId, rs);
+				}
+				return result;
+			});
+			if (config == null) {
+				org.apache.log4j.Logger.getLogger(CompanyConfigCache.class).error("No company config found for companyId : " + companyId);
+				entries.remove(companyId);
+				return null;
+			}
+			put(companyId, config);
+			return config;
+		} catch (SQLException e) {
+			org.apache.log4j.Logger.getLogger(CompanyConfigCache.class).error("Unable to load the company config for companyId : " + companyId, e);
+			CachedConfig entry = entries.get(companyId);
+			return entry == null ? null : entry.config;
+		}
+	}
+
+	/**
+	 * Reloads the config of every active company and of every cached company from one query instead of one query per company
+	 * The cached entries are kept if the master database cannot be reached
+	 * @return number of companies loaded
+	 */
+	public int reloadAll() {
+		Map<Integer, CompanyConfig> configMap;
+		try {
+			configMap = companyConfigListLoader.load();
+		} catch (SQLException e) {
+			org.apache.log4j.Logger.getLogger(CompanyConfigCache.class).error("Unable to reload the company configs, keeping the cached configs", e);
+			return 0;
+		}
+		for (int companyId : entries.keySet()) {
+			if (!configMap.containsKey(companyId)) {
+				org.apache.log4j.Logger.getLogger(CompanyConfigCache.class).error("No company config found for companyId : " + companyId);
+				entries.remove(companyId);
+			}
+		}
+		int count = 0;
+		for (Map.Entry<Integer, CompanyConfig> e : configMap.entrySet()) {
+			if ("Active".equalsIgnoreCase(e.getValue().getStatus()) || entries.containsKey(e.getKey())) {
+				put(e.getKey(), e.getValue());
+				count++;
+			}
+		}
+		org.apache.log4j.Logger.getLogger(CompanyConfigCache.class).debug("Reloaded the company config for " + count + " companies");
+		return count;
+	}
+
+	/**
+	 * Reloads the config of the company right away, used when the config has been changed in the master database
+	 * @param companyId - Company ID
+	 * @return the reloaded company config
+	 */
+	public CompanyConfig invalidate(int companyId) {
+		org.apache.log4j.Logger.getLogger(CompanyConfigCache.class).debug("Invalidating the company config for companyId : " + companyId);
+		return load(companyId);
+	}
+
+	/**
+	 * Reloads the config of every company right away
+	 * @return number of companies loaded
+	 */
+	public int invalidateAll() {
+		org.apache.log4j.Logger.getLogger(CompanyConfigCache.class).debug("Invalidating the company config for all companies");
+		return reloadAll();
+	}
+
+	/**
+	 * @return version of the cache, incremented every time an entry is loaded
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * @param companyId - Company ID
+	 * @return version of the cache at which the company config was loaded, -1 if the company is not cached
+	 */
+	public long getVersion(int companyId) {
+		CachedConfig entry = entries.get(companyId);
+		return entry == null ? -1 : entry.version;
+	}
+
+	/**
+	 * @return IDs of the cached companies
+	 */
+	public List<Integer> getCompanyIdList() {
+		return new ArrayList<>(entries.keySet());
+	}
+
+	/**
+	 * Stops the background reload thread
+	 */
+	public void close() {
+		refresher.shutdownNow();
+	}
+
+	private void put(int companyId, CompanyConfig config) {
+		entries.put(companyId, new CachedConfig(config, version.incrementAndGet()));
+	}
+
+	private void scheduleReload(int companyId) {
+		// only one reload per company is queued at a time
+		if (refreshing.add(companyId)) {
+			refresher.execute(() -> {
+				try {
+					load(companyId);
+				} finally {
+					refreshing.remove(companyId);
+				}
+			});
+		}
+	}
+
+	private static class CachedConfig {
+		private final CompanyConfig config;
+		private final long version;
+		private final long loadedAt = System.currentTimeMillis();
+
+		CachedConfig(CompanyConfig config, long version) {
+			this.config = config;
+			this.version = version;
+		}
+	}
+}
@@ -1,20 +1,23 @@
 package org.icube.owen.helper;
 
-import java.sql.Connection;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.tomcat.jdbc.pool.DataSource;
 
 public class CompanyConnection {
 
-	private Connection neoConnection;
+	private DataSource neoDataSource;
 	private DataSource sqlDataSource;
+	private CompanyJdbc companyJdbc;
+	private CompanyBulkheads bulkheads;
 
-	public Connection getNeoConnection() {
-		return neoConnection;
+	public DataSource getNeoDataSource() {
+		return neoDataSource;
 	}
 
-	public void setNeoConnection(Connection neoConnection) {
-		this.neoConnection = neoConnection;
+	public void setNeoDataSource(DataSource neoDataSource) {
+		this.neoDataSource = neoDataSource;
 	}
 
 	public DataSource getDataSource() {
@@ -23,6 +26,45 @@ public class CompanyConnection {
 
 	public void setDataSource(DataSource sqlDataSource) {
 		this.sqlDataSource = sqlDataSource;
+		this.companyJdbc = new CompanyJdbc(sqlDataSource, bulkheads == null ? null : bulkheads.getSqlBulkhead());
+	}
+
+	/**
+	 * @return the concurrency limits of the company
+	 */
+	public CompanyBulkheads getBulkheads() {
+		return bulkheads;
+	}
+
+	/**
+	 * Must be set before the data source so that the stored procedure executor is created with the sql bulkhead
+	 * @param bulkheads - the concurrency limits of the company
+	 */
+	public void setBulkheads(CompanyBulkheads bulkheads) {
+		this.bulkheads = bulkheads;
+	}
+
+	/**
+	 * @return the stored procedure executor for the company sql data source
+	 */
+	public CompanyJdbc getCompanyJdbc() {
+		return companyJdbc;
+	}
+
+	/**
+	 * Retrieves the occupancy of the company neo4j connection pool
+	 * @return map of statistic name and value
+	 */
+	public Map<String, Integer> getNeoPoolStatistics() {
+		Map<String, Integer> stats = new HashMap<>();
+		if (neoDataSource != null) {
+			stats.put("maxActive", neoDataSource.getMaxActive());
+			stats.put("size", neoDataSource.getSize());
+			stats.put("active", neoDataSource.getActive());
+			stats.put("idle", neoDataSource.getIdle());
+			stats.put("waitCount", neoDataSource.getWaitCount());
+		}
+		return stats;
 	}
 
 }
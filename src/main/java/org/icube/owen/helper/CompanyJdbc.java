@@ -0,0 +1,324 @@
+package org.icube.owen.helper;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+/**
+ * Executes stored procedure calls against a pooled data source
+ * Every call borrows a connection, runs the statement and returns the connection to the pool before the method returns
+ * Row mappers and extractors must not hold on to the result set
+ */
+public class CompanyJdbc {
+
+	/**
+	 * Sets the parameters of a callable statement
+	 */
+	public interface StatementSetter {
+		void setValues(CallableStatement cstmt) throws SQLException;
+	}
+
+	/**
+	 * Sets the parameters of a callable statement for one item of a batch
+	 */
+	public interface BatchStatementSetter<E> {
+		void setValues(CallableStatement cstmt, E item) throws SQLException;
+	}
+
+	/**
+	 * Maps the current row of the result set to an object
+	 */
+	public interface RowMapper<T> {
+		T mapRow(ResultSet rs, int rowNum) throws SQLException;
+	}
+
+	/**
+	 * Creates a row mapper for a result set, the mapper resolves the column indices it reads once when it is created
+	 */
+	public interface RowMapperFactory<T> {
+		RowMapper<T> create(ColumnIndex columns) throws SQLException;
+	}
+
+	/**
+	 * Reads the whole result set
+	 */
+	public interface ResultSetExtractor<T> {
+		T extractData(ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * Works directly on the prepared callable statement, used for output parameters and update counts
+	 */
+	public interface CallableStatementCallback<T> {
+		T doInCallableStatement(CallableStatement cstmt) throws SQLException;
+	}
+
+	private final DataSource dataSource;
+	private final Bulkhead bulkhead;
+	private final Map<String, ProcedureStatistics> procedureStatistics = new ConcurrentHashMap<>();
+
+	/**
+	 * @param dataSource - pooled data source the connections are borrowed from
+	 */
+	public CompanyJdbc(DataSource dataSource) {
+		this(dataSource, null);
+	}
+
+	/**
+	 * @param dataSource - pooled data source the connections are borrowed from
+	 * @param bulkhead - limits the concurrent calls of the company, may be null
+	 */
+	public CompanyJdbc(DataSource dataSource, Bulkhead bulkhead) {
+		this.dataSource = dataSource;
+		this.bulkhead = bulkhead;
+	}
+
+	/**
+	 * Borrows a connection, prepares the call and hands the statement to the callback
+	 * @param call - JDBC call escape e.g. {call getQuestion(?)}
+	 * @param action - callback working on the statement
+	 * @return the value returned by the callback
+	 * @throws SQLException - if the bulkhead rejects the call, the connection cannot be borrowed or the call fails
+	 */
+	public <T> T execute(String call, CallableStatementCallback<T> action) throws SQLException {
+		ProcedureStatistics stats = procedureStatistics.computeIfAbsent(getProcedureName(call), k -> new ProcedureStatistics());
+		if (bulkhead != null && !bulkhead.acquire()) {
+			stats.recordError();
+			throw new SQLException("Too many concurrent calls, bulkhead " + bulkhead.getName() + " rejected " + getProcedureName(call));
+		}
+		long start = System.nanoTime();
+		try (Connection conn = dataSource.getConnection()) {
+			long borrowed = System.nanoTime();
+			stats.recordBorrow(borrowed - start);
+			try (CallableStatement cstmt = conn.prepareCall(call)) {
+				return action.doInCallableStatement(cstmt);
+			} finally {
+				stats.recordExecution(System.nanoTime() - borrowed);
+			}
+		} catch (SQLException e) {
+			stats.recordError();
+			throw e;
+		} finally {
+			if (bulkhead != null) {
+				bulkhead.release();
+			}
+		}
+	}
+
+	/**
+	 * Calls a procedure whose result is not needed
+	 * @param call - JDBC call escape
+	 * @param setter - sets the statement parameters, may be null
+	 * @return the update count, -1 if the procedure returned a result set
+	 * @throws SQLException - if the call fails
+	 */
+	public int callProcedure(String call, StatementSetter setter) throws SQLException {
+		return execute(call, cstmt -> {
+			setValues(cstmt, setter);
+			cstmt.execute();
+			return cstmt.getUpdateCount();
+		});
+	}
+
+	/**
+	 * Calls a procedure and reads its result set with the extractor
+	 * @param call - JDBC call escape
+	 * @param setter - sets the statement parameters, may be null
+	 * @param extractor - reads the result set
+	 * @return the value returned by the extractor
+	 * @throws SQLException - if the call fails
+	 */
+	public <T> T query(String call, StatementSetter setter, ResultSetExtractor<T> extractor) throws SQLException {
+		return execute(call, cstmt -> {
+			setValues(cstmt, setter);
+			try (ResultSet rs = cstmt.executeQuery()) {
+				return extractor.extractData(rs);
+			}
+		});
+	}
+
+	/**
+	 * Calls a procedure without parameters and reads its result set with the extractor
+	 * @param call - JDBC call escape
+	 * @param extractor - reads the result set
+	 * @return the value returned by the extractor
+	 * @throws SQLException - if the call fails
+	 */
+	public <T> T query(String call, ResultSetExtractor<T> extractor) throws SQLException {
+		return query(call, null, extractor);
+	}
+
+	/**
+	 * Calls a procedure and maps every row of its result set
+	 * @param call - JDBC call escape
+	 * @param setter - sets the statement parameters, may be null
+	 * @param rowMapper - maps a single row
+	 * @return list of mapped rows
+	 * @throws SQLException - if the call fails
+	 */
+	public <T> List<T> query(String call, StatementSetter setter, RowMapper<T> rowMapper) throws SQLException {
+		return query(call, setter, rs -> {
+			List<T> result = new ArrayList<>();
+			int rowNum = 0;
+			while (rs.next()) {
+				result.add(rowMapper.mapRow(rs, rowNum++));
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * Calls a procedure without parameters and maps every row of its result set
+	 * @param call - JDBC call escape
+	 * @param rowMapper - maps a single row
+	 * @return list of mapped rows
+	 * @throws SQLException - if the call fails
+	 */
+	public <T> List<T> query(String call, RowMapper<T> rowMapper) throws SQLException {
+		return query(call, null, rowMapper);
+	}
+
+	/**
+	 * Calls a procedure and maps every row of its result set with a mapper created for the result set
+	 * @param call - JDBC call escape
+	 * @param setter - sets the statement parameters, may be null
+	 * @param mapperFactory - creates the row mapper once the columns of the result set are known
+	 * @return list of mapped rows
+	 * @throws SQLException - if the call fails
+	 */
+	public <T> List<T> queryForList(String call, StatementSetter setter, RowMapperFactory<T> mapperFactory) throws SQLException {
+		return query(call, setter, rs -> mapRows(rs, mapperFactory));
+	}
+
+	/**
+	 * Maps the remaining rows of a result set with a mapper created for the result set
+	 * @param rs - result set to be read
+	 * @param mapperFactory - creates the row mapper once the columns of the result set are known
+	 * @return list of mapped rows
+	 * @throws SQLException - if the result set cannot be read
+	 */
+	public static <T> List<T> mapRows(ResultSet rs, RowMapperFactory<T> mapperFactory) throws SQLException {
+		RowMapper<T> rowMapper = mapperFactory.create(ColumnIndex.of(rs));
+		List<T> result = new ArrayList<>();
+		int rowNum = 0;
+		while (rs.next()) {
+			result.add(rowMapper.mapRow(rs, rowNum++));
+		}
+		return result;
+	}
+
+	/**
+	 * Calls a procedure that returns its status as a boolean in the first column of the first row
+	 * @param call - JDBC call escape
+	 * @param setter - sets the statement parameters, may be null
+	 * @return the status returned by the procedure, false if no row is returned
+	 * @throws SQLException - if the call fails
+	 */
+	public boolean queryForBoolean(String call, StatementSetter setter) throws SQLException {
+		return query(call, setter, rs -> rs.next() && rs.getBoolean(1));
+	}
+
+	/**
+	 * Calls a procedure once for every item on a single connection
+	 * @param call - JDBC call escape
+	 * @param items - items to be sent
+	 * @param setter - sets the statement parameters for an item
+	 * @return the update counts
+	 * @throws SQLException - if the batch fails
+	 */
+	public <E> int[] batch(String call, Collection<E> items, BatchStatementSetter<E> setter) throws SQLException {
+		if (items.isEmpty()) {
+			return new int[0];
+		}
+		return execute(call, cstmt -> {
+			for (E item : items) {
+				setter.setValues(cstmt, item);
+				cstmt.addBatch();
+			}
+			return cstmt.executeBatch();
+		});
+	}
+
+	/**
+	 * Retrieves the pool borrow and execution latency for each procedure called so far
+	 * @return map of procedure name and its statistics
+	 */
+	public Map<String, Map<String, Long>> getStatistics() {
+		Map<String, Map<String, Long>> result = new HashMap<>();
+		for (Map.Entry<String, ProcedureStatistics> entry : procedureStatistics.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().toMap());
+		}
+		return result;
+	}
+
+	public DataSource getDataSource() {
+		return dataSource;
+	}
+
+	private static void setValues(CallableStatement cstmt, StatementSetter setter) throws SQLException {
+		if (setter != null) {
+			setter.setValues(cstmt);
+		}
+	}
+
+	/**
+	 * Extracts the procedure name from a call escape, {call getQuestion(?)} becomes getQuestion
+	 * @param call - JDBC call escape
+	 * @return procedure name
+	 */
+	static String getProcedureName(String call) {
+		String procedure = call.replace("{", "").replace("}", "").trim();
+		if (procedure.regionMatches(true, 0, "call ", 0, 5)) {
+			procedure = procedure.substring(5).trim();
+		}
+		int bracket = procedure.indexOf('(');
+		return bracket < 0 ? procedure : procedure.substring(0, bracket).trim();
+	}
+
+	private static class ProcedureStatistics {
+		private final AtomicLong callCount = new AtomicLong();
+		private final AtomicLong errorCount = new AtomicLong();
+		private final AtomicLong borrowNanos = new AtomicLong();
+		private final AtomicLong maxBorrowNanos = new AtomicLong();
+		private final AtomicLong executionNanos = new AtomicLong();
+		private final AtomicLong maxExecutionNanos = new AtomicLong();
+
+		void recordBorrow(long nanos) {
+			callCount.incrementAndGet();
+			borrowNanos.addAndGet(nanos);
+			maxBorrowNanos.accumulateAndGet(nanos, Math::max);
+		}
+
+		void recordExecution(long nanos) {
+			executionNanos.addAndGet(nanos);
+			maxExecutionNanos.accumulateAndGet(nanos, Math::max);
+		}
+
+		void recordError() {
+			errorCount.incrementAndGet();
+		}
+
+		Map<String, Long> toMap() {
+			Map<String, Long> stats = new HashMap<>();
+			long calls = callCount.get();
+			stats.put("callCount", calls);
+			stats.put("errorCount", errorCount.get());
+			stats.put("averageBorrowMicros", calls == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(borrowNanos.get() / calls));
+			stats.put("maxBorrowMicros", TimeUnit.NANOSECONDS.toMicros(maxBorrowNanos.get()));
+			stats.put("averageExecutionMicros", calls == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(executionNanos.get() / calls));
+			stats.put("maxExecutionMicros", TimeUnit.NANOSECONDS.toMicros(maxExecutionNanos.get()));
+			return stats;
+		}
+	}
+}
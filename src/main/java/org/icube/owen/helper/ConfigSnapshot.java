@@ -0,0 +1,247 @@
+package org.icube.owen.helper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Immutable snapshot of config.properties
+ * The file is read once and kept in memory, a reload replaces the whole snapshot so readers never see a partially loaded file
+ */
+public final class ConfigSnapshot {
+
+	public static final String CONFIG_FILE = "config.properties";
+
+	private static volatile ConfigSnapshot current = load();
+	private static Thread watcherThread;
+
+	private final Map<String, String> properties;
+	private final long loadedAt;
+
+	private ConfigSnapshot(Map<String, String> properties) {
+		this.properties = Collections.unmodifiableMap(properties);
+		this.loadedAt = System.currentTimeMillis();
+	}
+
+	/**
+	 * @return the current configuration snapshot
+	 */
+	public static ConfigSnapshot get() {
+		return current;
+	}
+
+	/**
+	 * Reads config.properties again and replaces the current snapshot
+	 * The previous snapshot is kept if the file cannot be read
+	 * @return the current configuration snapshot
+	 */
+	public static synchronized ConfigSnapshot reload() {
+		try {
+			current = new ConfigSnapshot(readProperties());
+			org.apache.log4j.Logger.getLogger(ConfigSnapshot.class).info("Reloaded " + CONFIG_FILE);
+		} catch (IOException e) {
+			org.apache.log4j.Logger.getLogger(ConfigSnapshot.class).error("Unable to reload " + CONFIG_FILE + ", keeping the previous values", e);
+		}
+		return current;
+	}
+
+	/**
+	 * Starts a background thread which reloads the snapshot whenever config.properties changes on disk
+	 * Does nothing if the watcher is already running or the file is not on the file system (e.g. inside a jar)
+	 */
+	public static synchronized void startWatcher() {
+		if (watcherThread != null) {
+			return;
+		}
+		Path configPath = getConfigPath();
+		if (configPath == null) {
+			org.apache.log4j.Logger.getLogger(ConfigSnapshot.class).warn(CONFIG_FILE + " is not on the file system, hot reload is disabled");
+			return;
+		}
+		watcherThread = new Thread(() -> watch(configPath), "ConfigWatcher");
+		watcherThread.setDaemon(true);
+		watcherThread.start();
+	}
+
+	/**
+	 * Stops the background reload thread
+	 */
+	public static synchronized void stopWatcher() {
+		if (watcherThread != null) {
+			watcherThread.interrupt();
+			watcherThread = null;
+		}
+	}
+
+	/**
+	 * @param name - name of the property
+	 * @return the property value, null if the property is missing
+	 */
+	public String getString(String name) {
+		return properties.get(name);
+	}
+
+	/**
+	 * @param name - name of the property
+	 * @param defaultValue - value returned when the property is missing
+	 * @return the property value
+	 */
+	public String getString(String name, String defaultValue) {
+		String value = properties.get(name);
+		return value == null ? defaultValue : value;
+	}
+
+	/**
+	 * @param name - name of the property
+	 * @return the property value
+	 * @throws NumberFormatException - if the property is missing or not a number
+	 */
+	public int getInt(String name) {
+		String value = properties.get(name);
+		if (value == null) {
+			throw new NumberFormatException("Property '" + name + "' is missing from " + CONFIG_FILE);
+		}
+		return Integer.parseInt(value.trim());
+	}
+
+	/**
+	 * @param name - name of the property
+	 * @param defaultValue - value returned when the property is missing or not a number
+	 * @return the property value
+	 */
+	public int getInt(String name, int defaultValue) {
+		String value = properties.get(name);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			org.apache.log4j.Logger.getLogger(ConfigSnapshot.class).error("Property '" + name + "' is not a number : " + value);
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * @param name - name of the property
+	 * @param defaultValue - value returned when the property is missing or not a number
+	 * @return the property value
+	 */
+	public long getLong(String name, long defaultValue) {
+		String value = properties.get(name);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			org.apache.log4j.Logger.getLogger(ConfigSnapshot.class).error("Property '" + name + "' is not a number : " + value);
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * @param name - name of the property
+	 * @param defaultValue - value returned when the property is missing
+	 * @return true if the property is "true" ignoring case
+	 */
+	public boolean getBoolean(String name, boolean defaultValue) {
+		String value = properties.get(name);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		return Boolean.parseBoolean(value.trim());
+	}
+
+	/**
+	 * @param name - name of the property
+	 * @return the property value as a path, null if the property is missing
+	 */
+	public Path getPath(String name) {
+		String value = properties.get(name);
+		return value == null ? null : Paths.get(value.trim());
+	}
+
+	/**
+	 * @return time in milliseconds at which this snapshot was loaded
+	 */
+	public long getLoadedAt() {
+		return loadedAt;
+	}
+
+	private static ConfigSnapshot load() {
+		try {
+			return new ConfigSnapshot(readProperties());
+		} catch (IOException e) {
+			org.apache.log4j.Logger.getLogger(ConfigSnapshot.class).error("property file '" + CONFIG_FILE + "' could not be read", e);
+			return new ConfigSnapshot(new HashMap<>());
+		}
+	}
+
+	private static Map<String, String> readProperties() throws IOException {
+		Map<String, String> result = new HashMap<>();
+		try (InputStream inputStream = ConfigSnapshot.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
+			if (inputStream == null) {
+				org.apache.log4j.Logger.getLogger(ConfigSnapshot.class).error("property file '" + CONFIG_FILE + "' not found in classpath");
+				return result;
+			}
+			Properties prop = new Properties();
+			prop.load(inputStream);
+			for (String name : prop.stringPropertyNames()) {
+				result.put(name, prop.getProperty(name));
+			}
+		}
+		return result;
+	}
+
+	private static Path getConfigPath() {
+		URL url = ConfigSnapshot.class.getClassLoader().getResource(CONFIG_FILE);
+		if (url == null || !"file".equals(url.getProtocol())) {
+			return null;
+		}
+		try {
+			return Paths.get(url.toURI());
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+
+	private static void watch(Path configPath) {
+		Path dir = configPath.getParent();
+		try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+			dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			org.apache.log4j.Logger.getLogger(ConfigSnapshot.class).debug("Watching " + configPath + " for changes");
+			while (!Thread.currentThread().isInterrupted()) {
+				WatchKey key = watchService.take();
+				boolean changed = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (configPath.getFileName().equals(event.context())) {
+						changed = true;
+					}
+				}
+				if (changed) {
+					reload();
+				}
+				if (!key.reset()) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			org.apache.log4j.Logger.getLogger(ConfigSnapshot.class).error("Unable to watch " + configPath + " for changes", e);
+		}
+	}
+}
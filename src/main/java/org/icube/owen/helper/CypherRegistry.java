@@ -0,0 +1,56 @@
+package org.icube.owen.helper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the Cypher templates of the application, keyed by name
+ * Every execution of a template sends the same text to neo4j, so the execution counts of the templates are the executions which can
+ * reuse a compiled plan from the neo4j plan cache
+ */
+public final class CypherRegistry {
+
+	private static final Map<String, CypherTemplate> templates = new ConcurrentHashMap<>();
+
+	private CypherRegistry() {
+	}
+
+	/**
+	 * Registers a template, usually as a static field of the class executing it
+	 * @param name - unique name of the template e.g. explore.edges
+	 * @param cypher - statement with named parameters e.g. {empIds}
+	 * @return the registered template
+	 * @throws IllegalStateException - if a different statement is already registered with the name
+	 */
+	public static CypherTemplate register(String name, String cypher) {
+		CypherTemplate template = new CypherTemplate(name, cypher);
+		CypherTemplate registered = templates.putIfAbsent(name, template);
+		if (registered != null) {
+			if (!registered.getCypher().equals(template.getCypher())) {
+				throw new IllegalStateException("Cypher template " + name + " is already registered with a different statement");
+			}
+			return registered;
+		}
+		return template;
+	}
+
+	/**
+	 * @param name - name of the template
+	 * @return the template, null if no template is registered with the name
+	 */
+	public static CypherTemplate get(String name) {
+		return templates.get(name);
+	}
+
+	/**
+	 * @return the statistics of every template keyed by template name
+	 */
+	public static Map<String, Map<String, Long>> getStatistics() {
+		Map<String, Map<String, Long>> stats = new HashMap<>();
+		for (CypherTemplate template : templates.values()) {
+			stats.put(template.getName(), template.getStatistics());
+		}
+		return stats;
+	}
+}
@@ -0,0 +1,139 @@
+package org.icube.owen.helper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Named Cypher statement whose values are passed as parameters instead of being concatenated into the text
+ * The statement is written with named parameters e.g. {empIds}, which are translated to the positional parameters {1}, {2} of the
+ * neo4j jdbc driver; as the text sent to neo4j is the same for every execution, neo4j compiles the plan once and reuses it from its
+ * plan cache
+ * Relationship types cannot be parameters in Cypher, so templates filter them with type(r) in {relTypes}
+ * Templates are created through CypherRegistry.register
+ */
+public final class CypherTemplate {
+
+	private static final Pattern PARAMETER = Pattern.compile("\\{([a-zA-Z]\\w*)\\}");
+
+	private final String name;
+	private final String cypher;
+	private final List<String> parameterNames;
+
+	// counters
+	private final AtomicLong executionCount = new AtomicLong();
+	private final AtomicLong errorCount = new AtomicLong();
+	private final AtomicLong totalMillis = new AtomicLong();
+	private final AtomicLong maxMillis = new AtomicLong();
+
+	CypherTemplate(String name, String template) {
+		this.name = name;
+		List<String> names = new ArrayList<>();
+		StringBuffer sb = new StringBuffer();
+		Matcher m = PARAMETER.matcher(template);
+		while (m.find()) {
+			int index = names.indexOf(m.group(1));
+			if (index < 0) {
+				names.add(m.group(1));
+				index = names.size() - 1;
+			}
+			m.appendReplacement(sb, "{" + (index + 1) + "}");
+		}
+		m.appendTail(sb);
+		this.cypher = sb.toString();
+		this.parameterNames = Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * Executes the template and extracts the result
+	 * @param neoConn - neo4j connection of the company
+	 * @param params - value of every named parameter of the template
+	 * @param extractor - reads the result set
+	 * @return the extracted result
+	 * @throws SQLException - if the statement fails
+	 */
+	public <T> T query(Connection neoConn, Map<String, ?> params, CompanyJdbc.ResultSetExtractor<T> extractor) throws SQLException {
+		Log.get(CypherTemplate.class).debug(() -> "Executing Cypher template " + name + " with " + params);
+		long start = System.currentTimeMillis();
+		boolean failed = true;
+		try (PreparedStatement pstmt = neoConn.prepareStatement(cypher)) {
+			for (int i = 0; i < parameterNames.size(); i++) {
+				String parameterName = parameterNames.get(i);
+				if (!params.containsKey(parameterName)) {
+					throw new IllegalArgumentException("No value for parameter " + parameterName + " of Cypher template " + name);
+				}
+				pstmt.setObject(i + 1, params.get(parameterName));
+			}
+			try (ResultSet res = pstmt.executeQuery()) {
+				T result = extractor.extractData(res);
+				failed = false;
+				return result;
+			}
+		} finally {
+			record(System.currentTimeMillis() - start, failed);
+		}
+	}
+
+	/**
+	 * Executes a template which creates or updates nodes and relationships, the result is discarded
+	 * @param neoConn - neo4j connection of the company
+	 * @param params - value of every named parameter of the template
+	 * @throws SQLException - if the statement fails
+	 */
+	public void execute(Connection neoConn, Map<String, ?> params) throws SQLException {
+		query(neoConn, params, rs -> null);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the statement as sent to the driver, with positional parameters
+	 */
+	public String getCypher() {
+		return cypher;
+	}
+
+	/**
+	 * @return the names of the parameters in the order of their positions
+	 */
+	public List<String> getParameterNames() {
+		return parameterNames;
+	}
+
+	/**
+	 * @return the number of executions, errors and the total and maximum duration in milliseconds
+	 */
+	public Map<String, Long> getStatistics() {
+		Map<String, Long> stats = new HashMap<>();
+		stats.put("executionCount", executionCount.get());
+		stats.put("errorCount", errorCount.get());
+		stats.put("totalMillis", totalMillis.get());
+		stats.put("maxMillis", maxMillis.get());
+		return stats;
+	}
+
+	private void record(long millis, boolean failed) {
+		executionCount.incrementAndGet();
+		if (failed) {
+			errorCount.incrementAndGet();
+		}
+		totalMillis.addAndGet(millis);
+		maxMillis.accumulateAndGet(millis, Math::max);
+	}
+
+	@Override
+	public String toString() {
+		return "CypherTemplate [name=" + name + ", cypher=" + cypher + ", parameterNames=" + parameterNames + "]";
+	}
+}
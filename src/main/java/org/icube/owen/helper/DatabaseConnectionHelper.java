@@ -1,23 +1,35 @@
 package org.icube.owen.helper;
 
-import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 import java.util.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.tomcat.jdbc.pool.DataSource;
 import org.apache.tomcat.jdbc.pool.PoolProperties;
 import org.icube.owen.TheBorg;
+import org.icube.owen.explore.GraphSnapshot;
+import org.icube.owen.explore.GraphSnapshotCache;
+import org.icube.owen.explore.NetworkDiagramCache;
 import org.icube.owen.jobScheduler.CompanyDAO;
+import org.icube.owen.metrics.TimeSeriesCache;
 import org.neo4j.jdbc.Driver;
 import org.rosuda.REngine.REXP;
-import org.rosuda.REngine.REXPMismatchException;
 import org.rosuda.REngine.Rserve.RConnection;
 import org.rosuda.REngine.Rserve.RserveException;
 
@@ -25,18 +37,42 @@ public class DatabaseConnectionHelper extends TheBorg {
 
 	// public Connection masterCon;
 	public DataSource masterDS;
-	private RConnection rCon;
-	public Map<Integer, CompanyConfig> companyConfigMap;
+	private CompanyJdbc masterJdbc;
+	private RConnectionPool rConnectionPool;
+	// R session borrowed by the current request thread
+	private final ThreadLocal<RConnection> threadRCon = new ThreadLocal<>();
+	// company R bulkhead whose permit is held by the current request thread
+	private final ThreadLocal<Bulkhead> threadRBulkhead = new ThreadLocal<>();
+	private CompanyConfigCache companyConfigCache;
+	private final TimeSeriesCache timeSeriesCache;
+	private final GraphSnapshotCache graphSnapshotCache;
+	private final NetworkDiagramCache networkDiagramCache;
 	public Map<Integer, CompanyConnection> companyConnectionMap;
+	// concurrency limits per company, kept across connection refreshes so that the permits in use are not lost
+	private final Map<Integer, CompanyBulkheads> companyBulkheadsMap = new ConcurrentHashMap<>();
+	// one lock per company, only taken while the company is being initialized
+	private final Map<Integer, Object> companyInitLocks = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService connectionValidator;
+	private final int validationTimeoutSeconds;
+	// per call deadlines
+	private final int neoQueryTimeoutSeconds;
+	private final long rEvalTimeoutMillis;
+	private final ExecutorService rEvalExecutor;
+
+	// warm up
+	private final CountDownLatch readyLatch = new CountDownLatch(1);
+	private final Map<String, String> warmUpStatus = new ConcurrentHashMap<>();
+	private volatile long warmUpMillis = -1;
 
-	private boolean rConInUse = false;
 	Timer timer = new Timer();
 
-	private final static String MASTER_URL = UtilHelper.getConfigProperty("master_sql_url");
-	private final static String MASTER_USER = UtilHelper.getConfigProperty("master_sql_user");
-	private final static String MASTER_PASSWORD = UtilHelper.getConfigProperty("master_sql_password");
+	private final static String MASTER_URL = ConfigSnapshot.get().getString("master_sql_url");
+	private final static String MASTER_USER = ConfigSnapshot.get().getString("master_sql_user");
+	private final static String MASTER_PASSWORD = ConfigSnapshot.get().getString("master_sql_password");
 
 	public DatabaseConnectionHelper() {
+		ConfigSnapshot config = ConfigSnapshot.get();
+		ConfigSnapshot.startWatcher();
 
 		PoolProperties p = new PoolProperties();
 		p.setUrl(MASTER_URL);
@@ -60,40 +96,190 @@ public class DatabaseConnectionHelper extends TheBorg {
 		p.setRemoveAbandoned(true);
 		p.setConnectionProperties("connectionTimeout=\"300000\"");
 		p.setJdbcInterceptors("org.apache.tomcat.jdbc.pool.interceptor.ConnectionState;"
-				+ "org.apache.tomcat.jdbc.pool.interceptor.ResetAbandonedTimer");
+				+ "org.apache.tomcat.jdbc.pool.interceptor.ResetAbandonedTimer;" + getStatementInterceptors(config, QueryStatistics.MASTER, p.getMaxActive()));
 		masterDS = new DataSource();
 		masterDS.setPoolProperties(p);
+		masterJdbc = new CompanyJdbc(masterDS);
+
+		// R connection pool
+		String rScriptPath = config.getString("r_script_path");
+		rConnectionPool = new RConnectionPool(config.getInt("r_pool_max_size", 4), config.getInt("r_pool_borrow_timeout", 30000), rScriptPath);
+		companyConfigCache = new CompanyConfigCache(masterJdbc, config.getLong("company_config_ttl", 300000), this::setCompanyConfigDetails,
+				this::getAllCompanyConfigs);
+		companyConnectionMap = new ConcurrentHashMap<>();
+		timeSeriesCache = new TimeSeriesCache(config.getLong("time_series_cache_ttl", 86400000), config.getInt("time_series_cache_max_series",
+				10000));
+		graphSnapshotCache = new GraphSnapshotCache(config.getLong("graph_snapshot_ttl", 86400000), config.getLong("graph_snapshot_retry_interval",
+				60000), companyId -> {
+			try (Connection neoConn = getNeoConnection(companyId)) {
+				return GraphSnapshot.load(neoConn);
+			}
+		});
+		networkDiagramCache = new NetworkDiagramCache(config.getLong("network_diagram_cache_ttl", 86400000), config.getInt(
+				"network_diagram_cache_max_entries", 200));
+
+		// company connections are validated in the background so that request threads do not pay for a network round trip
+		long validationInterval = config.getLong("company_validation_interval", 60000);
+		validationTimeoutSeconds = config.getInt("company_validation_timeout", 5);
+		neoQueryTimeoutSeconds = config.getInt("neo_query_timeout", 30);
+		rEvalTimeoutMillis = config.getLong("r_eval_timeout", 60000);
+		// Rserve has no call timeout, the evaluation runs on this pool while the request thread waits with a deadline
+		rEvalExecutor = Executors.newCachedThreadPool(r -> {
+			Thread t = new Thread(r, "REvaluation");
+			t.setDaemon(true);
+			return t;
+		});
+		connectionValidator = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "CompanyConnectionValidator");
+			t.setDaemon(true);
+			return t;
+		});
+		connectionValidator.scheduleWithFixedDelay(this::validateCompanyConnections, validationInterval, validationInterval,
+				TimeUnit.MILLISECONDS);
 
-		// R connection
+		// runScheduler();
+
+	}
+
+	/**
+	 * Starts the warm up on a background thread and returns immediately
+	 * Requests can wait for it to finish with awaitReady
+	 */
+	public void startWarmUp() {
+		Thread warmUpThread = new Thread(this::warmUp, "DatabaseWarmUp");
+		warmUpThread.setDaemon(true);
+		warmUpThread.start();
+	}
+
+	/**
+	 * Opens the master pool, the R sessions and the connections of every active company in parallel
+	 * The readiness latch is released once every step has finished, whether it succeeded or not
+	 */
+	public void warmUp() {
+		long start = System.currentTimeMillis();
+		ConfigSnapshot config = ConfigSnapshot.get();
+		ExecutorService warmUpExecutor = Executors.newFixedThreadPool(Math.max(1, config.getInt("warmup_threads", 4)), r -> {
+			Thread t = new Thread(r, "DatabaseWarmUpWorker");
+			t.setDaemon(true);
+			return t;
+		});
 		try {
-			rCon = (rCon != null && rCon.isConnected()) ? rCon : new RConnection();
-			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Successfully connected to R");
-			String rScriptPath = UtilHelper.getConfigProperty("r_script_path");
-			String workingDir = "setwd(\"" + rScriptPath + "\")";
-			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Trying to load the RScript file at " + rScriptPath);
-			rCon.eval(workingDir);
-			String s = "source(\"metric.r\")";
-			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("R Path for eval " + s + ".... Loading now ...");
-
-			REXP loadRScript = rCon.eval(s);
-			if (loadRScript.inherits("try-error")) {
-				org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).error(
-						"An error occurred while trying to loading the R script : " + loadRScript.asString());
-				releaseRcon();
-				throw new REXPMismatchException(loadRScript, "Error: " + loadRScript.asString());
-			} else {
-				org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Successfully loaded metric.r script");
+			// the company configs are loaded before the companies are initialized, so that the companies find them in the cache
+			Future<Boolean> master = warmUpExecutor.submit(() -> runWarmUpStep("master", () -> {
+				masterDS.createPool();
+				companyConfigCache.reloadAll();
+			}));
+			Future<Boolean> r = warmUpExecutor.submit(() -> runWarmUpStep("r", () -> rConnectionPool.prewarm(config.getInt("r_pool_initial_size",
+					2))));
+
+			List<Future<Boolean>> companies = new ArrayList<>();
+			if (master.get()) {
+				// reloadAll has cached the config of every active company
+				for (int companyId : companyConfigCache.getCompanyIdList()) {
+					companies.add(warmUpExecutor.submit(() -> runWarmUpStep("company-" + companyId, () -> {
+						refreshCompanyConnection(companyId);
+						if (!companyConnectionMap.containsKey(companyId)) {
+							throw new SQLException("Unable to create the connections for companyId : " + companyId);
+						}
+					})));
+				}
+			}
+			r.get();
+			for (Future<Boolean> company : companies) {
+				company.get();
 			}
-			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).info("HashMap created!!!");
-			companyConfigMap = new HashMap<>();
-			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).info("HashMap created!!!");
-			companyConnectionMap = new HashMap<>();
-		} catch (RserveException | REXPMismatchException e) {
-			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).error("An error occurred while trying to connect to R", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).error("An error occurred during warm up", e);
+		} finally {
+			warmUpExecutor.shutdown();
+			warmUpMillis = System.currentTimeMillis() - start;
+			readyLatch.countDown();
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).info(
+					"Warm up finished in " + warmUpMillis + " ms : " + warmUpStatus.toString());
 		}
+	}
 
-		// runScheduler();
+	/**
+	 * Waits for the warm up to finish, returns immediately once it has finished
+	 * Requests arriving during the warm up wait here instead of initializing the same connections again
+	 * @param timeoutMillis - maximum time to wait
+	 * @return true if the warm up has finished
+	 */
+	public boolean awaitReady(long timeoutMillis) {
+		if (readyLatch.getCount() == 0) {
+			return true;
+		}
+		try {
+			boolean ready = readyLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+			if (!ready) {
+				org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).warn(
+						"Warm up did not finish within " + timeoutMillis + " ms, continuing with lazy initialization");
+			}
+			return ready;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
 
+	/**
+	 * @return true once the warm up has finished
+	 */
+	public boolean isReady() {
+		return readyLatch.getCount() == 0;
+	}
+
+	/**
+	 * Retrieves the status of every warm up step (PENDING, READY or FAILED) and the warm up duration
+	 * @return map of step name and status
+	 */
+	public Map<String, String> getWarmUpStatus() {
+		Map<String, String> result = new HashMap<>(warmUpStatus);
+		result.put("ready", String.valueOf(isReady()));
+		result.put("durationMillis", String.valueOf(warmUpMillis));
+		return result;
+	}
+
+	private interface WarmUpStep {
+		void run() throws Exception;
+	}
+
+	private boolean runWarmUpStep(String name, WarmUpStep step) {
+		warmUpStatus.put(name, "PENDING");
+		long start = System.currentTimeMillis();
+		try {
+			step.run();
+			warmUpStatus.put(name, "READY");
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug(
+					"Warm up of " + name + " finished in " + (System.currentTimeMillis() - start) + " ms");
+			return true;
+		} catch (Exception e) {
+			warmUpStatus.put(name, "FAILED");
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).error("Warm up of " + name + " failed", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the config of every company of company_master with a single query
+	 * @return map of company ID and company config
+	 * @throws SQLException - if the master database cannot be queried
+	 */
+	private Map<Integer, CompanyConfig> getAllCompanyConfigs() throws SQLException {
+		Map<Integer, CompanyConfig> companyConfigMap = new HashMap<>();
+		try (Connection conn = masterDS.getConnection();
+				Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("select comp_id, images_path, slack_url, email_notification, slack_notification, ntw_name, "
+						+ "smart_list, comp_status, neo_db_url, neo_user_name, neo_password, sql_server, comp_sql_dbname, sql_user_id, "
+						+ "sql_password, jobs from company_master")) {
+			while (rs.next()) {
+				int companyId = rs.getInt("comp_id");
+				companyConfigMap.put(companyId, setCompanyConfigDetails(companyId, rs));
+			}
+		}
+		return companyConfigMap;
 	}
 
 	public void runScheduler() {
@@ -114,106 +300,144 @@ public class DatabaseConnectionHelper extends TheBorg {
 	@Override
 	public void finalize() {
 		org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Shutting down databases ...");
-		try {
-			if (!masterDS.getConnection().isClosed()) {
-				try {
-					masterDS.getConnection().close();
-					masterDS.close();
-					org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Connection to master database closed!!!!");
-				} catch (SQLException e) {
-					org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class)
-							.error("An error occurred while closing the mysql connection", e);
-				}
-			}
+		connectionValidator.shutdownNow();
+		rEvalExecutor.shutdownNow();
+		companyConfigCache.close();
+		graphSnapshotCache.close();
+		ConfigSnapshot.stopWatcher();
+		// closing the pools closes the pooled connections, borrowing a connection here only to close it would leak it
+		masterDS.close();
+		org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Connection to master database closed!!!!");
 
-			if (rCon.isConnected()) {
-				rCon.close();
-				org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Connection to R closed!!!!");
-			}
+		rConnectionPool.close();
+		org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Connection to R closed!!!!");
 
-			for (int companyId : companyConnectionMap.keySet()) {
-				companyConnectionMap.get(companyId).getDataSource().getConnection().close();
-				companyConnectionMap.get(companyId).getDataSource().close();
-				org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug(
-						"Connection to company sql for companyId : " + companyId + " is " + "closed!!!!");
+		for (int companyId : companyConnectionMap.keySet()) {
+			companyConnectionMap.get(companyId).getDataSource().close();
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug(
+					"Connection to company sql for companyId : " + companyId + " is " + "closed!!!!");
 
-				companyConnectionMap.get(companyId).getNeoConnection().close();
-				org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug(
-						"Connection to company neo4j for companyId : " + companyId + " is closed!!!!");
-			}
-
-		} catch (SQLException e) {
-			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).error("An error occurred while attempting to close db connections", e);
+			companyConnectionMap.get(companyId).getNeoDataSource().close();
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug(
+					"Connection to company neo4j for companyId : " + companyId + " is closed!!!!");
+		}
+		for (CompanyBulkheads bulkheads : companyBulkheadsMap.values()) {
+			bulkheads.close();
 		}
 	}
 
 	/**
 	 * Retrieves the company database connections
+	 * The connections are created only once per company, later calls are a single map lookup
 	 * @param companyId - The ID of the company for which the connections are required
 	 */
 	public void refreshCompanyConnection(int companyId) {
+		if (companyConnectionMap.containsKey(companyId)) {
+			return;
+		}
+		synchronized (companyInitLocks.computeIfAbsent(companyId, k -> new Object())) {
+			// another thread may have initialized the company while this one was waiting
+			if (!companyConnectionMap.containsKey(companyId)) {
+				initializeCompanyConnection(companyId);
+			}
+		}
+	}
+
+	/**
+	 * Loads the company config and creates the sql and neo4j connection pools for the company
+	 * The connection is published only after the config so that readers of companyConnectionMap always find the config
+	 * @param companyId - Company ID
+	 */
+	private void initializeCompanyConnection(int companyId) {
 		try {
-			CompanyConfig compConfig = null;
 			CompanyConnection compConnection = new CompanyConnection();
-			if (!companyConnectionMap.containsKey(companyId)) {
-				// get company details
-				try (CallableStatement cstmt = masterDS.getConnection().prepareCall("{call getCompanyConfig(?)}")) {
-					cstmt.setInt(1, companyId);
-					try (ResultSet rs = cstmt.executeQuery()) {
-						while (rs.next()) {
-							compConfig = setCompanyConfigDetails(companyId, rs);
-							companyConfigMap.put(companyId, compConfig);
-						}
-					}
-				}
+			// get company details
+			CompanyConfig compConfig = companyConfigCache.get(companyId);
+			compConnection.setBulkheads(getCompanyBulkheads(companyId));
 
-				// company sql connection
-				org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug(
-						"Creating a brand new Connection to company sql for companyId : " + companyId);
-				DataSource ds = createDataSource(compConfig);
-				compConnection.setDataSource(ds);
-				org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug(
-						"Created new Connection to company sql for companyId : " + companyId);
-
-				// company neo connection
-				compConnection.setNeoConnection(createNeoConnection(companyId, compConfig));
-				companyConnectionMap.put(companyId, compConnection);
-			} else {
-				// check if Neo connection is valid; if not refresh the connection
-				if (!companyConnectionMap.get(companyId).getNeoConnection().isValid(0)) {
-					compConnection = companyConnectionMap.get(companyId);
-					compConnection.setNeoConnection(createNeoConnection(companyId, companyConfigMap.get(companyId)));
-					companyConnectionMap.put(companyId, compConnection);
-				}
-			}
+			// company sql connection
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug(
+					"Creating a brand new Connection to company sql for companyId : " + companyId);
+			DataSource ds = createDataSource(companyId, compConfig);
+			compConnection.setDataSource(ds);
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug(
+					"Created new Connection to company sql for companyId : " + companyId);
+
+			// company neo connection pool; idle connections are validated by the pool cleaner and not on the request path
+			compConnection.setNeoDataSource(createNeoDataSource(companyId, compConfig));
+			companyConnectionMap.put(companyId, compConnection);
 		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).error(
 					"An error occurred while retrieving connection details for companyId : " + companyId, e);
 		}
 	}
 
-	private Connection createNeoConnection(int companyId, CompanyConfig compConfig) {
-		Connection conn = null;
-		try {
-			String neoUrl = compConfig.getNeoUrl();
-			String neoUserName = compConfig.getNeoUserName();
-			String neoPassword = compConfig.getNeoPassword();
-			Class.forName("org.neo4j.jdbc.Driver");
-			String path = "jdbc:neo4j://" + neoUrl + "/";
-			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Neo4j connection path : " + path);
-			Properties p = new Properties();
-			p.setProperty("user", neoUserName);
-			p.setProperty("password", neoPassword);
-			conn = new Driver().connect(path, p);
-			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Successfully connected to Neo4j with company ID : " + companyId);
-		} catch (SQLException | ClassNotFoundException e) {
+	/**
+	 * Validates the sql and neo4j connections of every initialized company
+	 * Runs on the background validator, a pool whose connection fails validation is purged so that fresh connections are created
+	 */
+	void validateCompanyConnections() {
+		for (Map.Entry<Integer, CompanyConnection> entry : companyConnectionMap.entrySet()) {
+			validateDataSource(entry.getKey(), "sql", entry.getValue().getDataSource());
+			validateDataSource(entry.getKey(), "neo4j", entry.getValue().getNeoDataSource());
+		}
+	}
+
+	private void validateDataSource(int companyId, String dbName, DataSource ds) {
+		try (Connection conn = ds.getConnection()) {
+			if (conn.isValid(validationTimeoutSeconds)) {
+				return;
+			}
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).warn(
+					"Company " + dbName + " connection for companyId : " + companyId + " is not valid, purging the pool");
+		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).error(
-					"An error occurred while connecting to neo4j db for companyId : " + companyId, e);
+					"Unable to validate the company " + dbName + " connection for companyId : " + companyId + ", purging the pool", e);
 		}
-		return conn;
+		ds.purge();
+	}
+
+	/**
+	 * Creates the neo4j connection pool for the company
+	 * @param companyId - Company ID
+	 * @param compConfig - company config containing the neo4j url and credentials
+	 * @return pooled neo4j data source
+	 */
+	private DataSource createNeoDataSource(int companyId, CompanyConfig compConfig) {
+		String path = "jdbc:neo4j://" + compConfig.getNeoUrl() + "/";
+		org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Neo4j connection path : " + path);
+		ConfigSnapshot config = ConfigSnapshot.get();
+		PoolProperties p = new PoolProperties();
+		p.setName("neo4j-" + companyId);
+		p.setUrl(path);
+		p.setDriverClassName(Driver.class.getName());
+		p.setUsername(compConfig.getNeoUserName());
+		p.setPassword(compConfig.getNeoPassword());
+		p.setJmxEnabled(true);
+		p.setTestOnBorrow(false);
+		p.setTestOnReturn(false);
+		p.setTestWhileIdle(true);
+		p.setValidationQuery("RETURN 1");
+		p.setValidationInterval(config.getInt("neo_validationInterval", 30000));
+		p.setTimeBetweenEvictionRunsMillis(config.getInt("neo_timeBetweenEvictionRunsMillis", 30000));
+		p.setMinEvictableIdleTimeMillis(config.getInt("neo_minEvictableIdleTimeMillis", 60000));
+		p.setMaxActive(config.getInt("neo_maxActive", 10));
+		p.setMaxIdle(config.getInt("neo_maxIdle", 10));
+		p.setMinIdle(config.getInt("neo_minIdle", 2));
+		p.setInitialSize(config.getInt("neo_initialSize", 2));
+		p.setMaxWait(config.getInt("neo_maxWait", 10000));
+		p.setRemoveAbandoned(true);
+		p.setRemoveAbandonedTimeout(config.getInt("neo_removeAbandonedTimeout", 120));
+		p.setLogAbandoned(true);
+		p.setJdbcInterceptors(getQueryStatisticsInterceptor(String.valueOf(companyId)));
+		DataSource datasource = new DataSource();
+		datasource.setPoolProperties(p);
+		org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Created neo4j connection pool for companyId : " + companyId);
+		return datasource;
 	}
 
-	private DataSource createDataSource(CompanyConfig compConfig) {
+	private DataSource createDataSource(int companyId, CompanyConfig compConfig) {
+		ConfigSnapshot config = ConfigSnapshot.get();
 		PoolProperties p = new PoolProperties();
 		p.setUrl(compConfig.getSqlUrl());
 		p.setDriverClassName("com.mysql.jdbc.Driver");
@@ -224,25 +448,51 @@ public class DatabaseConnectionHelper extends TheBorg {
 		p.setTestOnBorrow(true);
 		p.setValidationQuery("SELECT 1");
 		p.setTestOnReturn(false);
-		p.setValidationInterval(Integer.valueOf(UtilHelper.getConfigProperty("validationInterval")));
-		p.setTimeBetweenEvictionRunsMillis(Integer.valueOf(UtilHelper.getConfigProperty("timeBetweenEvictionRunsMillis")));
-		p.setMaxActive(Integer.valueOf(UtilHelper.getConfigProperty("maxActive")));
-		p.setInitialSize(Integer.valueOf(UtilHelper.getConfigProperty("initialSize")));
-		p.setMaxWait(Integer.valueOf(UtilHelper.getConfigProperty("maxWait")));
-		p.setRemoveAbandonedTimeout(Integer.valueOf(UtilHelper.getConfigProperty("removeAbandonedTimeout")));
-		p.setMinEvictableIdleTimeMillis(Integer.valueOf(UtilHelper.getConfigProperty("minEvictableIdleTimeMillis")));
-		p.setMinIdle(Integer.valueOf(UtilHelper.getConfigProperty("minIdle")));
+		p.setValidationInterval(config.getInt("validationInterval"));
+		p.setTimeBetweenEvictionRunsMillis(config.getInt("timeBetweenEvictionRunsMillis"));
+		p.setMaxActive(config.getInt("maxActive"));
+		p.setInitialSize(config.getInt("initialSize"));
+		p.setMaxWait(config.getInt("maxWait"));
+		p.setRemoveAbandonedTimeout(config.getInt("removeAbandonedTimeout"));
+		p.setMinEvictableIdleTimeMillis(config.getInt("minEvictableIdleTimeMillis"));
+		p.setMinIdle(config.getInt("minIdle"));
 		p.setLogAbandoned(true);
 		p.setConnectionProperties("connectionTimeout=\"300000\"");
 		p.setRemoveAbandoned(true);
-		p.setMaxIdle(Integer.valueOf(UtilHelper.getConfigProperty("maxIdle")));
+		p.setMaxIdle(config.getInt("maxIdle"));
 		p.setJdbcInterceptors("org.apache.tomcat.jdbc.pool.interceptor.ConnectionState;"
-				+ "org.apache.tomcat.jdbc.pool.interceptor.ResetAbandonedTimer");
+				+ "org.apache.tomcat.jdbc.pool.interceptor.ResetAbandonedTimer;" + getStatementInterceptors(config, String.valueOf(companyId),
+				p.getMaxActive()));
 		DataSource datasource = new DataSource();
 		datasource.setPoolProperties(p);
 		return datasource;
 	}
 
+	/**
+	 * The query statistics come first so that the statements handed out by the cache are timed as well, and the miss counter comes
+	 * after the cache so that it only sees the calls the cache could not serve
+	 * The tomcat statement cache keeps the prepared and callable statements of the pool open, so that the driver resolves the procedure
+	 * parameter metadata only once per connection and call; its max is shared by the whole pool, so statement_cache_size statements
+	 * per connection are allowed for every connection of the pool
+	 * @param config - config snapshot
+	 * @param company - company ID or QueryStatistics.MASTER
+	 * @param maxActive - maximum number of connections of the pool
+	 * @return interceptor definitions of the query statistics, the statement cache and the miss counter
+	 */
+	private static String getStatementInterceptors(ConfigSnapshot config, String company, int maxActive) {
+		return getQueryStatisticsInterceptor(company) + ";org.apache.tomcat.jdbc.pool.interceptor.StatementCache(prepared=true,callable=true,max="
+				+ config.getInt("statement_cache_size", 50) * Math.max(1, maxActive) + ");" + StatementCacheMissInterceptor.class.getName()
+				+ "(company=" + company + ")";
+	}
+
+	/**
+	 * @param company - company ID or QueryStatistics.MASTER
+	 * @return interceptor definition of the query statistics
+	 */
+	private static String getQueryStatisticsInterceptor(String company) {
+		return QueryStatisticsInterceptor.class.getName() + "(company=" + company + ")";
+	}
+
 	/**
 	 * @param companyId - company ID
 	 * @param rs - resultset containing the company config details
@@ -272,24 +522,297 @@ public class DatabaseConnectionHelper extends TheBorg {
 		return compConfig;
 	}
 
-	public RConnection getRConn() {
-		org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Entering the get R connection function");
-		while (rConInUse)
-			try {
-				Thread.sleep(100);
-				org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Waiting for R connection");
-			} catch (InterruptedException e) {
-				org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).error("An error occurred while trying to get the R connection", e);
+	/**
+	 * Retrieves the company config from the cache, the config is reloaded in the background once it is older than company_config_ttl
+	 * @param companyId - Company ID
+	 * @return the company config, null if the company does not exist
+	 */
+	public CompanyConfig getCompanyConfig(int companyId) {
+		return companyConfigCache.get(companyId);
+	}
+
+	/**
+	 * @return the company config cache, used to invalidate the config after it has been changed
+	 */
+	public CompanyConfigCache getCompanyConfigCache() {
+		return companyConfigCache;
+	}
+
+	/**
+	 * @return the cache of the closed time series buckets, shared by the time series APIs of all companies
+	 */
+	public TimeSeriesCache getTimeSeriesCache() {
+		return timeSeriesCache;
+	}
+
+	/**
+	 * @return the cache of the graph snapshots, used to rebuild the snapshot after the edges have been recalculated
+	 */
+	public GraphSnapshotCache getGraphSnapshotCache() {
+		return graphSnapshotCache;
+	}
+
+	/**
+	 * @return the cache of the network diagrams, whose graph version is bumped after the edges have been recalculated
+	 */
+	public NetworkDiagramCache getNetworkDiagramCache() {
+		return networkDiagramCache;
+	}
+
+	/**
+	 * Retrieves the in-memory graph of the company, the callers query neo4j when it is not available
+	 * @param companyId - Company ID
+	 * @return the graph snapshot, null if it is disabled with graph_snapshot_enabled or could not be loaded
+	 */
+	public GraphSnapshot getGraphSnapshot(int companyId) {
+		return ConfigSnapshot.get().getBoolean("graph_snapshot_enabled", true) ? graphSnapshotCache.get(companyId) : null;
+	}
+
+	/**
+	 * Retrieves the stored procedure executor for the company sql database
+	 * @param companyId - Company ID
+	 * @return the executor bound to the company connection pool
+	 */
+	public CompanyJdbc getCompanyJdbc(int companyId) {
+		refreshCompanyConnection(companyId);
+		return companyConnectionMap.get(companyId).getCompanyJdbc();
+	}
 
+	/**
+	 * Retrieves the concurrency limits of the company, created with the limits from config.properties on first use
+	 * @param companyId - Company ID
+	 * @return the bulkheads and executor of the company
+	 */
+	public CompanyBulkheads getCompanyBulkheads(int companyId) {
+		return companyBulkheadsMap.computeIfAbsent(companyId, k -> new CompanyBulkheads(k, ConfigSnapshot.get()));
+	}
+
+	/**
+	 * Retrieves the executor for the parallel work of the company
+	 * Tasks are rejected with a RejectedExecutionException when the queue of the company is full
+	 * @param companyId - Company ID
+	 * @return the executor of the company
+	 */
+	public TenantExecutor getCompanyExecutor(int companyId) {
+		return getCompanyBulkheads(companyId).getExecutor();
+	}
+
+	/**
+	 * Retrieves the bulkhead and executor counters of every company
+	 * @return map of company ID and the statistics of its bulkheads
+	 */
+	public Map<Integer, Map<String, Map<String, Long>>> getBulkheadStatistics() {
+		Map<Integer, Map<String, Map<String, Long>>> stats = new HashMap<>();
+		for (Map.Entry<Integer, CompanyBulkheads> entry : companyBulkheadsMap.entrySet()) {
+			stats.put(entry.getKey(), entry.getValue().getStatistics());
+		}
+		return stats;
+	}
+
+	/**
+	 * Borrows a connection from the company neo4j pool within the neo4j bulkhead of the company
+	 * The permit is returned when the connection is closed, so the connection must be used in a try with resources
+	 * Statements of the connection get the neo4j query timeout and their failures are counted by the neo4j circuit breaker
+	 * @param companyId - Company ID
+	 * @return the neo4j connection
+	 * @throws SQLException - if the connections of the company could not be created, the circuit breaker is open, the bulkhead rejects
+	 *             the call or the connection cannot be borrowed
+	 */
+	public Connection getNeoConnection(int companyId) throws SQLException {
+		refreshCompanyConnection(companyId);
+		CompanyConnection compConnection = getCompanyConnection(companyId);
+		CompanyBulkheads bulkheads = getCompanyBulkheads(companyId);
+		CircuitBreaker breaker = bulkheads.getNeoBreaker();
+		if (!breaker.allowRequest()) {
+			throw new SQLException("Neo4j circuit breaker " + breaker.getName() + " is open");
+		}
+		Bulkhead bulkhead = bulkheads.getNeoBulkhead();
+		if (!bulkhead.acquire()) {
+			throw new SQLException("Too many concurrent neo4j calls, bulkhead " + bulkhead.getName() + " rejected the call");
+		}
+		try {
+			return NeoConnectionHandler.wrap(compConnection.getNeoDataSource().getConnection(), bulkhead, breaker, neoQueryTimeoutSeconds);
+		} catch (SQLException e) {
+			if (NeoConnectionHandler.isTransientFailure(e)) {
+				breaker.recordFailure();
 			}
+			bulkhead.release();
+			throw e;
+		} catch (RuntimeException e) {
+			bulkhead.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Borrows a connection from the company neo4j pool only if a permit of the neo4j bulkhead is free right away
+	 * Used to spread the work of a caller which already holds a neo4j connection: waiting for a permit while holding one could
+	 * deadlock once every permit is held by such a caller
+	 * @param companyId - Company ID
+	 * @return the neo4j connection, null if no permit is free or the circuit breaker is open
+	 * @throws SQLException - if the connections of the company could not be created or the connection cannot be borrowed
+	 */
+	public Connection tryGetNeoConnection(int companyId) throws SQLException {
+		CompanyConnection compConnection = getCompanyConnection(companyId);
+		CompanyBulkheads bulkheads = getCompanyBulkheads(companyId);
+		CircuitBreaker breaker = bulkheads.getNeoBreaker();
+		Bulkhead bulkhead = bulkheads.getNeoBulkhead();
+		if (!bulkhead.tryAcquire()) {
+			return null;
+		}
+		if (!breaker.allowRequest()) {
+			bulkhead.release();
+			return null;
+		}
+		try {
+			return NeoConnectionHandler.wrap(compConnection.getNeoDataSource().getConnection(), bulkhead, breaker, neoQueryTimeoutSeconds);
+		} catch (SQLException | RuntimeException e) {
+			bulkhead.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * @param companyId - Company ID
+	 * @return the connection pools of the company
+	 * @throws SQLException - if the connection pools of the company could not be created, refreshCompanyConnection only logs the failure
+	 */
+	private CompanyConnection getCompanyConnection(int companyId) throws SQLException {
+		CompanyConnection compConnection = companyConnectionMap.get(companyId);
+		if (compConnection == null) {
+			throw new SQLException("No connection pools available for companyId : " + companyId);
+		}
+		return compConnection;
+	}
+
+	/**
+	 * @return the stored procedure executor for the master database
+	 */
+	public CompanyJdbc getMasterJdbc() {
+		return masterJdbc;
+	}
+
+	/**
+	 * Borrows an R session from the pool for the current thread
+	 * Repeated calls from the same thread return the same session until it is released
+	 * @return R connection with metric.r loaded
+	 * @throws RserveException - if no R session becomes available within the borrow timeout
+	 */
+	public RConnection getRConn() throws RserveException {
+		org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Entering the get R connection function");
+		RConnection rCon = threadRCon.get();
+		if (rCon == null) {
+			rCon = rConnectionPool.borrow();
+			threadRCon.set(rCon);
+		}
 		org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("RConnection provided...");
-		rConInUse = true;
 		return rCon;
+	}
 
+	/**
+	 * Borrows an R session for the current thread within the R bulkhead of the company
+	 * The R pool is shared by all companies, the bulkhead keeps one company from holding every session
+	 * The permit is returned by releaseRcon or invalidateRcon
+	 * @param companyId - Company ID
+	 * @return R connection with metric.r loaded
+	 * @throws RserveException - if the bulkhead rejects the call or no R session becomes available within the borrow timeout
+	 */
+	public RConnection getRConn(int companyId) throws RserveException {
+		if (threadRCon.get() == null && threadRBulkhead.get() == null) {
+			CircuitBreaker breaker = getCompanyBulkheads(companyId).getRBreaker();
+			if (!breaker.allowRequest()) {
+				throw new RserveException(null, "R circuit breaker " + breaker.getName() + " is open");
+			}
+			Bulkhead bulkhead = getCompanyBulkheads(companyId).getRBulkhead();
+			if (!bulkhead.acquire()) {
+				throw new RserveException(null, "Too many concurrent R calls, bulkhead " + bulkhead.getName() + " rejected the call");
+			}
+			threadRBulkhead.set(bulkhead);
+		}
+		try {
+			return getRConn();
+		} catch (RserveException | RuntimeException e) {
+			releaseRBulkhead();
+			throw e;
+		}
+	}
+
+	/**
+	 * Evaluates the expression on the R session held by the current thread within the R deadline
+	 * A session which does not answer in time is evicted from the pool, the outcome is recorded on the R circuit breaker of the company
+	 * @param companyId - Company ID
+	 * @param rCon - R session borrowed with getRConn(companyId)
+	 * @param expression - R expression to be evaluated
+	 * @return the result of the evaluation
+	 * @throws RserveException - if the evaluation fails or does not finish within the deadline
+	 */
+	public REXP parseAndEval(int companyId, RConnection rCon, String expression) throws RserveException {
+		CircuitBreaker breaker = getCompanyBulkheads(companyId).getRBreaker();
+		Future<REXP> result = rEvalExecutor.submit(() -> rCon.parseAndEval(expression));
+		try {
+			REXP rexp = result.get(rEvalTimeoutMillis, TimeUnit.MILLISECONDS);
+			breaker.recordSuccess();
+			return rexp;
+		} catch (TimeoutException e) {
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).error(
+					"R evaluation did not finish within " + rEvalTimeoutMillis + " ms for companyId : " + companyId);
+			breaker.recordFailure();
+			// closing the session aborts the evaluation still running on the R evaluation thread
+			invalidateRcon();
+			result.cancel(true);
+			throw new RserveException(rCon, "R evaluation timed out after " + rEvalTimeoutMillis + " ms");
+		} catch (ExecutionException e) {
+			breaker.recordFailure();
+			if (e.getCause() instanceof RserveException) {
+				throw (RserveException) e.getCause();
+			}
+			throw new RserveException(rCon, "R evaluation failed : " + e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			invalidateRcon();
+			result.cancel(true);
+			throw new RserveException(rCon, "Interrupted while waiting for the R evaluation");
+		}
 	}
 
+	/**
+	 * Returns the R session held by the current thread to the pool, does nothing if the thread holds none
+	 */
 	public void releaseRcon() {
-		org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Releasing R connection");
-		rConInUse = false;
+		RConnection rCon = threadRCon.get();
+		if (rCon != null) {
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Releasing R connection");
+			threadRCon.remove();
+			rConnectionPool.release(rCon);
+		}
+		releaseRBulkhead();
+	}
+
+	/**
+	 * Evicts the R session held by the current thread from the pool, used when the session has failed
+	 */
+	public void invalidateRcon() {
+		RConnection rCon = threadRCon.get();
+		if (rCon != null) {
+			org.apache.log4j.Logger.getLogger(DatabaseConnectionHelper.class).debug("Evicting R connection");
+			threadRCon.remove();
+			rConnectionPool.invalidate(rCon);
+		}
+		releaseRBulkhead();
+	}
+
+	private void releaseRBulkhead() {
+		Bulkhead bulkhead = threadRBulkhead.get();
+		if (bulkhead != null) {
+			threadRBulkhead.remove();
+			bulkhead.release();
+		}
+	}
+
+	/**
+	 * @return the R connection pool
+	 */
+	public RConnectionPool getRConnectionPool() {
+		return rConnectionPool;
 	}
 }
@@ -0,0 +1,104 @@
+package org.icube.owen.helper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed buckets from 1 ms to 10 s, recording is lock free
+ * Percentiles are reported as the upper bound of the bucket they fall in
+ */
+public class LatencyHistogram {
+
+	private static final long[] BUCKET_MILLIS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_MILLIS.length + 1);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder errorCount = new LongAdder();
+	private final LongAdder rowCount = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * @param nanos - duration of the execution
+	 * @param error - true if the execution failed
+	 */
+	public void record(long nanos, boolean error) {
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulateAndGet(nanos, Math::max);
+		if (error) {
+			errorCount.increment();
+		}
+		long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+		int bucket = 0;
+		while (bucket < BUCKET_MILLIS.length && millis >= BUCKET_MILLIS[bucket]) {
+			bucket++;
+		}
+		buckets.incrementAndGet(bucket);
+	}
+
+	/**
+	 * @param rows - number of rows read from the result
+	 */
+	public void addRows(long rows) {
+		rowCount.add(rows);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getErrorCount() {
+		return errorCount.sum();
+	}
+
+	/**
+	 * @param percentile - percentile between 0 and 100
+	 * @return upper bound of the bucket containing the percentile in milliseconds, -1 if it is above the last bucket
+	 */
+	public long getPercentileMillis(double percentile) {
+		long total = 0;
+		long[] counts = new long[buckets.length()];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long threshold = (long) Math.ceil(total * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKET_MILLIS.length; i++) {
+			seen += counts[i];
+			if (seen >= threshold) {
+				return BUCKET_MILLIS[i];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return counters, latency and bucket counts keyed by name
+	 */
+	public Map<String, Long> toMap() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		long calls = count.sum();
+		result.put("count", calls);
+		result.put("errorCount", errorCount.sum());
+		result.put("rowCount", rowCount.sum());
+		result.put("averageMicros", calls == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / calls));
+		result.put("maxMicros", TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+		result.put("p50Millis", getPercentileMillis(50));
+		result.put("p95Millis", getPercentileMillis(95));
+		result.put("p99Millis", getPercentileMillis(99));
+		for (int i = 0; i < BUCKET_MILLIS.length; i++) {
+			result.put("lt" + BUCKET_MILLIS[i] + "ms", buckets.get(i));
+		}
+		result.put("ge" + BUCKET_MILLIS[BUCKET_MILLIS.length - 1] + "ms", buckets.get(BUCKET_MILLIS.length));
+		return result;
+	}
+}
@@ -0,0 +1,123 @@
+package org.icube.owen.helper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PropertyConfigurator;
+
+/**
+ * Logging facade for the hot paths
+ * Debug and info messages are passed as suppliers, so the message is only built when the level is enabled and the logger is within
+ * its rate limit; warn and error messages are never rate limited
+ * The rate limit is the number of debug and info messages a logger writes per second, messages above it are counted and reported
+ * with the next message written
+ */
+public final class Log {
+
+	// the caller of this class is reported as the location of the message
+	private static final String FQCN = Log.class.getName();
+	private static final Map<String, Log> LOGS = new ConcurrentHashMap<>();
+	private static volatile int rateLimit = 0;
+
+	private final Logger logger;
+	private long windowStart;
+	private int windowCount;
+	private final AtomicLong suppressedCount = new AtomicLong();
+
+	private Log(Logger logger) {
+		this.logger = logger;
+	}
+
+	/**
+	 * @param clazz - class the messages are logged for
+	 * @return the facade of the class logger
+	 */
+	public static Log get(Class<?> clazz) {
+		return LOGS.computeIfAbsent(clazz.getName(), k -> new Log(Logger.getLogger(clazz)));
+	}
+
+	/**
+	 * Configures log4j from the properties file and makes the root appenders asynchronous
+	 * The asynchronous logging is configured in config.properties
+	 * log_async_buffer_size - events waiting to be written, 0 to keep the appenders synchronous
+	 * log_async_sample_rate - one in every sampleRate debug and info events is kept while the queue is under pressure
+	 * log_async_location_info - false if the layouts do not print the caller location
+	 * log_rate_limit - debug and info messages per logger and second written through this facade, 0 for no limit
+	 * @param path - path of the log4j properties file
+	 */
+	public static void configure(String path) {
+		PropertyConfigurator.configure(path);
+		ConfigSnapshot config = ConfigSnapshot.get();
+		rateLimit = config.getInt("log_rate_limit", 200);
+		int bufferSize = config.getInt("log_async_buffer_size", 8192);
+		if (bufferSize > 0) {
+			AsyncLogAppender.install(Logger.getRootLogger(), bufferSize, config.getInt("log_async_sample_rate", 10), config.getBoolean(
+					"log_async_location_info", true));
+		}
+	}
+
+	public boolean isDebugEnabled() {
+		return logger.isDebugEnabled();
+	}
+
+	/**
+	 * @param message - builds the message, only called if debug is enabled and the logger is within its rate limit
+	 */
+	public void debug(Supplier<String> message) {
+		if (logger.isDebugEnabled() && tryAcquire()) {
+			logger.log(FQCN, Level.DEBUG, withSuppressed(message.get()), null);
+		}
+	}
+
+	/**
+	 * @param message - builds the message, only called if info is enabled and the logger is within its rate limit
+	 */
+	public void info(Supplier<String> message) {
+		if (logger.isInfoEnabled() && tryAcquire()) {
+			logger.log(FQCN, Level.INFO, withSuppressed(message.get()), null);
+		}
+	}
+
+	public void warn(String message) {
+		logger.log(FQCN, Level.WARN, message, null);
+	}
+
+	public void warn(String message, Throwable t) {
+		logger.log(FQCN, Level.WARN, message, t);
+	}
+
+	public void error(String message) {
+		logger.log(FQCN, Level.ERROR, message, null);
+	}
+
+	public void error(String message, Throwable t) {
+		logger.log(FQCN, Level.ERROR, message, t);
+	}
+
+	private synchronized boolean tryAcquire() {
+		int limit = rateLimit;
+		if (limit <= 0) {
+			return true;
+		}
+		long now = System.currentTimeMillis();
+		if (now - windowStart >= 1000) {
+			windowStart = now;
+			windowCount = 0;
+		}
+		if (windowCount < limit) {
+			windowCount++;
+			return true;
+		}
+		suppressedCount.incrementAndGet();
+		return false;
+	}
+
+	private String withSuppressed(String message) {
+		long suppressed = suppressedCount.getAndSet(0);
+		return suppressed == 0 ? message : message + " (" + suppressed + " messages suppressed by the rate limit)";
+	}
+}
@@ -0,0 +1,175 @@
+package org.icube.owen.helper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wraps a company neo4j connection so that
+ * - every statement gets the neo4j query timeout, enforced by a watchdog which cancels the statement if the driver rejects the timeout
+ * - the outcome of every query is recorded on the neo4j circuit breaker of the company, only timeouts and connection failures count
+ * as failures, an error reported by neo4j e.g. a syntax error means neo4j is up
+ * - the bulkhead permit is returned once when the connection is closed
+ */
+final class NeoConnectionHandler implements InvocationHandler {
+
+	// cancels the statements whose driver does not support query timeouts once the timeout is over
+	private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "NeoQueryWatchdog");
+		t.setDaemon(true);
+		return t;
+	});
+	private static final AtomicBoolean timeoutWarningLogged = new AtomicBoolean();
+
+	private final Connection conn;
+	private final Bulkhead bulkhead;
+	private final CircuitBreaker breaker;
+	private final int queryTimeoutSeconds;
+	private final AtomicBoolean released = new AtomicBoolean();
+
+	private NeoConnectionHandler(Connection conn, Bulkhead bulkhead, CircuitBreaker breaker, int queryTimeoutSeconds) {
+		this.conn = conn;
+		this.bulkhead = bulkhead;
+		this.breaker = breaker;
+		this.queryTimeoutSeconds = queryTimeoutSeconds;
+	}
+
+	/**
+	 * @param conn - connection borrowed from the company neo4j pool
+	 * @param bulkhead - bulkhead whose permit is held for the connection
+	 * @param breaker - neo4j circuit breaker of the company
+	 * @param queryTimeoutSeconds - query timeout set on every statement, 0 for none
+	 * @return the wrapped connection
+	 */
+	static Connection wrap(Connection conn, Bulkhead bulkhead, CircuitBreaker breaker, int queryTimeoutSeconds) {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+				new NeoConnectionHandler(conn, bulkhead, breaker, queryTimeoutSeconds));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		try {
+			Object result = method.invoke(conn, args);
+			if (result instanceof Statement) {
+				return wrapStatement((Statement) result);
+			}
+			return result;
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		} finally {
+			if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+				bulkhead.release();
+			}
+		}
+	}
+
+	private Statement wrapStatement(Statement stmt) {
+		boolean timeoutSet = true;
+		if (queryTimeoutSeconds > 0) {
+			try {
+				stmt.setQueryTimeout(queryTimeoutSeconds);
+			} catch (SQLException e) {
+				timeoutSet = false;
+				if (timeoutWarningLogged.compareAndSet(false, true)) {
+					org.apache.log4j.Logger.getLogger(NeoConnectionHandler.class).warn(
+							"Neo4j driver does not support query timeouts, the statements are cancelled by a watchdog after "
+									+ queryTimeoutSeconds + " seconds instead", e);
+				}
+			}
+		}
+		boolean watched = !timeoutSet;
+		return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), getStatementInterfaces(stmt), (p, m, a) -> {
+			boolean isQuery = m.getName().startsWith("execute");
+			AtomicBoolean timedOut = new AtomicBoolean();
+			ScheduledFuture<?> cancellation = isQuery && watched ? WATCHDOG.schedule(() -> cancel(stmt, timedOut), queryTimeoutSeconds,
+					TimeUnit.SECONDS) : null;
+			try {
+				Object result = m.invoke(stmt, a);
+				if (isQuery) {
+					breaker.recordSuccess();
+				}
+				return result;
+			} catch (InvocationTargetException e) {
+				if (timedOut.get()) {
+					breaker.recordFailure();
+					throw new SQLTimeoutException("Neo4j query cancelled after " + queryTimeoutSeconds + " seconds", e.getCause());
+				}
+				if (isQuery && e.getCause() instanceof SQLException) {
+					if (isTransientFailure((SQLException) e.getCause())) {
+						breaker.recordFailure();
+					} else {
+						breaker.recordSuccess();
+					}
+				}
+				throw e.getCause();
+			} finally {
+				if (cancellation != null) {
+					cancellation.cancel(false);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Cancels a statement which ran past the query timeout, the statement is closed if the driver cannot cancel it
+	 */
+	private static void cancel(Statement stmt, AtomicBoolean timedOut) {
+		timedOut.set(true);
+		try {
+			stmt.cancel();
+		} catch (SQLException e) {
+			org.apache.log4j.Logger.getLogger(NeoConnectionHandler.class).debug("Unable to cancel the neo4j statement, closing it", e);
+			try {
+				stmt.close();
+			} catch (SQLException ce) {
+				org.apache.log4j.Logger.getLogger(NeoConnectionHandler.class).warn("Unable to stop the neo4j statement after the timeout", ce);
+			}
+		}
+	}
+
+	/**
+	 * Checks if a failure means that neo4j cannot be reached or did not answer in time, as opposed to an error reported by neo4j for
+	 * the query e.g. a syntax error or a constraint violation
+	 * @param e - exception thrown by the driver or the pool
+	 * @return true if the failure should count towards opening the circuit breaker
+	 */
+	static boolean isTransientFailure(SQLException e) {
+		if (e instanceof SQLTransientException || e instanceof SQLRecoverableException || e instanceof SQLNonTransientConnectionException) {
+			return true;
+		}
+		// SQL state class 08 is a connection exception
+		if (e.getSQLState() != null && e.getSQLState().startsWith("08")) {
+			return true;
+		}
+		for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+			if (cause instanceof java.io.IOException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Class<?>[] getStatementInterfaces(Statement stmt) {
+		if (stmt instanceof CallableStatement) {
+			return new Class<?>[] { CallableStatement.class };
+		} else if (stmt instanceof PreparedStatement) {
+			return new Class<?>[] { PreparedStatement.class };
+		}
+		return new Class<?>[] { Statement.class };
+	}
+}
@@ -0,0 +1,190 @@
+package org.icube.owen.helper;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Latency statistics of the stored procedures and Cypher statements executed for one company
+ * Each instance is registered with the platform MBean server next to the tomcat-jdbc pool MBeans the first time it is used
+ * Cypher statements are grouped by template, the string and number literals are replaced by ? so that the same query built for
+ * different IDs falls in the same histogram
+ */
+public class QueryStatistics implements QueryStatisticsMXBean {
+
+	public static final String MASTER = "master";
+
+	// upper limit of distinct templates per company, statements beyond it are counted under OTHER
+	private static final int MAX_TEMPLATES = 500;
+	private static final String OTHER = "other";
+
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.)*'|\"(?:[^\"\\\\]|\\\\.)*\"");
+	private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+	private static final Pattern LIST_LITERAL = Pattern.compile("\\[\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\]");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private static final Map<String, QueryStatistics> registry = new ConcurrentHashMap<>();
+
+	private final String company;
+	private final Map<String, LatencyHistogram> procedureHistograms = new ConcurrentHashMap<>();
+	private final Map<String, LatencyHistogram> cypherHistograms = new ConcurrentHashMap<>();
+	private final LongAdder statementCacheRequests = new LongAdder();
+	private final LongAdder statementCacheMisses = new LongAdder();
+
+	private QueryStatistics(String company) {
+		this.company = company;
+	}
+
+	/**
+	 * Retrieves the statistics of the company, creating and registering them on first use
+	 * @param company - company ID or MASTER
+	 * @return statistics of the company
+	 */
+	public static QueryStatistics get(String company) {
+		return registry.computeIfAbsent(company, k -> {
+			QueryStatistics statistics = new QueryStatistics(k);
+			statistics.register();
+			return statistics;
+		});
+	}
+
+	/**
+	 * @return statistics of every company used so far keyed by company
+	 */
+	public static Map<String, QueryStatistics> getAll() {
+		return new HashMap<>(registry);
+	}
+
+	/**
+	 * Retrieves the histogram for a statement, procedure calls are keyed by procedure name and other statements by template
+	 * @param sql - call escape or Cypher statement
+	 * @return the histogram to record the statement in
+	 */
+	public LatencyHistogram getHistogram(String sql) {
+		if (isCall(sql)) {
+			return getHistogram(procedureHistograms, CompanyJdbc.getProcedureName(sql));
+		}
+		return getHistogram(cypherHistograms, getTemplate(sql));
+	}
+
+	/**
+	 * Counts a prepareCall on a pooled connection, called before the statement cache
+	 */
+	public void recordStatementCacheRequest() {
+		statementCacheRequests.increment();
+	}
+
+	/**
+	 * Counts a prepareCall the statement cache could not serve, called behind the statement cache
+	 */
+	public void recordStatementCacheMiss() {
+		statementCacheMisses.increment();
+	}
+
+	@Override
+	public long getStatementCacheHitCount() {
+		return Math.max(0, statementCacheRequests.sum() - statementCacheMisses.sum());
+	}
+
+	@Override
+	public long getStatementCacheMissCount() {
+		return statementCacheMisses.sum();
+	}
+
+	@Override
+	public Map<String, Map<String, Long>> getProcedureStatistics() {
+		return toMap(procedureHistograms);
+	}
+
+	@Override
+	public Map<String, Map<String, Long>> getCypherStatistics() {
+		return toMap(cypherHistograms);
+	}
+
+	@Override
+	public long getQueryCount() {
+		long count = 0;
+		for (LatencyHistogram histogram : procedureHistograms.values()) {
+			count += histogram.getCount();
+		}
+		for (LatencyHistogram histogram : cypherHistograms.values()) {
+			count += histogram.getCount();
+		}
+		return count;
+	}
+
+	@Override
+	public long getErrorCount() {
+		long count = 0;
+		for (LatencyHistogram histogram : procedureHistograms.values()) {
+			count += histogram.getErrorCount();
+		}
+		for (LatencyHistogram histogram : cypherHistograms.values()) {
+			count += histogram.getErrorCount();
+		}
+		return count;
+	}
+
+	@Override
+	public void reset() {
+		procedureHistograms.clear();
+		cypherHistograms.clear();
+		statementCacheRequests.reset();
+		statementCacheMisses.reset();
+	}
+
+	/**
+	 * Replaces the literals of a statement by ? and collapses the whitespace
+	 * @param sql - statement
+	 * @return template of the statement
+	 */
+	static String getTemplate(String sql) {
+		String template = STRING_LITERAL.matcher(sql).replaceAll("?");
+		template = NUMBER_LITERAL.matcher(template).replaceAll("?");
+		template = LIST_LITERAL.matcher(template).replaceAll("[?]");
+		return WHITESPACE.matcher(template).replaceAll(" ").trim();
+	}
+
+	private static boolean isCall(String sql) {
+		String trimmed = sql.trim();
+		return trimmed.startsWith("{") || trimmed.regionMatches(true, 0, "call ", 0, 5);
+	}
+
+	private static LatencyHistogram getHistogram(Map<String, LatencyHistogram> histograms, String key) {
+		LatencyHistogram histogram = histograms.get(key);
+		if (histogram != null) {
+			return histogram;
+		}
+		if (histograms.size() >= MAX_TEMPLATES) {
+			key = OTHER;
+		}
+		return histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+	}
+
+	private static Map<String, Map<String, Long>> toMap(Map<String, LatencyHistogram> histograms) {
+		Map<String, Map<String, Long>> result = new HashMap<>();
+		for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().toMap());
+		}
+		return result;
+	}
+
+	private void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName("org.icube.owen:type=QueryStatistics,company=" + company);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(this, name);
+			}
+		} catch (JMException e) {
+			org.apache.log4j.Logger.getLogger(QueryStatistics.class).warn("Unable to register the query statistics for company : " + company, e);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package org.icube.owen.helper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.Map;
+
+import org.apache.tomcat.jdbc.pool.ConnectionPool;
+import org.apache.tomcat.jdbc.pool.JdbcInterceptor;
+import org.apache.tomcat.jdbc.pool.PoolProperties.InterceptorProperty;
+import org.apache.tomcat.jdbc.pool.PooledConnection;
+
+/**
+ * Pool interceptor which times every statement executed on the connection and records it in the QueryStatistics of the company
+ * Rows are counted as the result set is read, so a result set that is only partly read records the rows actually read
+ * Configured on the pool as org.icube.owen.helper.QueryStatisticsInterceptor(company=5) and placed before the
+ * StatementCache so that cached statements are timed as well; every prepareCall is counted as a statement cache request, the misses
+ * are counted by StatementCacheMissInterceptor behind the cache
+ */
+public class QueryStatisticsInterceptor extends JdbcInterceptor {
+
+	private static final String CREATE_STATEMENT = "createStatement";
+	private static final String PREPARE_STATEMENT = "prepareStatement";
+	private static final String PREPARE_CALL = "prepareCall";
+
+	private QueryStatistics statistics;
+
+	@Override
+	public void setProperties(Map<String, InterceptorProperty> properties) {
+		super.setProperties(properties);
+		InterceptorProperty company = properties.get("company");
+		statistics = QueryStatistics.get(company == null ? QueryStatistics.MASTER : company.getValue());
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		if (statistics != null && (CREATE_STATEMENT.equals(name) || PREPARE_STATEMENT.equals(name) || PREPARE_CALL.equals(name))) {
+			if (PREPARE_CALL.equals(name)) {
+				statistics.recordStatementCacheRequest();
+			}
+			Object statement = super.invoke(proxy, method, args);
+			String sql = CREATE_STATEMENT.equals(name) ? null : (String) args[0];
+			return Proxy.newProxyInstance(QueryStatisticsInterceptor.class.getClassLoader(), new Class<?>[] { method.getReturnType() },
+					new TimedStatement(statement, sql == null ? null : statistics.getHistogram(sql)));
+		}
+		return super.invoke(proxy, method, args);
+	}
+
+	@Override
+	public void reset(ConnectionPool parent, PooledConnection con) {
+		// the company of a connection does not change between borrows
+	}
+
+	/**
+	 * Statement which records the duration and the errors of every execution
+	 */
+	private class TimedStatement implements InvocationHandler {
+		private final Object statement;
+		// histogram of the prepared sql, null for plain statements which are keyed on every execution
+		private final LatencyHistogram preparedHistogram;
+		private LatencyHistogram lastHistogram;
+
+		TimedStatement(Object statement, LatencyHistogram preparedHistogram) {
+			this.statement = statement;
+			this.preparedHistogram = preparedHistogram;
+			this.lastHistogram = preparedHistogram;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.startsWith("execute")) {
+				LatencyHistogram histogram = preparedHistogram;
+				if (args != null && args.length > 0 && args[0] instanceof String) {
+					histogram = statistics.getHistogram((String) args[0]);
+				}
+				if (histogram != null) {
+					lastHistogram = histogram;
+					return timedInvoke(histogram, method, args);
+				}
+			}
+			Object result = invokeStatement(method, args);
+			if (result instanceof ResultSet && lastHistogram != null) {
+				return countRows((ResultSet) result, lastHistogram);
+			}
+			return result;
+		}
+
+		private Object timedInvoke(LatencyHistogram histogram, Method method, Object[] args) throws Throwable {
+			long start = System.nanoTime();
+			boolean error = true;
+			try {
+				Object result = invokeStatement(method, args);
+				error = false;
+				return result instanceof ResultSet ? countRows((ResultSet) result, histogram) : result;
+			} finally {
+				histogram.record(System.nanoTime() - start, error);
+			}
+		}
+
+		private Object invokeStatement(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(statement, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	private static ResultSet countRows(ResultSet rs, LatencyHistogram histogram) {
+		return (ResultSet) Proxy.newProxyInstance(QueryStatisticsInterceptor.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+				(proxy, method, args) -> {
+					Object result;
+					try {
+						result = method.invoke(rs, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+					if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+						histogram.addRows(1);
+					}
+					return result;
+				});
+	}
+}
@@ -0,0 +1,38 @@
+package org.icube.owen.helper;
+
+import java.util.Map;
+
+/**
+ * JMX view of the query statistics of one company, registered as org.icube.owen:type=QueryStatistics,company=<companyId>
+ */
+public interface QueryStatisticsMXBean {
+
+	/**
+	 * @return latency histogram, row and error count for each stored procedure
+	 */
+	Map<String, Map<String, Long>> getProcedureStatistics();
+
+	/**
+	 * @return latency histogram, row and error count for each Cypher template (literals replaced by ?)
+	 */
+	Map<String, Map<String, Long>> getCypherStatistics();
+
+	long getQueryCount();
+
+	long getErrorCount();
+
+	/**
+	 * @return number of prepareCall calls served by the statement cache of the pool
+	 */
+	long getStatementCacheHitCount();
+
+	/**
+	 * @return number of prepareCall calls which had to prepare the statement on the driver
+	 */
+	long getStatementCacheMissCount();
+
+	/**
+	 * Clears all the statistics of the company
+	 */
+	void reset();
+}
@@ -0,0 +1,233 @@
+package org.icube.owen.helper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.rosuda.REngine.REXP;
+import org.rosuda.REngine.REXPMismatchException;
+import org.rosuda.REngine.Rserve.RConnection;
+import org.rosuda.REngine.Rserve.RserveException;
+
+/**
+ * Bounded pool of Rserve sessions
+ * Every session is created with the working directory set to the R script path and metric.r already sourced
+ */
+public class RConnectionPool {
+
+	private final int maxSize;
+	private final long borrowTimeoutMillis;
+	private final String rScriptPath;
+
+	private final LinkedBlockingDeque<RConnection> idleSessions = new LinkedBlockingDeque<>();
+	private final AtomicInteger totalSessions = new AtomicInteger();
+	private final AtomicInteger activeSessions = new AtomicInteger();
+	private volatile boolean closed = false;
+
+	// counters
+	private final AtomicLong borrowCount = new AtomicLong();
+	private final AtomicLong borrowWaitNanos = new AtomicLong();
+	private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+	private final AtomicLong borrowTimeoutCount = new AtomicLong();
+	private final AtomicLong createdCount = new AtomicLong();
+	private final AtomicLong evictedCount = new AtomicLong();
+
+	/**
+	 * @param maxSize - maximum number of Rserve sessions that can be open at the same time
+	 * @param borrowTimeoutMillis - maximum time to wait for a free session
+	 * @param rScriptPath - directory containing metric.r
+	 */
+	public RConnectionPool(int maxSize, long borrowTimeoutMillis, String rScriptPath) {
+		this.maxSize = Math.max(1, maxSize);
+		this.borrowTimeoutMillis = borrowTimeoutMillis;
+		this.rScriptPath = rScriptPath;
+	}
+
+	/**
+	 * Opens sessions up front so that the first requests do not pay for sourcing metric.r
+	 * @param count - number of sessions to pre-warm
+	 */
+	public void prewarm(int count) {
+		int target = Math.min(count, maxSize);
+		for (int i = 0; i < target; i++) {
+			if (!reserveSlot()) {
+				break;
+			}
+			try {
+				idleSessions.offerLast(createSession());
+			} catch (RserveException | REXPMismatchException e) {
+				totalSessions.decrementAndGet();
+				org.apache.log4j.Logger.getLogger(RConnectionPool.class).error("An error occurred while pre-warming the R connection pool", e);
+				break;
+			}
+		}
+		org.apache.log4j.Logger.getLogger(RConnectionPool.class).debug("R connection pool pre-warmed with " + idleSessions.size() + " sessions");
+	}
+
+	/**
+	 * Borrows a session from the pool, creating a new one if the pool is not full
+	 * @return an Rserve session with metric.r loaded
+	 * @throws RserveException - if no session becomes available within the borrow timeout or a new session cannot be opened
+	 */
+	public RConnection borrow() throws RserveException {
+		if (closed) {
+			throw new RserveException(null, "R connection pool is closed");
+		}
+		long start = System.nanoTime();
+		try {
+			RConnection rCon = idleSessions.pollFirst();
+			if (rCon == null && reserveSlot()) {
+				try {
+					rCon = createSession();
+				} catch (RserveException | REXPMismatchException e) {
+					totalSessions.decrementAndGet();
+					throw new RserveException(null, "Unable to open a new R session : " + e.getMessage());
+				}
+			}
+			if (rCon == null) {
+				rCon = idleSessions.pollFirst(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+			}
+			if (rCon == null) {
+				borrowTimeoutCount.incrementAndGet();
+				throw new RserveException(null, "Timed out after " + borrowTimeoutMillis + " ms waiting for an R connection");
+			}
+			activeSessions.incrementAndGet();
+			return rCon;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RserveException(null, "Interrupted while waiting for an R connection");
+		} finally {
+			long waited = System.nanoTime() - start;
+			borrowCount.incrementAndGet();
+			borrowWaitNanos.addAndGet(waited);
+			maxBorrowWaitNanos.accumulateAndGet(waited, Math::max);
+		}
+	}
+
+	/**
+	 * Returns a session to the pool after checking it is still usable; broken sessions are evicted
+	 * @param rCon - the session being returned
+	 */
+	public void release(RConnection rCon) {
+		if (rCon == null) {
+			return;
+		}
+		activeSessions.decrementAndGet();
+		if (closed || !isHealthy(rCon)) {
+			evict(rCon);
+			return;
+		}
+		// most recently used sessions are handed out first so that idle ones can be spotted easily
+		idleSessions.offerFirst(rCon);
+	}
+
+	/**
+	 * Removes a session from the pool permanently, used when a call on the session has failed
+	 * @param rCon - the session to be evicted
+	 */
+	public void invalidate(RConnection rCon) {
+		if (rCon == null) {
+			return;
+		}
+		activeSessions.decrementAndGet();
+		evict(rCon);
+	}
+
+	/**
+	 * Closes all idle sessions, sessions in use are closed when they are returned
+	 */
+	public void close() {
+		closed = true;
+		RConnection rCon;
+		while ((rCon = idleSessions.pollFirst()) != null) {
+			evict(rCon);
+		}
+		org.apache.log4j.Logger.getLogger(RConnectionPool.class).debug("R connection pool closed");
+	}
+
+	/**
+	 * @return the current pool counters
+	 */
+	public Map<String, Long> getStatistics() {
+		Map<String, Long> stats = new HashMap<>();
+		long borrows = borrowCount.get();
+		stats.put("maxSize", (long) maxSize);
+		stats.put("total", (long) totalSessions.get());
+		stats.put("active", (long) activeSessions.get());
+		stats.put("idle", (long) idleSessions.size());
+		stats.put("borrowCount", borrows);
+		stats.put("borrowTimeoutCount", borrowTimeoutCount.get());
+		stats.put("averageWaitMicros", borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(borrowWaitNanos.get() / borrows));
+		stats.put("maxWaitMicros", TimeUnit.NANOSECONDS.toMicros(maxBorrowWaitNanos.get()));
+		stats.put("createdCount", createdCount.get());
+		stats.put("evictedCount", evictedCount.get());
+		return stats;
+	}
+
+	public int getActiveCount() {
+		return activeSessions.get();
+	}
+
+	public int getIdleCount() {
+		return idleSessions.size();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	private boolean reserveSlot() {
+		while (true) {
+			int current = totalSessions.get();
+			if (current >= maxSize) {
+				return false;
+			}
+			if (totalSessions.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	private RConnection createSession() throws RserveException, REXPMismatchException {
+		RConnection rCon = new RConnection();
+		org.apache.log4j.Logger.getLogger(RConnectionPool.class).debug("Successfully connected to R");
+		org.apache.log4j.Logger.getLogger(RConnectionPool.class).debug("Trying to load the RScript file at " + rScriptPath);
+		rCon.eval("setwd(\"" + rScriptPath + "\")");
+		REXP loadRScript = rCon.eval("source(\"metric.r\")");
+		if (loadRScript.inherits("try-error")) {
+			org.apache.log4j.Logger.getLogger(RConnectionPool.class).error(
+					"An error occurred while trying to loading the R script : " + loadRScript.asString());
+			rCon.close();
+			throw new REXPMismatchException(loadRScript, "Error: " + loadRScript.asString());
+		}
+		createdCount.incrementAndGet();
+		org.apache.log4j.Logger.getLogger(RConnectionPool.class).debug("Successfully loaded metric.r script");
+		return rCon;
+	}
+
+	private boolean isHealthy(RConnection rCon) {
+		if (!rCon.isConnected()) {
+			return false;
+		}
+		try {
+			REXP ping = rCon.eval("TRUE");
+			return ping != null;
+		} catch (RserveException e) {
+			org.apache.log4j.Logger.getLogger(RConnectionPool.class).warn("R session failed the health check and is being evicted", e);
+			return false;
+		}
+	}
+
+	private void evict(RConnection rCon) {
+		try {
+			rCon.close();
+		} catch (Exception e) {
+			org.apache.log4j.Logger.getLogger(RConnectionPool.class).error("An error occurred while closing the R connection", e);
+		}
+		totalSessions.decrementAndGet();
+		evictedCount.incrementAndGet();
+	}
+}
@@ -0,0 +1,41 @@
+package org.icube.owen.helper;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.apache.tomcat.jdbc.pool.ConnectionPool;
+import org.apache.tomcat.jdbc.pool.JdbcInterceptor;
+import org.apache.tomcat.jdbc.pool.PoolProperties.InterceptorProperty;
+import org.apache.tomcat.jdbc.pool.PooledConnection;
+
+/**
+ * Pool interceptor placed after the StatementCache, so that it only sees the prepareCall calls the cache could not serve
+ * QueryStatisticsInterceptor, placed before the cache, counts every prepareCall; the difference is the number of cache hits
+ * Configured on the pool as org.icube.owen.helper.StatementCacheMissInterceptor(company=5)
+ */
+public class StatementCacheMissInterceptor extends JdbcInterceptor {
+
+	private static final String PREPARE_CALL = "prepareCall";
+
+	private QueryStatistics statistics;
+
+	@Override
+	public void setProperties(Map<String, InterceptorProperty> properties) {
+		super.setProperties(properties);
+		InterceptorProperty company = properties.get("company");
+		statistics = QueryStatistics.get(company == null ? QueryStatistics.MASTER : company.getValue());
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		if (statistics != null && PREPARE_CALL.equals(method.getName())) {
+			statistics.recordStatementCacheMiss();
+		}
+		return super.invoke(proxy, method, args);
+	}
+
+	@Override
+	public void reset(ConnectionPool parent, PooledConnection con) {
+		// the company of a connection does not change between borrows
+	}
+}
@@ -0,0 +1,81 @@
+package org.icube.owen.helper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor owned by a single company, with a fixed number of threads and a bounded queue
+ * Tasks submitted when the queue is full are rejected with a RejectedExecutionException instead of piling up
+ */
+public class TenantExecutor {
+
+	private final String name;
+	private final ThreadPoolExecutor executor;
+	private final AtomicLong rejectedCount = new AtomicLong();
+	private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+	/**
+	 * @param name - name of the executor used for the thread names e.g. tenant-5
+	 * @param threads - number of threads
+	 * @param queueSize - number of tasks that can wait for a thread
+	 */
+	public TenantExecutor(String name, int threads, int queueSize) {
+		this.name = name;
+		int poolSize = Math.max(1, threads);
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, queueSize)), r -> {
+			Thread t = new Thread(r, name + "-" + threadCount.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		}, (r, e) -> {
+			rejectedCount.incrementAndGet();
+			throw new RejectedExecutionException("Executor " + name + " is full, " + e.getQueue().size() + " tasks are queued");
+		});
+		// idle tenants do not keep threads around
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * @param task - task to be run on the executor of the company
+	 * @return future of the task result
+	 * @throws RejectedExecutionException - if the queue of the company is full
+	 */
+	public <T> Future<T> submit(Callable<T> task) {
+		Future<T> future = executor.submit(task);
+		maxQueueDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+		return future;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Stops the threads, running tasks are interrupted
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * @return the current executor counters
+	 */
+	public Map<String, Long> getStatistics() {
+		Map<String, Long> stats = new HashMap<>();
+		stats.put("threads", (long) executor.getMaximumPoolSize());
+		stats.put("active", (long) executor.getActiveCount());
+		stats.put("queueDepth", (long) executor.getQueue().size());
+		stats.put("maxQueueDepth", (long) maxQueueDepth.get());
+		stats.put("completedCount", executor.getCompletedTaskCount());
+		stats.put("rejectedCount", rejectedCount.get());
+		return stats;
+	}
+}
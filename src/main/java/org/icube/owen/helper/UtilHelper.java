@@ -1,18 +1,10 @@
 package org.icube.owen.helper;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
-import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Properties;
-
-import org.icube.owen.filter.Filter;
 
 public class UtilHelper {
 
@@ -27,6 +19,32 @@ public class UtilHelper {
 		return result;
 	}
 
+	/**
+	 * Splits the IDs into comma separated lists for the procedures which take a list of IDs as a varchar parameter
+	 * @param ids - IDs to be joined
+	 * @param maxLength - maximum length of each list, the size of the varchar parameter
+	 * @return comma separated lists, each within maxLength
+	 */
+	public static List<String> getIdListChunks(Collection<Integer> ids, int maxLength) {
+		List<String> chunks = new ArrayList<>();
+		StringBuilder chunk = new StringBuilder();
+		for (int id : ids) {
+			String idString = String.valueOf(id);
+			if (chunk.length() > 0 && chunk.length() + 1 + idString.length() > maxLength) {
+				chunks.add(chunk.toString());
+				chunk.setLength(0);
+			}
+			if (chunk.length() > 0) {
+				chunk.append(',');
+			}
+			chunk.append(idString);
+		}
+		if (chunk.length() > 0) {
+			chunks.add(chunk.toString());
+		}
+		return chunks;
+	}
+
 	public static java.sql.Date convertJavaDateToSqlDate(java.util.Date date) {
 		return new java.sql.Date(date.getTime());
 	}
@@ -35,88 +53,13 @@ public class UtilHelper {
 		return new java.sql.Timestamp(date.getTime());
 	}
 
-	public static String getConfigProperty(String propertyName) {
-		String propertyValue = "";
-
-		Properties prop = new Properties();
-		String propFileName = "config.properties";
-		InputStream inputStream = UtilHelper.class.getClassLoader().getResourceAsStream(propFileName);
-		if (inputStream != null) {
-			try {
-				prop.load(inputStream);
-			} catch (IOException e) {
-				org.apache.log4j.Logger.getLogger(UtilHelper.class).error("property file '" + propFileName + "' not found in classpath");
-			}
-			propertyValue = prop.getProperty(propertyName);
-		} else {
-			org.apache.log4j.Logger.getLogger(UtilHelper.class).error("property file '" + propFileName + "' not found in classpath");
-		}
-
-		try {
-			inputStream.close();
-		} catch (IOException e) {
-			org.apache.log4j.Logger.getLogger(UtilHelper.class).error("Error while closing the inputStream");
-		}
-		return propertyValue;
-	}
-
 	/**
-	 * Parses the filter list for metric value calculations 
-	 * @param filterList - List of filter objects
-	 * @return Map of values of filter object 
+	 * Retrieves a property from the in-memory config snapshot, the config file is not read again
+	 * @param propertyName - name of the property
+	 * @return the property value, null if the property is missing
 	 */
-	public static Map<String, Object> parseFilterList(List<Filter> filterList) {
-		org.apache.log4j.Logger.getLogger(UtilHelper.class).info("HashMap created!!!");
-		Map<String, Object> result = new HashMap<>();
-
-		int funcListSize = 0, posListSize = 0, zoneListSize = 0, countAll = 0, dimensionId = 0, dimensionValueId = 0, funcId = 0, posId = 0, zoneId = 0;
-		for (Filter filter : filterList) {
-			if (filter.getFilterValues().containsKey(0)) {
-				countAll++;
-			}
-			if (filter.getFilterName().equalsIgnoreCase("Function")) {
-				funcId = filter.getFilterValues().keySet().iterator().next();
-				funcListSize = filter.getFilterValues().size();
-			} else if (filter.getFilterName().equalsIgnoreCase("Position")) {
-				posId = filter.getFilterValues().keySet().iterator().next();
-				posListSize = filter.getFilterValues().size();
-			} else if (filter.getFilterName().equalsIgnoreCase("Zone")) {
-				zoneId = filter.getFilterValues().keySet().iterator().next();
-				zoneListSize = filter.getFilterValues().size();
-			}
-
-			// check for if only two filter values are 0
-			for (int filterValueId : filter.getFilterValues().keySet()) {
-				if (filterValueId > 0) {
-					dimensionId = filter.getFilterId();
-					dimensionValueId = filterValueId;
-				}
-			}
-		}
-
-		result.put("filterList", filterList);
-		result.put("funcListSize", funcListSize);
-		result.put("posListSize", posListSize);
-		result.put("zoneListSize", zoneListSize);
-		result.put("countAll", countAll);
-		result.put("dimensionId", dimensionId);
-		result.put("dimensionValueId", dimensionValueId);
-		result.put("funcId", funcId);
-		result.put("posId", posId);
-		result.put("zoneId", zoneId);
-
-		return result;
-	}
-
-	public static boolean hasColumn(ResultSet rs, String columnName) throws SQLException {
-		ResultSetMetaData rsmd = rs.getMetaData();
-		int columns = rsmd.getColumnCount();
-		for (int x = 1; x <= columns; x++) {
-			if (columnName.equals(rsmd.getColumnName(x))) {
-				return true;
-			}
-		}
-		return false;
+	public static String getConfigProperty(String propertyName) {
+		return ConfigSnapshot.get().getString(propertyName);
 	}
 
 	public static Date getStartOfDay(Date date) {
@@ -1,8 +1,5 @@
 package org.icube.owen.individual;
 
-import java.sql.CallableStatement;
-import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.Date;
@@ -28,56 +25,59 @@ public class Login extends TheBorg {
 
 		Employee e = new Employee();
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		Connection companySqlCon = null;
 
 		int index = emailId.indexOf('@');
 		String companyDomain = emailId.substring(index + 1);
-		int companyId = 0;
-		String companyName = "";
-		try (CallableStatement cstmt = dch.masterDS.getConnection().prepareCall("{call getCompanyDb(?)}")) {
-
-			cstmt.setString(1, companyDomain);
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			// the company of the domain is the last row of getCompanyDb
+			Employee company = dch.getMasterJdbc().query("{call getCompanyDb(?)}", cstmt -> cstmt.setString(1, companyDomain), rs -> {
+				Employee result = null;
 				while (rs.next()) {
-					companyId = rs.getInt("comp_id");
-					dch.refreshCompanyConnection(companyId);
-					companySqlCon = dch.companyConnectionMap.get(companyId).getDataSource().getConnection();
-					companyName = rs.getString("comp_name");
-					org.apache.log4j.Logger.getLogger(Login.class).debug("Company Name : " + companyName);
+					result = new Employee();
+					result.setCompanyId(rs.getInt("comp_id"));
+					result.setCompanyName(rs.getString("comp_name"));
 				}
-				org.apache.log4j.Logger.getLogger(Login.class).debug("Role ID for user : " + emailId + " is : " + roleId);
-				try (CallableStatement cstmt1 = companySqlCon.prepareCall("{call verifyLogin(?,?,?,?,?)}");) {
+				return result;
+			});
+			if (company == null) {
+				org.apache.log4j.Logger.getLogger(Login.class).error("No company found for the domain : " + companyDomain);
+				throw new Exception("Invalid credentials!!!");
+			}
+			int companyId = company.getCompanyId();
+			org.apache.log4j.Logger.getLogger(Login.class).debug("Company Name : " + company.getCompanyName());
+			org.apache.log4j.Logger.getLogger(Login.class).debug("Role ID for user : " + emailId + " is : " + roleId);
 
-					cstmt1.setString("loginid", emailId);
-					cstmt1.setString("pass", password);
-					cstmt1.setTimestamp("curr_time", UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
-					cstmt1.setString("ip", ipAddress);
-					cstmt1.setInt("roleid", roleId);
-					try (ResultSet rs1 = cstmt1.executeQuery()) {
-						while (rs1.next()) {
-							if (rs1.getInt("emp_id") == 0) {
-								org.apache.log4j.Logger.getLogger(Login.class).error("Invalid username/password");
-								cstmt1.close();
-								rs1.close();
-								companySqlCon.close();
-								throw new Exception("Invalid credentials!!!");
-							} else {
-								e = e.get(companyId, rs1.getInt("emp_id"));
-								e.setCompanyId(companyId);
-								e.setFirstTimeLogin(rs1.getBoolean("first_time_login"));
-								e.setCompanyName(companyName);
-								org.apache.log4j.Logger.getLogger(Login.class).debug("Successfully validated user with userID : " + emailId);
-							}
-						}
-					}
+			// the employee details are retrieved after the result set of verifyLogin is closed
+			Employee verified = dch.getCompanyJdbc(companyId).query("{call verifyLogin(?,?,?,?,?)}", cstmt -> {
+				cstmt.setString("loginid", emailId);
+				cstmt.setString("pass", password);
+				cstmt.setTimestamp("curr_time", UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
+				cstmt.setString("ip", ipAddress);
+				cstmt.setInt("roleid", roleId);
+			}, rs -> {
+				Employee result = null;
+				while (rs.next()) {
+					result = new Employee();
+					result.setEmployeeId(rs.getInt("emp_id"));
+					result.setFirstTimeLogin(rs.getBoolean("first_time_login"));
 				}
-
+				return result;
+			});
+			if (verified != null) {
+				if (verified.getEmployeeId() == 0) {
+					org.apache.log4j.Logger.getLogger(Login.class).error("Invalid username/password");
+					throw new Exception("Invalid credentials!!!");
+				}
+				e = e.get(companyId, verified.getEmployeeId());
+				e.setCompanyId(companyId);
+				e.setFirstTimeLogin(verified.isFirstTimeLogin());
+				e.setCompanyName(company.getCompanyName());
+				org.apache.log4j.Logger.getLogger(Login.class).debug("Successfully validated user with userID : " + emailId);
 			}
-
 		} catch (SQLException e1) {
 			org.apache.log4j.Logger.getLogger(Login.class).error("Exception while retrieving the company database", e1);
+			throw e1;
 		}
-		companySqlCon.close();
 		return e;
 	}
 
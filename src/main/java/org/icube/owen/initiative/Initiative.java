@@ -1,13 +1,12 @@
 package org.icube.owen.initiative;
 
-import java.sql.CallableStatement;
-import java.sql.ResultSet;
+import java.sql.Connection;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -17,6 +16,8 @@ import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
 import org.icube.owen.employee.Employee;
 import org.icube.owen.filter.Filter;
+import org.icube.owen.helper.CypherRegistry;
+import org.icube.owen.helper.CypherTemplate;
 import org.icube.owen.helper.DatabaseConnectionHelper;
 import org.icube.owen.helper.UtilHelper;
 import org.icube.owen.metrics.Metrics;
@@ -24,6 +25,37 @@ import org.icube.owen.metrics.MetricsList;
 
 public class Initiative extends TheBorg {
 
+	private static final CypherTemplate CREATE = CypherRegistry.register("initiative.create",
+			"match (i:Init)  with CASE count(i) WHEN 0  THEN 1 ELSE max(i.Id)+1 END as uid "
+					+ "CREATE (i:Init {Id:uid,Status:{status},Name:{name},Type:{type}, Category:{category},StartDate:{startDate},EndDate:{endDate},"
+					+ "CreatedOn:{createdOn}, CreatedByEmpId:{createdByEmpId},Comment:{comment}}) return i.Id as Id");
+	// an empty ID list stands for ALL
+	private static final CypherTemplate TEAM_SIZE = CypherRegistry.register("initiative.teamSize",
+			"match (a:Employee)-[:has_functionality]->(f:Function), (p:Position)<-[:is_positioned]-(a)-[:from_zone]->(z:Zone) "
+					+ "where (size({zoneIds}) = 0 or z.Id in {zoneIds}) and (size({funcIds}) = 0 or f.Id in {funcIds}) "
+					+ "and (size({posIds}) = 0 or p.Id in {posIds}) return count(a) as TeamSize");
+	private static final CypherTemplate FUNCTIONS_PART_OF = CypherRegistry.register("initiative.functionsPartOf",
+			"Match (i:Init),(f:Function) where i.Id = {initId} and (size({ids}) = 0 or f.Id in {ids}) Create f-[:part_of]->i");
+	private static final CypherTemplate POSITIONS_PART_OF = CypherRegistry.register("initiative.positionsPartOf",
+			"Match (i:Init),(p:Position) where i.Id = {initId} and (size({ids}) = 0 or p.Id in {ids}) Create p-[:part_of]->i");
+	private static final CypherTemplate ZONES_PART_OF = CypherRegistry.register("initiative.zonesPartOf",
+			"Match (i:Init),(z:Zone) where i.Id = {initId} and (size({ids}) = 0 or z.Id in {ids}) Create z-[:part_of]->i");
+	private static final CypherTemplate EMPLOYEES_PART_OF = CypherRegistry.register("initiative.employeesPartOf",
+			"Match (i:Init),(e:Employee) where i.Id = {initId} and e.emp_id in {empIds} Create e-[:part_of]->i");
+	private static final CypherTemplate OWNERS = CypherRegistry.register("initiative.owners",
+			"Match (i:Init),(e:Employee) where i.Id = {initId} and e.emp_id in {empIds} Create e-[:owner_of]->i");
+	private static final CypherTemplate DELETE_OWNERS = CypherRegistry.register("initiative.deleteOwners",
+			"match(i:Init {Id:{initId}})<-[r:owner_of]-(e:Employee) delete r");
+	private static final CypherTemplate GET = CypherRegistry.register("initiative.get",
+			"match (i:Init{Id:{initId}})<-[r:part_of]-(a) " + InitiativeList.INITIATIVE_RETURN);
+	private static final CypherTemplate UPDATE = CypherRegistry.register("initiative.update",
+			"match(a:Init {Id:{initId}}) set a.CreatedOn = {createdOn}, a.Name = {name},a.Status = {status},a.Type = {type},"
+					+ "a.Category = {category},a.Comment = {comment},a.EndDate = {endDate},a.StartDate = {startDate} return a.Name as Name, "
+					+ "a.Type as Type,a.Category as Category, "
+					+ "a.Status as Status,a.Comment as Comment,a.EndDate as endDate,a.StartDate as StartDate,a.CreatedOn as CreationDate");
+	private static final CypherTemplate SET_STATUS = CypherRegistry.register("initiative.setStatus",
+			"match(a:Init {Id:{initId}}) set a.Status = {status} return a.Status as currentStatus");
+
 	private int initiativeId;
 	private String initiativeName = "";
 	private int initiativeTypeId;
@@ -83,24 +115,29 @@ public class Initiative extends TheBorg {
 		dch.refreshCompanyConnection(companyId);
 		int initiativeId = 0;
 		int teamSize = 0;
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
 			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Creating the initiative");
 
 			SimpleDateFormat sdf = new SimpleDateFormat(UtilHelper.dateTimeFormat);
-			String createInitQuery = "match (i:Init)  with CASE count(i) WHEN 0  THEN 1 ELSE max(i.Id)+1 END as uid "
-					+ "CREATE (i:Init {Id:uid,Status:'" + checkInitiativeStatus(initiativeStartDate) + "',Name:'" + initiativeName + "',Type:"
-					+ initiativeTypeId + ", Category:'" + initiativeCategory + "',StartDate:'"
-					+ sdf.format(UtilHelper.getStartOfDay(initiativeStartDate)) + "',EndDate:'"
-					+ sdf.format(UtilHelper.getEndOfDay(initiativeEndDate)) + "',CreatedOn:'" + sdf.format(initiativeCreationDate)
-					+ "', CreatedByEmpId:" + createdByEmpId + ",Comment:'" + initiativeComment + "'}) return i.Id as Id";
-
-			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Create initiative query : " + createInitQuery);
-			try (ResultSet res = stmt.executeQuery(createInitQuery)) {
+			Map<String, Object> createParams = new HashMap<>();
+			createParams.put("status", checkInitiativeStatus(initiativeStartDate));
+			createParams.put("name", initiativeName);
+			createParams.put("type", initiativeTypeId);
+			createParams.put("category", initiativeCategory);
+			createParams.put("startDate", sdf.format(UtilHelper.getStartOfDay(initiativeStartDate)));
+			createParams.put("endDate", sdf.format(UtilHelper.getEndOfDay(initiativeEndDate)));
+			createParams.put("createdOn", sdf.format(initiativeCreationDate));
+			createParams.put("createdByEmpId", createdByEmpId);
+			createParams.put("comment", initiativeComment);
+
+			initiativeId = CREATE.query(neoConn, createParams, res -> {
 				org.apache.log4j.Logger.getLogger(Initiative.class).debug("Successfully created the initiative in neo4j");
+				int createdId = 0;
 				while (res.next()) {
-					initiativeId = res.getInt("Id");
+					createdId = res.getInt("Id");
 				}
-			}
+				return createdId;
+			});
 			if (initiativeId > 0) {
 				this.initiativeId = initiativeId;
 				// based on the category of the initiative either the part of employee list is set for individual or the filter list is set for team
@@ -119,7 +156,6 @@ public class Initiative extends TheBorg {
 
 					// storing the metric value
 					// TODO make this dynamic based on filter list
-					String funcQuery = "", posQuery = "", zoneQuery = "";
 					List<Integer> funcParam = new ArrayList<>();
 					List<Integer> zoneParam = new ArrayList<>();
 					List<Integer> posParam = new ArrayList<>();
@@ -134,55 +170,46 @@ public class Initiative extends TheBorg {
 						}
 					}
 
-					funcQuery = funcParam.isEmpty() ? "" : "f.Id in " + funcParam.toString();
-					zoneQuery = zoneParam.isEmpty() ? "" : "z.Id in " + zoneParam.toString();
-					posQuery = posParam.isEmpty() ? "" : "p.Id in " + posParam.toString();
+					Map<String, Object> teamParams = new HashMap<>();
+					teamParams.put("funcIds", funcParam);
+					teamParams.put("posIds", posParam);
+					teamParams.put("zoneIds", zoneParam);
 
-					String query = "match (a:Employee)-[:has_functionality]->(f:Function), (p:Position)<-[:is_positioned]-(a)-[:from_zone]->(z:Zone) "
-							+ ((!zoneQuery.isEmpty() || !funcQuery.isEmpty() || !posQuery.isEmpty()) ? " where " : "")
-							+ (zoneQuery.isEmpty() ? "" : (zoneQuery + ((!funcQuery.isEmpty() || !posQuery.isEmpty() ? " and " : ""))))
-							+ (funcQuery.isEmpty() ? "" : funcQuery + (!posQuery.isEmpty() ? " and " : ""))
-							+ (posQuery.isEmpty() ? "" : (posQuery))
-							+ "  return count(a) as TeamSize";
-					org.apache.log4j.Logger.getLogger(Initiative.class).debug("Query for finding team size for metric of an initiative : " + query);
-
-					try (ResultSet res = stmt.executeQuery(query)) {
+					teamSize = TEAM_SIZE.query(neoConn, teamParams, res -> {
+						int size = 0;
 						while (res.next()) {
 							// the team size is used to determine in the procedure whether the metric gauge should be shown or not; calculation done
 							// in sql
 							// based on the threshold team size
-							teamSize = res.getInt("TeamSize");
+							size = res.getInt("TeamSize");
 						}
-						org.apache.log4j.Logger.getLogger(Initiative.class).debug("Team Size : " + teamSize);
-						MetricsList ml = new MetricsList();
-
-						List<Metrics> metricsList = ml.getInitiativeMetricsForTeam(companyId, initiativeId, this.filterList);
+						return size;
+					});
+					org.apache.log4j.Logger.getLogger(Initiative.class).debug("Team Size : " + teamSize);
+					MetricsList ml = new MetricsList();
+
+					List<Metrics> metricsList = ml.getInitiativeMetricsForTeam(companyId, initiativeId, this.filterList);
+					org.apache.log4j.Logger.getLogger(Initiative.class).debug(
+							"Successfully calculated metrics for initiative" + metricsList.size());
+					int noOfEmployees = teamSize;
+					int createdInitiativeId = initiativeId;
+					for (Metrics m : metricsList) {
 						org.apache.log4j.Logger.getLogger(Initiative.class).debug(
-								"Successfully calculated metrics for initiative" + metricsList.size());
-						for (Metrics m : metricsList) {
-							try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-									"{call insertInitiativeMetricValue(?,?,?,?,?)}")) {
-								org.apache.log4j.Logger.getLogger(Initiative.class).debug(
-										"Storing the metric for initiative ID " + initiativeId + "; metric ID : " + m.getId());
-
-								cstmt.setInt("initiativeid", initiativeId);
-								cstmt.setInt("metricid", m.getId());
-								cstmt.setInt("metricvalue", m.getScore());
-								cstmt.setTimestamp("calctime", Timestamp.from(Instant.now()));
-								cstmt.setInt("noemp", teamSize);
-								try (ResultSet res1 = cstmt.executeQuery()) {
-									while (res1.next()) {
-										if (res1.getBoolean("op")) {
-											org.apache.log4j.Logger.getLogger(Initiative.class).debug(
-													"Success in storing the metrics initiative with metricId : " + m.getId());
-										} else {
-											org.apache.log4j.Logger.getLogger(Initiative.class).error(
-													"Unsuccessful in storing the metrics initiative with metricId : " + m.getId());
-										}
-									}
-								}
-							}
-
+								"Storing the metric for initiative ID " + initiativeId + "; metric ID : " + m.getId());
+
+						boolean stored = dch.getCompanyJdbc(companyId).query("{call insertInitiativeMetricValue(?,?,?,?,?)}", cstmt -> {
+							cstmt.setInt("initiativeid", createdInitiativeId);
+							cstmt.setInt("metricid", m.getId());
+							cstmt.setInt("metricvalue", m.getScore());
+							cstmt.setTimestamp("calctime", Timestamp.from(Instant.now()));
+							cstmt.setInt("noemp", noOfEmployees);
+						}, res1 -> res1.next() && res1.getBoolean("op"));
+						if (stored) {
+							org.apache.log4j.Logger.getLogger(Initiative.class).debug(
+									"Success in storing the metrics initiative with metricId : " + m.getId());
+						} else {
+							org.apache.log4j.Logger.getLogger(Initiative.class).error(
+									"Unsuccessful in storing the metrics initiative with metricId : " + m.getId());
 						}
 
 					}
@@ -217,9 +244,8 @@ public class Initiative extends TheBorg {
 	private boolean setPartOf(int companyId, int initiativeId, List<Filter> filterList) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
 			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Create Initiative Connections for initiativeId " + initiativeId);
-			org.apache.log4j.Logger.getLogger(Initiative.class).info("HashMap created!!!");
 			Map<String, Object> params = new HashMap<>();
 			params.put("initiativeId", initiativeId);
 			for (int i = 0; i < filterList.size(); i++) {
@@ -228,39 +254,12 @@ public class Initiative extends TheBorg {
 			}
 
 			// TODO make this dynamic based on filter list
-			String funcQuery = "", posQuery = "", zoneQuery = "";
-			ArrayList<String> funcParam = (ArrayList<String>) params.get("Function");
-			ArrayList<String> zoneParam = (ArrayList<String>) params.get("Zone");
-			ArrayList<String> posParam = (ArrayList<String>) params.get("Position");
-			if (funcParam.contains(0)) {
-				funcQuery = "Match (i:Init),(f:Function) WHERE i.Id = " + initiativeId + " Create f-[:part_of]->i ";
-			} else {
-				funcQuery = "Match (i:Init),(f:Function) where i.Id = " + initiativeId + " and f.Id in " + funcParam.toString()
-						+ " Create f-[:part_of]->i ";
-			}
-
-			if (zoneParam.contains(0)) {
-				zoneQuery = "Match (i:Init),(z:Zone) where i.Id = " + initiativeId + " create z-[:part_of]->i";
-
-			} else {
-				zoneQuery = "Match (i:Init),(z:Zone) where i.Id = " + initiativeId + " and z.Id in " + zoneParam.toString()
-						+ " create z-[:part_of]->i";
-			}
-
-			if (posParam.contains(0)) {
-				posQuery = "Match (i:Init),(p:Position) where i.Id = " + initiativeId + " Create p-[:part_of]->i";
-
-			} else {
-				posQuery = "Match (i:Init),(p:Position) where i.Id = " + initiativeId + " and p.Id in " + posParam.toString()
-						+ " Create p-[:part_of]->i";
-
-			}
-			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Function query : " + funcQuery);
-			stmt.executeQuery(funcQuery);
-			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Position query : " + posQuery);
-			stmt.executeQuery(posQuery);
-			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Zone query : " + zoneQuery);
-			stmt.executeQuery(zoneQuery);
+			List<Integer> funcParam = (List<Integer>) params.get("Function");
+			List<Integer> zoneParam = (List<Integer>) params.get("Zone");
+			List<Integer> posParam = (List<Integer>) params.get("Position");
+			FUNCTIONS_PART_OF.execute(neoConn, getPartOfParams(initiativeId, funcParam));
+			POSITIONS_PART_OF.execute(neoConn, getPartOfParams(initiativeId, posParam));
+			ZONES_PART_OF.execute(neoConn, getPartOfParams(initiativeId, zoneParam));
 		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(Initiative.class).error("Exception while setting part of for initiative ID" + initiativeId, e);
 			return false;
@@ -269,6 +268,18 @@ public class Initiative extends TheBorg {
 
 	}
 
+	/**
+	 * @param initiativeId - ID of the initiative
+	 * @param filterValueIds - IDs of the filter values which are part of the initiative, 0 for ALL
+	 * @return parameters of the part of templates, an empty ID list stands for ALL
+	 */
+	private Map<String, Object> getPartOfParams(int initiativeId, List<Integer> filterValueIds) {
+		Map<String, Object> params = new HashMap<>();
+		params.put("initId", initiativeId);
+		params.put("ids", filterValueIds.contains(0) ? new ArrayList<Integer>() : filterValueIds);
+		return params;
+	}
+
 	/**
 	 * Creates the part of connections for initiatives of category Individual
 	 * @param companyId - Company ID
@@ -280,17 +291,9 @@ public class Initiative extends TheBorg {
 	private boolean setEmployeesPartOf(int companyId, int initiativeId, List<Employee> employeeList) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
-			ArrayList<Integer> empIdList = new ArrayList<>();
-			for (Employee e : employeeList) {
-				empIdList.add(e.getEmployeeId());
-			}
-
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
 			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Creating part_of connections for initiative : " + initiativeId);
-			String query = "Match (i:Init),(e:Employee) where i.Id = " + initiativeId + " and e.emp_id in " + empIdList.toString()
-					+ " Create e-[:part_of]->i";
-			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Creating part_of connections query : " + query);
-			stmt.executeQuery(query);
+			EMPLOYEES_PART_OF.execute(neoConn, getEmployeeParams(initiativeId, employeeList));
 			return true;
 		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(Initiative.class).error(
@@ -322,16 +325,9 @@ public class Initiative extends TheBorg {
 	private boolean setOwner(int companyId, int initiativeId, List<Employee> employeeList) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
-			ArrayList<Integer> empIdList = new ArrayList<>();
-			for (Employee e : employeeList) {
-				empIdList.add(e.getEmployeeId());
-			}
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
 			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Creating connections for initiative : " + initiativeId);
-			String query = "Match (i:Init),(e:Employee) where i.Id = " + initiativeId + " and e.emp_id in " + empIdList.toString()
-					+ " Create e-[:owner_of]->i";
-			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Creating connections for initiative query : " + query);
-			stmt.executeQuery(query);
+			OWNERS.execute(neoConn, getEmployeeParams(initiativeId, employeeList));
 		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(Initiative.class).error("Exception while creating owner for initiative : " + initiativeId, e);
 			return false;
@@ -339,6 +335,22 @@ public class Initiative extends TheBorg {
 		return true;
 	}
 
+	/**
+	 * @param initiativeId - ID of the initiative
+	 * @param employeeList - employees to connect to the initiative
+	 * @return parameters of the employee connection templates
+	 */
+	private Map<String, Object> getEmployeeParams(int initiativeId, List<Employee> employeeList) {
+		List<Integer> empIdList = new ArrayList<>();
+		for (Employee e : employeeList) {
+			empIdList.add(e.getEmployeeId());
+		}
+		Map<String, Object> params = new HashMap<>();
+		params.put("initId", initiativeId);
+		params.put("empIds", empIdList);
+		return params;
+	}
+
 	/**
 	 * Retrieves the single initiative based on the initiativeId given
 	 * @param companyId - Company ID
@@ -354,19 +366,13 @@ public class Initiative extends TheBorg {
 		Initiative i = new Initiative();
 		InitiativeList il = new InitiativeList();
 		i.setInitiativeId(initiativeId);
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
-			String query = "match (i:Init{Id:"
-					+ initiativeId
-					+ "})<-[r:part_of]-(a) with i,a optional match (o:Employee)-[:owner_of]->(i) return i.Name as Name,"
-					+ "i.StartDate as StartDate, i.EndDate as EndDate,i.CreatedOn as CreationDate,i.CreatedByEmpId as CreatedByEmpId, i.Id as Id,case i.Category when 'Individual' then collect(distinct(a.emp_id)) "
-					+ "else collect(distinct(a.Id))  end as PartOfID,collect(distinct(a.Name))as PartOfName, labels(a) as Filters, "
-					+ "collect(distinct (o.emp_id)) as OwnersOf,i.Comment as Comments,i.Type as Type,i.Category as Category,i.Status as Status";
-			org.apache.log4j.Logger.getLogger(Initiative.class).error("Query : " + query);
-			try (ResultSet res = stmt.executeQuery(query)) {
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
+			GET.query(neoConn, Collections.singletonMap("initId", initiativeId), res -> {
 				while (res.next()) {
 					il.setInitiativeValues(companyId, res, i);
 				}
-			}
+				return i;
+			});
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(Initiative.class).error("Exception while retrieving the initiative with ID" + initiativeId, e);
 
@@ -384,16 +390,14 @@ public class Initiative extends TheBorg {
 	public Map<Integer, String> getInitiativeTypeMap(int companyId, String category) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		org.apache.log4j.Logger.getLogger(Initiative.class).info("HashMap created!!!");
 		Map<Integer, String> initiativeTypeMap = new HashMap<>();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getInitiativeTypeList(?)}")) {
-			cstmt.setString(1, category);
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getInitiativeTypeList(?)}", cstmt -> cstmt.setString(1, category), rs -> {
 				while (rs.next()) {
 					initiativeTypeMap.put(rs.getInt(1), rs.getString(2));
 				}
-			}
+				return initiativeTypeMap;
+			});
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
@@ -413,10 +417,9 @@ public class Initiative extends TheBorg {
 		dch.refreshCompanyConnection(companyId);
 		boolean status = false;
 
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
 			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Starting to delete the initiative ID " + initiativeId);
-			String query = "match(a:Init {Id:" + initiativeId + "}) set a.Status = 'Deleted' return a.Status as currentStatus";
-			stmt.executeQuery(query);
+			SET_STATUS.execute(neoConn, getStatusParams(initiativeId, "Deleted"));
 			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Deleted initiative with ID " + initiativeId);
 			status = true;
 		} catch (Exception e) {
@@ -439,24 +442,24 @@ public class Initiative extends TheBorg {
 		SimpleDateFormat sdf = new SimpleDateFormat(UtilHelper.dateTimeFormat);
 		boolean status = false;
 		int updatedInitiativeId = updatedInitiative.getInitiativeId();
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
 			// Possible fields for updation : End Date, Comments, Owners + Start Date if the initiative is in a pending state
 			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Started update of The initiative with ID " + updatedInitiative.initiativeId);
 			List<Employee> updatedOwnerOfList = updatedInitiative.getOwnerOfList();
-			String ownersOfQuery = "match(i:Init {Id:" + updatedInitiativeId + "})<-[r:owner_of]-(e:Employee) delete r";
-			stmt.executeQuery(ownersOfQuery);
+			DELETE_OWNERS.execute(neoConn, Collections.singletonMap("initId", updatedInitiativeId));
 			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Ownersof list deleted from initiative " + updatedInitiative.initiativeId);
 			updatedInitiative.setOwner(companyId, updatedInitiativeId, updatedOwnerOfList);
-			String query = "match(a:Init {Id:" + updatedInitiativeId + "}) set a.CreatedOn = '"
-					+ sdf.format(updatedInitiative.getInitiativeCreationDate()) + "', a.Name = '" + updatedInitiative.getInitiativeName().toString()
-					+ "',a.Status = '" + checkInitiativeStatus(updatedInitiative.getInitiativeStartDate()) + "'," + "a.Type = "
-					+ updatedInitiative.getInitiativeTypeId() + ",a.Category = '" + updatedInitiative.getInitiativeCategory() + "',"
-					+ "a.Comment = '" + updatedInitiative.getInitiativeComment().toString() + "',a.EndDate = '"
-					+ sdf.format(UtilHelper.getEndOfDay(updatedInitiative.getInitiativeEndDate())) + "'," + "a.StartDate = '"
-					+ sdf.format(UtilHelper.getStartOfDay(updatedInitiative.getInitiativeStartDate())) + "' return a.Name as Name, "
-					+ "a.Type as Type,a.Category as Category, "
-					+ "a.Status as Status,a.Comment as Comment,a.EndDate as endDate,a.StartDate as StartDate,a.CreatedOn as CreationDate";
-			stmt.executeQuery(query);
+			Map<String, Object> params = new HashMap<>();
+			params.put("initId", updatedInitiativeId);
+			params.put("createdOn", sdf.format(updatedInitiative.getInitiativeCreationDate()));
+			params.put("name", updatedInitiative.getInitiativeName().toString());
+			params.put("status", checkInitiativeStatus(updatedInitiative.getInitiativeStartDate()));
+			params.put("type", updatedInitiative.getInitiativeTypeId());
+			params.put("category", updatedInitiative.getInitiativeCategory());
+			params.put("comment", updatedInitiative.getInitiativeComment().toString());
+			params.put("endDate", sdf.format(UtilHelper.getEndOfDay(updatedInitiative.getInitiativeEndDate())));
+			params.put("startDate", sdf.format(UtilHelper.getStartOfDay(updatedInitiative.getInitiativeStartDate())));
+			UPDATE.execute(neoConn, params);
 			status = true;
 			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Updated initiative with ID " + updatedInitiativeId);
 		} catch (Exception e) {
@@ -465,6 +468,18 @@ public class Initiative extends TheBorg {
 		return status;
 	}
 
+	/**
+	 * @param initiativeId - ID of the initiative
+	 * @param status - new status of the initiative
+	 * @return parameters of the status template
+	 */
+	private Map<String, Object> getStatusParams(int initiativeId, String status) {
+		Map<String, Object> params = new HashMap<>();
+		params.put("initId", initiativeId);
+		params.put("status", status);
+		return params;
+	}
+
 	/**
 	 * Return the initiative status based on the start date
 	 * 
@@ -491,9 +506,8 @@ public class Initiative extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
 		boolean status = false;
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
-			String query = "match(a:Init {Id:" + initiativeId + "}) set a.Status = 'Completed'";
-			stmt.executeQuery(query);
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
+			SET_STATUS.execute(neoConn, getStatusParams(initiativeId, "Completed"));
 			org.apache.log4j.Logger.getLogger(Initiative.class).debug("Changed the status of initiative with ID " + initiativeId + " to Completed");
 			status = true;
 		} catch (Exception e) {
@@ -1,10 +1,10 @@
 package org.icube.owen.initiative;
 
-import java.sql.CallableStatement;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,12 +16,21 @@ import org.icube.owen.employee.Employee;
 import org.icube.owen.employee.EmployeeList;
 import org.icube.owen.filter.Filter;
 import org.icube.owen.filter.FilterList;
+import org.icube.owen.helper.CompanyJdbc;
+import org.icube.owen.helper.CypherRegistry;
+import org.icube.owen.helper.CypherTemplate;
 import org.icube.owen.helper.DatabaseConnectionHelper;
 import org.icube.owen.metrics.Metrics;
 import org.icube.owen.metrics.MetricsHelper;
 
 public class InitiativeHelper extends TheBorg {
 
+	// number of active and completed initiatives per category and type
+	private static final CypherTemplate INITIATIVE_COUNT = CypherRegistry.register("initiative.count",
+			"match (i:Init) where i.Status='Active' or i.Status='Completed' with  distinct(i.Status) as stat match (z:Init) "
+					+ "with distinct(z.Category) as cat,stat match (j:Init {Category:cat}) with distinct(j.Type) as TYP,stat,cat optional "
+					+ "match (a:Init) where a.Status=stat and a.Type=TYP return cat as category,TYP as initiativeType,stat as status ,count(a) as totalInitiatives");
+
 	/**
 	 * @param companyId - Company ID
 	 * @param res - A resultset containing the Initiative attributes and connections
@@ -47,7 +56,6 @@ public class InitiativeHelper extends TheBorg {
 		f.setFilterName(filterName);
 		List<Integer> partOfIdList = (List<Integer>) res.getObject("PartOfID");
 		List<String> partOfNameList = (List<String>) res.getObject("PartOfName");
-		org.apache.log4j.Logger.getLogger(InitiativeHelper.class).info("HashMap created!!!");
 		Map<Integer, String> filterValuesMap = new HashMap<>();
 		for (int j = 0; j < partOfIdList.size(); j++) {
 			filterValuesMap.put(partOfIdList.get(j), partOfNameList.get(j));
@@ -98,11 +106,8 @@ public class InitiativeHelper extends TheBorg {
 		masterMap.putAll(getEmptyInitiativeCountMap(companyId, "Individual"));
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
-			String query = "match (i:Init) where i.Status='Active' or i.Status='Completed' with  distinct(i.Status) as stat match (z:Init) "
-					+ "with distinct(z.Category) as cat,stat match (j:Init {Category:cat}) with distinct(j.Type) as TYP,stat,cat optional "
-					+ "match (a:Init) where a.Status=stat and a.Type=TYP return cat as category,TYP as initiativeType,stat as status ,count(a) as totalInitiatives";
-			try (ResultSet res = stmt.executeQuery(query)) {
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
+			INITIATIVE_COUNT.query(neoConn, Collections.emptyMap(), res -> {
 				while (res.next()) {
 					String key = res.getString("initiativeType") + "_" + res.getString("status");
 					Map<String, Object> initiativeCountMap = masterMap.get(key);
@@ -112,7 +117,8 @@ public class InitiativeHelper extends TheBorg {
 					initiativeCountMap.put("totalInitiatives", res.getInt("totalInitiatives"));
 					masterMap.put(key, initiativeCountMap);
 				}
-			}
+				return masterMap;
+			});
 			initiativeCountMapList.addAll(masterMap.values());
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(InitiativeHelper.class).error("Exception while getting the initiative count list", e);
@@ -129,19 +135,16 @@ public class InitiativeHelper extends TheBorg {
 	 * @return empty initiative count map
 	 */
 	private Map<String, Map<String, Object>> getEmptyInitiativeCountMap(int companyId, String category) {
-		org.apache.log4j.Logger.getLogger(InitiativeHelper.class).info("HashMap created!!!");
 		Map<String, Map<String, Object>> initiativeCountMasterMap = new HashMap<>();
 		Initiative i = new Initiative();
 		Map<Integer, String> initiativeTypeMap = i.getInitiativeTypeMap(companyId, category);
 		for (int initiativeTypeId : initiativeTypeMap.keySet()) {
-			org.apache.log4j.Logger.getLogger(InitiativeHelper.class).info("HashMap created!!!");
 			Map<String, Object> m = new HashMap<>();
 			m.put("status", "Completed");
 			m.put("category", category);
 			m.put("initiativeType", initiativeTypeId);
 			m.put("totalInitiatives", 0);
 			initiativeCountMasterMap.put(initiativeTypeId + "_Completed", m);
-			org.apache.log4j.Logger.getLogger(InitiativeHelper.class).info("HashMap created!!!");
 			m = new HashMap<>();
 			m.put("status", "Active");
 			m.put("category", category);
@@ -182,33 +185,28 @@ public class InitiativeHelper extends TheBorg {
 		List<Metrics> metricsList = new ArrayList<>();
 		MetricsHelper mh = new MetricsHelper();
 		try {
-			dch.refreshCompanyConnection(companyId);
+			CompanyJdbc jdbc = dch.getCompanyJdbc(companyId);
 			if (i.getInitiativeCategory().equalsIgnoreCase("Individual")) {
-				try (CallableStatement cs = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call getIndividualInitiativeMetricValueAggregate(?)}")) {
-					int empId = i.getPartOfEmployeeList().get(0).getEmployeeId();
-					cs.setInt(1, empId);
-					try (ResultSet rs = cs.executeQuery()) {
-						metricsList = mh.fillMetricsData(companyId, rs, mh.getPrimaryMetricMap(companyId, i.getInitiativeTypeId()), "Individual");
-					}
-				}
+				int empId = i.getPartOfEmployeeList().get(0).getEmployeeId();
+				Map<Integer, String> primaryMetricMap = mh.getPrimaryMetricMap(companyId, i.getInitiativeTypeId());
+				Map<Integer, String> metricListMap = mh.getMetricListForCategory(companyId, "Individual");
+				metricsList = jdbc.query("{call getIndividualInitiativeMetricValueAggregate(?)}", cs -> cs.setInt(1, empId), rs -> mh.fillMetricsData(
+						metricListMap, rs, primaryMetricMap, "Individual"));
 
 			} else if (i.getInitiativeCategory().equalsIgnoreCase("Team")) {
 				org.apache.log4j.Logger.getLogger(InitiativeHelper.class).debug(
 						"setInitiativeMetrics for team  calling procedure getTeamInitiativeMetricValueAggregate for initiative ID: "
 								+ i.getInitiativeId());
-				try (CallableStatement cs = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call getTeamInitiativeMetricValueAggregate(?)}")) {
-					int initId = i.getInitiativeId();
-					cs.setInt(1, initId);
-					try (ResultSet rs = cs.executeQuery()) {
-						org.apache.log4j.Logger.getLogger(InitiativeHelper.class).debug("fill metric map for initiative : " + i.getInitiativeId());
-						metricsList = mh.fillMetricsData(companyId, rs, mh.getPrimaryMetricMap(companyId, i.getInitiativeTypeId()), "Team");
-						org.apache.log4j.Logger.getLogger(InitiativeHelper.class).debug(
-								"finished fill metric map for initiative : " + i.getInitiativeId());
-					}
-
-				}
+				int initId = i.getInitiativeId();
+				Map<Integer, String> primaryMetricMap = mh.getPrimaryMetricMap(companyId, i.getInitiativeTypeId());
+				Map<Integer, String> metricListMap = mh.getMetricListForCategory(companyId, "Team");
+				metricsList = jdbc.query("{call getTeamInitiativeMetricValueAggregate(?)}", cs -> cs.setInt(1, initId), rs -> {
+					org.apache.log4j.Logger.getLogger(InitiativeHelper.class).debug("fill metric map for initiative : " + i.getInitiativeId());
+					List<Metrics> teamMetricsList = mh.fillMetricsData(metricListMap, rs, primaryMetricMap, "Team");
+					org.apache.log4j.Logger.getLogger(InitiativeHelper.class).debug(
+							"finished fill metric map for initiative : " + i.getInitiativeId());
+					return teamMetricsList;
+				});
 
 			}
 
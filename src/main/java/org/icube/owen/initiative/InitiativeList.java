@@ -1,7 +1,7 @@
 package org.icube.owen.initiative;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
-import java.sql.Statement;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -11,11 +11,27 @@ import java.util.Map;
 
 import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
+import org.icube.owen.helper.CypherRegistry;
+import org.icube.owen.helper.CypherTemplate;
 import org.icube.owen.helper.DatabaseConnectionHelper;
 import org.icube.owen.helper.UtilHelper;
 
 public class InitiativeList extends TheBorg {
 
+	// attributes and connections of the initiatives matched as i with their part of nodes as a
+	static final String INITIATIVE_RETURN = "WITH i,a optional match (o:Employee)-[:owner_of]->(i) return i.Id as Id, "
+			+ "i.Name as Name,i.StartDate as StartDate, i.EndDate as EndDate, i.CreatedByEmpId as CreatedByEmpId, i.CreatedOn as CreationDate, "
+			+ "case i.Category when 'Individual' then collect(distinct(a.emp_id)) else collect(distinct(a.Id)) "
+			+ "end as PartOfID,collect(distinct(a.Name))as PartOfName, labels(a) as Filters, "
+			+ "collect(distinct (o.emp_id)) as OwnersOf,i.Comment as Comments,i.Type as Type,i.Category as Category,i.Status as Status";
+
+	private static final CypherTemplate INITIATIVES_BY_TYPE = CypherRegistry.register("initiative.listByType",
+			"match (i:Init {Type:{type}, Category:{category}})<-[r:part_of]-(a) " + INITIATIVE_RETURN);
+	private static final CypherTemplate INITIATIVES_BY_STATUS = CypherRegistry.register("initiative.listByStatus",
+			"match (i:Init {Status:{status}, Category:{category}})<-[r:part_of]-(a) " + INITIATIVE_RETURN);
+	private static final CypherTemplate OPEN_INITIATIVES = CypherRegistry.register("initiative.listOpen",
+			"match (i:Init {Category:{category}})<-[r:part_of]-(a) where i.Status in ['Active','Pending'] " + INITIATIVE_RETURN);
+
 	/**
 	 * Get the list of initiatives based on the status provided in the filter
 	 * @param companyId - Company ID
@@ -61,63 +77,46 @@ public class InitiativeList extends TheBorg {
 		InitiativeHelper ih = new InitiativeHelper();
 		org.apache.log4j.Logger.getLogger(InitiativeList.class).debug("Get initiative list");
 		List<Initiative> initiativeList = new ArrayList<Initiative>();
-		org.apache.log4j.Logger.getLogger(InitiativeList.class).info("HashMap created!!!");
 		Map<Integer, Initiative> initiativeIdMap = new HashMap<Integer, Initiative>();
 		try {
-			String initiativeListQuery = "";
+			CypherTemplate initiativeListTemplate = null;
+			Map<String, Object> params = new HashMap<>();
+			params.put("category", category);
 			if (viewByCriteria.equalsIgnoreCase("Type")) {
-				initiativeListQuery = "match (i:Init {Type:"
-						+ (Integer) viewByValue
-						+ ", Category:'"
-						+ category
-						+ "'})<-[r:part_of]-(a) WITH i,a optional match (o:Employee)-[:owner_of]->(i) return i.Id as Id, "
-						+ "i.Name as Name,i.StartDate as StartDate, i.EndDate as EndDate, i.CreatedByEmpId as CreatedByEmpId, i.CreatedOn as CreationDate, "
-						+ "case i.Category when 'Individual' then collect(distinct(a.emp_id)) else collect(distinct(a.Id)) "
-						+ "end as PartOfID,collect(distinct(a.Name))as PartOfName, labels(a) as Filters, "
-						+ "collect(distinct (o.emp_id)) as OwnersOf,i.Comment as Comments,i.Type as Type,i.Category as Category,i.Status as Status";
-				org.apache.log4j.Logger.getLogger(InitiativeList.class).debug(
-						"Query for retrieving initiative of type " + viewByValue + " : " + initiativeListQuery);
-
+				initiativeListTemplate = INITIATIVES_BY_TYPE;
+				params.put("type", (Integer) viewByValue);
 			} else if (viewByCriteria.equalsIgnoreCase("Status")) {
-				initiativeListQuery = "match (i:Init {Status:'"
-						+ (String) viewByValue
-						+ "', Category:'"
-						+ category
-						+ "'})<-[r:part_of]-(a) WITH i,a optional match (o:Employee)-[:owner_of]->(i) return i.Id as Id, "
-						+ "i.Name as Name,i.StartDate as StartDate, i.EndDate as EndDate, i.CreatedByEmpId as CreatedByEmpId, i.CreatedOn as CreationDate, "
-						+ "case i.Category when 'Individual' then collect(distinct(a.emp_id)) else collect(distinct(a.Id)) "
-						+ "end as PartOfID,collect(distinct(a.Name))as PartOfName, labels(a) as Filters, "
-						+ "collect(distinct (o.emp_id)) as OwnersOf,i.Comment as Comments,i.Type as Type,i.Category as Category,i.Status as Status";
-				org.apache.log4j.Logger.getLogger(InitiativeList.class).debug(
-						"Query for retrieving initiative with status " + viewByValue + " : " + initiativeListQuery);
-
+				initiativeListTemplate = INITIATIVES_BY_STATUS;
+				params.put("status", (String) viewByValue);
 			}
 
-			if (initiativeListQuery.isEmpty()) {
+			if (initiativeListTemplate == null) {
 				org.apache.log4j.Logger.getLogger(InitiativeList.class).error("Incorrect criteria has been given " + viewByCriteria);
 				throw new Exception("Incorrect criteria has been given " + viewByCriteria);
 			}
-			try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement();
-					ResultSet res = stmt.executeQuery(initiativeListQuery)) {
-				org.apache.log4j.Logger.getLogger(InitiativeList.class).debug(
-						"Executed query for retrieving initiative list with " + viewByCriteria + " : " + viewByValue);
-				while (res.next()) {
-					int initiativeId = res.getInt("Id");
-					if (initiativeIdMap.containsKey(initiativeId)) {
-						Initiative i = initiativeIdMap.get(initiativeId);
-						if (i.getInitiativeCategory().equalsIgnoreCase("Team")) {
-							i.setFilterList(ih.setPartOfConnections(companyId, res, i));
-						} else if (i.getInitiativeCategory().equalsIgnoreCase("Individual")) {
-							i.setPartOfEmployeeList(ih.setPartOfEmployeeList(companyId, res, i));
+			try (Connection neoConn = dch.getNeoConnection(companyId)) {
+				initiativeListTemplate.query(neoConn, params, res -> {
+					org.apache.log4j.Logger.getLogger(InitiativeList.class).debug(
+							"Executed query for retrieving initiative list with " + viewByCriteria + " : " + viewByValue);
+					while (res.next()) {
+						int initiativeId = res.getInt("Id");
+						if (initiativeIdMap.containsKey(initiativeId)) {
+							Initiative i = initiativeIdMap.get(initiativeId);
+							if (i.getInitiativeCategory().equalsIgnoreCase("Team")) {
+								i.setFilterList(ih.setPartOfConnections(companyId, res, i));
+							} else if (i.getInitiativeCategory().equalsIgnoreCase("Individual")) {
+								i.setPartOfEmployeeList(ih.setPartOfEmployeeList(companyId, res, i));
+							}
+							initiativeIdMap.put(initiativeId, i);
+						} else {
+							Initiative i = new Initiative();
+							setInitiativeValues(companyId, res, i);
+							initiativeIdMap.put(initiativeId, i);
 						}
-						initiativeIdMap.put(initiativeId, i);
-					} else {
-						Initiative i = new Initiative();
-						setInitiativeValues(companyId, res, i);
-						initiativeIdMap.put(initiativeId, i);
-					}
 
-				}
+					}
+					return initiativeIdMap;
+				});
 			}
 			for (int initiativeId : initiativeIdMap.keySet()) {
 				initiativeList.add(initiativeIdMap.get(initiativeId));
@@ -147,19 +146,9 @@ public class InitiativeList extends TheBorg {
 		InitiativeHelper ih = new InitiativeHelper();
 		org.apache.log4j.Logger.getLogger(InitiativeList.class).debug("Get initiative list");
 		List<Initiative> initiativeList = new ArrayList<Initiative>();
-		org.apache.log4j.Logger.getLogger(InitiativeList.class).info("HashMap created!!!");
 		Map<Integer, Initiative> initiativeIdMap = new HashMap<Integer, Initiative>();
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement()) {
-			String initiativeListQuery = "match (i:Init {Category:'"
-					+ category
-					+ "'})<-[r:part_of]-(a) where i.Status in ['Active','Pending'] WITH i,a optional "
-					+ "match (o:Employee)-[:owner_of]->(i) return i.Id as Id, i.Name as Name,i.StartDate as StartDate, "
-					+ "i.EndDate as EndDate,i.CreatedByEmpId as CreatedByEmpId, i.CreatedOn as CreationDate, case i.Category when 'Individual' then collect(distinct(a.emp_id)) "
-					+ "else collect(distinct(a.Id))  end as PartOfID,collect(distinct(a.Name))as PartOfName, labels(a) as Filters, "
-					+ "collect(distinct (o.emp_id)) as OwnersOf,i.Comment as Comments,i.Type as Type,i.Category as Category,i.Status as Status";
-			org.apache.log4j.Logger.getLogger(InitiativeList.class).debug(
-					"Query for retrieving all initiatives for category " + category + " : " + initiativeListQuery);
-			try (ResultSet res = stmt.executeQuery(initiativeListQuery);) {
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
+			OPEN_INITIATIVES.query(neoConn, Collections.singletonMap("category", category), res -> {
 				org.apache.log4j.Logger.getLogger(InitiativeList.class).debug("Executed query for retrieving initiative list");
 				while (res.next()) {
 
@@ -175,12 +164,12 @@ public class InitiativeList extends TheBorg {
 					}
 
 				}
-			}
+				return initiativeIdMap;
+			});
 			for (int initiativeId : initiativeIdMap.keySet()) {
 				initiativeList.add(initiativeIdMap.get(initiativeId));
 			}
 			org.apache.log4j.Logger.getLogger(InitiativeList.class).debug("List of initiatives : " + initiativeList.toString());
-			stmt.close();
 		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(InitiativeList.class).error("Exception while getting the initiative list", e);
 		}
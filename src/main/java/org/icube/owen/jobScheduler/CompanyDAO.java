@@ -1,5 +1,6 @@
 package org.icube.owen.jobScheduler;
 
+import java.sql.Connection;
 import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -51,28 +52,28 @@ public class CompanyDAO extends TimerTask {
 	 * Retrieves the details of the company (ID,name,username,password,sql server,sql user id)
 	 */
 	public void runSchedulerJob() {
-
-		try (Statement stmt = dch.masterDS.getConnection().createStatement();
+		// get company connections
+		dch = ObjectFactory.getDBHelper();
+		try (Connection conn = dch.masterDS.getConnection();
+				Statement stmt = conn.createStatement();
 				ResultSet companyDetails = stmt
 						.executeQuery("Select comp_name, comp_id, comp_sql_dbname, sql_server, sql_user_id, sql_password from company_master where comp_status='Active'")) {
-			// get company connections
-			dch = ObjectFactory.getDBHelper();// connect to r
-			RConnection rCon = dch.getRConn();
-			org.apache.log4j.Logger.getLogger(CompanyDAO.class).debug("R Connection Available : " + rCon.isConnected());
 
 			// loop through every active company from the database
 			while (companyDetails.next()) {
 
 				int companyId = companyDetails.getInt("comp_id");
 				dch.refreshCompanyConnection(companyId);
-				CompanyConfig compConfig = dch.companyConfigMap.get(companyId);
+				CompanyConfig compConfig = dch.getCompanyConfig(companyId);
 
 				// check if run jobs is enabled for the company or not
 				if (compConfig.isRunJobs()) {
-					org.apache.log4j.Logger.getLogger(CompanyDAO.class).info("HashMap created!!!");
 					Map<String, String> jobStatusMap = new HashMap<>();
 
 					// run JobInitStatus if run jobs is enabled for the company
+					// the R session is borrowed per company since it is returned to the pool after JobInitStatus
+					RConnection rCon = dch.getRConn();
+					org.apache.log4j.Logger.getLogger(CompanyDAO.class).debug("R Connection Available : " + rCon.isConnected());
 					org.apache.log4j.Logger.getLogger(CompanyDAO.class).debug("JobInitStatus method started");
 					org.apache.log4j.Logger.getLogger(CompanyDAO.class).debug("Parameters for R function :  CompanyId : " + companyId);
 
@@ -128,7 +129,8 @@ public class CompanyDAO extends TimerTask {
 			int companyId = rs.getInt("comp_id");
 			String companyName = rs.getString("comp_name");
 			dch.refreshCompanyConnection(companyId);
-			try (Statement stmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().createStatement();) {
+			try (Connection conn = dch.companyConnectionMap.get(companyId).getDataSource().getConnection();
+					Statement stmt = conn.createStatement()) {
 
 				org.apache.log4j.Logger.getLogger(CompanyDAO.class).debug(
 						"Successfully connected to company db with companyId : " + rs.getInt("comp_id"));
@@ -145,6 +147,11 @@ public class CompanyDAO extends TimerTask {
 						try {
 							runRMethod("calculate_edge", companyId, companyName, jobStatusMap);
 							runRMethod("update_neo", companyId, companyName, jobStatusMap);
+							// the explore and smart list queries read the recalculated edges from the snapshot, if it cannot be rebuilt they
+							// read neo4j and the cached network diagrams are kept until they expire
+							if (dch.getGraphSnapshotCache().replace(companyId)) {
+								dch.getNetworkDiagramCache().bumpGraphVersion(companyId);
+							}
 							runRMethod("JobIndNwMetric", companyId, companyName, jobStatusMap);
 							runRMethod("JobCubeNwMetric", companyId, companyName, jobStatusMap);
 							runRMethod("JobDimensionNwMetric", companyId, companyName, jobStatusMap);
@@ -157,6 +164,8 @@ public class CompanyDAO extends TimerTask {
 							dch.releaseRcon();
 							org.apache.log4j.Logger.getLogger(CompanyDAO.class).error("Unable to execute Scheduler jobs ", e);
 						}
+						// the metric jobs may have recalculated past scores
+						dch.getTimeSeriesCache().invalidate(companyId);
 
 					} else {
 
@@ -222,19 +231,19 @@ public class CompanyDAO extends TimerTask {
 	 */
 	public void runNewQuestionJob(int companyId, Map<String, String> jobStatusMap) throws SQLException {
 		ArrayList<String> addresses = new ArrayList<String>();
-		try (Statement stmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().createStatement();
-		// check if new emails have to be sent for the specific company
+		try (Connection conn = dch.companyConnectionMap.get(companyId).getDataSource().getConnection();
+				Statement stmt = conn.createStatement();
+				// check if new emails have to be sent for the specific company
 
 				ResultSet res = stmt
 						.executeQuery("select distinct(l.login_id) as email_id from (select Distinct(survey_batch_id) as survey_batch_id from question where date(start_date)=CURDATE()) as b join batch_target as bt on b.survey_batch_id=bt.survey_batch_id left join login_table as l on l.emp_id=bt.emp_id where l.status='active'")) {
 			while (res.next()) {
 				addresses.add(res.getString(1));
-				System.out.println(res.getString(1));
 			}
 			// in case of new questions send email
 			if (addresses.size() > 0) {
 				// if Send email is enabled for the company, send the new question emails
-				if (dch.companyConfigMap.get(companyId).isSendEmail()) {
+				if (dch.getCompanyConfig(companyId).isSendEmail()) {
 					EmailSender es = new EmailSender();
 					es.sendEmailforQuestions(companyId, addresses);
 
@@ -249,7 +258,7 @@ public class CompanyDAO extends TimerTask {
 				// schedulerJobStatusMap.get(companyId).add(jobStatusMapForEmail);
 
 				// if send slack is enabled for the company, then send slack message
-				if (dch.companyConfigMap.get(companyId).isSendSlack()) {
+				if (dch.getCompanyConfig(companyId).isSendSlack()) {
 					SlackIntegration sl = new SlackIntegration();
 					sl.sendMessage(companyId,
 							"You have new questions to answer\nPlease login to answer\n<http://engage.owenanalytics.com|engage.owenanalytics.com>");
@@ -20,8 +20,8 @@ import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 
 import org.icube.owen.ObjectFactory;
+import org.icube.owen.helper.ConfigSnapshot;
 import org.icube.owen.helper.DatabaseConnectionHelper;
-import org.icube.owen.helper.UtilHelper;
 
 public class EmailSender {
 
@@ -152,7 +152,7 @@ public class EmailSender {
 
 	private StringBuilder getNewQuesMailText() {
 		StringBuilder sb = new StringBuilder();
-		String rScriptPath = UtilHelper.getConfigProperty("r_script_path");
+		String rScriptPath = ConfigSnapshot.get().getString("r_script_path");
 		try (BufferedReader in = new BufferedReader(new FileReader(rScriptPath + "\\\\NewQuestionEmail.html"))) {
 			String str;
 			while ((str = in.readLine()) != null) {
@@ -262,7 +262,7 @@ public class EmailSender {
 	 */
 	private StringBuilder getPasswordemailText(String username, String firstName, String lastName, String newPassword) {
 		StringBuilder sb = new StringBuilder();
-		String rScriptPath = UtilHelper.getConfigProperty("r_script_path");
+		String rScriptPath = ConfigSnapshot.get().getString("r_script_path");
 		org.apache.log4j.Logger.getLogger(EmailSender.class).debug("Reading from the path : " + rScriptPath);
 		try (BufferedReader in = new BufferedReader(new FileReader(rScriptPath + "\\\\ForgotPassword.html"))) {
 			String str;
@@ -292,7 +292,7 @@ public class EmailSender {
 
 	private StringBuilder getPasswordChangeEmailText(String username, String firstName, String lastName, String newPassword) {
 		StringBuilder sb = new StringBuilder();
-		String rScriptPath = UtilHelper.getConfigProperty("r_script_path");
+		String rScriptPath = ConfigSnapshot.get().getString("r_script_path");
 		org.apache.log4j.Logger.getLogger(EmailSender.class).debug("Reading from the path : " + rScriptPath);
 		try (BufferedReader in = new BufferedReader(new FileReader(rScriptPath + "\\\\ChangedPassword.html"))) {
 			String str;
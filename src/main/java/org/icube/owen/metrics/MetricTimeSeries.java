@@ -0,0 +1,348 @@
+package org.icube.owen.metrics;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.icube.owen.helper.ColumnIndex;
+
+/**
+ * Score history of a single metric stored as two primitive arrays, the calculation day as epoch day and the score
+ * Points are kept in the order they are added, which is the order the time series procedures return them in
+ * Replaces the list of single entry maps of date and score, which allocated a map, a Date and an Integer for every point
+ */
+public final class MetricTimeSeries {
+
+	// epoch day used for a point without calculation date
+	public static final long NO_DATE = Long.MIN_VALUE;
+
+	private static final long[] NO_DAYS = new long[0];
+	private static final int[] NO_SCORES = new int[0];
+
+	private final int metricId;
+	private final long[] epochDays;
+	private final int[] scores;
+
+	private MetricTimeSeries(int metricId, long[] epochDays, int[] scores) {
+		this.metricId = metricId;
+		this.epochDays = epochDays;
+		this.scores = scores;
+	}
+
+	/**
+	 * @param metricId - ID of the metric
+	 * @return a time series without points
+	 */
+	public static MetricTimeSeries empty(int metricId) {
+		return new MetricTimeSeries(metricId, NO_DAYS, NO_SCORES);
+	}
+
+	/**
+	 * Builds one time series per metric from the rows of a time series procedure
+	 * @param rs - result set with the columns metric_id, calc_time and score
+	 * @return map of metric ID and its time series
+	 * @throws SQLException - if a column is missing or the rows cannot be read
+	 */
+	public static Map<Integer, MetricTimeSeries> fromResultSet(ResultSet rs) throws SQLException {
+		ColumnIndex columns = ColumnIndex.of(rs);
+		int metricIdIndex = columns.get("metric_id");
+		int calcTimeIndex = columns.get("calc_time");
+		int scoreIndex = columns.get("score");
+		Map<Integer, Builder> builderMap = new HashMap<>();
+		while (rs.next()) {
+			builderMap.computeIfAbsent(rs.getInt(metricIdIndex), Builder::new).add(rs.getDate(calcTimeIndex), rs.getInt(scoreIndex));
+		}
+		return build(builderMap);
+	}
+
+	/**
+	 * Builds one time series per employee and metric from the rows of a time series procedure for many employees
+	 * @param rs - result set with the columns emp_id, metric_id, calc_time and score
+	 * @return map of employee ID and its map of metric ID and time series
+	 * @throws SQLException - if a column is missing or the rows cannot be read
+	 */
+	public static Map<Integer, Map<Integer, MetricTimeSeries>> fromResultSetByEmployee(ResultSet rs) throws SQLException {
+		ColumnIndex columns = ColumnIndex.of(rs);
+		int empIdIndex = columns.get("emp_id");
+		int metricIdIndex = columns.get("metric_id");
+		int calcTimeIndex = columns.get("calc_time");
+		int scoreIndex = columns.get("score");
+		Map<Integer, Map<Integer, Builder>> builderMap = new HashMap<>();
+		while (rs.next()) {
+			builderMap.computeIfAbsent(rs.getInt(empIdIndex), k -> new HashMap<>()).computeIfAbsent(rs.getInt(metricIdIndex), Builder::new).add(
+					rs.getDate(calcTimeIndex), rs.getInt(scoreIndex));
+		}
+		Map<Integer, Map<Integer, MetricTimeSeries>> result = new HashMap<>();
+		for (Map.Entry<Integer, Map<Integer, Builder>> entry : builderMap.entrySet()) {
+			result.put(entry.getKey(), build(entry.getValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * Converts the time series to the map of metric ID and list of single entry maps of date and score returned by the existing APIs
+	 * @param seriesMap - map of metric ID and time series
+	 * @return map of metric ID and list of map of calculation date and score
+	 */
+	public static Map<Integer, List<Map<Date, Integer>>> toMapList(Map<Integer, MetricTimeSeries> seriesMap) {
+		Map<Integer, List<Map<Date, Integer>>> result = new HashMap<>();
+		for (Map.Entry<Integer, MetricTimeSeries> entry : seriesMap.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().toMapList());
+		}
+		return result;
+	}
+
+	/**
+	 * @return the points as a list of single entry maps of calculation date and score
+	 */
+	public List<Map<Date, Integer>> toMapList() {
+		List<Map<Date, Integer>> result = new ArrayList<>(scores.length);
+		for (int i = 0; i < scores.length; i++) {
+			Map<Date, Integer> point = new HashMap<>(2);
+			point.put(getDate(i), scores[i]);
+			result.add(point);
+		}
+		return result;
+	}
+
+	/**
+	 * Aggregates the points within the window into buckets
+	 * @param window - date range, bucket size and aggregation
+	 * @return one point per bucket with points, dated on the first day of the bucket
+	 */
+	public MetricTimeSeries downsample(TimeSeriesWindow window) {
+		return downsample(window, null);
+	}
+
+	/**
+	 * Aggregates the points within the window into buckets, reusing the values of the closed buckets
+	 * A bucket is closed once the series has a point in a later bucket, new calculations only ever add points to the last bucket
+	 * Each bucket is located by binary search, so only the buckets missing from the cache are aggregated point by point
+	 * @param window - date range, bucket size and aggregation
+	 * @param closedBuckets - values of the closed buckets by their first day for this metric, resolution and aggregation, filled with
+	 *        the buckets aggregated by this call; null to aggregate every bucket
+	 * @return one point per bucket with points, dated on the first day of the bucket
+	 */
+	public MetricTimeSeries downsample(TimeSeriesWindow window, Map<Long, Integer> closedBuckets) {
+		MetricTimeSeries sorted = sortedByDay();
+		long[] days = sorted.epochDays;
+		int end = upperBound(days, 0, days.length, window.getToEpochDay());
+		int i = lowerBound(days, 0, end, Math.max(window.getFromEpochDay(), NO_DATE + 1));
+		if (i >= end) {
+			return empty(metricId);
+		}
+		TimeSeriesWindow.Resolution resolution = window.getResolution();
+		long openBucket = resolution.bucketStart(days[days.length - 1]);
+		Builder builder = new Builder(metricId);
+		while (i < end) {
+			long bucket = resolution.bucketStart(days[i]);
+			int bucketEnd = lowerBound(days, i, end, resolution.nextBucketStart(bucket));
+			boolean closed = closedBuckets != null && bucket < openBucket;
+			Integer value = closed ? closedBuckets.get(bucket) : null;
+			if (value == null) {
+				value = sorted.aggregate(i, bucketEnd, window.getAggregation());
+				if (closed) {
+					closedBuckets.put(bucket, value);
+				}
+			}
+			builder.add(bucket, value);
+			i = bucketEnd;
+		}
+		return builder.build();
+	}
+
+	public int getMetricId() {
+		return metricId;
+	}
+
+	/**
+	 * @return number of points
+	 */
+	public int size() {
+		return scores.length;
+	}
+
+	/**
+	 * @param i - index of the point
+	 * @return calculation day of the point as epoch day, NO_DATE if the point has no date
+	 */
+	public long getEpochDay(int i) {
+		return epochDays[i];
+	}
+
+	/**
+	 * @param i - index of the point
+	 * @return calculation date of the point, null if the point has no date
+	 */
+	public java.sql.Date getDate(int i) {
+		return epochDays[i] == NO_DATE ? null : java.sql.Date.valueOf(LocalDate.ofEpochDay(epochDays[i]));
+	}
+
+	/**
+	 * @param i - index of the point
+	 * @return score of the point
+	 */
+	public int getScore(int i) {
+		return scores[i];
+	}
+
+	/**
+	 * @return copy of the calculation days as epoch days
+	 */
+	public long[] getEpochDays() {
+		return epochDays.clone();
+	}
+
+	/**
+	 * @return copy of the scores
+	 */
+	public int[] getScores() {
+		return scores.clone();
+	}
+
+	@Override
+	public String toString() {
+		return "MetricTimeSeries [metricId=" + metricId + ", epochDays=" + Arrays.toString(epochDays) + ", scores=" + Arrays.toString(scores) + "]";
+	}
+
+	private int aggregate(int from, int to, TimeSeriesWindow.Aggregation aggregation) {
+		switch (aggregation) {
+		case MIN:
+			int min = Integer.MAX_VALUE;
+			for (int i = from; i < to; i++) {
+				min = Math.min(min, scores[i]);
+			}
+			return min;
+		case MAX:
+			int max = Integer.MIN_VALUE;
+			for (int i = from; i < to; i++) {
+				max = Math.max(max, scores[i]);
+			}
+			return max;
+		case AVG:
+			long sum = 0;
+			for (int i = from; i < to; i++) {
+				sum += scores[i];
+			}
+			return (int) Math.round((double) sum / (to - from));
+		default:
+			return scores[to - 1];
+		}
+	}
+
+	/**
+	 * @return this series if the points are in date order, otherwise a copy sorted by date keeping the order of points of the same day
+	 */
+	private MetricTimeSeries sortedByDay() {
+		int i = 1;
+		while (i < epochDays.length && epochDays[i - 1] <= epochDays[i]) {
+			i++;
+		}
+		if (i >= epochDays.length) {
+			return this;
+		}
+		Integer[] order = new Integer[epochDays.length];
+		for (int j = 0; j < order.length; j++) {
+			order[j] = j;
+		}
+		// stable, so that LAST is the point returned last for the day
+		Arrays.sort(order, (a, b) -> Long.compare(epochDays[a], epochDays[b]));
+		long[] sortedDays = new long[order.length];
+		int[] sortedScores = new int[order.length];
+		for (int j = 0; j < order.length; j++) {
+			sortedDays[j] = epochDays[order[j]];
+			sortedScores[j] = scores[order[j]];
+		}
+		return new MetricTimeSeries(metricId, sortedDays, sortedScores);
+	}
+
+	// first index in [from, to) whose day is at least the given day
+	private static int lowerBound(long[] days, int from, int to, long day) {
+		while (from < to) {
+			int mid = (from + to) >>> 1;
+			if (days[mid] < day) {
+				from = mid + 1;
+			} else {
+				to = mid;
+			}
+		}
+		return from;
+	}
+
+	// first index in [from, to) whose day is after the given day
+	private static int upperBound(long[] days, int from, int to, long day) {
+		while (from < to) {
+			int mid = (from + to) >>> 1;
+			if (days[mid] <= day) {
+				from = mid + 1;
+			} else {
+				to = mid;
+			}
+		}
+		return from;
+	}
+
+	private static Map<Integer, MetricTimeSeries> build(Map<Integer, Builder> builderMap) {
+		Map<Integer, MetricTimeSeries> result = new HashMap<>();
+		for (Map.Entry<Integer, Builder> entry : builderMap.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().build());
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the points of a time series, the arrays grow as points are added
+	 */
+	public static final class Builder {
+
+		private final int metricId;
+		private long[] epochDays = new long[16];
+		private int[] scores = new int[16];
+		private int size;
+
+		/**
+		 * @param metricId - ID of the metric
+		 */
+		public Builder(int metricId) {
+			this.metricId = metricId;
+		}
+
+		/**
+		 * @param date - calculation date, may be null
+		 * @param score - score of the metric
+		 * @return this builder
+		 */
+		public Builder add(java.sql.Date date, int score) {
+			return add(date == null ? NO_DATE : date.toLocalDate().toEpochDay(), score);
+		}
+
+		/**
+		 * @param epochDay - calculation day as epoch day
+		 * @param score - score of the metric
+		 * @return this builder
+		 */
+		public Builder add(long epochDay, int score) {
+			if (size == scores.length) {
+				epochDays = Arrays.copyOf(epochDays, size * 2);
+				scores = Arrays.copyOf(scores, size * 2);
+			}
+			epochDays[size] = epochDay;
+			scores[size] = score;
+			size++;
+			return this;
+		}
+
+		/**
+		 * @return the time series with the points added so far
+		 */
+		public MetricTimeSeries build() {
+			return new MetricTimeSeries(metricId, Arrays.copyOf(epochDays, size), Arrays.copyOf(scores, size));
+		}
+	}
+}
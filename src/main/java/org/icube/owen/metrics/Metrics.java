@@ -14,6 +14,8 @@ public class Metrics extends TheBorg {
 	private boolean primary;
 	private Date dateOfCalculation;
 	private String direction; // can have values Positive/Negative/Neutral depending upon change from previous value
+	// set when the metric is not the metric of the requested team but of a population standing in for it e.g. organization
+	private String substitutedBy;
 
 	public int getId() {
 		return id;
@@ -91,6 +93,28 @@ public class Metrics extends TheBorg {
 		this.direction = direction;
 	}
 
+	/**
+	 * @return true if the score is not the score of the requested team, see getSubstitutedBy
+	 */
+	public boolean isDegraded() {
+		return substitutedBy != null;
+	}
+
+	/**
+	 * @return the population whose score is returned instead of the score of the requested team e.g. organization, null if the score
+	 *         is the score of the requested team
+	 */
+	public String getSubstitutedBy() {
+		return substitutedBy;
+	}
+
+	/**
+	 * @param substitutedBy the population whose score is returned instead of the score of the requested team
+	 */
+	public void setSubstitutedBy(String substitutedBy) {
+		this.substitutedBy = substitutedBy;
+	}
+
 	/**
 	 * Calculates the trend for the metric score
 	 * @param currentScore - current score of the metric
@@ -1,6 +1,5 @@
 package org.icube.owen.metrics;
 
-import java.sql.CallableStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
@@ -13,7 +12,8 @@ import java.util.Map;
 
 import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
-import org.icube.owen.filter.Filter;
+import org.icube.owen.filter.TeamSelector;
+import org.icube.owen.helper.CompanyJdbc;
 import org.icube.owen.helper.DatabaseConnectionHelper;
 import org.icube.owen.helper.UtilHelper;
 import org.rosuda.REngine.REXP;
@@ -21,6 +21,7 @@ import org.rosuda.REngine.REXPDouble;
 import org.rosuda.REngine.REXPString;
 import org.rosuda.REngine.RList;
 import org.rosuda.REngine.Rserve.RConnection;
+import org.rosuda.REngine.Rserve.RserveException;
 
 public class MetricsHelper extends TheBorg {
 
@@ -28,102 +29,69 @@ public class MetricsHelper extends TheBorg {
 	 * Retrieves the list of metrics of category team
 	 * @param companyId - Comapny ID 
 	 * @param initiativeTypeId - Initiative type ID
-	 * @param parsedFilterListResult - A map of Filter objects
+	 * @param teamSelector - team selected in the filters
 	 * @param previousScoreNeeded - true/false if previous score is required or not
 	 * @return List of metrics objects
 	 * @throws SQLException - If unable to retrieve the metrics list
 	 */
-	@SuppressWarnings("unchecked")
-	public List<Metrics> getTeamMetricsList(int companyId, int initiativeTypeId, Map<String, Object> parsedFilterListResult,
-			boolean previousScoreNeeded) throws SQLException {
+	public List<Metrics> getTeamMetricsList(int companyId, int initiativeTypeId, TeamSelector teamSelector, boolean previousScoreNeeded)
+			throws SQLException {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		dch.refreshCompanyConnection(companyId);
+		CompanyJdbc jdbc = dch.getCompanyJdbc(companyId);
 		List<Metrics> metricList = new ArrayList<>();
-		org.apache.log4j.Logger.getLogger(MetricsHelper.class).info("HashMap created!!!");
-		Map<Integer, String> primaryMetricMap = new HashMap<>();
-		if (initiativeTypeId > 0) {
-			primaryMetricMap = getPrimaryMetricMap(companyId, initiativeTypeId);
-		}
-		// CallableStatement cstmt = null;
-		if ((int) parsedFilterListResult.get("countAll") == 3) {
+		Map<Integer, String> primaryMetricMap = initiativeTypeId > 0 ? getPrimaryMetricMap(companyId, initiativeTypeId) : new HashMap<>();
+		// the metric catalog is read before the metric values so that no query runs while the result set of another is open
+		Map<Integer, String> metricListMap = teamSelector.getLevel() == TeamSelector.Level.DYNAMIC ? null : getMetricListForCategory(
+				companyId, "Team");
+		if (teamSelector.getLevel() == TeamSelector.Level.ORGANIZATION) {
 			// if all selections are ALL then it is a organizational team metric
 
 			if (previousScoreNeeded) {
-				try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call getOrganizationMetricValueAggregate()}");
-						ResultSet rs = cstmt.executeQuery();) {
-					org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the getOrganizationMetricValueAggregate");
-					metricList = fillMetricsData(companyId, rs, primaryMetricMap, "Team");
-				}
+				org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the getOrganizationMetricValueAggregate");
+				metricList = jdbc.query("{call getOrganizationMetricValueAggregate()}", rs -> fillMetricsData(metricListMap, rs, primaryMetricMap,
+						"Team"));
 
 			} else {
-				try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call getOrganizationMetricValue()}");
-						ResultSet rs = cstmt.executeQuery();) {
-					org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the getOrganizationMetricValue");
-					metricList = fillMetricsData(companyId, rs, primaryMetricMap, "Team");
-				}
+				org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the getOrganizationMetricValue");
+				metricList = jdbc.query("{call getOrganizationMetricValue()}", rs -> fillMetricsData(metricListMap, rs, primaryMetricMap, "Team"));
 
 			}
 			org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calculated metrics for organization : " + metricList.size());
-		} else if ((int) parsedFilterListResult.get("countAll") == 2) {
+		} else if (teamSelector.getLevel() == TeamSelector.Level.DIMENSION) {
 			// if two of the filters are ALL then it is a dimension metric
 			if (previousScoreNeeded) {
-				try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call getDimensionMetricValueAggregate(?,?)}")) {
-					org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the getDimensionMetricValueAggregate");
-					org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug(
-							"Dimension Value ID : " + parsedFilterListResult.get("dimensionValueId"));
-					org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Dimension ID : " + parsedFilterListResult.get("dimensionId"));
-
-					cstmt.setInt(1, (int) parsedFilterListResult.get("dimensionValueId"));
-					cstmt.setInt(2, (int) parsedFilterListResult.get("dimensionId"));
-					try (ResultSet rs = cstmt.executeQuery()) {
-						metricList = fillMetricsData(companyId, rs, primaryMetricMap, "Team");
-					}
-				}
+				org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the getDimensionMetricValueAggregate");
+				org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Dimension Value ID : " + teamSelector.getDimensionValueId());
+				org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Dimension ID : " + teamSelector.getDimensionId());
+				metricList = jdbc.query("{call getDimensionMetricValueAggregate(?,?)}", cstmt -> {
+					cstmt.setInt(1, teamSelector.getDimensionValueId());
+					cstmt.setInt(2, teamSelector.getDimensionId());
+				}, rs -> fillMetricsData(metricListMap, rs, primaryMetricMap, "Team"));
 
 			} else {
-				try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call getDimensionMetricValue(?)}")) {
-					org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the getDimensionMetricValueAggregate");
-					org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug(
-							"Dimension Value ID : " + parsedFilterListResult.get("dimensionValueId"));
-
-					cstmt.setInt(1, (int) parsedFilterListResult.get("dimensionValueId"));
-					try (ResultSet rs = cstmt.executeQuery()) {
-						metricList = fillMetricsData(companyId, rs, primaryMetricMap, "Team");
-					}
-				}
+				org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the getDimensionMetricValueAggregate");
+				org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Dimension Value ID : " + teamSelector.getDimensionValueId());
+				metricList = jdbc.query("{call getDimensionMetricValue(?)}", cstmt -> cstmt.setInt(1, teamSelector.getDimensionValueId()), rs -> fillMetricsData(metricListMap, rs, primaryMetricMap, "Team"));
 
 			}
 
 			org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calculated metrics for dimension : " + metricList.size());
-		} else if ((int) parsedFilterListResult.get("countAll") == 0) {
+		} else if (teamSelector.getLevel() == TeamSelector.Level.CUBE) {
 			// if none of the filters is ALL then it is a cube metric
+			CompanyJdbc.StatementSetter cubeSetter = cstmt -> {
+				cstmt.setInt(1, teamSelector.getFuncId());
+				cstmt.setInt(2, teamSelector.getPosId());
+				cstmt.setInt(3, teamSelector.getZoneId());
+			};
 			if (previousScoreNeeded) {
-				try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call getTeamMetricValueAggregate(?, ?, ?)}")) {
-					org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the getTeamMetricValueAggregate");
-					cstmt.setInt(1, (int) parsedFilterListResult.get("funcId"));
-					cstmt.setInt(2, (int) parsedFilterListResult.get("posId"));
-					cstmt.setInt(3, (int) parsedFilterListResult.get("zoneId"));
-					try (ResultSet rs = cstmt.executeQuery()) {
-						metricList = fillMetricsData(companyId, rs, primaryMetricMap, "Team");
-					}
-				}
+				org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the getTeamMetricValueAggregate");
+				metricList = jdbc.query("{call getTeamMetricValueAggregate(?, ?, ?)}", cubeSetter, rs -> fillMetricsData(metricListMap, rs,
+						primaryMetricMap, "Team"));
 
 			} else {
 				org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the getTeamMetricValue");
-				try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call getTeamMetricValue(?, ?, ?)}")) {
-					cstmt.setInt(1, (int) parsedFilterListResult.get("funcId"));
-					cstmt.setInt(2, (int) parsedFilterListResult.get("posId"));
-					cstmt.setInt(3, (int) parsedFilterListResult.get("zoneId"));
-					try (ResultSet rs = cstmt.executeQuery()) {
-						metricList = fillMetricsData(companyId, rs, primaryMetricMap, "Team");
-					}
-				}
+				metricList = jdbc.query("{call getTeamMetricValue(?, ?, ?)}", cubeSetter, rs -> fillMetricsData(metricListMap, rs, primaryMetricMap,
+						"Team"));
 
 			}
 
@@ -132,7 +100,7 @@ public class MetricsHelper extends TheBorg {
 		} else {
 			// else call metric.R
 			MetricsList ml = new MetricsList();
-			metricList = ml.getInitiativeMetricsForTeam(companyId, 0, (List<Filter>) parsedFilterListResult.get("filterList"));
+			metricList = ml.getInitiativeMetricsForTeam(companyId, 0, teamSelector);
 		}
 
 		return metricList;
@@ -140,34 +108,20 @@ public class MetricsHelper extends TheBorg {
 
 	/**
 	 * Fills the metrics object
-	 * @param initiativeTypeId - Initiative type ID
+	 * Runs inside the result set extractor of the metric value query, so the metric catalog has to be retrieved by the caller
+	 * before that query instead of being queried here
+	 * @param metricListMap - map of metric ID and name from getMetricListForCategory
 	 * @param rs - ResultSet containing the metrics details
 	 * @param primaryMetricMap - Map containing the primary metric ID and name
 	 * @param category - Team/Individual
 	 * @return - List of metrics objects 
 	 * @throws SQLException If unable to fill the metrics object
 	 */
-	public List<Metrics> fillMetricsData(int companyId, ResultSet rs, Map<Integer, String> primaryMetricMap, String category) throws SQLException {
-		Map<Integer, Metrics> masterMetricsMap = getEmptyMetricScoreList(companyId, category, primaryMetricMap);
+	public List<Metrics> fillMetricsData(Map<Integer, String> metricListMap, ResultSet rs, Map<Integer, String> primaryMetricMap, String category)
+			throws SQLException {
+		Map<Integer, Metrics> masterMetricsMap = getEmptyMetricScoreList(metricListMap, primaryMetricMap);
 		List<Metrics> metricsList = new ArrayList<>();
-		while (rs.next()) {
-			Metrics m = new Metrics();
-			m.setId(rs.getInt("metric_id"));
-			m.setName(rs.getString("metric_name"));
-			m.setScore(rs.getInt("current_score"));
-			m.setDateOfCalculation(rs.getDate("calc_time"));
-			m.setCategory(category);
-			if (UtilHelper.hasColumn(rs, "previous_score")) {
-				m.setDirection(m.calculateMetricDirection(rs.getInt("current_score"), rs.getInt("previous_score")));
-			}
-			if (primaryMetricMap != null && primaryMetricMap.containsKey(rs.getInt("metric_id"))) {
-				m.setPrimary(true);
-			} else {
-				m.setPrimary(false);
-			}
-			if (UtilHelper.hasColumn(rs, "average_score")) {
-				m.setAverage(rs.getInt("average_score"));
-			}
+		for (Metrics m : CompanyJdbc.mapRows(rs, columns -> new MetricsRowMapper(columns, primaryMetricMap, category))) {
 			masterMetricsMap.put(m.getId(), m);
 		}
 		metricsList.addAll(masterMetricsMap.values());
@@ -187,45 +141,31 @@ public class MetricsHelper extends TheBorg {
 	 * @param companyId - Company ID
 	 * @param initiativeTypeId - Initiative type ID
 	 * 
-	 * @param parsedFilterListResult - Map of filter objects
+	 * @param teamSelector - team selected in the filters
 	 * @return A list of Metrics object
+	 * @throws SQLException - if the metric list of the category team cannot be retrieved
 	 */
-	@SuppressWarnings("unchecked")
-	public List<Metrics> getDynamicTeamMetrics(int companyId, int initiativeTypeId, Map<String, Object> parsedFilterListResult) {
+	public List<Metrics> getDynamicTeamMetrics(int companyId, int initiativeTypeId, TeamSelector teamSelector) throws SQLException {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
 		List<Metrics> metricsList = new ArrayList<>();
 		Map<Integer, String> metricListForCategory = getMetricListForCategory(companyId, "Team");
-		org.apache.log4j.Logger.getLogger(MetricsHelper.class).info("HashMap created!!!");
 		Map<Integer, String> primaryMetricMap = new HashMap<>();
 		if (initiativeTypeId > 0) {
 			primaryMetricMap = getPrimaryMetricMap(companyId, initiativeTypeId);
 		}
 		try {
 
-			RConnection rCon = dch.getRConn();
+			RConnection rCon = dch.getRConn(companyId);
 			org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("R Connection Available : " + rCon.isConnected());
 			org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Filling up parameters for rscript function");
-			List<Integer> funcList = new ArrayList<>();
-			List<Integer> posList = new ArrayList<>();
-			List<Integer> zoneList = new ArrayList<>();
-			List<Filter> filterList = (List<Filter>) parsedFilterListResult.get("filterList");
-			for (Filter f : filterList) {
-				if (f.getFilterName().equalsIgnoreCase("Function")) {
-					funcList.addAll(f.getFilterValues().keySet());
-				} else if (f.getFilterName().equalsIgnoreCase("Position")) {
-					posList.addAll(f.getFilterValues().keySet());
-				} else if (f.getFilterName().equalsIgnoreCase("Zone")) {
-					zoneList.addAll(f.getFilterValues().keySet());
-				}
-			}
 			rCon.assign("company_id", new int[] { companyId });
-			rCon.assign("funcList", UtilHelper.getIntArrayFromIntegerList(funcList));
-			rCon.assign("posList", UtilHelper.getIntArrayFromIntegerList(posList));
-			rCon.assign("zoneList", UtilHelper.getIntArrayFromIntegerList(zoneList));
+			rCon.assign("funcList", teamSelector.getFuncIds());
+			rCon.assign("posList", teamSelector.getPosIds());
+			rCon.assign("zoneList", teamSelector.getZoneIds());
 
 			org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Calling the actual function in RScript TeamMetric");
-			REXP teamMetricScore = rCon.parseAndEval("try(eval(TeamMetric(company_id, funcList, posList, zoneList)))");
+			REXP teamMetricScore = dch.parseAndEval(companyId, rCon, "try(eval(TeamMetric(company_id, funcList, posList, zoneList)))");
 			if (teamMetricScore.inherits("try-error")) {
 				org.apache.log4j.Logger.getLogger(MetricsHelper.class).error("Error: " + teamMetricScore.asString());
 				dch.releaseRcon();
@@ -242,7 +182,6 @@ public class MetricsHelper extends TheBorg {
 			double[] scoreArray = scoreResult.asDoubles();
 			REXPString dateOfCalculation = (REXPString) result.get("calc_time");
 			String[] dateOfCalculationArray = dateOfCalculation.asStrings();
-			org.apache.log4j.Logger.getLogger(MetricsHelper.class).info("HashMap created!!!");
 			Map<Integer, Integer> currentScoreMap = new HashMap<>();
 			Map<Integer, Integer> previousScoreMap = new HashMap<>();
 			Map<Integer, Date> dateOfCalcMap = new HashMap<>();
@@ -256,6 +195,11 @@ public class MetricsHelper extends TheBorg {
 			metricsList = getMetricsList("Team", metricListForCategory, primaryMetricMap, previousScoreMap, currentScoreMap, dateOfCalcMap);
 			org.apache.log4j.Logger.getLogger(MetricsHelper.class).debug("Successfully calculated metrics for the team");
 
+		} catch (RserveException e) {
+			// R is unavailable, slow or its circuit breaker is open
+			org.apache.log4j.Logger.getLogger(MetricsHelper.class).warn(
+					"R unavailable for team metrics of " + teamSelector + ", serving the last materialized metrics : " + e.getMessage());
+			metricsList = getMaterializedTeamMetrics(companyId, teamSelector, metricListForCategory, primaryMetricMap);
 		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(MetricsHelper.class).error(
 					"Exception while trying to retrieve metrics for category team and type ID " + initiativeTypeId, e);
@@ -265,6 +209,45 @@ public class MetricsHelper extends TheBorg {
 		return metricsList;
 	}
 
+	/**
+	 * Degraded team metrics used while R cannot calculate the metrics of a dynamic team
+	 * Returns the last materialized metrics of the cube of the lowest selected function, position and zone, or of the organization
+	 * if any of the filters is ALL; these are the metrics of another population, so every metric is marked with the population it was
+	 * taken from, see Metrics.getSubstitutedBy, for the UI to show that the scores are not the scores of the team
+	 * @param companyId - Company ID
+	 * @param teamSelector - team selected in the filters
+	 * @param metricListMap - map of metric ID and name of the category team
+	 * @param primaryMetricMap - Map containing the primary metric ID and name
+	 * @return A list of degraded Metrics object, empty if the materialized metrics cannot be retrieved
+	 */
+	List<Metrics> getMaterializedTeamMetrics(int companyId, TeamSelector teamSelector, Map<Integer, String> metricListMap,
+			Map<Integer, String> primaryMetricMap) {
+		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
+		try {
+			CompanyJdbc jdbc = dch.getCompanyJdbc(companyId);
+			List<Metrics> metricsList;
+			String substitutedBy;
+			if (teamSelector.getFuncId() > 0 && teamSelector.getPosId() > 0 && teamSelector.getZoneId() > 0) {
+				metricsList = jdbc.query("{call getTeamMetricValue(?, ?, ?)}", cstmt -> {
+					cstmt.setInt(1, teamSelector.getFuncId());
+					cstmt.setInt(2, teamSelector.getPosId());
+					cstmt.setInt(3, teamSelector.getZoneId());
+				}, rs -> fillMetricsData(metricListMap, rs, primaryMetricMap, "Team"));
+				substitutedBy = "cube " + teamSelector.getFuncId() + "-" + teamSelector.getPosId() + "-" + teamSelector.getZoneId();
+			} else {
+				metricsList = jdbc.query("{call getOrganizationMetricValue()}", rs -> fillMetricsData(metricListMap, rs, primaryMetricMap, "Team"));
+				substitutedBy = "organization";
+			}
+			for (Metrics m : metricsList) {
+				m.setSubstitutedBy(substitutedBy);
+			}
+			return metricsList;
+		} catch (SQLException e) {
+			org.apache.log4j.Logger.getLogger(MetricsHelper.class).error("Exception while retrieving the materialized metrics for " + teamSelector, e);
+			return new ArrayList<>();
+		}
+	}
+
 	/**
 	 * Retrieves the primary metric for the Initiative
 	 * @param companyId - Company ID
@@ -274,17 +257,14 @@ public class MetricsHelper extends TheBorg {
 
 	public Map<Integer, String> getPrimaryMetricMap(int companyId, int initiativeTypeId) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		dch.refreshCompanyConnection(companyId);
-		org.apache.log4j.Logger.getLogger(MetricsHelper.class).info("HashMap created!!!");
 		Map<Integer, String> primaryMetricMap = new HashMap<>();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getInitiativePrimaryMetric(?)}")) {
-			cstmt.setInt(1, initiativeTypeId);
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getInitiativePrimaryMetric(?)}", cstmt -> cstmt.setInt(1, initiativeTypeId), rs -> {
 				while (rs.next()) {
 					primaryMetricMap.put(rs.getInt("metric_id"), rs.getString("metric_name"));
 				}
-			}
+				return primaryMetricMap;
+			});
 
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(MetricsHelper.class).error("Exception while getting the primary metrics for initiative", e);
@@ -297,26 +277,19 @@ public class MetricsHelper extends TheBorg {
 	 * @param companyId - Company ID
 	 * @param category - category for which the metric list is required
 	 * @return - A map containing the metrics for the specified category
+	 * @throws SQLException - if the bulkhead rejects the call or the metric list cannot be retrieved, an empty catalog would be taken for a
+	 *             category without metrics
 	 */
 
-	public Map<Integer, String> getMetricListForCategory(int companyId, String category) {
+	public Map<Integer, String> getMetricListForCategory(int companyId, String category) throws SQLException {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		dch.refreshCompanyConnection(companyId);
-		org.apache.log4j.Logger.getLogger(MetricsHelper.class).info("HashMap created!!!");
 		Map<Integer, String> metricListForCategory = new HashMap<>();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getMetricListForCategory(?)}")) {
-			cstmt.setString(1, category);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				while (rs.next()) {
-					metricListForCategory.put(rs.getInt("metric_id"), rs.getString("metric_name"));
-				}
+		dch.getCompanyJdbc(companyId).query("{call getMetricListForCategory(?)}", cstmt -> cstmt.setString(1, category), rs -> {
+			while (rs.next()) {
+				metricListForCategory.put(rs.getInt("metric_id"), rs.getString("metric_name"));
 			}
-
-		} catch (Exception e) {
-			org.apache.log4j.Logger.getLogger(MetricsHelper.class).error(
-					"Exception while getting the metrics list for initiative of category" + category, e);
-		}
+			return metricListForCategory;
+		});
 		return metricListForCategory;
 	}
 
@@ -360,16 +333,14 @@ public class MetricsHelper extends TheBorg {
 	}
 
 	/**
-	 * Retrieves a metrics list with score set as empty
-	 * @param companyId - Company ID
-	 * @param category - Should be set to Individual
+	 * Retrieves a metrics list with score set as empty from a metric list already retrieved, used when the list is needed for many
+	 * employees
+	 * @param metricListMap - map of metric ID and name from getMetricListForCategory
+	 * @param primaryMetricMap - Map containing the primary metric ID and name, may be null
 	 * @return A map of metric ID and Metrics object
 	 */
-	public Map<Integer, Metrics> getEmptyMetricScoreList(int companyId, String category, Map<Integer, String> primaryMetricMap) {
-		org.apache.log4j.Logger.getLogger(MetricsHelper.class).info("HashMap created!!!");
+	public Map<Integer, Metrics> getEmptyMetricScoreList(Map<Integer, String> metricListMap, Map<Integer, String> primaryMetricMap) {
 		Map<Integer, Metrics> metricsMasterMap = new HashMap<>();
-		MetricsHelper mh = new MetricsHelper();
-		Map<Integer, String> metricListMap = mh.getMetricListForCategory(companyId, category);
 		for (int metric_id : metricListMap.keySet()) {
 			Metrics m = new Metrics();
 			m.setId(metric_id);
@@ -1,7 +1,5 @@
 package org.icube.owen.metrics;
 
-import java.sql.CallableStatement;
-import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -13,8 +11,8 @@ import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
 import org.icube.owen.employee.Employee;
 import org.icube.owen.filter.Filter;
+import org.icube.owen.filter.TeamSelector;
 import org.icube.owen.helper.DatabaseConnectionHelper;
-import org.icube.owen.helper.UtilHelper;
 
 public class MetricsList extends TheBorg {
 
@@ -29,19 +27,24 @@ public class MetricsList extends TheBorg {
 	public List<Metrics> getInitiativeMetricsForTeam(int companyId, int initiativeTypeId, List<Filter> filterList) {
 		org.apache.log4j.Logger.getLogger(MetricsList.class).debug("Entering getInitiativeMetricsForTeam");
 
+		return getInitiativeMetricsForTeam(companyId, initiativeTypeId, TeamSelector.of(filterList));
+	}
+
+	/**
+	 * Retrieves the metrics for the team selected while creating the initiative for team
+	 * @param companyId - Company ID
+	 * @param initiativeTypeId - ID of the kind of initiative
+	 * @param teamSelector - team selected in the filters
+	 * @return list of metrics objects
+	 */
+	public List<Metrics> getInitiativeMetricsForTeam(int companyId, int initiativeTypeId, TeamSelector teamSelector) {
 		List<Metrics> metricsList = new ArrayList<>();
 		MetricsHelper mh = new MetricsHelper();
-		Map<String, Object> parsedFilterListResult = UtilHelper.parseFilterList(filterList);
 		try {
-			if ((int) parsedFilterListResult.get("funcListSize") == 1 && (int) parsedFilterListResult.get("posListSize") == 1
-					&& (int) parsedFilterListResult.get("zoneListSize") == 1) {
-				if ((int) parsedFilterListResult.get("countAll") == 1) {
-					metricsList = mh.getDynamicTeamMetrics(companyId, initiativeTypeId, parsedFilterListResult);
-				} else {
-					metricsList = mh.getTeamMetricsList(companyId, initiativeTypeId, parsedFilterListResult, true);
-				}
+			if (teamSelector.getLevel() == TeamSelector.Level.DYNAMIC) {
+				metricsList = mh.getDynamicTeamMetrics(companyId, initiativeTypeId, teamSelector);
 			} else {
-				metricsList = mh.getDynamicTeamMetrics(companyId, initiativeTypeId, parsedFilterListResult);
+				metricsList = mh.getTeamMetricsList(companyId, initiativeTypeId, teamSelector, true);
 			}
 		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(MetricsList.class).error(
@@ -65,7 +68,6 @@ public class MetricsList extends TheBorg {
 		dch.refreshCompanyConnection(companyId);
 		MetricsHelper mh = new MetricsHelper();
 		List<Metrics> metricsList = new ArrayList<>();
-		org.apache.log4j.Logger.getLogger(MetricsList.class).info("HashMap created!!!");
 		Map<Integer, Integer> currentScoreMap = new HashMap<>();
 		Map<Integer, Integer> previousScoreMap = new HashMap<>();
 		Map<Integer, Date> dateOfCalcMap = new HashMap<>();
@@ -79,19 +81,17 @@ public class MetricsList extends TheBorg {
 				empIdList.add(e.getEmployeeId());
 			}
 
-			try (CallableStatement cs = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-					"{call getIndividualInitiativeMetricValueAggregate(?)}")) {
+			try {
 				org.apache.log4j.Logger.getLogger(MetricsList.class).debug("Calling getIndividualInitiativeMetricValueAggregate");
 
 				int empId = empIdList.get(0);
-				cs.setInt(1, empId);
-				try (ResultSet rs = cs.executeQuery()) {
-
+				dch.getCompanyJdbc(companyId).query("{call getIndividualInitiativeMetricValueAggregate(?)}", cs -> cs.setInt(1, empId), rs -> {
 					while (rs.next()) {
 						previousScoreMap.put(rs.getInt("metric_id"), rs.getInt("previous_score"));
 						currentScoreMap.put(rs.getInt("metric_id"), rs.getInt("current_score"));
 					}
-				}
+					return currentScoreMap;
+				});
 
 			} catch (Exception e) {
 				org.apache.log4j.Logger.getLogger(MetricsList.class).error(
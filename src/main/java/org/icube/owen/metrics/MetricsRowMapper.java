@@ -0,0 +1,61 @@
+package org.icube.owen.metrics;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.icube.owen.helper.ColumnIndex;
+import org.icube.owen.helper.CompanyJdbc;
+
+/**
+ * Maps a row of the metric value procedures to a Metrics object
+ * The previous and average score are optional, the direction and the average are only set when the procedure returns them
+ */
+public class MetricsRowMapper implements CompanyJdbc.RowMapper<Metrics> {
+
+	private final Map<Integer, String> primaryMetricMap;
+	private final String category;
+	private final int metricIdIndex;
+	private final int metricNameIndex;
+	private final int currentScoreIndex;
+	private final int calcTimeIndex;
+	private final int previousScoreIndex;
+	private final int averageScoreIndex;
+
+	/**
+	 * @param columns - columns of the result set
+	 * @param primaryMetricMap - Map containing the primary metric ID and name, may be null
+	 * @param category - Team/Individual
+	 * @throws SQLException - if a mandatory column is missing
+	 */
+	public MetricsRowMapper(ColumnIndex columns, Map<Integer, String> primaryMetricMap, String category) throws SQLException {
+		this.primaryMetricMap = primaryMetricMap;
+		this.category = category;
+		metricIdIndex = columns.get("metric_id");
+		metricNameIndex = columns.get("metric_name");
+		currentScoreIndex = columns.get("current_score");
+		calcTimeIndex = columns.get("calc_time");
+		previousScoreIndex = columns.find("previous_score");
+		averageScoreIndex = columns.find("average_score");
+	}
+
+	@Override
+	public Metrics mapRow(ResultSet rs, int rowNum) throws SQLException {
+		Metrics m = new Metrics();
+		int metricId = rs.getInt(metricIdIndex);
+		int currentScore = rs.getInt(currentScoreIndex);
+		m.setId(metricId);
+		m.setName(rs.getString(metricNameIndex));
+		m.setScore(currentScore);
+		m.setDateOfCalculation(rs.getDate(calcTimeIndex));
+		m.setCategory(category);
+		if (previousScoreIndex > 0) {
+			m.setDirection(m.calculateMetricDirection(currentScore, rs.getInt(previousScoreIndex)));
+		}
+		m.setPrimary(primaryMetricMap != null && primaryMetricMap.containsKey(metricId));
+		if (averageScoreIndex > 0) {
+			m.setAverage(rs.getInt(averageScoreIndex));
+		}
+		return m;
+	}
+}
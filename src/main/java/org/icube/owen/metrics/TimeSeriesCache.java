@@ -0,0 +1,109 @@
+package org.icube.owen.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of the closed buckets of the downsampled time series, per company
+ * A series is identified by a key chosen by the caller e.g. organization, dimension-12 or individual-4, together with the metric,
+ * resolution and aggregation; closed buckets do not change when new scores are calculated, so only the open bucket and the buckets
+ * never requested before are aggregated
+ * The buckets of a company are dropped after the TTL, or when the company has more series than the limit, so that recalculated
+ * history is picked up
+ */
+public class TimeSeriesCache {
+
+	private final long ttlMillis;
+	private final int maxSeriesPerCompany;
+	private final Map<Integer, CompanyBuckets> companyBucketsMap = new ConcurrentHashMap<>();
+
+	// counters
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * @param ttlMillis - time after which the buckets of a company are dropped
+	 * @param maxSeriesPerCompany - number of series cached per company before its buckets are dropped
+	 */
+	public TimeSeriesCache(long ttlMillis, int maxSeriesPerCompany) {
+		this.ttlMillis = ttlMillis;
+		this.maxSeriesPerCompany = Math.max(1, maxSeriesPerCompany);
+	}
+
+	/**
+	 * Windows and downsamples the time series of every metric, reusing the cached closed buckets
+	 * @param companyId - Company ID
+	 * @param seriesKey - identifies the team or employee the time series belong to
+	 * @param seriesMap - map of metric ID and full time series
+	 * @param window - date range, bucket size and aggregation
+	 * @return map of metric ID and downsampled time series
+	 */
+	public Map<Integer, MetricTimeSeries> downsample(int companyId, String seriesKey, Map<Integer, MetricTimeSeries> seriesMap,
+			TimeSeriesWindow window) {
+		requestCount.incrementAndGet();
+		CompanyBuckets companyBuckets = getCompanyBuckets(companyId);
+		Map<Integer, MetricTimeSeries> result = new HashMap<>();
+		for (Map.Entry<Integer, MetricTimeSeries> entry : seriesMap.entrySet()) {
+			String key = seriesKey + "/" + entry.getKey() + "/" + window.getResolution() + "/" + window.getAggregation();
+			Map<Long, Integer> closedBuckets = companyBuckets.series.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+			result.put(entry.getKey(), entry.getValue().downsample(window, closedBuckets));
+		}
+		return result;
+	}
+
+	/**
+	 * Drops the buckets of the company, used after the metrics of the company have been recalculated
+	 * @param companyId - Company ID
+	 */
+	public void invalidate(int companyId) {
+		org.apache.log4j.Logger.getLogger(TimeSeriesCache.class).debug("Invalidating the time series cache for companyId : " + companyId);
+		companyBucketsMap.remove(companyId);
+	}
+
+	/**
+	 * Drops the buckets of every company
+	 */
+	public void invalidateAll() {
+		org.apache.log4j.Logger.getLogger(TimeSeriesCache.class).debug("Invalidating the time series cache for all companies");
+		companyBucketsMap.clear();
+	}
+
+	/**
+	 * @return the number of requests, evictions, cached series and cached buckets
+	 */
+	public Map<String, Long> getStatistics() {
+		long seriesCount = 0;
+		long bucketCount = 0;
+		for (CompanyBuckets companyBuckets : companyBucketsMap.values()) {
+			seriesCount += companyBuckets.series.size();
+			for (Map<Long, Integer> buckets : companyBuckets.series.values()) {
+				bucketCount += buckets.size();
+			}
+		}
+		Map<String, Long> stats = new HashMap<>();
+		stats.put("requestCount", requestCount.get());
+		stats.put("evictionCount", evictionCount.get());
+		stats.put("seriesCount", seriesCount);
+		stats.put("bucketCount", bucketCount);
+		return stats;
+	}
+
+	private CompanyBuckets getCompanyBuckets(int companyId) {
+		return companyBucketsMap.compute(companyId, (k, current) -> {
+			if (current != null && System.currentTimeMillis() - current.createdAt <= ttlMillis && current.series.size() < maxSeriesPerCompany) {
+				return current;
+			}
+			if (current != null) {
+				evictionCount.incrementAndGet();
+			}
+			return new CompanyBuckets();
+		});
+	}
+
+	private static class CompanyBuckets {
+		private final Map<String, Map<Long, Integer>> series = new ConcurrentHashMap<>();
+		private final long createdAt = System.currentTimeMillis();
+	}
+}
@@ -0,0 +1,152 @@
+package org.icube.owen.metrics;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+
+/**
+ * Date range, bucket size and aggregation of a time series request
+ * The range is widened to whole buckets, so that a bucket always aggregates all of its points and can be cached once it is closed
+ */
+public final class TimeSeriesWindow {
+
+	/**
+	 * Size of the buckets the points are aggregated into, a bucket is identified by the epoch day it starts on
+	 */
+	public enum Resolution {
+		DAY, WEEK, MONTH, QUARTER;
+
+		/**
+		 * @param epochDay - day as epoch day
+		 * @return first day of the bucket containing the day, weeks start on monday
+		 */
+		public long bucketStart(long epochDay) {
+			switch (this) {
+			case WEEK:
+				// 1970-01-01 was a thursday
+				return epochDay - Math.floorMod(epochDay + 3, 7);
+			case MONTH:
+				return LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+			case QUARTER:
+				LocalDate date = LocalDate.ofEpochDay(epochDay);
+				return LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1).toEpochDay();
+			default:
+				return epochDay;
+			}
+		}
+
+		/**
+		 * @param bucketStart - first day of a bucket
+		 * @return first day of the following bucket
+		 */
+		public long nextBucketStart(long bucketStart) {
+			switch (this) {
+			case WEEK:
+				return bucketStart + 7;
+			case MONTH:
+				return LocalDate.ofEpochDay(bucketStart).plusMonths(1).toEpochDay();
+			case QUARTER:
+				return LocalDate.ofEpochDay(bucketStart).plusMonths(3).toEpochDay();
+			default:
+				return bucketStart + 1;
+			}
+		}
+	}
+
+	/**
+	 * Value reported for a bucket, AVG is rounded to the nearest score
+	 */
+	public enum Aggregation {
+		MIN, MAX, AVG, LAST
+	}
+
+	// the whole history at its original resolution, the last score of the day is kept
+	public static final TimeSeriesWindow ALL = new TimeSeriesWindow(Long.MIN_VALUE, Long.MAX_VALUE, Resolution.DAY, Aggregation.LAST);
+
+	private final long fromEpochDay;
+	private final long toEpochDay;
+	private final Resolution resolution;
+	private final Aggregation aggregation;
+
+	private TimeSeriesWindow(long fromEpochDay, long toEpochDay, Resolution resolution, Aggregation aggregation) {
+		this.fromEpochDay = fromEpochDay;
+		this.toEpochDay = toEpochDay;
+		this.resolution = resolution;
+		this.aggregation = aggregation;
+	}
+
+	/**
+	 * @param from - first day of the window, null for the start of the history
+	 * @param to - last day of the window, null for the end of the history
+	 * @param resolution - size of the buckets
+	 * @param aggregation - value reported for a bucket
+	 * @return the window widened to whole buckets
+	 */
+	public static TimeSeriesWindow of(LocalDate from, LocalDate to, Resolution resolution, Aggregation aggregation) {
+		if (resolution == null || aggregation == null) {
+			throw new IllegalArgumentException("Resolution and aggregation are required for a time series window");
+		}
+		if (from != null && to != null && from.isAfter(to)) {
+			throw new IllegalArgumentException("Time series window starts after it ends : " + from + " - " + to);
+		}
+		long fromEpochDay = from == null ? Long.MIN_VALUE : resolution.bucketStart(from.toEpochDay());
+		long toEpochDay = to == null ? Long.MAX_VALUE : resolution.nextBucketStart(resolution.bucketStart(to.toEpochDay())) - 1;
+		return new TimeSeriesWindow(fromEpochDay, toEpochDay, resolution, aggregation);
+	}
+
+	/**
+	 * @param epochDay - day as epoch day
+	 * @return true if the day is within the window
+	 */
+	public boolean contains(long epochDay) {
+		return epochDay != MetricTimeSeries.NO_DATE && epochDay >= fromEpochDay && epochDay <= toEpochDay;
+	}
+
+	/**
+	 * @return first day of the window as epoch day, Long.MIN_VALUE if the window is open at the start
+	 */
+	public long getFromEpochDay() {
+		return fromEpochDay;
+	}
+
+	/**
+	 * @return last day of the window as epoch day, Long.MAX_VALUE if the window is open at the end
+	 */
+	public long getToEpochDay() {
+		return toEpochDay;
+	}
+
+	/**
+	 * Binds the window to the start date and end date parameters of a time series procedure, so that only the scores within the window
+	 * are read; an open end of the window is bound as null
+	 * @param cstmt - call of the time series procedure
+	 * @param index - index of the start date parameter, the end date is the next parameter
+	 * @throws SQLException - if the parameters cannot be set
+	 */
+	public void setDateRange(CallableStatement cstmt, int index) throws SQLException {
+		if (fromEpochDay == Long.MIN_VALUE) {
+			cstmt.setNull(index, Types.DATE);
+		} else {
+			cstmt.setDate(index, java.sql.Date.valueOf(LocalDate.ofEpochDay(fromEpochDay)));
+		}
+		if (toEpochDay == Long.MAX_VALUE) {
+			cstmt.setNull(index + 1, Types.DATE);
+		} else {
+			cstmt.setDate(index + 1, java.sql.Date.valueOf(LocalDate.ofEpochDay(toEpochDay)));
+		}
+	}
+
+	public Resolution getResolution() {
+		return resolution;
+	}
+
+	public Aggregation getAggregation() {
+		return aggregation;
+	}
+
+	@Override
+	public String toString() {
+		return "TimeSeriesWindow [from=" + fromEpochDay + ", to=" + toEpochDay + ", resolution=" + resolution + ", aggregation=" + aggregation + "]";
+	}
+}
@@ -40,7 +40,7 @@ public class SlackIntegration extends TheBorg {
 		try {
 			DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 			dch.refreshCompanyConnection(companyId);
-			String url = dch.companyConfigMap.get(companyId).getSlackUrl();
+			String url = dch.getCompanyConfig(companyId).getSlackUrl();
 			if (!url.isEmpty()) {
 				URL obj = new URL(url);
 				HttpsURLConnection con = (HttpsURLConnection) obj.openConnection();
@@ -1,7 +1,5 @@
 package org.icube.owen.survey;
 
-import java.sql.CallableStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -14,6 +12,7 @@ import java.util.Map;
 import org.apache.commons.lang3.time.DateUtils;
 import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
+import org.icube.owen.helper.CompanyJdbc;
 import org.icube.owen.helper.DatabaseConnectionHelper;
 import org.icube.owen.helper.UtilHelper;
 
@@ -27,15 +26,15 @@ public class BatchList extends TheBorg {
 
 	public Map<Integer, String> getFrequencyLabelMap(int companyId) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		org.apache.log4j.Logger.getLogger(BatchList.class).info("HashMap created!!!");
 		Map<Integer, String> getFrequencyLabelMap = new HashMap<>();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getFrequencyList()}");
-				ResultSet rs = cstmt.executeQuery()) {
-			while (rs.next()) {
-				getFrequencyLabelMap.put(rs.getInt(1), rs.getString(2));
-			}
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getFrequencyList()}", rs -> {
+				while (rs.next()) {
+					getFrequencyLabelMap.put(rs.getInt(1), rs.getString(2));
+				}
+				return getFrequencyLabelMap;
+			});
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(BatchList.class).error("Exception while retrieving frequency label map", e);
 		}
@@ -55,42 +54,27 @@ public class BatchList extends TheBorg {
 		List<Batch> batchList = new ArrayList<Batch>();
 		dch.refreshCompanyConnection(companyId);
 
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall("{call getBatch(?)}")) {
-
+		try {
 			// TODO hardcoded with only one batch 1 since the UI doesn't have the functionality to display multiple batches
 
-			cstmt.setInt(1, 1);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				while (rs.next()) {
-					Batch b = new Batch();
-					b.setBatchFrequency(Frequency.get(rs.getInt("freq_id")));
-					b.setStartDate(rs.getDate("start_date"));
-					b.setEndDate(rs.getDate("end_date"));
-					b.setBatchId(rs.getInt("survey_batch_id"));
-					try (CallableStatement cstmt1 = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-							"{call getBatchQuestionList(?)}")) {
-						cstmt1.setInt(1, rs.getInt("survey_batch_id"));
-						try (ResultSet rs1 = cstmt1.executeQuery();) {
-							List<Question> questionList = new ArrayList<Question>();
-							while (rs1.next()) {
-								Question q = new Question();
-								q.setEndDate(UtilHelper.getEndOfDay(rs1.getDate("end_date")));
-								q.setStartDate(UtilHelper.getStartOfDay(rs1.getDate("start_date")));
-								q.setQuestionText(rs1.getString("question"));
-								q.setQuestionId(rs1.getInt("que_id"));
-								q.setResponsePercentage(rs1.getDouble("resp"));
-								q.setQuestionType(QuestionType.values()[rs1.getInt("que_type")]);
-								q.setSurveyBatchId(rs1.getInt("survey_batch_id"));
-								q.setRelationshipTypeId(rs1.getInt("rel_id"));
-								questionList.add(q);
-							}
-							b.setQuestionList(questionList);
-							batchList.add(b);
-						}
-
-					}
-
+			CompanyJdbc jdbc = dch.getCompanyJdbc(companyId);
+			List<Batch> batches = jdbc.query("{call getBatch(?)}", cstmt -> cstmt.setInt(1, 1), (rs, rowNum) -> {
+				Batch b = new Batch();
+				b.setBatchFrequency(Frequency.get(rs.getInt("freq_id")));
+				b.setStartDate(rs.getDate("start_date"));
+				b.setEndDate(rs.getDate("end_date"));
+				b.setBatchId(rs.getInt("survey_batch_id"));
+				return b;
+			});
+			for (Batch b : batches) {
+				List<Question> questionList = jdbc.queryForList("{call getBatchQuestionList(?)}", cstmt1 -> cstmt1.setInt(1, b.getBatchId()),
+						QuestionRowMapper::new);
+				for (Question q : questionList) {
+					q.setEndDate(UtilHelper.getEndOfDay(q.getEndDate()));
+					q.setStartDate(UtilHelper.getStartOfDay(q.getStartDate()));
 				}
+				b.setQuestionList(questionList);
+				batchList.add(b);
 			}
 
 		} catch (SQLException e) {
@@ -125,8 +109,7 @@ public class BatchList extends TheBorg {
 		Collections.sort(questionIdList);
 		Date previousEndDate = null;
 		for (int questionId : questionIdList) {
-			Question q = new Question();
-			q = q.getQuestion(companyId, questionId);
+			Question q = new Question().getQuestion(companyId, questionId);
 
 			if (q.getQuestionStatus(q.getStartDate(), q.getEndDate()).equalsIgnoreCase("completed")) {
 				org.apache.log4j.Logger.getLogger(BatchList.class).debug(
@@ -136,13 +119,12 @@ public class BatchList extends TheBorg {
 
 				boolean isCurrent = q.getQuestionStatus(q.getStartDate(), q.getEndDate()).equalsIgnoreCase("current");
 				previousEndDate = updateQuestion(q, changedFrequency, isCurrent, previousEndDate);
-				try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call updateQuestionDate(?, ?, ?)}")) {
-
-					cstmt.setInt(1, questionId);
-					cstmt.setDate(2, UtilHelper.convertJavaDateToSqlDate(q.getStartDate()));
-					cstmt.setDate(3, UtilHelper.convertJavaDateToSqlDate(q.getEndDate()));
-					cstmt.executeQuery();
+				try {
+					dch.getCompanyJdbc(companyId).callProcedure("{call updateQuestionDate(?, ?, ?)}", cstmt -> {
+						cstmt.setInt(1, questionId);
+						cstmt.setDate(2, UtilHelper.convertJavaDateToSqlDate(q.getStartDate()));
+						cstmt.setDate(3, UtilHelper.convertJavaDateToSqlDate(q.getEndDate()));
+					});
 					org.apache.log4j.Logger.getLogger(BatchList.class).debug(
 							"Successfully changed frequency for question " + questionId + " in batch " + batch.getBatchId());
 				} catch (SQLException e) {
@@ -153,14 +135,14 @@ public class BatchList extends TheBorg {
 
 		}
 		// update the batch once all questions have been successfully updated
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call updateBatch(?, ?, ?, ?)}")) {
-
-			cstmt.setInt(1, batch.getBatchId());
-			cstmt.setInt(2, changedFrequency.getValue());
-			cstmt.setDate(3, UtilHelper.convertJavaDateToSqlDate(UtilHelper.getStartOfDay(batch.getStartDate())));
-			cstmt.setDate(4, UtilHelper.convertJavaDateToSqlDate(UtilHelper.getEndOfDay(previousEndDate)));
-			cstmt.executeQuery();
+		Date batchEndDate = previousEndDate;
+		try {
+			dch.getCompanyJdbc(companyId).callProcedure("{call updateBatch(?, ?, ?, ?)}", cstmt -> {
+				cstmt.setInt(1, batch.getBatchId());
+				cstmt.setInt(2, changedFrequency.getValue());
+				cstmt.setDate(3, UtilHelper.convertJavaDateToSqlDate(UtilHelper.getStartOfDay(batch.getStartDate())));
+				cstmt.setDate(4, UtilHelper.convertJavaDateToSqlDate(UtilHelper.getEndOfDay(batchEndDate)));
+			});
 			org.apache.log4j.Logger.getLogger(BatchList.class).debug("Successfully changed frequency for batch " + batch.getBatchId());
 			isChanged = true;
 
@@ -1,9 +1,7 @@
 package org.icube.owen.survey;
 
-import java.sql.CallableStatement;
-import java.sql.ResultSet;
+import java.sql.Connection;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -20,7 +18,12 @@ import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
 import org.icube.owen.employee.Employee;
 import org.icube.owen.employee.EmployeeList;
+import org.icube.owen.explore.GraphSnapshot;
+import org.icube.owen.helper.ColumnIndex;
 import org.icube.owen.helper.CompanyConfig;
+import org.icube.owen.helper.CompanyJdbc;
+import org.icube.owen.helper.CypherRegistry;
+import org.icube.owen.helper.CypherTemplate;
 import org.icube.owen.helper.DatabaseConnectionHelper;
 import org.icube.owen.helper.UtilHelper;
 import org.json.JSONArray;
@@ -29,6 +32,13 @@ import org.json.JSONObject;
 
 public class Question extends TheBorg {
 
+	// connections of the employee for the relationship of the question, used for the smart list
+	private static final CypherTemplate FIRST_CONNECTIONS = CypherRegistry.register("question.firstConnections",
+			"match (a:Employee {emp_id:{empId}})-[r]->(b:Employee) where type(r) = {relType} return b.emp_id as emp_id,r.weight as weight");
+	private static final CypherTemplate SECOND_CONNECTIONS = CypherRegistry.register("question.secondConnections",
+			"match (a:Employee {emp_id:{empId}})-[r]->(b:Employee)-[r1]->(c:Employee) where type(r) = {relType} and type(r1) = {relType} "
+					+ "return b.emp_id,c.emp_id as emp_id,r.weight as weight");
+
 	private Date startDate;
 	private Date endDate;
 	private String questionText;
@@ -113,19 +123,11 @@ public class Question extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		Question q = new Question();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall("{call getQuestion(?)}")) {
-			cstmt.setInt(1, questionId);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				while (rs.next()) {
-					q.setEndDate(rs.getDate("end_date"));
-					q.setStartDate(rs.getDate("start_date"));
-					q.setQuestionText(rs.getString("question"));
-					q.setQuestionId(rs.getInt("que_id"));
-					q.setResponsePercentage(rs.getDouble("resp"));
-					q.setQuestionType(QuestionType.values()[rs.getInt("que_type")]);
-					q.setSurveyBatchId(rs.getInt("survey_batch_id"));
-					q.setRelationshipTypeId(rs.getInt("rel_id"));
-				}
+		try {
+			List<Question> questionList = dch.getCompanyJdbc(companyId).queryForList("{call getQuestion(?)}", cstmt -> cstmt.setInt(1,
+					questionId), QuestionRowMapper::new);
+			if (!questionList.isEmpty()) {
+				q = questionList.get(questionList.size() - 1);
 			}
 
 		} catch (SQLException e) {
@@ -161,14 +163,10 @@ public class Question extends TheBorg {
 
 	public Map<Date, Integer> getResponse(int companyId, Question q) {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		org.apache.log4j.Logger.getLogger(Question.class).info("HashMap created!!!");
 		Map<Date, Integer> responseMap = new HashMap<>();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getResponseData(?)}")) {
-			cstmt.setInt(1, q.getQuestionId());
-			try (ResultSet rs = cstmt.executeQuery()) {
-
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getResponseData(?)}", cstmt -> cstmt.setInt(1, q.getQuestionId()), rs -> {
 				if (rs.next()) {
 					org.apache.log4j.Logger.getLogger(Question.class).debug("Response available for question : " + q.getQuestionId());
 					do {
@@ -184,7 +182,8 @@ public class Question extends TheBorg {
 						responseMap.put(d, 0);
 					}
 				}
-			}
+				return responseMap;
+			});
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(Question.class).error("Exception while retrieving response data", e);
 		}
@@ -237,28 +236,23 @@ public class Question extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		List<Question> questionList = new ArrayList<>();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getEmpQuestionList(?,?)}")) {
-			cstmt.setInt(1, employeeId);
-			Date date = Date.from(Instant.now());
-			cstmt.setDate(2, UtilHelper.convertJavaDateToSqlDate(date));
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			dch.getCompanyJdbc(companyId).query("{call getEmpQuestionList(?,?)}", cstmt -> {
+				cstmt.setInt(1, employeeId);
+				Date date = Date.from(Instant.now());
+				cstmt.setDate(2, UtilHelper.convertJavaDateToSqlDate(date));
+			}, rs -> {
+				QuestionRowMapper mapper = new QuestionRowMapper(ColumnIndex.of(rs));
 				while (rs.next()) {
-					Question q = new Question();
-					q.setQuestionId(rs.getInt("que_id"));
-					q.setQuestionText(rs.getString("question"));
-					q.setStartDate(rs.getDate("start_date"));
-					q.setEndDate(rs.getDate("end_date"));
-					q.setRelationshipTypeId(rs.getInt("rel_id"));
-					q.setSurveyBatchId(rs.getInt("survey_batch_id"));
-					q.setQuestionType(QuestionType.get(rs.getInt("que_type")));
+					Question q = mapper.mapRow(rs, questionList.size());
 					q.setResponsePercentage(0);
 					org.apache.log4j.Logger.getLogger(Question.class).debug(
 							"Question for employee : " + q.getQuestionId() + " - " + q.getQuestionText() + " - " + q.getRelationshipTypeId());
 
 					questionList.add(q);
 				}
-			}
+				return questionList;
+			});
 
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(Question.class).error("Exception while retrieving the questionList", e);
@@ -271,20 +265,18 @@ public class Question extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		JSONArray arr = new JSONArray();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getEmpQuestionList(?,?)}")) {
-
-			cstmt.setInt(1, employeeId);
-			Date date = Date.from(Instant.now());
-			cstmt.setDate(2, UtilHelper.convertJavaDateToSqlDate(date));
-			try (ResultSet rs = cstmt.executeQuery()) {
-				while (rs.next()) {
-					JSONObject json = new JSONObject();
-					json.put("questionId", rs.getInt("que_id"));
-					json.put("questionText", rs.getString("question"));
-					json.put("questionType", QuestionType.get(rs.getInt("que_type")));
-					arr.put(json);
-				}
+		try {
+			List<Question> empQuestionList = dch.getCompanyJdbc(companyId).queryForList("{call getEmpQuestionList(?,?)}", cstmt -> {
+				cstmt.setInt(1, employeeId);
+				Date date = Date.from(Instant.now());
+				cstmt.setDate(2, UtilHelper.convertJavaDateToSqlDate(date));
+			}, QuestionRowMapper::new);
+			for (Question q : empQuestionList) {
+				JSONObject json = new JSONObject();
+				json.put("questionId", q.getQuestionId());
+				json.put("questionText", q.getQuestionText());
+				json.put("questionType", q.getQuestionType());
+				arr.put(json);
 			}
 
 		} catch (SQLException | JSONException e) {
@@ -307,23 +299,15 @@ public class Question extends TheBorg {
 		dch.refreshCompanyConnection(companyId);
 		try {
 
-			CompanyConfig ccObj = dch.companyConfigMap.get(companyId);
+			CompanyConfig ccObj = dch.getCompanyConfig(companyId);
 			if (ccObj.getSmartList().equals("all_employee")) {
 				org.apache.log4j.Logger.getLogger(Question.class).debug("Calling getEmployeeMasterList");
 				employeeList.addAll(el.getEmployeeMasterList(companyId));
 			} else if (ccObj.getSmartList().equals("cube")) {
-				try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-						"{call getListColleague(?)}")) {
-					cstmt.setString("array", String.valueOf(employeeId));
-					try (ResultSet rs = cstmt.executeQuery()) {
-						List<Integer> empIdList = new ArrayList<>();
-						while (rs.next()) {
-							empIdList.add(rs.getInt("emp_id"));
-						}
-						Employee e = new Employee();
-						employeeList = e.get(companyId, empIdList);
-					}
-				}
+				List<Integer> empIdList = dch.getCompanyJdbc(companyId).query("{call getListColleague(?)}", cstmt -> cstmt.setString("array", String
+						.valueOf(employeeId)), (rs, rowNum) -> rs.getInt("emp_id"));
+				Employee e = new Employee();
+				employeeList = e.get(companyId, empIdList);
 
 			} else {
 				Employee e = new Employee();
@@ -345,76 +329,65 @@ public class Question extends TheBorg {
 		List<Integer> empIdList = new ArrayList<>();
 
 		// get relationship name
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getRelationNameFromId(?)}")) {
-			cstmt.setInt("relid", q.getRelationshipTypeId());
-			String relationName = "";
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			CompanyJdbc jdbc = dch.getCompanyJdbc(companyId);
+			String relationName = jdbc.query("{call getRelationNameFromId(?)}", cstmt -> cstmt.setInt("relid", q.getRelationshipTypeId()), rs -> {
+				String relName = "";
 				while (rs.next()) {
-					relationName = rs.getString("rel_name");
+					relName = rs.getString("rel_name");
 				}
-			}
+				return relName;
+			});
 
-			// get first connections
-			String firstConnectionQuery = "match (a:Employee {emp_id:" + employeeId + "})-[r:" + relationName
-					+ "]->(b:Employee) return b.emp_id as emp_id,r.weight as weight";
+			Map<String, Object> params = new HashMap<>();
+			params.put("empId", employeeId);
+			params.put("relType", relationName);
 			Map<Integer, Double> connectionsMap = new HashMap<>();
-			try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement();
-					ResultSet res = stmt.executeQuery(firstConnectionQuery)) {
-				while (res.next()) {
-					connectionsMap.put(res.getInt("emp_id"), res.getDouble("weight"));
-				}
-			}
-
-			// if first connections aren't empty fetch the second connections
-			if (!connectionsMap.isEmpty()) {
-				String secondConnectionQuery = "match (a:Employee {emp_id:" + employeeId + "})-[r:" + relationName + "]->(b:Employee)-[:"
-						+ relationName + "]->(c:Employee) return b.emp_id,c.emp_id as emp_id,r.weight as weight";
-
-				try (Statement stmt = dch.companyConnectionMap.get(companyId).getNeoConnection().createStatement();
-						ResultSet res = stmt.executeQuery(secondConnectionQuery)) {
-					while (res.next()) {
-						int empId = res.getInt("emp_id");
-						double weight = res.getDouble("weight");
-						if (!connectionsMap.containsKey(empId)) {
-							connectionsMap.put(empId, weight);
-						} else {
-							if (connectionsMap.get(empId) < weight) {
-								connectionsMap.put(empId, weight);
-							}
+			GraphSnapshot snapshot = dch.getGraphSnapshot(companyId);
+			if (snapshot != null) {
+				connectionsMap.putAll(snapshot.getConnectionWeights(employeeId, relationName));
+			} else {
+				try (Connection neoConn = dch.getNeoConnection(companyId)) {
+					// get first connections
+					FIRST_CONNECTIONS.query(neoConn, params, res -> {
+						while (res.next()) {
+							connectionsMap.put(res.getInt("emp_id"), res.getDouble("weight"));
 						}
+						return connectionsMap;
+					});
+
+					// if first connections aren't empty fetch the second connections
+					if (!connectionsMap.isEmpty()) {
+						SECOND_CONNECTIONS.query(neoConn, params, res -> {
+							while (res.next()) {
+								int empId = res.getInt("emp_id");
+								double weight = res.getDouble("weight");
+								if (!connectionsMap.containsKey(empId)) {
+									connectionsMap.put(empId, weight);
+								} else {
+									if (connectionsMap.get(empId) < weight) {
+										connectionsMap.put(empId, weight);
+									}
+								}
+							}
+							return connectionsMap;
+						});
 					}
 				}
 			}
 
 			// get inactive employee list
-			List<Integer> inactiveEmpList = new ArrayList<>();
-			try (CallableStatement cstmt1 = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-					"{call getInactiveEmp()}");
-					ResultSet rs1 = cstmt1.executeQuery()) {
-				while (rs1.next()) {
-					inactiveEmpList.add(rs1.getInt("empid"));
-				}
-			}
+			List<Integer> inactiveEmpList = jdbc.query("{call getInactiveEmp()}", (rs1, rowNum) -> rs1.getInt("empid"));
 
 			// remove inactive employee & signed in employee ID from connections
 			connectionsMap.keySet().removeAll(inactiveEmpList);
 			connectionsMap.keySet().remove(employeeId);
 
 			// get cube employees
-			List<Integer> cubeEmpIdList = new ArrayList<>();
-			try (CallableStatement cstmt1 = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-					"{call getListColleague(?)}")) {
-				cstmt1.setString("array", String.valueOf(employeeId));
-				try (ResultSet rs = cstmt1.executeQuery()) {
-
-					while (rs.next()) {
-						cubeEmpIdList.add(rs.getInt("emp_id"));
-					}
-					cubeEmpIdList.removeAll(connectionsMap.keySet());
-					cubeEmpIdList.remove(Integer.valueOf(employeeId));
-				}
-			}
+			List<Integer> cubeEmpIdList = jdbc.query("{call getListColleague(?)}", cstmt1 -> cstmt1.setString("array", String.valueOf(employeeId)), (
+					rs, rowNum) -> rs.getInt("emp_id"));
+			cubeEmpIdList.removeAll(connectionsMap.keySet());
+			cubeEmpIdList.remove(Integer.valueOf(employeeId));
 
 			// sort map by weight
 			Map<Integer, Double> sortedConnectionsMap = sortByValue(connectionsMap);
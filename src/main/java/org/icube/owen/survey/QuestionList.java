@@ -1,7 +1,5 @@
 package org.icube.owen.survey;
 
-import java.sql.CallableStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -23,22 +21,8 @@ public class QuestionList extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		List<Question> questionList = new ArrayList<>();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection()
-				.prepareCall("{call getQuestionList()}");
-				ResultSet rs = cstmt.executeQuery()) {
-
-			while (rs.next()) {
-				Question q = new Question();
-				q.setQuestionId(rs.getInt("que_id"));
-				q.setQuestionText(rs.getString("question"));
-				q.setQuestionType(QuestionType.values()[rs.getInt("que_type")]);
-				q.setSurveyBatchId(rs.getInt("survey_batch_id"));
-				q.setStartDate(rs.getDate("start_date"));
-				q.setEndDate(rs.getDate("end_date"));
-				q.setResponsePercentage(rs.getDouble("resp"));
-				q.setRelationshipTypeId(rs.getInt("rel_id"));
-				questionList.add(q);
-			}
+		try {
+			questionList = dch.getCompanyJdbc(companyId).queryForList("{call getQuestionList()}", null, QuestionRowMapper::new);
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(QuestionList.class).error("Exception while retrieving the list of questions", e);
 		}
@@ -56,24 +40,9 @@ public class QuestionList extends TheBorg {
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		List<Question> questionList = new ArrayList<Question>();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call getBatchQuestionList(?)}")) {
-
-			cstmt.setInt(1, batchId);
-			try (ResultSet rs = cstmt.executeQuery()) {
-				while (rs.next()) {
-					Question q = new Question();
-					q.setEndDate(rs.getDate("end_date"));
-					q.setStartDate(rs.getDate("start_date"));
-					q.setQuestionText(rs.getString("question"));
-					q.setQuestionId(rs.getInt("que_id"));
-					q.setResponsePercentage(rs.getDouble("resp"));
-					q.setQuestionType(QuestionType.values()[rs.getInt("que_type")]);
-					q.setSurveyBatchId(rs.getInt("survey_batch_id"));
-					q.setRelationshipTypeId(rs.getInt("rel_id"));
-					questionList.add(q);
-				}
-			}
+		try {
+			questionList = dch.getCompanyJdbc(companyId).queryForList("{call getBatchQuestionList(?)}", cstmt -> cstmt.setInt(1, batchId),
+					QuestionRowMapper::new);
 
 		} catch (SQLException e) {
 			org.apache.log4j.Logger.getLogger(QuestionList.class).error("Exception while retrieving the list of questions for batch ID" + batchId, e);
@@ -0,0 +1,66 @@
+package org.icube.owen.survey;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.icube.owen.helper.ColumnIndex;
+import org.icube.owen.helper.CompanyJdbc;
+
+/**
+ * Maps a row of the question procedures to a Question object
+ * The procedures return different subsets of the question columns, only the columns present in the result set are set
+ */
+public class QuestionRowMapper implements CompanyJdbc.RowMapper<Question> {
+
+	private final int queIdIndex;
+	private final int questionIndex;
+	private final int startDateIndex;
+	private final int endDateIndex;
+	private final int respIndex;
+	private final int queTypeIndex;
+	private final int surveyBatchIdIndex;
+	private final int relIdIndex;
+
+	/**
+	 * @param columns - columns of the result set
+	 * @throws SQLException - if the question ID column is missing
+	 */
+	public QuestionRowMapper(ColumnIndex columns) throws SQLException {
+		queIdIndex = columns.get("que_id");
+		questionIndex = columns.find("question");
+		startDateIndex = columns.find("start_date");
+		endDateIndex = columns.find("end_date");
+		respIndex = columns.find("resp");
+		queTypeIndex = columns.find("que_type");
+		surveyBatchIdIndex = columns.find("survey_batch_id");
+		relIdIndex = columns.find("rel_id");
+	}
+
+	@Override
+	public Question mapRow(ResultSet rs, int rowNum) throws SQLException {
+		Question q = new Question();
+		q.setQuestionId(rs.getInt(queIdIndex));
+		if (questionIndex > 0) {
+			q.setQuestionText(rs.getString(questionIndex));
+		}
+		if (startDateIndex > 0) {
+			q.setStartDate(rs.getDate(startDateIndex));
+		}
+		if (endDateIndex > 0) {
+			q.setEndDate(rs.getDate(endDateIndex));
+		}
+		if (respIndex > 0) {
+			q.setResponsePercentage(rs.getDouble(respIndex));
+		}
+		if (queTypeIndex > 0) {
+			q.setQuestionType(QuestionType.get(rs.getInt(queTypeIndex)));
+		}
+		if (surveyBatchIdIndex > 0) {
+			q.setSurveyBatchId(rs.getInt(surveyBatchIdIndex));
+		}
+		if (relIdIndex > 0) {
+			q.setRelationshipTypeId(rs.getInt(relIdIndex));
+		}
+		return q;
+	}
+}
@@ -1,7 +1,5 @@
 package org.icube.owen.survey;
 
-import java.sql.CallableStatement;
-import java.sql.ResultSet;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
@@ -10,6 +8,7 @@ import java.util.Map;
 import org.icube.owen.ObjectFactory;
 import org.icube.owen.TheBorg;
 import org.icube.owen.employee.Employee;
+import org.icube.owen.helper.CompanyJdbc;
 import org.icube.owen.helper.DatabaseConnectionHelper;
 import org.icube.owen.helper.UtilHelper;
 
@@ -62,22 +61,23 @@ public class ResponseHelper extends TheBorg {
 	public boolean saveMeResponse(int companyId, int employeeId, int questionId, int responseValue) {
 		boolean responseSaved = false;
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call insertMeResponse(?,?,?,?,?)}")) {
-			cstmt.setInt("empid", employeeId);
-			cstmt.setInt("queid", questionId);
-			cstmt.setTimestamp("responsetime", UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
-			cstmt.setInt("score", responseValue);
-			cstmt.setString("feedbck", "");
-			org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug("SQL statement for question : " + questionId + " : " + cstmt.toString());
-			try (ResultSet rs = cstmt.executeQuery()) {
+		try {
+			responseSaved = dch.getCompanyJdbc(companyId).query("{call insertMeResponse(?,?,?,?,?)}", cstmt -> {
+				cstmt.setInt("empid", employeeId);
+				cstmt.setInt("queid", questionId);
+				cstmt.setTimestamp("responsetime", UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
+				cstmt.setInt("score", responseValue);
+				cstmt.setString("feedbck", "");
+				org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug("SQL statement for question : " + questionId + " : " + cstmt.toString());
+			}, rs -> {
 				if (rs.next()) {
 					org.apache.log4j.Logger.getLogger(ResponseHelper.class)
 							.debug("RS statement for question : " + questionId + " : " + rs.toString());
-					responseSaved = true;
 					org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug("Successfully saved the response for : " + questionId);
+					return true;
 				}
-			}
+				return false;
+			});
 
 		} catch (Exception e) {
 			org.apache.log4j.Logger.getLogger(ResponseHelper.class).error("Exception while saving the response for question : " + questionId, e);
@@ -101,26 +101,26 @@ public class ResponseHelper extends TheBorg {
 				"Entering the saveWeResponse for companyId " + companyId + " employeeId " + employeeId);
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call insertWeResponse(?,?,?,?,?)}")) {
-
+		try {
 			org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug(
 					"Saving the response in the db for questionId " + questionId + "target employee " + targetEmployee + " with the response "
 							+ responseValue);
 
-			cstmt.setInt("empid", employeeId);
-			cstmt.setInt("queid", questionId);
-			cstmt.setTimestamp("responsetime", UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
-			cstmt.setInt("targetid", targetEmployee);
-			cstmt.setInt("wt", responseValue);
-			org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug("SQL statement for question : " + questionId + " : " + cstmt.toString());
-			try (ResultSet rs = cstmt.executeQuery()) {
+			responseSaved = dch.getCompanyJdbc(companyId).query("{call insertWeResponse(?,?,?,?,?)}", cstmt -> {
+				cstmt.setInt("empid", employeeId);
+				cstmt.setInt("queid", questionId);
+				cstmt.setTimestamp("responsetime", UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
+				cstmt.setInt("targetid", targetEmployee);
+				cstmt.setInt("wt", responseValue);
+				org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug("SQL statement for question : " + questionId + " : " + cstmt.toString());
+			}, rs -> {
 				if (rs.next()) {
 					org.apache.log4j.Logger.getLogger(ResponseHelper.class)
 							.debug("RS statement for question : " + questionId + " : " + rs.toString());
-					responseSaved = true;
+					return true;
 				}
-			}
+				return false;
+			});
 
 			org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug(
 					"Successfully saved the response for questionId " + questionId + "target employee " + targetEmployee + " with the response "
@@ -149,46 +149,49 @@ public class ResponseHelper extends TheBorg {
 		int count = 0;
 		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
 		dch.refreshCompanyConnection(companyId);
-		try (CallableStatement cstmt1 = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-				"{call isWeQuestionAnswered(?,?)}")) {
-			cstmt1.setInt("empid", employeeId);
-			cstmt1.setInt("queid", questionId);
-			try (ResultSet res = cstmt1.executeQuery()) {
+		try {
+			CompanyJdbc jdbc = dch.getCompanyJdbc(companyId);
+			boolean answered = jdbc.query("{call isWeQuestionAnswered(?,?)}", cstmt1 -> {
+				cstmt1.setInt("empid", employeeId);
+				cstmt1.setInt("queid", questionId);
+			}, res -> {
 				res.next();
-				if (!res.getBoolean("op")) {
+				return res.getBoolean("op");
+			});
+			if (!answered) {
 
-					for (Employee e : employeeRating.keySet()) {
-						try (CallableStatement cstmt2 = dch.companyConnectionMap.get(companyId).getDataSource().getConnection().prepareCall(
-								"{call insertWeResponse(?,?,?,?,?)}")) {
-							org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug(
-									"Saving the response in the db for questionId " + questionId + "target employee " + e.getEmployeeId()
-											+ " with the response " + employeeRating.get(e));
-
-							cstmt2.setInt("empid", employeeId);
-							cstmt2.setInt("queid", questionId);
-							cstmt2.setTimestamp("responsetime", UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
-							cstmt2.setInt("targetid", e.getEmployeeId());
-							cstmt2.setInt("wt", employeeRating.get(e));
+				for (Employee e : employeeRating.keySet()) {
+					org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug(
+							"Saving the response in the db for questionId " + questionId + "target employee " + e.getEmployeeId()
+									+ " with the response " + employeeRating.get(e));
+					boolean saved = jdbc.query("{call insertWeResponse(?,?,?,?,?)}", cstmt2 -> {
+						cstmt2.setInt("empid", employeeId);
+						cstmt2.setInt("queid", questionId);
+						cstmt2.setTimestamp("responsetime", UtilHelper.convertJavaDateToSqlTimestamp(Date.from(Instant.now())));
+						cstmt2.setInt("targetid", e.getEmployeeId());
+						cstmt2.setInt("wt", employeeRating.get(e));
+						org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug(
+								"SQL statement for question : " + questionId + " : " + cstmt2.toString());
+					}, rs -> {
+						if (rs.next()) {
 							org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug(
-									"SQL statement for question : " + questionId + " : " + cstmt2.toString());
-							try (ResultSet rs = cstmt2.executeQuery()) {
-								if (rs.next()) {
-									org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug(
-											"RS statement for question : " + questionId + " : " + rs.toString());
-									responseSaved = true;
-									count++;
-								}
-							}
+									"RS statement for question : " + questionId + " : " + rs.toString());
+							return true;
 						}
+						return false;
+					});
+					if (saved) {
+						responseSaved = true;
+						count++;
 					}
-					if (employeeRating.size() == count) {
-						org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug("Successfully saved the response for : " + questionId);
-					}
-
-				} else {
-					org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug(
-							"Response is already stored for question ID :" + questionId + " for employee ID : " + employeeId);
 				}
+				if (employeeRating.size() == count) {
+					org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug("Successfully saved the response for : " + questionId);
+				}
+
+			} else {
+				org.apache.log4j.Logger.getLogger(ResponseHelper.class).debug(
+						"Response is already stored for question ID :" + questionId + " for employee ID : " + employeeId);
 			}
 
 		} catch (Exception e) {
@@ -8,12 +8,17 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({ org.icube.owen.test.dashboard.AlertTest.class, org.icube.owen.test.dashboard.HrDashboardHelperTest.class,
 		org.icube.owen.test.dashboard.IndividualDashboardHelperTest.class, org.icube.owen.test.employee.EmployeeHelperTest.class,
 		org.icube.owen.test.employee.EmployeeListTest.class, org.icube.owen.test.employee.EmployeeTest.class,
-		org.icube.owen.test.explore.ExploreHelperTest.class, org.icube.owen.test.individual.LoginTest.class,
+		org.icube.owen.test.explore.ExploreHelperTest.class, org.icube.owen.test.explore.GraphSnapshotTest.class, org.icube.owen.test.explore.ForceLayoutTest.class,
+		org.icube.owen.test.individual.LoginTest.class,
 		org.icube.owen.test.initiative.InitiativeHelperTest.class, org.icube.owen.test.initiative.InitiativeListTest.class,
 		org.icube.owen.test.initiative.InitiativeTest.class, org.icube.owen.test.metrics.MetricsListTest.class,
+		org.icube.owen.test.metrics.MetricTimeSeriesTest.class, org.icube.owen.test.metrics.TimeSeriesWindowTest.class,
 		org.icube.owen.test.survey.BatchListTest.class, org.icube.owen.test.survey.QuestionListTest.class,
 		org.icube.owen.test.survey.QuestionTest.class, org.icube.owen.test.survey.ResponseHelperTest.class,
-		org.icube.owen.test.filter.FilterListTest.class})
+		org.icube.owen.test.filter.FilterListTest.class,
+		org.icube.owen.test.filter.TeamSelectorTest.class, org.icube.owen.test.helper.CircuitBreakerTest.class,
+		org.icube.owen.test.helper.BulkheadTest.class, org.icube.owen.test.helper.LatencyHistogramTest.class,
+		org.icube.owen.test.helper.ColumnIndexTest.class, org.icube.owen.test.helper.UtilHelperTest.class})
 public class AllTests {
 
 }
@@ -1,23 +1,35 @@
 package org.icube.owen.test.explore;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.icube.owen.ObjectFactory;
 import org.icube.owen.employee.Employee;
+import org.icube.owen.explore.ClusterEdge;
+import org.icube.owen.explore.ClusterNode;
 import org.icube.owen.explore.Edge;
 import org.icube.owen.explore.ExploreHelper;
 import org.icube.owen.explore.MeResponseAnalysis;
+import org.icube.owen.explore.NetworkDiagramConsumer;
 import org.icube.owen.explore.Node;
 import org.icube.owen.filter.Filter;
 import org.icube.owen.filter.FilterList;
+import org.icube.owen.helper.ConfigSnapshot;
+import org.icube.owen.helper.CypherRegistry;
+import org.icube.owen.helper.DatabaseConnectionHelper;
 import org.icube.owen.metrics.Metrics;
 import org.icube.owen.test.TestHelper;
 import org.junit.Test;
@@ -383,4 +395,175 @@ public class ExploreHelperTest {
 
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testGetClusteredTeamNetworkDiagram() {
+		Map<String, List<Filter>> teamListMap = getTeamListMap();
+		Map<Integer, String> relationshipTypeMap = eh.getRelationshipTypeMap(companyId);
+		Map<String, List<?>> fullResult = eh.getTeamNetworkDiagram(companyId, teamListMap, relationshipTypeMap);
+		List<Edge> fullEdgeList = (List<Edge>) fullResult.get("edgeList");
+		Map<String, List<?>> result = eh.getClusteredTeamNetworkDiagram(companyId, teamListMap, relationshipTypeMap);
+		List<ClusterNode> clusterList = (List<ClusterNode>) result.get("clusterList");
+		List<ClusterEdge> clusterEdgeList = (List<ClusterEdge>) result.get("clusterEdgeList");
+
+		if (clusterList.isEmpty()) {
+			// the teams are within network_diagram_max_nodes, the diagram is returned as is
+			assertEquals(fullResult.get("nodeList").size(), result.get("nodeList").size());
+			assertEquals(fullEdgeList.size(), result.get("edgeList").size());
+			assertTrue(clusterEdgeList.isEmpty());
+			return;
+		}
+
+		assertTrue(result.get("nodeList").isEmpty());
+		assertTrue(result.get("edgeList").isEmpty());
+		int size = 0;
+		for (ClusterNode cluster : clusterList) {
+			assertNotNull(cluster.getClusterId());
+			assertNotNull(cluster.getTeamName());
+			assertTrue(cluster.getSize() > 0);
+			size += cluster.getSize();
+			// every cluster can be expanded into its employees
+			assertEquals(cluster.getSize(), eh.getClusterNetworkDiagram(companyId, cluster, relationshipTypeMap).get("nodeList").size());
+		}
+		assertEquals(fullResult.get("nodeList").size(), size);
+
+		// the two teams do not share employees, so every relationship is summed into exactly one cluster edge
+		int count = 0;
+		double weight = 0, fullWeight = 0;
+		for (ClusterEdge e : clusterEdgeList) {
+			assertNotNull(e.getRelationshipType());
+			count += e.getCount();
+			weight += e.getWeight();
+		}
+		for (Edge e : fullEdgeList) {
+			fullWeight += e.getWeight();
+		}
+		assertEquals(fullEdgeList.size(), count);
+		assertEquals(fullWeight, weight, 1e-6);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testStreamTeamNetworkDiagram() {
+		Map<String, List<Filter>> teamListMap = getTeamListMap();
+		Map<Integer, String> relationshipTypeMap = eh.getRelationshipTypeMap(companyId);
+		int chunkSize = ConfigSnapshot.get().getInt("network_diagram_edge_chunk_size", 1000);
+		Set<Integer> empIdSet = new HashSet<>();
+		Set<String> edgeSet = new HashSet<>();
+		List<Integer> chunkSizeList = new ArrayList<>();
+
+		boolean complete = eh.streamTeamNetworkDiagram(companyId, teamListMap, relationshipTypeMap, new NetworkDiagramConsumer() {
+			@Override
+			public void acceptNode(Node node) {
+				// all the nodes come before the first chunk of edges
+				assertTrue(chunkSizeList.isEmpty());
+				empIdSet.add(node.getEmployeeId());
+			}
+
+			@Override
+			public void acceptEdges(List<Edge> edgeChunk) {
+				chunkSizeList.add(edgeChunk.size());
+				for (Edge e : edgeChunk) {
+					edgeSet.add(getEdgeKey(e));
+				}
+			}
+		});
+		assertTrue(complete);
+		for (int i = 0; i < chunkSizeList.size(); i++) {
+			// only the last chunk may be smaller
+			assertTrue(chunkSizeList.get(i) == chunkSize || (i == chunkSizeList.size() - 1 && chunkSizeList.get(i) > 0
+					&& chunkSizeList.get(i) <= chunkSize));
+		}
+
+		// the streamed diagram is the same as the diagram returned at once
+		Map<String, List<?>> result = eh.getTeamNetworkDiagram(companyId, teamListMap, relationshipTypeMap);
+		Set<Integer> expectedEmpIdSet = new HashSet<>();
+		for (Node n : (List<Node>) result.get("nodeList")) {
+			expectedEmpIdSet.add(n.getEmployeeId());
+		}
+		Set<String> expectedEdgeSet = new HashSet<>();
+		for (Edge e : (List<Edge>) result.get("edgeList")) {
+			expectedEdgeSet.add(getEdgeKey(e));
+		}
+		assertEquals(expectedEmpIdSet, empIdSet);
+		assertEquals(expectedEdgeSet, edgeSet);
+	}
+
+	/**
+	 * The edges of a list longer than edge_query_chunk_size are the same as those of a single explore.edges query; with
+	 * graph_snapshot_enabled=false they are read in chunks from neo4j, otherwise from the graph snapshot
+	 */
+	@Test
+	public void testGetEdgesInChunks() throws Exception {
+		Map<Integer, String> relationshipTypeMap = eh.getRelationshipTypeMap(companyId);
+		int chunkSize = Math.max(1, ConfigSnapshot.get().getInt("edge_query_chunk_size", 500));
+		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
+		dch.refreshCompanyConnection(companyId);
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
+			List<Integer> empIdList = new ArrayList<>();
+			try (Statement stmt = neoConn.createStatement(); ResultSet res = stmt.executeQuery("match (a:Employee) return a.emp_id as emp_id")) {
+				while (res.next()) {
+					empIdList.add(res.getInt("emp_id"));
+				}
+			}
+			// a list one employee over the chunk size, and the whole company
+			List<List<Integer>> empIdLists = new ArrayList<>();
+			empIdLists.add(empIdList.subList(0, Math.min(empIdList.size(), chunkSize + 1)));
+			empIdLists.add(empIdList);
+			for (List<Integer> empIds : empIdLists) {
+				Map<String, Object> params = new HashMap<>();
+				params.put("empIds", empIds);
+				params.put("relTypes", new ArrayList<>(relationshipTypeMap.values()));
+				Set<String> expectedEdgeSet = CypherRegistry.get("explore.edges").query(neoConn, params, res -> {
+					Set<String> result = new HashSet<>();
+					while (res.next()) {
+						result.add(res.getInt("from") + "-" + res.getInt("to") + "-" + res.getString("rel_type") + "-" + res.getDouble("weight"));
+					}
+					return result;
+				});
+
+				List<Edge> edgeList = eh.getEdges(companyId, empIds, relationshipTypeMap);
+				Set<String> edgeSet = new HashSet<>();
+				for (Edge e : edgeList) {
+					edgeSet.add(getEdgeKey(e));
+				}
+				// no relationship is returned twice by two chunks
+				assertEquals(edgeList.size(), edgeSet.size());
+				assertEquals(expectedEdgeSet, edgeSet);
+			}
+		}
+	}
+
+	private String getEdgeKey(Edge e) {
+		return e.getFromEmployeId() + "-" + e.getToEmployeeId() + "-" + e.getRelationshipType() + "-" + e.getWeight();
+	}
+
+	/**
+	 * Two teams of the Region position, one in zone INTG1 and one in zone INTG2
+	 */
+	private Map<String, List<Filter>> getTeamListMap() {
+		Map<String, List<Filter>> teamListMap = new HashMap<>();
+		teamListMap.put("team1", getFilterList(8, "INTG1"));
+		teamListMap.put("team2", getFilterList(9, "INTG2"));
+		return teamListMap;
+	}
+
+	private List<Filter> getFilterList(int zoneId, String zoneName) {
+		List<Filter> filterList = new ArrayList<>();
+		filterList.add(getFilter(1, "Function", 0, "All"));
+		filterList.add(getFilter(2, "Position", 4, "Region"));
+		filterList.add(getFilter(3, "Zone", zoneId, zoneName));
+		return filterList;
+	}
+
+	private Filter getFilter(int filterId, String filterName, int valueId, String valueName) {
+		Filter f = new Filter();
+		f.setFilterId(filterId);
+		f.setFilterName(filterName);
+		Map<Integer, String> filterValuesMap = new HashMap<>();
+		filterValuesMap.put(valueId, valueName);
+		f.setFilterValues(filterValuesMap);
+		return f;
+	}
+
 }
@@ -0,0 +1,131 @@
+package org.icube.owen.test.explore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.icube.owen.explore.Edge;
+import org.icube.owen.explore.ForceLayout;
+import org.icube.owen.explore.Node;
+import org.icube.owen.helper.TenantExecutor;
+import org.junit.After;
+import org.junit.Test;
+
+public class ForceLayoutTest {
+
+	TenantExecutor executor = new TenantExecutor("ForceLayoutTest", 4, 16);
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	private static List<Node> buildNodes(int count) {
+		List<Node> nodeList = new ArrayList<>();
+		for (int i = 1; i <= count; i++) {
+			Node n = new Node();
+			n.setEmployeeId(i);
+			nodeList.add(n);
+		}
+		return nodeList;
+	}
+
+	private static Edge buildEdge(int from, int to) {
+		Edge e = new Edge();
+		e.setFromEmployeId(from);
+		e.setToEmployeeId(to);
+		e.setRelationshipType("innovation");
+		e.setWeight(1);
+		return e;
+	}
+
+	/**
+	 * Two groups of ten employees, every employee connected to every other employee of the group
+	 */
+	private static List<Edge> buildGroupEdges() {
+		List<Edge> edgeList = new ArrayList<>();
+		for (int i = 1; i <= 20; i++) {
+			for (int j = i + 1; j <= 20; j++) {
+				if ((i - 1) / 10 == (j - 1) / 10) {
+					edgeList.add(buildEdge(i, j));
+				}
+			}
+		}
+		return edgeList;
+	}
+
+	private static double distance(Node a, Node b) {
+		return Math.hypot(a.getX() - b.getX(), a.getY() - b.getY());
+	}
+
+	@Test
+	public void testLayoutWithinBounds() {
+		List<Node> nodeList = buildNodes(20);
+		List<Node> result = new ForceLayout(50, 4, executor).layout(nodeList, buildGroupEdges());
+		assertEquals(20, result.size());
+		double minX = ForceLayout.SIZE, maxX = 0, minY = ForceLayout.SIZE, maxY = 0;
+		for (int i = 0; i < result.size(); i++) {
+			Node n = result.get(i);
+			assertEquals(nodeList.get(i).getEmployeeId(), n.getEmployeeId());
+			assertTrue(n.getX() >= 0 && n.getX() <= ForceLayout.SIZE);
+			assertTrue(n.getY() >= 0 && n.getY() <= ForceLayout.SIZE);
+			minX = Math.min(minX, n.getX());
+			maxX = Math.max(maxX, n.getX());
+			minY = Math.min(minY, n.getY());
+			maxY = Math.max(maxY, n.getY());
+			// the nodes passed in are not modified
+			assertEquals(0, nodeList.get(i).getX(), 0);
+		}
+		// the longer side of the diagram is scaled to the whole square
+		assertEquals(ForceLayout.SIZE, Math.max(maxX - minX, maxY - minY), 1e-6);
+	}
+
+	@Test
+	public void testConnectedNodesAreCloser() {
+		List<Node> result = new ForceLayout(100, 2, executor).layout(buildNodes(20), buildGroupEdges());
+		double within = 0, between = 0;
+		int withinCount = 0, betweenCount = 0;
+		for (int i = 0; i < 20; i++) {
+			for (int j = i + 1; j < 20; j++) {
+				if (i / 10 == j / 10) {
+					within += distance(result.get(i), result.get(j));
+					withinCount++;
+				} else {
+					between += distance(result.get(i), result.get(j));
+					betweenCount++;
+				}
+			}
+		}
+		assertTrue(within / withinCount < between / betweenCount);
+	}
+
+	@Test
+	public void testLayoutIsRepeatable() {
+		List<Node> nodeList = buildNodes(200);
+		List<Edge> edgeList = new ArrayList<>();
+		for (int i = 1; i < 200; i++) {
+			edgeList.add(buildEdge(i, i + 1));
+		}
+		List<Node> first = new ForceLayout(30, 1, executor).layout(nodeList, edgeList);
+		List<Node> second = new ForceLayout(30, 4, executor).layout(nodeList, edgeList);
+		// the slices run on a shut down executor are computed on the calling thread
+		executor.shutdown();
+		List<Node> third = new ForceLayout(30, 4, executor).layout(nodeList, edgeList);
+		for (int i = 0; i < nodeList.size(); i++) {
+			assertEquals(first.get(i).getX(), second.get(i).getX(), 0);
+			assertEquals(first.get(i).getY(), second.get(i).getY(), 0);
+			assertEquals(first.get(i).getX(), third.get(i).getX(), 0);
+			assertEquals(first.get(i).getY(), third.get(i).getY(), 0);
+		}
+	}
+
+	@Test
+	public void testLayoutSmallDiagrams() {
+		assertTrue(new ForceLayout(10, 2, executor).layout(new ArrayList<>(), new ArrayList<>()).isEmpty());
+		List<Node> result = new ForceLayout(10, 2, executor).layout(buildNodes(1), new ArrayList<>());
+		assertEquals(ForceLayout.SIZE / 2, result.get(0).getX(), 0);
+		assertEquals(ForceLayout.SIZE / 2, result.get(0).getY(), 0);
+	}
+}
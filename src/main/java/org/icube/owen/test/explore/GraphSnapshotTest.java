@@ -0,0 +1,189 @@
+package org.icube.owen.test.explore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.icube.owen.ObjectFactory;
+import org.icube.owen.explore.Edge;
+import org.icube.owen.explore.ExploreHelper;
+import org.icube.owen.explore.GraphSnapshot;
+import org.icube.owen.explore.Node;
+import org.icube.owen.helper.CypherRegistry;
+import org.icube.owen.helper.DatabaseConnectionHelper;
+import org.icube.owen.survey.Question;
+import org.junit.Test;
+
+public class GraphSnapshotTest {
+
+	// registers the explore and question Cypher templates the snapshot is compared with
+	ExploreHelper eh = (ExploreHelper) ObjectFactory.getInstance("org.icube.owen.explore.ExploreHelper");
+	Question q = (Question) ObjectFactory.getInstance("org.icube.owen.survey.Question");
+	int companyId = 2;
+
+	/**
+	 * 1 -> 2 (3), 1 -> 3 (0.5), 2 -> 3 (2), 2 -> 1 (5), 3 -> 4 (1), 1 -> 1 (1), 5 -> 7 (4) of type innovation and 1 -> 5 (2) of type
+	 * mentor; employee 7 has no function, position or zone
+	 */
+	private GraphSnapshot buildSnapshot() {
+		GraphSnapshot.Builder builder = new GraphSnapshot.Builder();
+		for (int i = 6; i >= 1; i--) {
+			builder.addEmployee(i, "First" + i, "Last" + i, "Function" + i, "Position" + i, "Zone" + i);
+		}
+		builder.addEmployee(7, "First7", "Last7", null, null, null);
+		builder.addRelationship(1, 2, "innovation", 3);
+		builder.addRelationship(1, 3, "innovation", 0.5);
+		builder.addRelationship(2, 3, "innovation", 2);
+		builder.addRelationship(2, 1, "innovation", 5);
+		builder.addRelationship(3, 4, "innovation", 1);
+		builder.addRelationship(1, 1, "innovation", 1);
+		builder.addRelationship(5, 7, "innovation", 4);
+		builder.addRelationship(1, 5, "mentor", 2);
+		return builder.build();
+	}
+
+	@Test
+	public void testBuild() {
+		GraphSnapshot snapshot = buildSnapshot();
+		assertEquals(7, snapshot.size());
+		assertEquals(8, snapshot.getRelationshipCount());
+		assertEquals(new HashSet<>(Arrays.asList("innovation", "mentor")), new HashSet<>(snapshot.getRelationshipTypes()));
+		assertTrue(snapshot.getBuiltAt() > 0);
+	}
+
+	@Test
+	public void testBuildWithoutRelationships() {
+		GraphSnapshot snapshot = new GraphSnapshot.Builder().addEmployee(1, "First1", "Last1", "Function1", "Position1", "Zone1").build();
+		assertEquals(1, snapshot.size());
+		assertEquals(0, snapshot.getRelationshipCount());
+		assertTrue(snapshot.getEdges(Arrays.asList(1), Arrays.asList("innovation")).isEmpty());
+		assertTrue(snapshot.getConnectionWeights(1, "innovation").isEmpty());
+	}
+
+	@Test
+	public void testGetEdges() {
+		GraphSnapshot snapshot = buildSnapshot();
+		// the self relationship of 1 and the relationships leaving the employees are not returned
+		assertEquals(new HashSet<>(Arrays.asList("1-2-innovation-3.0", "1-3-innovation-0.5", "2-3-innovation-2.0", "2-1-innovation-5.0")),
+				edgeStrings(snapshot.getEdges(Arrays.asList(1, 2, 3), Arrays.asList("innovation"))));
+		assertEquals(new HashSet<>(Arrays.asList("1-5-mentor-2.0", "5-7-innovation-4.0")), edgeStrings(snapshot.getEdges(Arrays.asList(1, 5,
+				7), Arrays.asList("innovation", "mentor"))));
+		assertTrue(snapshot.getEdges(Arrays.asList(1, 2, 3), Arrays.asList("learning")).isEmpty());
+		assertTrue(snapshot.getEdges(Arrays.asList(99), Arrays.asList("innovation")).isEmpty());
+	}
+
+	@Test
+	public void testVisitEdges() {
+		GraphSnapshot snapshot = buildSnapshot();
+		List<Edge> edgeList = new ArrayList<>();
+		snapshot.visitEdges(new int[] { 2, 3, 99 }, Arrays.asList("innovation", "innovation"), edgeList::add);
+		assertEquals(Collections.singleton("2-3-innovation-2.0"), edgeStrings(edgeList));
+		assertEquals(1, edgeList.size());
+	}
+
+	@Test
+	public void testGetIndividualNetwork() {
+		GraphSnapshot snapshot = buildSnapshot();
+		List<Node> nodeList = snapshot.getIndividualNetwork(Arrays.asList(1), Arrays.asList("innovation"), true);
+		assertEquals(Arrays.asList("1-0", "2-1", "3-1", "4-2"), nodeStrings(nodeList));
+		assertEquals("First1", nodeList.get(0).getFirstName());
+
+		// 7 has no function, position or zone, 5 is a second degree connection of itself through 1 and is only returned once
+		nodeList = snapshot.getIndividualNetwork(Arrays.asList(5), Arrays.asList("innovation", "mentor"), false);
+		assertEquals(Arrays.asList("5-0", "1-1", "2-2", "3-2"), nodeStrings(nodeList));
+		assertNull(nodeList.get(0).getFirstName());
+	}
+
+	@Test
+	public void testGetConnectionWeights() {
+		GraphSnapshot snapshot = buildSnapshot();
+		Map<Integer, Double> expected = new HashMap<>();
+		// second connections take the largest weight of the first relationship of their paths
+		expected.put(1, 3.0);
+		expected.put(2, 3.0);
+		expected.put(3, 3.0);
+		expected.put(4, 0.5);
+		assertEquals(expected, snapshot.getConnectionWeights(1, "innovation"));
+		assertEquals(Collections.singletonMap(5, 2.0), snapshot.getConnectionWeights(1, "mentor"));
+		assertTrue(snapshot.getConnectionWeights(7, "innovation").isEmpty());
+		assertTrue(snapshot.getConnectionWeights(99, "innovation").isEmpty());
+	}
+
+	@Test
+	public void testSameResultAsCypher() throws Exception {
+		DatabaseConnectionHelper dch = ObjectFactory.getDBHelper();
+		try (Connection neoConn = dch.getNeoConnection(companyId)) {
+			GraphSnapshot snapshot = GraphSnapshot.load(neoConn);
+			List<Integer> empIdList = new ArrayList<>();
+			try (Statement stmt = neoConn.createStatement(); ResultSet res = stmt.executeQuery("match (a:Employee) return a.emp_id as emp_id")) {
+				while (res.next()) {
+					empIdList.add(res.getInt("emp_id"));
+				}
+			}
+			assertTrue(!empIdList.isEmpty());
+			List<String> relTypes = snapshot.getRelationshipTypes();
+
+			Map<String, Object> params = new HashMap<>();
+			params.put("empIds", empIdList);
+			params.put("relTypes", relTypes);
+			Set<String> cypherEdges = CypherRegistry.get("explore.edges").query(neoConn, params, res -> {
+				Set<String> result = new HashSet<>();
+				while (res.next()) {
+					result.add(res.getInt("from") + "-" + res.getInt("to") + "-" + res.getString("rel_type") + "-" + res.getDouble("weight"));
+				}
+				return result;
+			});
+			assertEquals(cypherEdges, edgeStrings(snapshot.getEdges(empIdList, relTypes)));
+
+			for (String relType : relTypes) {
+				int empId = empIdList.get(0);
+				Map<String, Object> connectionParams = new HashMap<>();
+				connectionParams.put("empId", empId);
+				connectionParams.put("relType", relType);
+				Map<Integer, Double> connectionsMap = CypherRegistry.get("question.firstConnections").query(neoConn, connectionParams,
+						res -> {
+							Map<Integer, Double> result = new HashMap<>();
+							while (res.next()) {
+								result.put(res.getInt("emp_id"), res.getDouble("weight"));
+							}
+							return result;
+						});
+				CypherRegistry.get("question.secondConnections").query(neoConn, connectionParams, res -> {
+					while (res.next()) {
+						connectionsMap.merge(res.getInt("emp_id"), res.getDouble("weight"), Math::max);
+					}
+					return connectionsMap;
+				});
+				assertEquals(connectionsMap, snapshot.getConnectionWeights(empId, relType));
+			}
+		}
+	}
+
+	private static Set<String> edgeStrings(List<Edge> edgeList) {
+		Set<String> result = new HashSet<>();
+		for (Edge e : edgeList) {
+			result.add(e.getFromEmployeId() + "-" + e.getToEmployeeId() + "-" + e.getRelationshipType() + "-" + e.getWeight());
+		}
+		return result;
+	}
+
+	private static List<String> nodeStrings(List<Node> nodeList) {
+		List<String> result = new ArrayList<>();
+		for (Node n : nodeList) {
+			result.add(n.getEmployeeId() + "-" + n.getConnectedness());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,107 @@
+package org.icube.owen.test.filter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.icube.owen.filter.Filter;
+import org.icube.owen.filter.TeamSelector;
+import org.icube.owen.filter.TeamSelector.Level;
+import org.junit.Test;
+
+public class TeamSelectorTest {
+
+	private static Filter buildFilter(int filterId, String filterName, int... valueIds) {
+		Filter filter = new Filter();
+		filter.setFilterId(filterId);
+		filter.setFilterName(filterName);
+		Map<Integer, String> filterValuesMap = new LinkedHashMap<>();
+		for (int valueId : valueIds) {
+			filterValuesMap.put(valueId, valueId == 0 ? "All" : filterName + valueId);
+		}
+		filter.setFilterValues(filterValuesMap);
+		return filter;
+	}
+
+	private static List<Filter> buildFilterList(int[] funcIds, int[] posIds, int[] zoneIds) {
+		List<Filter> filterList = new ArrayList<>();
+		filterList.add(buildFilter(1, "Function", funcIds));
+		filterList.add(buildFilter(2, "Position", posIds));
+		filterList.add(buildFilter(3, "Zone", zoneIds));
+		return filterList;
+	}
+
+	@Test
+	public void testOrganization() {
+		assertSame(TeamSelector.ALL, TeamSelector.of(null));
+		assertSame(TeamSelector.ALL, TeamSelector.of(new ArrayList<>()));
+		TeamSelector ts = TeamSelector.of(buildFilterList(new int[] { 0 }, new int[] { 0 }, new int[] { 0 }));
+		assertEquals(Level.ORGANIZATION, ts.getLevel());
+		assertEquals(0, ts.getFuncId());
+		assertEquals(0, ts.getPosId());
+		assertEquals(0, ts.getZoneId());
+	}
+
+	@Test
+	public void testDimension() {
+		TeamSelector ts = TeamSelector.of(buildFilterList(new int[] { 0 }, new int[] { 6 }, new int[] { 0 }));
+		assertEquals(Level.DIMENSION, ts.getLevel());
+		assertEquals(2, ts.getDimensionId());
+		assertEquals(6, ts.getDimensionValueId());
+		assertEquals(0, ts.getFuncId());
+		assertEquals(6, ts.getPosId());
+	}
+
+	@Test
+	public void testCube() {
+		TeamSelector ts = TeamSelector.of(buildFilterList(new int[] { 2 }, new int[] { 6 }, new int[] { 9 }));
+		assertEquals(Level.CUBE, ts.getLevel());
+		assertEquals(2, ts.getFuncId());
+		assertEquals(6, ts.getPosId());
+		assertEquals(9, ts.getZoneId());
+	}
+
+	@Test
+	public void testDynamic() {
+		// only one of the filters is ALL
+		assertEquals(Level.DYNAMIC, TeamSelector.of(buildFilterList(new int[] { 2 }, new int[] { 6 }, new int[] { 0 })).getLevel());
+
+		// more than one value of a filter
+		TeamSelector ts = TeamSelector.of(buildFilterList(new int[] { 5, 2, 3 }, new int[] { 6 }, new int[] { 9 }));
+		assertEquals(Level.DYNAMIC, ts.getLevel());
+		assertEquals(2, ts.getFuncId());
+		assertArrayEquals(new int[] { 2, 3, 5 }, ts.getFuncIds());
+		assertArrayEquals(new int[] { 6 }, ts.getPosIds());
+
+		// the returned IDs are copies
+		ts.getFuncIds()[0] = 7;
+		assertArrayEquals(new int[] { 2, 3, 5 }, ts.getFuncIds());
+
+		// a missing filter has no value
+		List<Filter> filterList = buildFilterList(new int[] { 2 }, new int[] { 6 }, new int[] { 9 });
+		filterList.remove(2);
+		assertEquals(Level.DYNAMIC, TeamSelector.of(filterList).getLevel());
+	}
+
+	@Test
+	public void testEquals() {
+		TeamSelector ts = TeamSelector.of(buildFilterList(new int[] { 5, 2 }, new int[] { 6 }, new int[] { 9 }));
+		// the order of the values and of the filters does not matter
+		List<Filter> filterList = buildFilterList(new int[] { 2, 5 }, new int[] { 6 }, new int[] { 9 });
+		filterList = new ArrayList<>(Arrays.asList(filterList.get(2), filterList.get(0), filterList.get(1)));
+		TeamSelector other = TeamSelector.of(filterList);
+		assertEquals(ts, other);
+		assertEquals(ts.hashCode(), other.hashCode());
+
+		assertFalse(ts.equals(TeamSelector.of(buildFilterList(new int[] { 2 }, new int[] { 6 }, new int[] { 9 }))));
+		assertFalse(ts.equals(TeamSelector.of(buildFilterList(new int[] { 5, 2 }, new int[] { 6 }, new int[] { 8 }))));
+		assertFalse(ts.equals(TeamSelector.ALL));
+	}
+}
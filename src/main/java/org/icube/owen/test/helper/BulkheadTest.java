@@ -0,0 +1,85 @@
+package org.icube.owen.test.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.icube.owen.helper.Bulkhead;
+import org.junit.Test;
+
+public class BulkheadTest {
+
+	@Test
+	public void testTryAcquire() {
+		Bulkhead bulkhead = new Bulkhead("test", 2, 0, 0);
+		assertTrue(bulkhead.tryAcquire());
+		assertTrue(bulkhead.tryAcquire());
+		assertEquals(2, bulkhead.getActiveCount());
+		assertFalse(bulkhead.tryAcquire());
+		bulkhead.release();
+		assertEquals(1, bulkhead.getActiveCount());
+		assertTrue(bulkhead.tryAcquire());
+	}
+
+	@Test
+	public void testAcquireWithoutQueue() {
+		Bulkhead bulkhead = new Bulkhead("test", 1, 0, 1000);
+		assertTrue(bulkhead.acquire());
+		// nothing may wait, so the call is rejected at once
+		long start = System.currentTimeMillis();
+		assertFalse(bulkhead.acquire());
+		assertTrue(System.currentTimeMillis() - start < 500);
+		assertEquals(Long.valueOf(1), bulkhead.getStatistics().get("queueFullCount"));
+		assertEquals(0, bulkhead.getQueueDepth());
+	}
+
+	@Test
+	public void testAcquireTimesOut() {
+		Bulkhead bulkhead = new Bulkhead("test", 1, 1, 50);
+		assertTrue(bulkhead.acquire());
+		assertFalse(bulkhead.acquire());
+		assertEquals(Long.valueOf(1), bulkhead.getStatistics().get("timeoutCount"));
+		assertEquals(Long.valueOf(1), bulkhead.getStatistics().get("rejectedCount"));
+		assertEquals(0, bulkhead.getQueueDepth());
+	}
+
+	@Test
+	public void testAcquireWaitsForRelease() throws InterruptedException {
+		Bulkhead bulkhead = new Bulkhead("test", 1, 1, 5000);
+		assertTrue(bulkhead.acquire());
+		Thread releaser = new Thread(() -> {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			bulkhead.release();
+		});
+		releaser.start();
+		assertTrue(bulkhead.acquire());
+		releaser.join();
+		assertEquals(1, bulkhead.getActiveCount());
+		assertEquals(Long.valueOf(2), bulkhead.getStatistics().get("acquiredCount"));
+	}
+
+	@Test
+	public void testQueueFull() throws InterruptedException {
+		Bulkhead bulkhead = new Bulkhead("test", 1, 1, 5000);
+		assertTrue(bulkhead.acquire());
+		AtomicBoolean waiterAcquired = new AtomicBoolean();
+		Thread waiter = new Thread(() -> waiterAcquired.set(bulkhead.acquire()));
+		waiter.start();
+		while (bulkhead.getQueueDepth() == 0) {
+			Thread.sleep(5);
+		}
+		// the one place in the queue is taken
+		assertFalse(bulkhead.acquire());
+		assertEquals(Long.valueOf(1), bulkhead.getStatistics().get("queueFullCount"));
+		bulkhead.release();
+		waiter.join();
+		assertTrue(waiterAcquired.get());
+		assertEquals(Long.valueOf(1), bulkhead.getStatistics().get("maxQueueDepth"));
+	}
+}
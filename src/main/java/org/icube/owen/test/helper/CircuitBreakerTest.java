@@ -0,0 +1,84 @@
+package org.icube.owen.test.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.icube.owen.helper.CircuitBreaker;
+import org.icube.owen.helper.CircuitBreaker.State;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+	private static final long OPEN_MILLIS = 100;
+
+	private static CircuitBreaker openBreaker() {
+		CircuitBreaker cb = new CircuitBreaker("test", 3, OPEN_MILLIS);
+		for (int i = 0; i < 3; i++) {
+			cb.recordFailure();
+		}
+		return cb;
+	}
+
+	@Test
+	public void testStaysClosedBelowThreshold() {
+		CircuitBreaker cb = new CircuitBreaker("test", 3, OPEN_MILLIS);
+		cb.recordFailure();
+		cb.recordFailure();
+		assertEquals(State.CLOSED, cb.getState());
+		// a success resets the consecutive failures
+		cb.recordSuccess();
+		cb.recordFailure();
+		cb.recordFailure();
+		assertEquals(State.CLOSED, cb.getState());
+		assertTrue(cb.allowRequest());
+		assertEquals(Long.valueOf(0), cb.getStatistics().get("openedCount"));
+	}
+
+	@Test
+	public void testOpensAtThreshold() {
+		CircuitBreaker cb = openBreaker();
+		assertEquals(State.OPEN, cb.getState());
+		assertFalse(cb.allowRequest());
+		assertFalse(cb.allowRequest());
+		assertEquals(Long.valueOf(2), cb.getStatistics().get("rejectedCount"));
+		assertEquals(Long.valueOf(1), cb.getStatistics().get("openedCount"));
+	}
+
+	@Test
+	public void testHalfOpenTrialSucceeds() throws InterruptedException {
+		CircuitBreaker cb = openBreaker();
+		Thread.sleep(OPEN_MILLIS + 20);
+		assertTrue(cb.allowRequest());
+		assertEquals(State.HALF_OPEN, cb.getState());
+		// only one trial call at a time
+		assertFalse(cb.allowRequest());
+		cb.recordSuccess();
+		assertEquals(State.CLOSED, cb.getState());
+		assertTrue(cb.allowRequest());
+	}
+
+	@Test
+	public void testHalfOpenTrialFails() throws InterruptedException {
+		CircuitBreaker cb = openBreaker();
+		Thread.sleep(OPEN_MILLIS + 20);
+		assertTrue(cb.allowRequest());
+		// a single failure of the trial opens the breaker again
+		cb.recordFailure();
+		assertEquals(State.OPEN, cb.getState());
+		assertFalse(cb.allowRequest());
+		assertEquals(Long.valueOf(2), cb.getStatistics().get("openedCount"));
+	}
+
+	@Test
+	public void testHalfOpenTrialWithoutResult() throws InterruptedException {
+		CircuitBreaker cb = openBreaker();
+		Thread.sleep(OPEN_MILLIS + 20);
+		assertTrue(cb.allowRequest());
+		assertFalse(cb.allowRequest());
+		// the trial call never reported back, another call is let through
+		Thread.sleep(OPEN_MILLIS + 20);
+		assertTrue(cb.allowRequest());
+		assertEquals(State.HALF_OPEN, cb.getState());
+	}
+}
@@ -0,0 +1,68 @@
+package org.icube.owen.test.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import org.icube.owen.helper.ColumnIndex;
+import org.junit.Test;
+
+public class ColumnIndexTest {
+
+	/**
+	 * Result set which only answers the column count and labels of its metadata
+	 */
+	private static ResultSet buildResultSet(String... labels) {
+		ResultSetMetaData rsmd = (ResultSetMetaData) Proxy.newProxyInstance(ColumnIndexTest.class.getClassLoader(),
+				new Class<?>[] { ResultSetMetaData.class }, (proxy, method, args) -> {
+					if (method.getName().equals("getColumnCount")) {
+						return labels.length;
+					} else if (method.getName().equals("getColumnLabel")) {
+						return labels[(Integer) args[0] - 1];
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+		return (ResultSet) Proxy.newProxyInstance(ColumnIndexTest.class.getClassLoader(), new Class<?>[] { ResultSet.class }, (proxy,
+				method, args) -> {
+			if (method.getName().equals("getMetaData")) {
+				return rsmd;
+			}
+			throw new UnsupportedOperationException(method.getName());
+		});
+	}
+
+	@Test
+	public void testGet() throws SQLException {
+		ColumnIndex columns = ColumnIndex.of(buildResultSet("emp_id", "FirstName", "score"));
+		assertEquals(1, columns.get("emp_id"));
+		// labels are case insensitive
+		assertEquals(2, columns.get("firstName"));
+		assertEquals(2, columns.get("FIRSTNAME"));
+		assertEquals(3, columns.find("Score"));
+	}
+
+	@Test
+	public void testDuplicateLabel() throws SQLException {
+		// the first column wins, as with ResultSet.findColumn
+		ColumnIndex columns = ColumnIndex.of(buildResultSet("emp_id", "score", "Emp_Id"));
+		assertEquals(1, columns.get("emp_id"));
+	}
+
+	@Test
+	public void testMissingColumn() throws SQLException {
+		ColumnIndex columns = ColumnIndex.of(buildResultSet("emp_id"));
+		assertTrue(columns.hasColumn("EMP_ID"));
+		assertFalse(columns.hasColumn("score"));
+		assertEquals(0, columns.find("score"));
+	}
+
+	@Test(expected = SQLException.class)
+	public void testGetMissingColumn() throws SQLException {
+		ColumnIndex.of(buildResultSet("emp_id")).get("score");
+	}
+}
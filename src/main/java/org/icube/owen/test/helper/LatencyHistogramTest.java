@@ -0,0 +1,71 @@
+package org.icube.owen.test.helper;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.icube.owen.helper.LatencyHistogram;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	private static void record(LatencyHistogram histogram, int calls, long millis) {
+		for (int i = 0; i < calls; i++) {
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(millis), false);
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentileMillis(50));
+		assertEquals(Long.valueOf(0), histogram.toMap().get("averageMicros"));
+	}
+
+	@Test
+	public void testBuckets() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(TimeUnit.MICROSECONDS.toNanos(500), false);
+		// a duration on a bucket bound belongs to the next bucket
+		record(histogram, 1, 5);
+		record(histogram, 1, 9);
+		record(histogram, 1, 20000);
+		Map<String, Long> map = histogram.toMap();
+		assertEquals(Long.valueOf(1), map.get("lt1ms"));
+		assertEquals(Long.valueOf(0), map.get("lt5ms"));
+		assertEquals(Long.valueOf(2), map.get("lt10ms"));
+		assertEquals(Long.valueOf(1), map.get("ge10000ms"));
+		assertEquals(Long.valueOf(20000000), map.get("maxMicros"));
+	}
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		record(histogram, 90, 3);
+		record(histogram, 10, 30);
+		// the percentiles are the upper bounds of the buckets
+		assertEquals(5, histogram.getPercentileMillis(50));
+		assertEquals(5, histogram.getPercentileMillis(90));
+		assertEquals(50, histogram.getPercentileMillis(91));
+		assertEquals(50, histogram.getPercentileMillis(99));
+		assertEquals(Long.valueOf(5700), histogram.toMap().get("averageMicros"));
+
+		// above the last bucket
+		record(histogram, 100, 20000);
+		assertEquals(-1, histogram.getPercentileMillis(99));
+	}
+
+	@Test
+	public void testErrorsAndRows() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1000, true);
+		histogram.record(1000, false);
+		histogram.addRows(40);
+		histogram.addRows(2);
+		assertEquals(2, histogram.getCount());
+		assertEquals(1, histogram.getErrorCount());
+		assertEquals(Long.valueOf(42), histogram.toMap().get("rowCount"));
+	}
+}
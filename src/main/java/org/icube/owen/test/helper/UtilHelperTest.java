@@ -0,0 +1,47 @@
+package org.icube.owen.test.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.icube.owen.helper.UtilHelper;
+import org.junit.Test;
+
+public class UtilHelperTest {
+
+	@Test
+	public void testGetIdListChunksAtMaxLength() {
+		// "1,22,333" is exactly 8 characters
+		assertEquals(Arrays.asList("1,22,333"), UtilHelper.getIdListChunks(Arrays.asList(1, 22, 333), 8));
+		assertEquals(Arrays.asList("1,22", "333"), UtilHelper.getIdListChunks(Arrays.asList(1, 22, 333), 7));
+		assertEquals(Arrays.asList("1", "22", "333"), UtilHelper.getIdListChunks(Arrays.asList(1, 22, 333), 3));
+	}
+
+	@Test
+	public void testGetIdListChunksEdgeCases() {
+		assertTrue(UtilHelper.getIdListChunks(new ArrayList<>(), 10).isEmpty());
+		// an ID longer than maxLength still gets a chunk of its own
+		assertEquals(Arrays.asList("12345", "6"), UtilHelper.getIdListChunks(Arrays.asList(12345, 6), 3));
+	}
+
+	@Test
+	public void testGetIdListChunksKeepsAllIds() {
+		List<Integer> ids = new ArrayList<>();
+		for (int i = 1; i <= 5000; i++) {
+			ids.add(i);
+		}
+		List<String> chunks = UtilHelper.getIdListChunks(ids, 1000);
+		assertTrue(chunks.size() > 1);
+		List<Integer> joined = new ArrayList<>();
+		for (String chunk : chunks) {
+			assertTrue(chunk.length() <= 1000);
+			for (String id : chunk.split(",")) {
+				joined.add(Integer.valueOf(id));
+			}
+		}
+		assertEquals(ids, joined);
+	}
+}
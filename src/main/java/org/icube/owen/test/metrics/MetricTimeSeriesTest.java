@@ -0,0 +1,97 @@
+package org.icube.owen.test.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.icube.owen.metrics.MetricTimeSeries;
+import org.icube.owen.metrics.TimeSeriesWindow;
+import org.icube.owen.metrics.TimeSeriesWindow.Aggregation;
+import org.icube.owen.metrics.TimeSeriesWindow.Resolution;
+import org.junit.Test;
+
+public class MetricTimeSeriesTest {
+
+	private static long day(String date) {
+		return LocalDate.parse(date).toEpochDay();
+	}
+
+	/**
+	 * Points of three weeks out of order, two of them on 2016-01-04, and a point without calculation date
+	 */
+	private MetricTimeSeries buildSeries() {
+		return new MetricTimeSeries.Builder(1).add(day("2016-01-05"), 10).add(day("2016-01-04"), 20).add(day("2016-01-12"), 30).add(
+				MetricTimeSeries.NO_DATE, 50).add(day("2016-01-13"), 40).add(day("2016-01-20"), 60).add(day("2016-01-04"), 25).build();
+	}
+
+	private static TimeSeriesWindow weeks(Aggregation aggregation) {
+		return TimeSeriesWindow.of(null, null, Resolution.WEEK, aggregation);
+	}
+
+	@Test
+	public void testDownsampleAggregations() {
+		MetricTimeSeries series = buildSeries();
+		long[] weekStarts = { day("2016-01-04"), day("2016-01-11"), day("2016-01-18") };
+		assertArrayEquals(weekStarts, series.downsample(weeks(Aggregation.AVG)).getEpochDays());
+		// 55 / 3 is rounded down, 70 / 2 is exact
+		assertArrayEquals(new int[] { 18, 35, 60 }, series.downsample(weeks(Aggregation.AVG)).getScores());
+		assertArrayEquals(new int[] { 10, 30, 60 }, series.downsample(weeks(Aggregation.MIN)).getScores());
+		assertArrayEquals(new int[] { 25, 40, 60 }, series.downsample(weeks(Aggregation.MAX)).getScores());
+		// the last point of the first week is on 2016-01-05 even though it was added first
+		assertArrayEquals(new int[] { 10, 40, 60 }, series.downsample(weeks(Aggregation.LAST)).getScores());
+		assertEquals(1, series.downsample(weeks(Aggregation.LAST)).getMetricId());
+	}
+
+	@Test
+	public void testDownsampleAll() {
+		MetricTimeSeries series = buildSeries().downsample(TimeSeriesWindow.ALL);
+		// the point without calculation date is dropped and the last point of 2016-01-04 is kept
+		assertArrayEquals(new long[] { day("2016-01-04"), day("2016-01-05"), day("2016-01-12"), day("2016-01-13"), day("2016-01-20") },
+				series.getEpochDays());
+		assertArrayEquals(new int[] { 25, 10, 30, 40, 60 }, series.getScores());
+	}
+
+	@Test
+	public void testDownsampleWindow() {
+		MetricTimeSeries series = buildSeries();
+		TimeSeriesWindow window = TimeSeriesWindow.of(LocalDate.parse("2016-01-12"), LocalDate.parse("2016-01-12"), Resolution.WEEK,
+				Aggregation.MAX);
+		MetricTimeSeries result = series.downsample(window);
+		assertArrayEquals(new long[] { day("2016-01-11") }, result.getEpochDays());
+		assertArrayEquals(new int[] { 40 }, result.getScores());
+
+		window = TimeSeriesWindow.of(LocalDate.parse("2016-02-01"), null, Resolution.DAY, Aggregation.LAST);
+		assertEquals(0, series.downsample(window).size());
+		assertEquals(0, MetricTimeSeries.empty(1).downsample(TimeSeriesWindow.ALL).size());
+	}
+
+	@Test
+	public void testDownsampleClosedBuckets() {
+		MetricTimeSeries series = buildSeries();
+		Map<Long, Integer> closedBuckets = new HashMap<>();
+		series.downsample(weeks(Aggregation.AVG), closedBuckets);
+		// the week of the last point is still open and is not cached
+		assertEquals(2, closedBuckets.size());
+		assertEquals(Integer.valueOf(18), closedBuckets.get(day("2016-01-04")));
+		assertEquals(Integer.valueOf(35), closedBuckets.get(day("2016-01-11")));
+		assertFalse(closedBuckets.containsKey(day("2016-01-18")));
+
+		// a cached bucket is not aggregated again
+		closedBuckets.put(day("2016-01-04"), 99);
+		assertArrayEquals(new int[] { 99, 35, 60 }, series.downsample(weeks(Aggregation.AVG), closedBuckets).getScores());
+	}
+
+	@Test
+	public void testGetDate() {
+		MetricTimeSeries series = buildSeries();
+		assertEquals(java.sql.Date.valueOf("2016-01-05"), series.getDate(0));
+		assertNull(series.getDate(3));
+		assertEquals(7, series.toMapList().size());
+	}
+}
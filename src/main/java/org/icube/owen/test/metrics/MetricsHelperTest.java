@@ -2,6 +2,7 @@ package org.icube.owen.test.metrics;
 
 import static org.junit.Assert.assertNotNull;
 
+import java.sql.SQLException;
 import java.util.Map;
 
 import org.icube.owen.ObjectFactory;
@@ -13,7 +14,7 @@ public class MetricsHelperTest {
 	int companyId = 2;
 
 	@Test
-	public void testGetMetricListForCategory() {
+	public void testGetMetricListForCategory() throws SQLException {
 		Map<Integer, String> metricsMap = mh.getMetricListForCategory(companyId, "Team");
 		assertNotNull(metricsMap);
 	}
@@ -0,0 +1,79 @@
+package org.icube.owen.test.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+
+import org.icube.owen.metrics.MetricTimeSeries;
+import org.icube.owen.metrics.TimeSeriesWindow;
+import org.icube.owen.metrics.TimeSeriesWindow.Aggregation;
+import org.icube.owen.metrics.TimeSeriesWindow.Resolution;
+import org.junit.Test;
+
+public class TimeSeriesWindowTest {
+
+	private static long day(String date) {
+		return LocalDate.parse(date).toEpochDay();
+	}
+
+	@Test
+	public void testBucketStart() {
+		assertEquals(day("2016-01-06"), Resolution.DAY.bucketStart(day("2016-01-06")));
+		// weeks start on monday
+		assertEquals(day("2016-01-04"), Resolution.WEEK.bucketStart(day("2016-01-04")));
+		assertEquals(day("2016-01-04"), Resolution.WEEK.bucketStart(day("2016-01-10")));
+		assertEquals(day("1969-12-29"), Resolution.WEEK.bucketStart(day("1970-01-01")));
+		assertEquals(day("1969-12-29"), Resolution.WEEK.bucketStart(day("1969-12-31")));
+		assertEquals(day("2016-02-01"), Resolution.MONTH.bucketStart(day("2016-02-29")));
+		assertEquals(day("2016-04-01"), Resolution.QUARTER.bucketStart(day("2016-06-30")));
+		assertEquals(day("2016-10-01"), Resolution.QUARTER.bucketStart(day("2016-10-01")));
+	}
+
+	@Test
+	public void testNextBucketStart() {
+		assertEquals(day("2016-01-07"), Resolution.DAY.nextBucketStart(day("2016-01-06")));
+		assertEquals(day("2016-01-11"), Resolution.WEEK.nextBucketStart(day("2016-01-04")));
+		assertEquals(day("2016-03-01"), Resolution.MONTH.nextBucketStart(day("2016-02-01")));
+		assertEquals(day("2017-01-01"), Resolution.QUARTER.nextBucketStart(day("2016-10-01")));
+	}
+
+	@Test
+	public void testOfWidensToWholeBuckets() {
+		TimeSeriesWindow window = TimeSeriesWindow.of(LocalDate.parse("2016-01-06"), LocalDate.parse("2016-01-06"), Resolution.WEEK,
+				Aggregation.AVG);
+		assertEquals(day("2016-01-04"), window.getFromEpochDay());
+		assertEquals(day("2016-01-10"), window.getToEpochDay());
+		assertTrue(window.contains(day("2016-01-04")));
+		assertTrue(window.contains(day("2016-01-10")));
+		assertFalse(window.contains(day("2016-01-03")));
+		assertFalse(window.contains(day("2016-01-11")));
+
+		window = TimeSeriesWindow.of(LocalDate.parse("2016-02-15"), LocalDate.parse("2016-05-20"), Resolution.QUARTER, Aggregation.MAX);
+		assertEquals(day("2016-01-01"), window.getFromEpochDay());
+		assertEquals(day("2016-06-30"), window.getToEpochDay());
+	}
+
+	@Test
+	public void testOfOpenEnds() {
+		TimeSeriesWindow window = TimeSeriesWindow.of(null, null, Resolution.MONTH, Aggregation.LAST);
+		assertEquals(Long.MIN_VALUE, window.getFromEpochDay());
+		assertEquals(Long.MAX_VALUE, window.getToEpochDay());
+		assertTrue(window.contains(day("1900-01-01")));
+		// a point without calculation date is in no window
+		assertFalse(window.contains(MetricTimeSeries.NO_DATE));
+		assertFalse(TimeSeriesWindow.ALL.contains(MetricTimeSeries.NO_DATE));
+		assertTrue(TimeSeriesWindow.ALL.contains(day("2016-01-06")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOfStartsAfterEnd() {
+		TimeSeriesWindow.of(LocalDate.parse("2016-01-07"), LocalDate.parse("2016-01-06"), Resolution.DAY, Aggregation.LAST);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOfWithoutResolution() {
+		TimeSeriesWindow.of(null, null, null, Aggregation.LAST);
+	}
+}